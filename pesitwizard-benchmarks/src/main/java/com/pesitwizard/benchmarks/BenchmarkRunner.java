@@ -0,0 +1,51 @@
+package com.pesitwizard.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ *
+ * Accepts the regular JMH command line and writes the results as JSON unless
+ * another format is requested, so runs of two releases can be compared:
+ * java -jar target/benchmarks.jar [regexp] [-p entitySize=4096] [-prof gc]
+ * produces pesitwizard-benchmarks-&lt;version&gt;.json in the working directory
+ * (override with -rff).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            String extension = cmd.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase();
+            options.result("pesitwizard-benchmarks-" + version() + "." + extension);
+        }
+
+        Runner runner = new Runner(options.build());
+        if (cmd.shouldList() || cmd.shouldListWithParams()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+
+    private static String version() {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        return version != null ? version : "dev";
+    }
+}
@@ -0,0 +1,163 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.CompressionMode;
+import com.pesitwizard.fpdu.DtfEntityAssembler;
+
+/**
+ * PeSIT compression (PI 21) on representative record files: throughput of the
+ * encoder, the decoder and the compressing entity assembler.
+ *
+ * One operation processes a whole FILE_SIZE file, so MB/s is FILE_SIZE / time
+ * per operation. The compression ratio of each dataset and mode is printed
+ * once per trial, as the wire size is what matters on bandwidth-limited links.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /**
+     * EXPORT: 200-byte fixed-record export (padded text fields, repeated
+     * dates, zero-filled amounts). CARD: 80-column card images, mostly blank.
+     * RANDOM: incompressible 512-byte records (worst case).
+     */
+    @Param({ "EXPORT", "CARD", "RANDOM" })
+    public String dataset;
+
+    @Param({ "HORIZONTAL", "VERTICAL", "HORIZONTAL_VERTICAL" })
+    public String mode;
+
+    static final int FILE_SIZE = 1024 * 1024;
+    private static final int ENTITY_SIZE = 32768;
+
+    private CompressionMode compression;
+    private int recordLength;
+    private byte[] file;
+    private byte[][] encodedArticles;
+    private byte[] scratch;
+
+    @Setup
+    public void setUp() throws IOException {
+        compression = CompressionMode.valueOf(mode);
+        switch (dataset) {
+            case "EXPORT" -> {
+                recordLength = 200;
+                file = exportFile();
+            }
+            case "CARD" -> {
+                recordLength = 80;
+                file = cardFile();
+            }
+            default -> {
+                recordLength = 512;
+                file = new byte[FILE_SIZE];
+                new Random(42).nextBytes(file);
+            }
+        }
+
+        CompressionEncoder encoder = new CompressionEncoder(compression);
+        scratch = new byte[CompressionEncoder.maxEncodedLength(recordLength)];
+        int articles = (file.length + recordLength - 1) / recordLength;
+        encodedArticles = new byte[articles][];
+        long encodedSize = 0;
+        for (int i = 0; i < articles; i++) {
+            int offset = i * recordLength;
+            int length = Math.min(recordLength, file.length - offset);
+            encodedArticles[i] = Arrays.copyOf(scratch, encoder.encode(file, offset, length, scratch, 0));
+            encodedSize += encodedArticles[i].length;
+        }
+        long wireSize = assembleEntities();
+        System.out.printf("%n[compression] %s %s: %d -> %d bytes of articles (%.1f:1), %d bytes in DTF entities%n",
+                dataset, mode, file.length, encodedSize, (double) file.length / encodedSize, wireSize);
+    }
+
+    @Benchmark
+    public int encode() {
+        CompressionEncoder encoder = new CompressionEncoder(compression);
+        int total = 0;
+        for (int offset = 0; offset < file.length; offset += recordLength) {
+            total += encoder.encode(file, offset, Math.min(recordLength, file.length - offset), scratch, 0);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long decode() {
+        CompressionDecoder decoder = new CompressionDecoder(recordLength);
+        long total = 0;
+        for (byte[] article : encodedArticles) {
+            total += decoder.decode(ByteBuffer.wrap(article)).remaining();
+        }
+        return total;
+    }
+
+    /** Read, compress and pack the file into DTF entities, as the server READ path does */
+    @Benchmark
+    public long assemble() throws IOException {
+        return assembleEntities();
+    }
+
+    private long assembleEntities() throws IOException {
+        DtfEntityAssembler assembler = new DtfEntityAssembler(ENTITY_SIZE, recordLength,
+                new CompressionEncoder(compression));
+        var source = Channels.newChannel(new ByteArrayInputStream(file));
+        long wireBytes = 0;
+        while (assembler.fill(source, 1) > 0) {
+            wireBytes += assembler.fpdu().remaining();
+        }
+        return wireBytes;
+    }
+
+    private byte[] exportFile() {
+        String[] names = { "DUPONT", "MARTIN", "BERNARD", "DUBOIS", "THOMAS", "ROBERT" };
+        String[] cities = { "PARIS", "LYON", "MARSEILLE", "TOULOUSE" };
+        byte[] data = new byte[FILE_SIZE];
+        int records = FILE_SIZE / 200;
+        for (int i = 0; i < records; i++) {
+            String record = String.format("%010d%-30s%-20s%s%015d%-3s%-40s", i,
+                    names[i % names.length], cities[(i / 7) % cities.length], "20240131",
+                    (i * 37L) % 100000, "EUR", i % 10 == 0 ? "REGULARISATION" : "");
+            byte[] bytes = String.format("%-200s", record).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, data, i * 200, 200);
+        }
+        Arrays.fill(data, records * 200, data.length, (byte) ' ');
+        return data;
+    }
+
+    private byte[] cardFile() {
+        byte[] data = new byte[FILE_SIZE];
+        Arrays.fill(data, (byte) ' ');
+        for (int offset = 0; offset + 80 <= data.length; offset += 80) {
+            byte[] card = String.format("//STEP%04d EXEC PGM=IEFBR14", (offset / 80) % 10000)
+                    .getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(card, 0, data, offset, card.length);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pesitwizard.fpdu.FpduBufferPool;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduIO;
+import com.pesitwizard.fpdu.FpduReader;
+import com.pesitwizard.fpdu.FpduType;
+
+/**
+ * FpduReader on frames carrying several FPDUs back to back, as sent by
+ * partners that concatenate small DTFs into one transport frame.
+ * One operation drains one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcatenatedFrameBenchmark {
+
+    /** FPDUs per transport frame */
+    @Param({ "2", "8", "32" })
+    public int fpdusPerFrame;
+
+    /** Data bytes per DTF */
+    @Param({ "256", "1024" })
+    public int dtfDataSize;
+
+    private static final int FRAMES = 64;
+
+    private ByteArrayInputStream streamIn;
+    private FpduReader viewReader;
+    private FpduReader fpduReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] dtf = FpduBuilder.buildFpdu(FpduType.DTF, 1, 0, new byte[dtfDataSize]);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        for (int i = 0; i < fpdusPerFrame; i++) {
+            frame.write(dtf);
+        }
+        if (frame.size() > FpduBufferPool.MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Frame too large: " + frame.size());
+        }
+
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(framed);
+        for (int i = 0; i < FRAMES; i++) {
+            FpduIO.writeRawFpdu(out, frame.toByteArray());
+        }
+        streamIn = new ByteArrayInputStream(framed.toByteArray());
+        viewReader = new FpduReader(new DataInputStream(streamIn), new FpduBufferPool(1));
+        fpduReader = new FpduReader(new DataInputStream(streamIn), new FpduBufferPool(1));
+    }
+
+    @Benchmark
+    public void readViews(Blackhole bh) throws IOException {
+        rewindIfDrained();
+        do {
+            bh.consume(viewReader.readView().getDataLength());
+        } while (viewReader.hasPending());
+    }
+
+    @Benchmark
+    public void readFpdus(Blackhole bh) throws IOException {
+        rewindIfDrained();
+        do {
+            bh.consume(fpduReader.read());
+        } while (fpduReader.hasPending());
+    }
+
+    private void rewindIfDrained() {
+        if (streamIn.available() == 0) {
+            streamIn.reset();
+        }
+    }
+}
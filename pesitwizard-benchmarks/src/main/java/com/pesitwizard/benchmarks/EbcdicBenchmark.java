@@ -0,0 +1,122 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.ConnectMessageBuilder;
+import com.pesitwizard.fpdu.EbcdicCodePage;
+import com.pesitwizard.fpdu.EbcdicConverter;
+import com.pesitwizard.fpdu.EbcdicTranscoder;
+import com.pesitwizard.fpdu.FpduBuilder;
+
+/**
+ * EbcdicConverter throughput on record-sized buffers and on a whole CONNECT
+ * FPDU as exchanged with mainframe partners, and the bulk EbcdicTranscoder
+ * used for file data (PI 16 = EBCDIC) against the former per-byte table loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EbcdicBenchmark {
+
+    /** Buffer size in bytes */
+    @Param({ "80", "4096", "65535" })
+    public int size;
+
+    private byte[] ascii;
+    private byte[] ebcdic;
+    private byte[] connectAscii;
+    private byte[] connectEbcdic;
+
+    private final EbcdicTranscoder toAscii = EbcdicCodePage.CP297.toAscii();
+    private byte[] table; // same mapping, for the per-byte loop baseline
+    private byte[] target;
+    private ByteBuffer directSource;
+    private ByteBuffer directTarget;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] text = "PESIT WIZARD 0123456789 abcdefghijklmnopqrstuvwxyz\n".getBytes(StandardCharsets.US_ASCII);
+        ascii = new byte[size];
+        for (int i = 0; i < size; i++) {
+            ascii[i] = text[i % text.length];
+        }
+        ebcdic = EbcdicConverter.asciiToEbcdic(ascii);
+
+        connectAscii = FpduBuilder.buildFpdu(new ConnectMessageBuilder()
+                .demandeur("CLIENT").serveur("SERVER").writeAccess().build(1));
+        connectEbcdic = EbcdicConverter.convertFpduToEbcdic(connectAscii);
+
+        table = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            table[i] = toAscii.transcode((byte) i);
+        }
+        target = new byte[size];
+        directSource = ByteBuffer.allocateDirect(size).put(ebcdic).flip();
+        directTarget = ByteBuffer.allocateDirect(size);
+    }
+
+    @Benchmark
+    public byte[] asciiToEbcdic() {
+        return EbcdicConverter.asciiToEbcdic(ascii);
+    }
+
+    @Benchmark
+    public byte[] ebcdicToAscii() {
+        return EbcdicConverter.ebcdicToAscii(ebcdic);
+    }
+
+    /** Detection + conversion of an incoming CONNECT */
+    @Benchmark
+    public byte[] connectToAscii() {
+        return EbcdicConverter.toAscii(connectEbcdic);
+    }
+
+    @Benchmark
+    public byte[] connectToEbcdic() {
+        return EbcdicConverter.toClientEncoding(connectAscii, true);
+    }
+
+    /** Former implementation: allocate, then one lookup per byte */
+    @Benchmark
+    public byte[] tableLoop() {
+        byte[] result = new byte[ebcdic.length];
+        for (int i = 0; i < ebcdic.length; i++) {
+            result[i] = table[ebcdic[i] & 0xFF];
+        }
+        return result;
+    }
+
+    /** File data path: heap buffer to a reused buffer */
+    @Benchmark
+    public byte[] transcodeHeap() {
+        toAscii.transcode(ebcdic, 0, target, 0, ebcdic.length);
+        return target;
+    }
+
+    /** Direct buffers, eight bytes per read and write */
+    @Benchmark
+    public ByteBuffer transcodeDirect() {
+        directSource.rewind();
+        directTarget.clear();
+        toAscii.transcode(directSource, directTarget);
+        return directTarget;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.CreateMessageBuilder;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduType;
+
+/**
+ * Encoding throughput of FpduBuilder: a CREATE with PGIs, a single-article
+ * DTF and a full multi-article DTF entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FpduBuildBenchmark {
+
+    /** PI 25 entity size */
+    @Param({ "4096", "32768" })
+    public int entitySize;
+
+    /** PI 32 record length */
+    @Param({ "256", "1024" })
+    public int recordLength;
+
+    private Fpdu create;
+    private byte[] dtfData;
+    private List<byte[]> records;
+
+    @Setup
+    public void setUp() throws IOException {
+        create = new CreateMessageBuilder()
+                .filename("BENCH").transferId(1).variableFormat().recordLength(recordLength)
+                .maxEntitySize(entitySize).fileSizeKB(1024)
+                .build(1);
+        dtfData = new byte[entitySize - 6];
+        int articles = FpduBuilder.calculateArticlesPerEntity(recordLength, entitySize);
+        records = new ArrayList<>(articles);
+        for (int i = 0; i < articles; i++) {
+            records.add(new byte[recordLength]);
+        }
+    }
+
+    @Benchmark
+    public byte[] buildCreate() {
+        return FpduBuilder.buildFpdu(create);
+    }
+
+    @Benchmark
+    public byte[] buildDtf() {
+        return FpduBuilder.buildFpdu(FpduType.DTF, 1, 0, dtfData);
+    }
+
+    @Benchmark
+    public byte[] buildMultiArticleDtf() {
+        return FpduBuilder.buildMultiArticleDtf(1, records, entitySize);
+    }
+}
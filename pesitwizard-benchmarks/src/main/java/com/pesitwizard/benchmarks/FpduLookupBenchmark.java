@@ -0,0 +1,113 @@
+package com.pesitwizard.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterGroupIdentifier;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+
+/**
+ * Header and parameter identifier decoding: the lookup tables behind
+ * FpduType.from and fromId against the linear values() scan they replace.
+ *
+ * One operation decodes the header of every FPDU type and every identifier of
+ * a CREATE (PIs and PGIs), i.e. what FpduParser resolves for a typical
+ * session. End-to-end parse rates are in FpduParseBenchmark.parseCreate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FpduLookupBenchmark {
+
+    private final int[] headers = headers();
+    private final int[] parameterIds = { 9, 3, 4, 11, 12, 13, 17, 25, 30, 31, 32, 33, 40, 41, 42, 50, 51, 52, 61, 99 };
+
+    @Benchmark
+    public int fpduTypeTable() {
+        int found = 0;
+        for (int header : headers) {
+            found += FpduType.from(header >> 8, header & 0xFF).ordinal();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int fpduTypeScan() {
+        int found = 0;
+        for (int header : headers) {
+            found += scanFpduType(header >> 8, header & 0xFF).ordinal();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int parameterTable() {
+        int found = 0;
+        for (int id : parameterIds) {
+            ParameterIdentifier pi = ParameterIdentifier.fromId(id);
+            found += pi != null ? pi.getLength() : ParameterGroupIdentifier.fromId(id).getContainedPIs().length;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int parameterScan() {
+        int found = 0;
+        for (int id : parameterIds) {
+            ParameterIdentifier pi = scanPi(id);
+            found += pi != null ? pi.getLength() : scanPgi(id).getContainedPIs().length;
+        }
+        return found;
+    }
+
+    private static int[] headers() {
+        FpduType[] types = FpduType.values();
+        int[] headers = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            headers[i] = (types[i].getPhase() << 8) | types[i].getType();
+        }
+        return headers;
+    }
+
+    // Previous implementations, kept as the baseline
+
+    private static FpduType scanFpduType(int phase, int type) {
+        for (FpduType fpdu : FpduType.values()) {
+            if (fpdu.getPhase() == phase && fpdu.getType() == type) {
+                return fpdu;
+            }
+        }
+        return null;
+    }
+
+    private static ParameterIdentifier scanPi(int id) {
+        for (ParameterIdentifier pi : ParameterIdentifier.values()) {
+            if (pi.getId() == id) {
+                return pi;
+            }
+        }
+        return null;
+    }
+
+    private static ParameterGroupIdentifier scanPgi(int id) {
+        for (ParameterGroupIdentifier pgi : ParameterGroupIdentifier.values()) {
+            if (pgi.getId() == id) {
+                return pgi;
+            }
+        }
+        return null;
+    }
+}
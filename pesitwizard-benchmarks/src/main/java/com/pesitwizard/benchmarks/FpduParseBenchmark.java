@@ -0,0 +1,134 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pesitwizard.fpdu.CreateMessageBuilder;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBufferPool;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduIO;
+import com.pesitwizard.fpdu.FpduParser;
+import com.pesitwizard.fpdu.FpduReader;
+import com.pesitwizard.fpdu.FpduView;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+
+/**
+ * Parse throughput of the materializing FpduParser against the flyweight
+ * FpduView, for DTF entities and a CREATE with PGIs.
+ *
+ * Allocation per FPDU is reported by the GC profiler:
+ * java -jar target/benchmarks.jar FpduParseBenchmark -prof gc
+ * (gc.alloc.rate.norm = bytes allocated per operation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FpduParseBenchmark {
+
+    /** PI 25 entity size of the DTF */
+    @Param({ "4096", "32768" })
+    public int entitySize;
+
+    private static final int RECORD_LENGTH = 1024;
+    private static final int FRAMES = 64;
+
+    private byte[] dtf;
+    private ByteBuffer dtfBuffer;
+    private byte[] create;
+    private ByteBuffer createBuffer;
+    private final FpduView view = new FpduView();
+
+    private byte[] stream; // FRAMES framed DTFs as received on a socket
+    private ByteArrayInputStream streamIn;
+    private FpduReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        int articles = FpduBuilder.calculateArticlesPerEntity(RECORD_LENGTH, entitySize);
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < articles; i++) {
+            records.add(new byte[RECORD_LENGTH]);
+        }
+        dtf = FpduBuilder.buildMultiArticleDtf(1, records, entitySize);
+        dtfBuffer = ByteBuffer.wrap(dtf);
+
+        create = FpduBuilder.buildFpdu(new CreateMessageBuilder()
+                .filename("BENCH").transferId(1).recordLength(RECORD_LENGTH).maxEntitySize(entitySize)
+                .build(1));
+        createBuffer = ByteBuffer.wrap(create);
+
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(framed);
+        for (int i = 0; i < FRAMES; i++) {
+            FpduIO.writeRawFpdu(out, dtf);
+        }
+        stream = framed.toByteArray();
+        streamIn = new ByteArrayInputStream(stream);
+        reader = new FpduReader(new DataInputStream(streamIn), new FpduBufferPool(1));
+    }
+
+    @Benchmark
+    public Fpdu parseDtf() {
+        return new FpduParser(dtf).parse();
+    }
+
+    @Benchmark
+    public int viewDtf() {
+        dtfBuffer.clear();
+        return view.wrap(dtfBuffer).data().remaining();
+    }
+
+    @Benchmark
+    public Fpdu parseCreate() {
+        return new FpduParser(create).parse();
+    }
+
+    @Benchmark
+    public long viewCreate() {
+        createBuffer.clear();
+        return view.wrap(createBuffer).getParameterNumeric(ParameterIdentifier.PI_32_LONG_ARTICLE, 0);
+    }
+
+    /**
+     * Full receive path: length prefix + frame read + parse, one frame per op.
+     */
+    @Benchmark
+    public void readerReadView(Blackhole bh) throws IOException {
+        if (streamIn.available() == 0) {
+            streamIn.reset();
+        }
+        bh.consume(reader.readView().data().remaining());
+    }
+
+    @Benchmark
+    public void readerRead(Blackhole bh) throws IOException {
+        if (streamIn.available() == 0) {
+            streamIn.reset();
+        }
+        bh.consume(reader.read());
+    }
+}
@@ -0,0 +1,140 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.pesitwizard.fpdu.FpduBufferPool;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduIO;
+import com.pesitwizard.fpdu.FpduReader;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.FpduView;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterValue;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Minimal in-JVM PeSIT responder on a loopback socket.
+ *
+ * Receives with the same FpduReader/FpduView path as the server's
+ * TcpConnectionHandler and acknowledges every file-level FPDU, but sinks DTF
+ * payloads instead of writing them to storage, so the measurement covers the
+ * codec, framing and socket round trips only.
+ */
+@Slf4j
+final class LoopbackPesitServer implements AutoCloseable {
+    private static final int SERVER_CONNECTION_ID = 1;
+    private static final byte[] DIAG_OK = { 0, 0, 0 };
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final FpduBufferPool bufferPool = new FpduBufferPool(4);
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    LoopbackPesitServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptThread = Thread.ofVirtual().name("loopback-pesit-accept").start(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** DTF article bytes received since startup */
+    long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("loopback-pesit-conn").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Loopback accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 65536));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 8192));
+            FpduReader reader = new FpduReader(in, bufferPool);
+            try {
+                int clientId = 0;
+                FpduView view;
+                while ((view = reader.readView()) != null) {
+                    if (view.isDtf()) {
+                        // idSrc = article count, each article has a 2-byte length prefix
+                        bytesReceived.addAndGet(view.getDataLength() - 2L * view.getIdSrc());
+                        continue;
+                    }
+                    FpduType type = view.getFpduType();
+                    switch (type) {
+                        case CONNECT -> {
+                            clientId = view.getIdSrc();
+                            reply(out, FpduBuilder.buildFpdu(FpduType.ACONNECT, clientId, SERVER_CONNECTION_ID,
+                                    new ParameterValue(ParameterIdentifier.PI_06_VERSION, 2)));
+                        }
+                        case CREATE -> reply(out, FpduBuilder.buildFpdu(FpduType.ACK_CREATE, clientId, 0,
+                                new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK),
+                                new ParameterValue(ParameterIdentifier.PI_25_TAILLE_MAX_ENTITE,
+                                        (int) view.getParameterNumeric(ParameterIdentifier.PI_25_TAILLE_MAX_ENTITE,
+                                                FpduBufferPool.MAX_FRAME_SIZE))));
+                        case WRITE -> reply(out, FpduBuilder.buildFpdu(FpduType.ACK_WRITE, clientId, 0,
+                                new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK),
+                                new ParameterValue(ParameterIdentifier.PI_18_POINT_RELANCE, 0)));
+                        case SYN -> reply(out, FpduBuilder.buildFpdu(FpduType.ACK_SYN, clientId, 0,
+                                new ParameterValue(ParameterIdentifier.PI_20_NUM_SYNC,
+                                        (int) view.getParameterNumeric(ParameterIdentifier.PI_20_NUM_SYNC, 0))));
+                        case OPEN, CLOSE, TRANS_END, DESELECT -> reply(out, FpduBuilder.buildFpdu(
+                                type.getExpectedAck(), clientId, 0,
+                                new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK)));
+                        case DTF_END -> {
+                            // no acknowledgement, TRANS_END follows
+                        }
+                        case RELEASE -> {
+                            reply(out, FpduBuilder.buildFpdu(FpduType.RELCONF, clientId, SERVER_CONNECTION_ID));
+                            return;
+                        }
+                        default -> throw new IOException("Unexpected FPDU in loopback session: " + type);
+                    }
+                }
+            } finally {
+                reader.release();
+            }
+        } catch (EOFException | SocketException e) {
+            log.debug("Loopback connection closed: {}", e.getMessage());
+        } catch (IOException e) {
+            log.warn("Loopback connection failed: {}", e.getMessage());
+        }
+    }
+
+    private static void reply(DataOutputStream out, byte[] fpdu) throws IOException {
+        FpduIO.writeRawFpdu(out, fpdu);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
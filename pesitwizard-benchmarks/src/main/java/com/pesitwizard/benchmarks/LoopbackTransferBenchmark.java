@@ -0,0 +1,133 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.ConnectMessageBuilder;
+import com.pesitwizard.fpdu.CreateMessageBuilder;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.session.PesitSession;
+import com.pesitwizard.transport.TcpTransportChannel;
+
+/**
+ * End-to-end send of an in-memory file over a localhost socket: a
+ * PesitSession client against an in-JVM LoopbackPesitServer.
+ *
+ * The session is connected once per trial; one operation is a complete file
+ * transfer (CREATE, ORF, WRITE, multi-article DTFs, DTF.END, TRANS.END, CRF,
+ * DESELECT). Throughput in MB/s is PAYLOAD_SIZE / time per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackTransferBenchmark {
+
+    /** PI 25 entity size */
+    @Param({ "4096", "32768", "65535" })
+    public int entitySize;
+
+    /** PI 32 record length (capped to what fits in one entity) */
+    @Param({ "256", "1024", "4096" })
+    public int recordLength;
+
+    static final int PAYLOAD_SIZE = 8 * 1024 * 1024;
+    private static final int CONNECTION_ID = 1;
+    private static final byte[] DIAG_OK = { 0, 0, 0 };
+
+    private byte[] payload;
+    private int articleLength;
+    private int articlesPerEntity;
+    private LoopbackPesitServer server;
+    private PesitSession session;
+    private int serverConnId;
+    private int transferId;
+    private long transfers;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = new byte[PAYLOAD_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) ('A' + i % 26);
+        }
+        articleLength = Math.min(recordLength, entitySize - 8);
+        articlesPerEntity = FpduBuilder.calculateArticlesPerEntity(articleLength, entitySize);
+
+        server = new LoopbackPesitServer();
+        session = new PesitSession(new TcpTransportChannel("127.0.0.1", server.getPort()));
+        Fpdu aconnect = session.sendFpduWithAck(new ConnectMessageBuilder()
+                .demandeur("BENCH").serveur("LOOPBACK").writeAccess().build(CONNECTION_ID));
+        serverConnId = aconnect.getIdSrc();
+    }
+
+    @Benchmark
+    public long sendFile() throws Exception {
+        session.sendFpduWithAck(new CreateMessageBuilder()
+                .filename("BENCH").transferId(++transferId).variableFormat().recordLength(articleLength)
+                .maxEntitySize(entitySize).fileSizeKB(PAYLOAD_SIZE / 1024)
+                .build(serverConnId));
+        session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverConnId));
+        session.sendFpduWithAck(new Fpdu(FpduType.WRITE).withIdDst(serverConnId));
+
+        // Same entity layout as the client FpduWriter: one array per record
+        List<byte[]> articles = new ArrayList<>(articlesPerEntity);
+        for (int offset = 0; offset < payload.length; offset += articleLength) {
+            articles.add(Arrays.copyOfRange(payload, offset, Math.min(offset + articleLength, payload.length)));
+            if (articles.size() == articlesPerEntity) {
+                session.sendRawFpdu(FpduBuilder.buildMultiArticleDtf(serverConnId, articles, entitySize));
+                articles.clear();
+            }
+        }
+        if (!articles.isEmpty()) {
+            session.sendRawFpdu(FpduBuilder.buildMultiArticleDtf(serverConnId, articles, entitySize));
+        }
+
+        session.sendFpdu(new Fpdu(FpduType.DTF_END).withIdDst(serverConnId)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK)));
+        session.sendFpduWithAck(new Fpdu(FpduType.TRANS_END).withIdDst(serverConnId));
+        session.sendFpduWithAck(new Fpdu(FpduType.CLOSE).withIdDst(serverConnId)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK)));
+        session.sendFpduWithAck(new Fpdu(FpduType.DESELECT).withIdDst(serverConnId)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK)));
+        return ++transfers;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try {
+            session.sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(serverConnId).withIdSrc(CONNECTION_ID)
+                    .withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK)));
+        } finally {
+            session.close();
+            server.close();
+        }
+        // TRANS.END is acknowledged after the last DTF, so every byte must have arrived
+        long expected = transfers * PAYLOAD_SIZE;
+        if (server.getBytesReceived() != expected) {
+            throw new IOException("Loopback server received " + server.getBytesReceived()
+                    + " bytes, expected " + expected);
+        }
+    }
+}
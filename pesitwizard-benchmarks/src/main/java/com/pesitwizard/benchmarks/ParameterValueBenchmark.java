@@ -0,0 +1,62 @@
+package com.pesitwizard.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pesitwizard.fpdu.ParameterGroupIdentifier;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterValue;
+
+/**
+ * ParameterValue encoding cost (the value is encoded in the constructor) for
+ * the PI shapes found on the transfer path: numeric, diagnostic bytes,
+ * string and a PGI with nested PIs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterValueBenchmark {
+
+    private static final byte[] DIAG_OK = { 0, 0, 0 };
+
+    private int syncNumber;
+
+    @Benchmark
+    public ParameterValue numeric() {
+        return new ParameterValue(ParameterIdentifier.PI_20_NUM_SYNC, ++syncNumber);
+    }
+
+    @Benchmark
+    public ParameterValue longNumeric() {
+        return new ParameterValue(ParameterIdentifier.PI_42_MAX_RESERVATION, 1_048_576L);
+    }
+
+    @Benchmark
+    public ParameterValue diagnostic() {
+        return new ParameterValue(ParameterIdentifier.PI_02_DIAG, DIAG_OK);
+    }
+
+    @Benchmark
+    public ParameterValue string() {
+        return new ParameterValue(ParameterIdentifier.PI_12_NOM_FICHIER, "VIRTUAL_FILE");
+    }
+
+    @Benchmark
+    public ParameterValue group() {
+        return new ParameterValue(ParameterGroupIdentifier.PGI_30_ATTR_LOGIQUES,
+                new ParameterValue(ParameterIdentifier.PI_31_FORMAT_ARTICLE, 0x80),
+                new ParameterValue(ParameterIdentifier.PI_32_LONG_ARTICLE, 1024));
+    }
+}
@@ -0,0 +1,207 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pesitwizard.server.entity.TransferRecord;
+import com.pesitwizard.server.entity.TransferRecord.TransferDirection;
+import com.pesitwizard.server.entity.TransferSyncPoint;
+import com.pesitwizard.server.repository.TransferRecordRepository;
+import com.pesitwizard.server.repository.TransferSyncPointRepository;
+import com.pesitwizard.server.service.TransferProgressWriter;
+import com.pesitwizard.server.service.TransferService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Persistence of received sync points on an embedded H2 database (PostgreSQL
+ * mode, file storage), through the server's own JPA repositories: one
+ * TransferService.recordSyncPoint transaction per sync point, as the server
+ * did, against TransferProgressWriter, which coalesces the sync points of all
+ * running transfers and writes them as one JDBC batch per flush.
+ *
+ * One operation runs TRANSFERS concurrent transfers of syncPoints sync points
+ * each. The writer's scheduled flush is replaced by a flush every FLUSH_EVERY
+ * sync points per transfer. The commits issued by the transaction manager are
+ * counted and printed once per trial, per transfer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProgressPersistenceBenchmark {
+
+    @Param({ "WRITE_THROUGH", "WRITE_BEHIND" })
+    public String mode;
+
+    @Param({ "10", "100" })
+    public int syncPoints;
+
+    static final int TRANSFERS = 16;
+    static final int FLUSH_EVERY = 10;
+    private static final long SYNC_INTERVAL = 32768;
+
+    private Path directory;
+    private AnnotationConfigApplicationContext context;
+    private TransferService transferService;
+    private TransferProgressWriter progressWriter;
+    private CountingTransactionManager transactionManager;
+    private final List<String> transferIds = new ArrayList<>();
+    private long commitsAtStart;
+    private long transfers;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pesit-progress");
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:file:" + directory.resolve("db") + ";MODE=PostgreSQL");
+        dataSource.setUser("sa");
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> dataSource);
+        context.register(PersistenceConfig.class);
+        context.refresh();
+        transferService = context.getBean(TransferService.class);
+        progressWriter = context.getBean(TransferProgressWriter.class);
+        transactionManager = context.getBean(CountingTransactionManager.class);
+
+        for (int t = 0; t < TRANSFERS; t++) {
+            TransferRecord record = transferService.createTransfer("bench-" + t, "bench", "bench", "PARTNER",
+                    "FILE" + t, TransferDirection.RECEIVE, "127.0.0.1");
+            transferService.startTransfer(record.getTransferId(), syncPoints * SYNC_INTERVAL, null);
+            transferIds.add(record.getTransferId());
+        }
+        commitsAtStart = transactionManager.commits.get();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        long commits = transactionManager.commits.get() - commitsAtStart;
+        System.out.printf("%n[progress] %s, %d sync points: %.1f commits per transfer%n",
+                mode, syncPoints, (double) commits / transfers);
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long transfer() {
+        boolean writeBehind = "WRITE_BEHIND".equals(mode);
+        for (int sync = 1; sync <= syncPoints; sync++) {
+            for (String transferId : transferIds) {
+                if (writeBehind) {
+                    progressWriter.recordSyncPoint(transferId, sync * SYNC_INTERVAL);
+                } else {
+                    transferService.recordSyncPoint(transferId, sync * SYNC_INTERVAL);
+                }
+            }
+            if (writeBehind && sync % FLUSH_EVERY == 0) {
+                progressWriter.flush();
+            }
+        }
+        if (writeBehind) {
+            progressWriter.flush();
+        }
+        transfers += TRANSFERS;
+        return transactionManager.commits.get();
+    }
+
+    /**
+     * JpaTransactionManager counting the transactions it commits
+     */
+    static final class CountingTransactionManager extends JpaTransactionManager {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicLong commits = new AtomicLong();
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            super.doCommit(status);
+            commits.incrementAndGet();
+        }
+    }
+
+    /**
+     * The server's transfer persistence alone, on the data source registered
+     * by setUp(): the two entities, repositories and services involved, with
+     * the naming and batching settings the server runs with
+     */
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = TransferRecordRepository.class, includeFilters = @Filter(
+            type = FilterType.ASSIGNABLE_TYPE,
+            classes = { TransferRecordRepository.class, TransferSyncPointRepository.class }))
+    @Import({ TransferService.class, TransferProgressWriter.class })
+    static class PersistenceConfig {
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setManagedTypes(PersistenceManagedTypes.of(TransferRecord.class.getName(),
+                    TransferSyncPoint.class.getName()));
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "create",
+                    "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                    "hibernate.jdbc.batch_size", 50,
+                    "hibernate.order_updates", true));
+            return factory;
+        }
+
+        @Bean
+        CountingTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            CountingTransactionManager transactionManager = new CountingTransactionManager();
+            transactionManager.setEntityManagerFactory(entityManagerFactory);
+            return transactionManager;
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+}
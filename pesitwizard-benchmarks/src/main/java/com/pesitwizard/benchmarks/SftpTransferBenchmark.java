@@ -0,0 +1,146 @@
+package com.pesitwizard.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.Session;
+import com.pesitwizard.connector.sftp.SftpConnector;
+
+/**
+ * Upload then download of a file through an embedded SFTP server (Apache
+ * MINA SSHD) on localhost, one connector per transfer as the server does.
+ *
+ * NEW_SESSION opens an SSH session and an SFTP channel per transfer with
+ * JSch defaults, as SftpConnector did before pooling; POOLED goes through
+ * SftpConnector, whose sessions and channels are reused across connectors
+ * and whose downloads keep more READ requests in flight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SftpTransferBenchmark {
+
+    @Param({ "NEW_SESSION", "POOLED" })
+    public String mode;
+
+    @Param({ "65536", "8388608" })
+    public int fileSize;
+
+    private static final String USER = "bench";
+    private static final String PASSWORD = "bench";
+
+    private Path directory;
+    private SshServer server;
+    private Map<String, String> config;
+    private byte[] payload;
+    private byte[] buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pesit-sftp");
+        Files.createDirectories(directory.resolve("files"));
+        server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        CoreModuleProperties.TCP_NODELAY.set(server, true);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(directory.resolve("hostkey.ser")));
+        server.setPasswordAuthenticator((user, password, session) -> USER.equals(user) && PASSWORD.equals(password));
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(directory.resolve("files")));
+        server.start();
+        config = Map.of("host", "127.0.0.1", "port", String.valueOf(server.getPort()), "username", USER,
+                "password", PASSWORD);
+        payload = new byte[fileSize];
+        new Random(42).nextBytes(payload);
+        buffer = new byte[32768];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop(true);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long transfer() throws Exception {
+        return "POOLED".equals(mode) ? pooled() : newSession();
+    }
+
+    private long pooled() throws Exception {
+        SftpConnector connector = new SftpConnector();
+        connector.initialize(config);
+        try {
+            try (OutputStream out = connector.write("bench.bin")) {
+                out.write(payload);
+            }
+            try (InputStream in = connector.read("bench.bin")) {
+                return drain(in);
+            }
+        } finally {
+            connector.close();
+        }
+    }
+
+    private long newSession() throws Exception {
+        Session session = new JSch().getSession(USER, "127.0.0.1", server.getPort());
+        session.setPassword(PASSWORD);
+        session.setConfig("StrictHostKeyChecking", "no");
+        session.connect(30000);
+        try {
+            ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+            channel.connect();
+            try (OutputStream out = channel.put("bench.bin", ChannelSftp.OVERWRITE)) {
+                out.write(payload);
+            }
+            try (InputStream in = channel.get("bench.bin")) {
+                return drain(in);
+            } finally {
+                channel.disconnect();
+            }
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        for (int n; (n = in.read(buffer)) > 0;) {
+            total += n;
+        }
+        return total;
+    }
+}
@@ -5,51 +5,34 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Async configuration for background operations.
  *
- * <p>Provides three separate thread pools:
+ * <p>Provides two separate executors:
  * <ul>
- *   <li><b>transferExecutor</b> - For PeSIT transfer operations (send/receive)</li>
- *   <li><b>websocketExecutor</b> - For WebSocket message broadcasting (prevents blocking transfers)</li>
+ *   <li><b>transferExecutor</b> - For PeSIT transfer operations (send/receive), on virtual threads</li>
  *   <li><b>pluginExecutor</b> - For third-party event listeners (Kafka, monitoring, etc.)</li>
  * </ul>
+ *
+ * <p>WebSocket broadcasting runs on the delivery threads of TransferEventBus.
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     /**
-     * Thread pool for PeSIT transfer operations.
-     * Core: 4 threads, Max: 10 threads, Queue: 100 tasks
+     * Executor for PeSIT transfer operations: one virtual thread per transfer.
+     * Transfers block on sockets and storage, so they are not bounded here but
+     * by TransferDispatcher (per server, per partner and overall limits).
      */
     @Bean(name = "transferExecutor")
     public Executor transferExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("transfer-");
-        executor.initialize();
-        return executor;
-    }
-
-    /**
-     * Thread pool for WebSocket message broadcasting.
-     * Separate from transfer threads to prevent WebSocket issues from blocking transfers.
-     * Core: 2 threads, Max: 4 threads, Queue: 100 messages
-     */
-    @Bean(name = "websocketExecutor")
-    public Executor websocketExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("websocket-");
-        executor.initialize();
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("transfer-");
+        executor.setVirtualThreads(true);
         return executor;
     }
 
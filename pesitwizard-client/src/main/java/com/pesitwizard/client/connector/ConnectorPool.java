@@ -0,0 +1,515 @@
+package com.pesitwizard.client.connector;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pesitwizard.connector.ConfigParameter;
+import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.connector.ConnectorWriteChannel;
+import com.pesitwizard.connector.FileMetadata;
+import com.pesitwizard.connector.StorageConnector;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of initialized storage connectors per storage connection, so that a
+ * transfer does not rebuild clients and sessions or decrypt credentials.
+ *
+ * A thread-safe connector ({@link StorageConnector#isThreadSafe()}) is shared
+ * by every transfer of its connection. Other connectors are lent to one
+ * transfer at a time, at most maxTotal per connection, and up to maxIdle are
+ * kept for the next transfers. A connector idle for longer than
+ * validateAfterIdle is checked with testConnection() before being lent; idle
+ * connectors are closed after idleTimeout. A connector still borrowed after
+ * leakThreshold is reported once with the stack of the code that acquired it.
+ *
+ * A lease is given back by closing it, so callers keep their usual
+ * try/finally close. When the configuration of a connection changes, its
+ * connectors are closed as soon as they are no longer borrowed.
+ */
+@Slf4j
+@Component
+public class ConnectorPool {
+
+    /**
+     * Creates and initializes a connector for a connection
+     */
+    @FunctionalInterface
+    public interface ConnectorSupplier {
+        StorageConnector create() throws ConnectorException;
+    }
+
+    private final boolean enabled;
+    private final int maxTotal;
+    private final int maxIdle;
+    private final long idleTimeoutMs;
+    private final long validateAfterIdleMs;
+    private final long borrowTimeoutMs;
+    private final long leakThresholdMs;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+
+    public ConnectorPool(
+            @Value("${pesitwizard.connectors.pool.enabled:true}") boolean enabled,
+            @Value("${pesitwizard.connectors.pool.max-total:8}") int maxTotal,
+            @Value("${pesitwizard.connectors.pool.max-idle:4}") int maxIdle,
+            @Value("${pesitwizard.connectors.pool.idle-timeout-ms:300000}") long idleTimeoutMs,
+            @Value("${pesitwizard.connectors.pool.validate-after-idle-ms:30000}") long validateAfterIdleMs,
+            @Value("${pesitwizard.connectors.pool.borrow-timeout-ms:30000}") long borrowTimeoutMs,
+            @Value("${pesitwizard.connectors.pool.leak-threshold-ms:1800000}") long leakThresholdMs) {
+        this.enabled = enabled;
+        this.maxTotal = Math.max(1, maxTotal);
+        this.maxIdle = Math.max(0, maxIdle);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validateAfterIdleMs = validateAfterIdleMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+    }
+
+    /**
+     * Borrow a connector for a connection; close the returned connector to
+     * give it back.
+     *
+     * @param key         storage connection id
+     * @param fingerprint connector type and configuration; a different value
+     *                    retires the connectors pooled for the previous one
+     * @param supplier    creates a new connector when none can be reused
+     */
+    public StorageConnector acquire(String key, String fingerprint, ConnectorSupplier supplier)
+            throws ConnectorException {
+        if (!enabled) {
+            return supplier.create();
+        }
+        Pool pool = pools.compute(key, (k, current) -> {
+            if (current != null && current.fingerprint.equals(fingerprint)) {
+                return current;
+            }
+            if (current != null) {
+                current.retire();
+            }
+            return new Pool(k, fingerprint);
+        });
+        Lease lease = new Lease(pool, pool.borrow(supplier), leakThresholdMs > 0 ? new Throwable() : null);
+        leases.add(lease);
+        return lease;
+    }
+
+    /**
+     * Close the pooled connectors of a connection (updated or deleted);
+     * borrowed ones are closed when given back
+     */
+    public void invalidate(String key) {
+        Pool pool = pools.remove(key);
+        if (pool != null) {
+            pool.retire();
+        }
+    }
+
+    public int getIdleCount(String key) {
+        Pool pool = pools.get(key);
+        return pool != null ? pool.idleCount() : 0;
+    }
+
+    public int getBorrowedCount() {
+        return leases.size();
+    }
+
+    /**
+     * Close connectors idle for longer than idleTimeout and report leases
+     * held for longer than leakThreshold
+     */
+    @Scheduled(fixedDelayString = "${pesitwizard.connectors.pool.evict-interval-ms:60000}")
+    public void evict() {
+        long now = System.currentTimeMillis();
+        pools.values().forEach(pool -> pool.evictIdle(now - idleTimeoutMs));
+        if (leakThresholdMs <= 0) {
+            return;
+        }
+        for (Lease lease : leases) {
+            if (now - lease.acquiredAt > leakThresholdMs && lease.leakReported.compareAndSet(false, true)) {
+                log.warn("Storage connector for connection {} borrowed by {} {} s ago and not closed",
+                        lease.pool.key, lease.thread, (now - lease.acquiredAt) / 1000, lease.acquiredBy);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.keySet().forEach(this::invalidate);
+    }
+
+    private static void closeQuietly(String key, StorageConnector connector) {
+        try {
+            connector.close();
+        } catch (Exception e) {
+            log.warn("Error closing pooled connector for connection {}: {}", key, e.getMessage());
+        }
+    }
+
+    /** An idle or shared connector with its bookkeeping */
+    private static final class Entry {
+        final StorageConnector connector;
+        long lastUsed = System.currentTimeMillis();
+        int users;
+
+        Entry(StorageConnector connector) {
+            this.connector = connector;
+        }
+    }
+
+    /** Connectors of one storage connection */
+    private final class Pool {
+        final String key;
+        final String fingerprint;
+        final Deque<Entry> idle = new ArrayDeque<>();
+        Entry shared;
+        int total;
+        boolean retired;
+
+        Pool(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Connectors are created and validated outside the pool lock, so a
+         * slow connection does not hold up transfers returning theirs.
+         */
+        Entry borrow(ConnectorSupplier supplier) throws ConnectorException {
+            long deadline = System.currentTimeMillis() + borrowTimeoutMs;
+            while (true) {
+                Reservation reservation = reserve(deadline);
+                Entry entry = reservation.entry();
+                if (entry == null) {
+                    return create(supplier);
+                }
+                if (!reservation.validate()) {
+                    return entry;
+                }
+                if (isValid(entry)) {
+                    return entry.connector.isThreadSafe() ? share(entry) : entry;
+                }
+                discard(entry);
+            }
+        }
+
+        /**
+         * Take a pooled connector, or a slot to create one, waiting up to the
+         * deadline when maxTotal connectors are in use
+         */
+        private synchronized Reservation reserve(long deadline) throws ConnectorException {
+            while (true) {
+                if (shared != null) {
+                    if (shared.users > 0 || !needsValidation(shared)) {
+                        shared.users++;
+                        return new Reservation(shared, false);
+                    }
+                    // Detached while validated; it still counts in total
+                    Entry entry = shared;
+                    shared = null;
+                    entry.users = 1;
+                    return new Reservation(entry, true);
+                }
+                Entry entry = idle.pollFirst();
+                if (entry != null) {
+                    entry.users = 1;
+                    return new Reservation(entry, needsValidation(entry));
+                }
+                if (total < maxTotal) {
+                    total++;
+                    return new Reservation(null, false);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new ConnectorException(ConnectorException.ErrorCode.CONNECTION_FAILED,
+                            "No storage connector available for connection " + key + " within "
+                                    + borrowTimeoutMs + " ms (" + maxTotal + " in use)");
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ConnectorException("Interrupted while waiting for a storage connector", e);
+                }
+            }
+        }
+
+        /** Create a connector in a slot reserved by reserve() */
+        private Entry create(ConnectorSupplier supplier) throws ConnectorException {
+            StorageConnector connector;
+            try {
+                connector = supplier.create();
+            } catch (ConnectorException | RuntimeException e) {
+                discard(null);
+                throw e;
+            }
+            Entry entry = new Entry(connector);
+            entry.users = 1;
+            log.debug("Created {} connector for connection {}", connector.getType(), key);
+            return connector.isThreadSafe() ? share(entry) : entry;
+        }
+
+        /**
+         * Make a thread-safe connector the shared one; if another borrower
+         * shared one in the meantime, use that one and close this one
+         */
+        private Entry share(Entry entry) {
+            Entry current;
+            synchronized (this) {
+                if (shared == null) {
+                    shared = entry;
+                    return entry;
+                }
+                current = shared;
+                current.users++;
+            }
+            discard(entry);
+            return current;
+        }
+
+        /** Close a connector taken out of the pool and free its slot */
+        private void discard(Entry entry) {
+            if (entry != null) {
+                closeQuietly(key, entry.connector);
+            }
+            synchronized (this) {
+                total--;
+                notifyAll();
+            }
+        }
+
+        synchronized void release(Entry entry) {
+            entry.users--;
+            entry.lastUsed = System.currentTimeMillis();
+            if (entry == shared) {
+                if (retired && entry.users == 0) {
+                    closeQuietly(key, entry.connector);
+                    shared = null;
+                    total--;
+                }
+            } else if (retired || idle.size() >= maxIdle) {
+                closeQuietly(key, entry.connector);
+                total--;
+            } else {
+                idle.addFirst(entry);
+            }
+            notifyAll();
+        }
+
+        synchronized void evictIdle(long cutoff) {
+            idle.removeIf(entry -> {
+                if (entry.lastUsed >= cutoff) {
+                    return false;
+                }
+                closeQuietly(key, entry.connector);
+                total--;
+                return true;
+            });
+            if (shared != null && shared.users == 0 && shared.lastUsed < cutoff) {
+                closeQuietly(key, shared.connector);
+                shared = null;
+                total--;
+            }
+        }
+
+        synchronized void retire() {
+            retired = true;
+            idle.forEach(entry -> closeQuietly(key, entry.connector));
+            total -= idle.size();
+            idle.clear();
+            if (shared != null && shared.users == 0) {
+                closeQuietly(key, shared.connector);
+                shared = null;
+                total--;
+            }
+            notifyAll();
+        }
+
+        synchronized int idleCount() {
+            return idle.size() + (shared != null && shared.users == 0 ? 1 : 0);
+        }
+
+        private boolean needsValidation(Entry entry) {
+            return System.currentTimeMillis() - entry.lastUsed >= validateAfterIdleMs;
+        }
+
+        private boolean isValid(Entry entry) {
+            try {
+                if (entry.connector.testConnection()) {
+                    return true;
+                }
+            } catch (Exception e) {
+                log.debug("Pooled connector for connection {} failed validation: {}", key, e.getMessage());
+            }
+            log.info("Discarding pooled connector for connection {} after failed validation", key);
+            return false;
+        }
+    }
+
+    /**
+     * Connector taken from a pool, to validate before use when it has been
+     * idle for validateAfterIdle; no entry for a slot reserved to create one
+     */
+    private record Reservation(Entry entry, boolean validate) {
+    }
+
+    /** Connector lent to a caller; closing it gives the connector back */
+    private final class Lease implements StorageConnector {
+        final Pool pool;
+        final Entry entry;
+        final StorageConnector delegate;
+        final Throwable acquiredBy;
+        final String thread = Thread.currentThread().getName();
+        final long acquiredAt = System.currentTimeMillis();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean leakReported = new AtomicBoolean();
+
+        Lease(Pool pool, Entry entry, Throwable acquiredBy) {
+            this.pool = pool;
+            this.entry = entry;
+            this.delegate = entry.connector;
+            this.acquiredBy = acquiredBy;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                leases.remove(this);
+                pool.release(entry);
+            }
+        }
+
+        private StorageConnector connector() throws ConnectorException {
+            if (closed.get()) {
+                throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG,
+                        "Connector already given back to the pool");
+            }
+            return delegate;
+        }
+
+        @Override
+        public String getType() {
+            return delegate.getType();
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public String getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void initialize(Map<String, String> config) throws ConnectorException {
+            throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG,
+                    "Pooled connector is already initialized");
+        }
+
+        @Override
+        public boolean testConnection() throws ConnectorException {
+            return connector().testConnection();
+        }
+
+        @Override
+        public boolean exists(String path) throws ConnectorException {
+            return connector().exists(path);
+        }
+
+        @Override
+        public FileMetadata getMetadata(String path) throws ConnectorException {
+            return connector().getMetadata(path);
+        }
+
+        @Override
+        public List<FileMetadata> list(String path) throws ConnectorException {
+            return connector().list(path);
+        }
+
+        @Override
+        public InputStream read(String path) throws ConnectorException {
+            return connector().read(path);
+        }
+
+        @Override
+        public InputStream read(String path, long offset) throws ConnectorException {
+            return connector().read(path, offset);
+        }
+
+        @Override
+        public OutputStream write(String path) throws ConnectorException {
+            return connector().write(path);
+        }
+
+        @Override
+        public OutputStream write(String path, boolean append) throws ConnectorException {
+            return connector().write(path, append);
+        }
+
+        @Override
+        public boolean supportsChannels() {
+            return delegate.supportsChannels();
+        }
+
+        @Override
+        public ConnectorReadChannel openReadChannel(String path) throws ConnectorException {
+            return connector().openReadChannel(path);
+        }
+
+        @Override
+        public ConnectorWriteChannel openWriteChannel(String path, boolean append) throws ConnectorException {
+            return connector().openWriteChannel(path, append);
+        }
+
+        @Override
+        public void delete(String path) throws ConnectorException {
+            connector().delete(path);
+        }
+
+        @Override
+        public void mkdir(String path) throws ConnectorException {
+            connector().mkdir(path);
+        }
+
+        @Override
+        public void rename(String sourcePath, String targetPath) throws ConnectorException {
+            connector().rename(sourcePath, targetPath);
+        }
+
+        @Override
+        public List<ConfigParameter> getRequiredParameters() {
+            return delegate.getRequiredParameters();
+        }
+
+        @Override
+        public List<ConfigParameter> getOptionalParameters() {
+            return delegate.getOptionalParameters();
+        }
+
+        @Override
+        public boolean supportsResume() {
+            return delegate.supportsResume();
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return delegate.isThreadSafe();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pesitwizard.client.connector.ConnectorPool;
 import com.pesitwizard.client.connector.ConnectorRegistry;
 import com.pesitwizard.client.entity.StorageConnection;
 import com.pesitwizard.client.repository.StorageConnectionRepository;
@@ -38,6 +39,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ConnectorController {
 
     private final ConnectorRegistry connectorRegistry;
+    private final ConnectorPool connectorPool;
     private final StorageConnectionRepository connectionRepository;
     private final ObjectMapper objectMapper;
     private final SecretsService secretsService;
@@ -148,7 +150,9 @@ public class ConnectorController {
                 conn.setConfigJson(objectMapper.writeValueAsString(encryptedConfig));
                 if (request.enabled() != null)
                     conn.setEnabled(request.enabled());
-                return ResponseEntity.ok(connectionRepository.save(conn));
+                StorageConnection saved = connectionRepository.save(conn);
+                connectorPool.invalidate(id);
+                return ResponseEntity.ok(saved);
             } catch (JsonProcessingException e) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Invalid configuration"));
             }
@@ -160,6 +164,7 @@ public class ConnectorController {
         if (!connectionRepository.existsById(id))
             return ResponseEntity.notFound().build();
         connectionRepository.deleteById(id);
+        connectorPool.invalidate(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -1,5 +1,7 @@
 package com.pesitwizard.client.controller;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -43,6 +45,15 @@ public class TransferController {
         return transferService.sendFile(request);
     }
 
+    /**
+     * Send several files; files for the same partner share one PeSIT session
+     */
+    @PostMapping("/send/batch")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public List<TransferResponse> sendBatch(@RequestBody List<@Valid TransferRequest> requests) {
+        return transferService.sendBatch(requests);
+    }
+
     /**
      * Receive a file from a PeSIT server
      */
@@ -50,6 +50,9 @@ public class PesitServerDto {
     @Builder.Default
     private Integer readTimeout = 60000;
 
+    @Builder.Default
+    private boolean concatenateFpdus = false;
+
     @Builder.Default
     private boolean enabled = true;
 
@@ -77,6 +77,10 @@ public class PesitServer {
     @Builder.Default
     private Integer readTimeout = 60000;
 
+    /** Concatenate FPDUs sent back to back in one frame (PeSIT section 4.5) */
+    @Builder.Default
+    private boolean concatenateFpdus = false;
+
     /** Whether this server is enabled */
     @Builder.Default
     private boolean enabled = true;
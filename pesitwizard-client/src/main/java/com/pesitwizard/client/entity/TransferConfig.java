@@ -49,10 +49,10 @@ public class TransferConfig {
     @Builder.Default
     private boolean compressionEnabled = false;
 
-    /** Compression algorithm: 0=none, 1=horizontal, 2=vertical */
+    /** Compression algorithm: 0=any, 1=horizontal, 2=vertical, 3=both */
     @Builder.Default
     @Min(0)
-    @Max(2)
+    @Max(3)
     private Integer compressionType = 0;
 
     /** Enable CRC checking */
@@ -68,6 +68,12 @@ public class TransferConfig {
     @Min(1)
     private Integer syncPointInterval = 100;
 
+    /** Sync points that may await ACK_SYN while data keeps flowing (PI 7 window) */
+    @Builder.Default
+    @Min(1)
+    @Max(16)
+    private Integer syncAckWindow = 4;
+
     /** Enable resynchronization */
     @Builder.Default
     private boolean resyncEnabled = false;
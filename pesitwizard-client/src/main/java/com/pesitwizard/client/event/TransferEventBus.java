@@ -1,29 +1,41 @@
 package com.pesitwizard.client.event;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import com.pesitwizard.client.pesit.ClientState;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Central event bus for PeSIT transfer events.
  *
- * <p>This class publishes events to two channels:
+ * <p>{@link #publish} never blocks: it queues the event and returns. Events
+ * are delivered off the transfer threads to two independent sinks, each
+ * draining its own lock-free queue on its own (virtual) thread, in
+ * publication order:
  * <ul>
  *   <li><b>Spring ApplicationEventPublisher</b> - For pluggable integrations
  *       (Kafka, monitoring systems, metrics collectors, etc.). Plugins should
- *       implement {@code @EventListener} for {@link TransferEvent}. Published
- *       synchronously to maintain order.</li>
- *   <li><b>WebSocket topics</b> - For real-time UI updates. Published
- *       asynchronously to prevent blocking transfer threads if WebSocket
- *       encounters issues.</li>
+ *       implement {@code @EventListener} for {@link TransferEvent}.</li>
+ *   <li><b>WebSocket topics</b> - For real-time UI updates.</li>
  * </ul>
  *
+ * <p>PROGRESS events are conflated per transfer: while one waits in a sink,
+ * a newer one replaces it (latest wins) and keeps its place in the order. A
+ * slow sink therefore receives fewer progress events instead of a growing
+ * backlog; the other event types are always all delivered.
+ *
  * <h3>Creating a Plugin</h3>
  * <p>To monitor transfer events, create a Spring bean with {@code @EventListener}:
  * <pre>{@code
@@ -43,15 +55,18 @@ import lombok.extern.slf4j.Slf4j;
  * }
  * }</pre>
  *
- * <p><b>Important:</b> Synchronous event listeners should be fast (< 50ms). For
- * long-running operations, use {@code @Async("pluginExecutor")} or
+ * <p><b>Important:</b> Listeners run one after the other on the plugin
+ * sink thread, so a slow listener delays the others (never the transfers).
+ * For long-running operations, use {@code @Async("pluginExecutor")} or
  * {@code @TransactionalEventListener(phase = AFTER_COMMIT)} to process events
- * after database transactions complete.
+ * after database transactions complete. A listener exception is logged and
+ * does not stop delivery.
  *
  * <h3>WebSocket Topics</h3>
  * <ul>
  *   <li>{@code /topic/transfer/{transferId}/progress} - Individual transfer events</li>
- *   <li>{@code /topic/transfers} - All transfer events (broadcast)</li>
+ *   <li>{@code /topic/transfers} - All transfer events (broadcast), as a list
+ *       per delivery batch</li>
  * </ul>
  *
  * @see TransferEvent
@@ -61,18 +76,28 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class TransferEventBus {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final ApplicationEventPublisher eventPublisher;
-
     private static final String TOPIC_TRANSFER = "/topic/transfer/";
     private static final String TOPIC_PROGRESS_SUFFIX = "/progress";
     private static final String TOPIC_ALL = "/topic/transfers";
 
+    /** Most events handed to a sink at once */
+    static final int MAX_BATCH = 256;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<Sink> sinks;
+
+    public TransferEventBus(SimpMessagingTemplate messagingTemplate, ApplicationEventPublisher eventPublisher) {
+        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.sinks = List.of(new Sink("plugins", this::publishToPlugins),
+                new Sink("websocket", this::publishToWebSocket));
+    }
+
     /**
-     * Publishes a transfer event to both Spring event system and WebSocket topics.
+     * Queues a transfer event for plugins and WebSocket topics. Never blocks.
      *
      * @param event the transfer event to publish
      */
@@ -80,36 +105,37 @@ public class TransferEventBus {
         log.debug("Event: {} - {} for transfer {}", event.getType(),
                 event.getCurrentState() != null ? event.getCurrentState().getCode() : "",
                 event.getTransferId());
+        for (Sink sink : sinks) {
+            sink.offer(event);
+        }
+    }
 
-        // Publish to Spring event system for plugins (synchronous to maintain order)
-        // Plugins can use @Async("pluginExecutor") to process asynchronously
-        eventPublisher.publishEvent(event);
-
-        // Publish to WebSocket asynchronously to avoid blocking transfer threads
-        publishToWebSocketAsync(event);
+    private void publishToPlugins(List<TransferEvent> batch) {
+        for (TransferEvent event : batch) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Transfer event listener failed on {} for transfer {}: {}",
+                        event.getType(), event.getTransferId(), e.getMessage(), e);
+            }
+        }
     }
 
-    /**
-     * Publishes event to WebSocket topics asynchronously.
-     * Separate method with @Async to prevent WebSocket issues from blocking transfer threads.
-     *
-     * @param event the event to publish
-     */
-    @Async("websocketExecutor")
-    public void publishToWebSocketAsync(TransferEvent event) {
-        try {
-            // Publish to transfer-specific topic with /progress suffix
+    private void publishToWebSocket(List<TransferEvent> batch) {
+        for (TransferEvent event : batch) {
             if (event.getTransferId() != null) {
-                String destination = TOPIC_TRANSFER + event.getTransferId() + TOPIC_PROGRESS_SUFFIX;
-                messagingTemplate.convertAndSend(destination, event);
+                send(TOPIC_TRANSFER + event.getTransferId() + TOPIC_PROGRESS_SUFFIX, event);
             }
+        }
+        send(TOPIC_ALL, batch);
+    }
 
-            // Publish to broadcast topic
-            messagingTemplate.convertAndSend(TOPIC_ALL, event);
+    private void send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
         } catch (Exception e) {
-            // Log error but don't fail transfer if WebSocket has issues
-            log.error("Failed to publish WebSocket message for transfer {}: {}",
-                    event.getTransferId(), e.getMessage(), e);
+            // Log error but keep delivering later events
+            log.error("Failed to publish WebSocket message to {}: {}", destination, e.getMessage(), e);
         }
     }
 
@@ -175,4 +201,94 @@ public class TransferEventBus {
     public void cancelled(String transferId) {
         publish(TransferEvent.cancelled(transferId));
     }
+
+    /**
+     * One consumer of the bus: a lock-free queue drained in batches by a
+     * virtual thread, started when events arrive and ending once the queue is
+     * empty. Successive PROGRESS events of a transfer share one queue entry,
+     * updated in place until it is delivered or another event of the
+     * transfer is queued behind it.
+     */
+    private static final class Sink {
+        private final String name;
+        private final Consumer<List<TransferEvent>> delivery;
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+        /** Queued PROGRESS entry of each transfer still open to updates */
+        private final Map<String, Entry> openProgress = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Sink(String name, Consumer<List<TransferEvent>> delivery) {
+            this.name = name;
+            this.delivery = delivery;
+        }
+
+        void offer(TransferEvent event) {
+            String transferId = event.getTransferId();
+            Entry entry;
+            if (transferId == null) {
+                entry = new Entry(event);
+            } else if (event.getType() == TransferEvent.EventType.PROGRESS) {
+                Entry[] created = new Entry[1];
+                openProgress.compute(transferId, (id, open) -> {
+                    if (open != null) {
+                        open.event = event;
+                        return open;
+                    }
+                    return created[0] = new Entry(event);
+                });
+                if (created[0] == null) {
+                    return;
+                }
+                entry = created[0];
+            } else {
+                // Later progress must not overtake this event
+                openProgress.remove(transferId);
+                entry = new Entry(event);
+            }
+            queue.offer(entry);
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("transfer-events-" + name).start(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<TransferEvent> batch = new ArrayList<>();
+            while (true) {
+                Entry entry;
+                while (batch.size() < MAX_BATCH && (entry = queue.poll()) != null) {
+                    TransferEvent event = entry.event;
+                    if (event.getTransferId() != null) {
+                        // Closed first: an update racing with it starts a new entry
+                        openProgress.remove(event.getTransferId(), entry);
+                        event = entry.event;
+                    }
+                    batch.add(event);
+                }
+                if (!batch.isEmpty()) {
+                    try {
+                        delivery.accept(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Transfer events lost by {} sink: {}", name, e.getMessage(), e);
+                    }
+                    batch = new ArrayList<>();
+                    continue;
+                }
+                draining.set(false);
+                // An event queued after the last poll but before the reset
+                // found the sink draining: take it over unless another
+                // thread already did
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private volatile TransferEvent event;
+
+        Entry(TransferEvent event) {
+            this.event = event;
+        }
+    }
 }
@@ -1,22 +1,22 @@
 package com.pesitwizard.client.pesit;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 
 import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBufferPool;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.session.PesitSession;
 
 /**
  * Wrapper around the shared FpduReader for client-side usage with PesitSession.
  * This provides backward compatibility while using the shared concatenated FPDU handling.
+ * Data entities are received from the session channel into a pooled buffer.
  */
 public class FpduReader {
-    private final PesitSession session;
-    private com.pesitwizard.fpdu.FpduReader sharedReader;
+    private final com.pesitwizard.fpdu.FpduReader sharedReader;
 
     public FpduReader(PesitSession session) {
-        this.session = session;
+        this.sharedReader = new com.pesitwizard.fpdu.FpduReader(session::receiveRawFpdu, FpduBufferPool.shared());
     }
 
     /**
@@ -24,19 +24,28 @@ public class FpduReader {
      * Handles both single and concatenated FPDUs transparently.
      */
     public Fpdu read() throws IOException {
-        // Lazy initialization: read raw data and create shared reader for each data entity
-        if (sharedReader == null || !sharedReader.hasPending()) {
-            byte[] rawData = session.receiveRawFpdu();
-            sharedReader = new com.pesitwizard.fpdu.FpduReader(
-                new DataInputStream(new ByteArrayInputStream(rawData)));
-        }
         return sharedReader.read();
     }
 
+    /**
+     * Read the next FPDU as a flyweight view (no allocation, valid until the
+     * next read). Preferred for DTF loops.
+     */
+    public FpduView readView() throws IOException {
+        return sharedReader.readView();
+    }
+
     /**
      * Check if there are buffered FPDUs waiting to be read.
      */
     public boolean hasPending() {
-        return sharedReader != null && sharedReader.hasPending();
+        return sharedReader.hasPending();
+    }
+
+    /**
+     * Give the receive buffer back to the pool.
+     */
+    public void release() {
+        sharedReader.release();
     }
 }
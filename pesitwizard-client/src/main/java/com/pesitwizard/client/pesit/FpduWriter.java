@@ -2,9 +2,15 @@ package com.pesitwizard.client.pesit;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.DtfEntityAssembler;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduBuilder;
 import com.pesitwizard.fpdu.FpduType;
@@ -18,6 +24,13 @@ import lombok.extern.slf4j.Slf4j;
  * Handles automatic chunking of data based on negotiated PI_25 (max entity
  * size)
  * and optional multi-article DTF (DTFMA) for variable-length records.
+ * With a CompressionEncoder (PI 21 negotiated), each DTF carries one
+ * compressed article.
+ * Data can also be taken from a connector read channel: large uncompressed
+ * regions of a local file are then sent to the socket without being copied,
+ * and records shorter than half an entity are packed into multi-article
+ * entities filling PI_25, each built in a reusable buffer and sent in one
+ * write.
  */
 @Slf4j
 public class FpduWriter {
@@ -29,6 +42,10 @@ public class FpduWriter {
     private final int maxEntitySize; // PI_25 negotiated value
     private final int recordLength; // PI_32 article/record size (0 = variable)
     private final boolean useMultiArticle; // Use DTFMA for variable records
+    private final CompressionEncoder encoder; // null = no compression
+    private final byte[] encoded;
+    private byte[] chunk; // reusable read buffer for channel sources
+    private DtfEntityAssembler entity; // record packing, created on first use
 
     private long totalBytesSent = 0;
 
@@ -50,21 +67,47 @@ public class FpduWriter {
      */
     public FpduWriter(PesitSession session, int serverConnectionId, int maxEntitySize,
             int recordLength, boolean useMultiArticle) {
+        this(session, serverConnectionId, maxEntitySize, recordLength, useMultiArticle, null);
+    }
+
+    /**
+     * Create a writer compressing DTF payloads.
+     *
+     * @param encoder PI 21 compression stage, null for none
+     */
+    public FpduWriter(PesitSession session, int serverConnectionId, int maxEntitySize,
+            int recordLength, boolean useMultiArticle, CompressionEncoder encoder) {
         this.session = session;
         this.serverConnectionId = serverConnectionId;
         this.maxEntitySize = maxEntitySize > 0 ? maxEntitySize : 4096; // Default 4KB
         this.recordLength = recordLength;
-        this.useMultiArticle = useMultiArticle && recordLength > 0;
+        this.useMultiArticle = useMultiArticle && recordLength > 0 && encoder == null;
+        this.encoder = encoder;
+        this.encoded = encoder != null ? new byte[this.maxEntitySize - FPDU_HEADER_SIZE] : null;
 
         log.debug("FpduWriter created: maxEntitySize={}, recordLength={}, useMultiArticle={}",
                 this.maxEntitySize, this.recordLength, this.useMultiArticle);
     }
 
     /**
-     * Get maximum data size per DTF FPDU.
+     * Largest entity that carries no more than syncInterval data bytes of
+     * recordLength records (at least one record), capped by maxEntitySize.
+     */
+    public static int entitySizeForSyncInterval(int maxEntitySize, int recordLength, long syncInterval) {
+        if (syncInterval <= 0 || recordLength <= 0) {
+            return maxEntitySize;
+        }
+        long records = Math.max(1, syncInterval / recordLength);
+        return (int) Math.min(maxEntitySize, FPDU_HEADER_SIZE + records * (ARTICLE_PREFIX_SIZE + recordLength));
+    }
+
+    /**
+     * Get maximum data size per DTF FPDU (before compression, so that an
+     * incompressible chunk still fits).
      */
     public int getMaxDataPerDtf() {
-        return maxEntitySize - FPDU_HEADER_SIZE;
+        int space = maxEntitySize - FPDU_HEADER_SIZE;
+        return encoder != null ? CompressionEncoder.maxArticleLength(space) : space;
     }
 
     /**
@@ -88,7 +131,7 @@ public class FpduWriter {
         int bytesRead;
 
         while ((bytesRead = inputStream.read(buffer)) != -1) {
-            byte[] chunk = bytesRead == buffer.length ? buffer : java.util.Arrays.copyOf(buffer, bytesRead);
+            byte[] chunk = bytesRead == buffer.length ? buffer : Arrays.copyOf(buffer, bytesRead);
             writeDtf(chunk);
 
             if (callback != null) {
@@ -126,6 +169,86 @@ public class FpduWriter {
         }
     }
 
+    /**
+     * Check if records are packed into multi-article entities: the record
+     * length is known and at least two records (compressed in the worst case)
+     * fit in an entity.
+     */
+    public boolean packsRecords() {
+        if (recordLength <= 0) {
+            return false;
+        }
+        int articleSize = encoder != null ? CompressionEncoder.maxEncodedLength(recordLength) : recordLength;
+        return FpduBuilder.calculateArticlesPerEntity(articleSize, maxEntitySize) > 1;
+    }
+
+    /**
+     * Fill the next multi-article entity with records read from the source.
+     *
+     * @return data bytes in the entity, 0 once the source is exhausted
+     */
+    public int fillEntity(ReadableByteChannel source) throws IOException {
+        if (entity == null) {
+            entity = new DtfEntityAssembler(maxEntitySize, recordLength, encoder);
+        }
+        return entity.fill(source, serverConnectionId);
+    }
+
+    /**
+     * Send the entity filled by fillEntity in a single write.
+     *
+     * @return data bytes sent
+     */
+    public int sendEntity() throws IOException {
+        session.sendEntity(entity);
+        int length = entity.getDataLength();
+        totalBytesSent += length;
+        log.debug("Sent DTF: {} articles, {} bytes data, total: {}",
+                entity.getArticleCount(), length, totalBytesSent);
+        return length;
+    }
+
+    /**
+     * Write length bytes of the source, starting at position, as one DTF.
+     * Without compression, when the source is native (a local file channel)
+     * and the transport can write the payload directly, the region goes to
+     * the socket with transferTo; otherwise it is read into a reusable buffer.
+     *
+     * @param source   read channel of the file being sent
+     * @param position file position of the first byte
+     * @param length   bytes to send, at most getMaxDataPerDtf()
+     * @param zeroCopy true if the source channel is native to its connector
+     * @return bytes sent, less than length only at end of file
+     */
+    public int writeDtf(ConnectorReadChannel source, long position, int length, boolean zeroCopy)
+            throws IOException {
+        if (length <= 0) {
+            return 0;
+        }
+        if (encoder == null && zeroCopy && session.supportsDirectPayload(length)) {
+            session.sendFpduWithPayload(new Fpdu(FpduType.DTF).withIdDst(serverConnectionId), length,
+                    target -> source.transferTo(position, length, target));
+            totalBytesSent += length;
+            log.debug("Sent DTF: {} bytes (direct), total: {}", length, totalBytesSent);
+            return length;
+        }
+
+        if (chunk == null) {
+            chunk = new byte[getMaxDataPerDtf()];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, length);
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        int read = buffer.position();
+        if (read > 0) {
+            sendSingleDtf(read == chunk.length ? chunk : Arrays.copyOf(chunk, read));
+        }
+        return read;
+    }
+
     /**
      * Write multiple articles as a single DTFMA FPDU if they fit,
      * otherwise split across multiple DTFMAs.
@@ -134,6 +257,13 @@ public class FpduWriter {
         if (articles == null || articles.isEmpty()) {
             return;
         }
+        if (encoder != null) {
+            // Compressed articles go one per DTF
+            for (byte[] article : articles) {
+                writeDtf(article);
+            }
+            return;
+        }
 
         int maxDataPerDtf = getMaxDataPerDtf();
         List<byte[]> currentBatch = new ArrayList<>();
@@ -175,8 +305,12 @@ public class FpduWriter {
     private void sendSingleDtf(byte[] data) throws IOException {
         Fpdu dtfFpdu = new Fpdu(FpduType.DTF)
                 .withIdDst(serverConnectionId);
+        byte[] payload = data;
+        if (encoder != null) {
+            payload = Arrays.copyOf(encoded, encoder.encode(data, 0, data.length, encoded, 0));
+        }
         try {
-            session.sendFpduWithData(dtfFpdu, data);
+            session.sendFpduWithData(dtfFpdu, payload);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Interrupted while sending DTF", e);
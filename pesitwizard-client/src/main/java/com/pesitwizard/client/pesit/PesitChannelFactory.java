@@ -14,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Factory for creating PeSIT transport channels.
  * Handles TCP and TLS connections with appropriate timeout configuration.
+ * Client channels coalesce writes: FPDUs sent without waiting for an answer
+ * (DTFs, ACK_SYN, DTF.END) go out with the next receive.
  */
 @Slf4j
 @Component
@@ -56,6 +58,7 @@ public class PesitChannelFactory {
     private TcpTransportChannel createTcpChannel(PesitServer server, int timeout) {
         TcpTransportChannel channel = new TcpTransportChannel(server.getHost(), server.getPort());
         channel.setReceiveTimeout(timeout);
+        channel.setWriteCoalescing(true);
         return channel;
     }
 
@@ -75,10 +78,15 @@ public class PesitChannelFactory {
         }
 
         tlsChannel.setReceiveTimeout(timeout);
+        tlsChannel.setWriteCoalescing(true);
         return tlsChannel;
     }
 
-    private int calculateTimeout(PesitServer server, long fileSize) {
+    /**
+     * Receive timeout for a transfer of the given file size: the server read
+     * timeout plus one minute per 50 MB, capped at 30 minutes.
+     */
+    public int calculateTimeout(PesitServer server, long fileSize) {
         int baseTimeout = server.getReadTimeout() != null ? server.getReadTimeout() : DEFAULT_TIMEOUT_MS;
 
         if (fileSize <= 0) {
@@ -0,0 +1,94 @@
+package com.pesitwizard.client.pesit;
+
+import static com.pesitwizard.fpdu.ParameterIdentifier.*;
+
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.session.PesitSession;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A PeSIT session past CONNECT/ACONNECT: the session with both connection ids
+ * and the ACONNECT that carries what the server accepted (PI 7, PI 25).
+ * Several file transfers can run over it one after the other, each ending
+ * with DESELECT back in the connected state.
+ */
+@Slf4j
+public final class PesitConnection implements AutoCloseable {
+
+    @Getter
+    private final PesitSession session;
+    @Getter
+    private final int connectionId;
+    @Getter
+    private final int serverConnId;
+    @Getter
+    private final Fpdu aconnect;
+    @Getter
+    private int transferCount;
+    @Getter
+    private long lastUsed = System.currentTimeMillis();
+    private boolean broken;
+
+    public PesitConnection(PesitSession session, int connectionId, Fpdu aconnect) {
+        this.session = session;
+        this.connectionId = connectionId;
+        this.serverConnId = aconnect.getIdSrc();
+        this.aconnect = aconnect;
+    }
+
+    /**
+     * A file transfer ended with DESELECT acknowledged
+     */
+    public void transferCompleted() {
+        transferCount++;
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * The session is in an unknown state (transport error, ABORT, failure in
+     * the middle of a file): it must not carry another transfer.
+     */
+    public void markBroken() {
+        broken = true;
+    }
+
+    public boolean isReusable() {
+        return !broken && session.isConnected();
+    }
+
+    /**
+     * End the session with RELEASE/RELCONF, then close the transport.
+     * Errors are logged: the connection is gone either way.
+     */
+    public void release() {
+        try {
+            if (isReusable()) {
+                session.sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(serverConnId).withIdSrc(connectionId)
+                        .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })));
+            }
+        } catch (Exception e) {
+            log.debug("RELEASE failed on connection {}: {}", serverConnId, e.getMessage());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Close the transport without RELEASE
+     */
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (Exception e) {
+            log.debug("Error closing connection {}: {}", serverConnId, e.getMessage());
+        }
+    }
+}
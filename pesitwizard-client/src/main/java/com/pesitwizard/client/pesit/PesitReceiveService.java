@@ -3,14 +3,13 @@ package com.pesitwizard.client.pesit;
 import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.pesitwizard.client.connector.ConnectorRegistry;
@@ -19,14 +18,19 @@ import com.pesitwizard.client.entity.PesitServer;
 import com.pesitwizard.client.entity.TransferConfig;
 import com.pesitwizard.client.entity.TransferHistory.TransferStatus;
 import com.pesitwizard.client.event.TransferEventBus;
+import com.pesitwizard.client.pesit.TransferDispatcher.Lane;
 import com.pesitwizard.client.repository.TransferHistoryRepository;
 import com.pesitwizard.client.service.RestartRequiredException;
 import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorWriteChannel;
 import com.pesitwizard.connector.StorageConnector;
 import com.pesitwizard.exception.PesitException;
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.ConnectMessageBuilder;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.fpdu.ParameterGroupIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.security.SecretsService;
@@ -50,6 +54,7 @@ public class PesitReceiveService {
     private static final int MAX_RESTART_ATTEMPTS = 3;
 
     private final PesitChannelFactory channelFactory;
+    private final TransferDispatcher dispatcher;
     private final StorageConnectorFactory connectorFactory;
     private final ConnectorRegistry connectorRegistry;
     private final SecretsService secretsService;
@@ -58,16 +63,24 @@ public class PesitReceiveService {
     private final ObservationRegistry observationRegistry;
 
     /**
-     * Exécute la réception de fichier de manière asynchrone avec télémétrie.
+     * Met la réception en file sur le dispatcher, dans la voie de sa priorité,
+     * puis l'exécute avec télémétrie.
      */
-    @Async("transferExecutor")
     public void receiveFileAsync(TransferRequest request, String historyId, PesitServer server,
             TransferConfig config, String resolvedFilename, String correlationId, Set<String> cancelledTransfers) {
-        Observation.createNotStarted("pesit.receive", observationRegistry)
-                .lowCardinalityKeyValue("pesit.direction", "RECEIVE")
-                .highCardinalityKeyValue("pesit.server", request.getServer())
-                .highCardinalityKeyValue("correlation.id", correlationId)
-                .observe(() -> receiveFile(request, historyId, server, config, resolvedFilename, cancelledTransfers));
+        dispatcher.submit(server.getId(), request.getPartnerId(), Lane.of(request, config),
+                () -> Observation.createNotStarted("pesit.receive", observationRegistry)
+                        .lowCardinalityKeyValue("pesit.direction", "RECEIVE")
+                        .highCardinalityKeyValue("pesit.server", request.getServer())
+                        .highCardinalityKeyValue("correlation.id", correlationId)
+                        .observe(() -> receiveFile(request, historyId, server, config, resolvedFilename,
+                                cancelledTransfers)),
+                reason -> {
+                    log.error("Receive {} FAILED: {}", historyId, reason);
+                    cancelledTransfers.remove(historyId);
+                    updateHistoryFailed(historyId, reason, null);
+                    new TransferContext(historyId, eventBus).error(reason, null);
+                });
     }
 
     /**
@@ -90,7 +103,7 @@ public class PesitReceiveService {
                 }
 
                 connector = destConnId != null
-                        ? connectorFactory.createFromConnectionId(destConnId)
+                        ? connectorFactory.acquire(destConnId)
                         : connectorRegistry.createConnector("local", Map.of());
 
                 TransportChannel channel = channelFactory.createChannel(server);
@@ -169,14 +182,24 @@ public class PesitReceiveService {
                 .withParameter(pgi9)
                 .withParameter(new ParameterValue(PI_13_ID_TRANSFERT, transferId))
                 .withParameter(new ParameterValue(PI_14_ATTRIBUTS_DEMANDES, 0))
-                .withParameter(new ParameterValue(PI_17_PRIORITE, 0))
+                .withParameter(new ParameterValue(PI_17_PRIORITE, Lane.of(request, config).pi17()))
                 .withParameter(new ParameterValue(PI_25_TAILLE_MAX_ENTITE, chunkSize));
 
         Fpdu ackSelect = session.sendFpduWithAck(selectFpdu);
         long expectedSize = parseFileSize(ackSelect);
 
-        // OPEN
-        session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverConnId));
+        // OPEN, avec négociation de la compression (PI 21)
+        boolean compressionEnabled = request.getCompressionEnabled() != null ? request.getCompressionEnabled()
+                : config.isCompressionEnabled();
+        CompressionMode compression = CompressionMode.of(compressionEnabled,
+                config.getCompressionType() != null ? config.getCompressionType() : 0);
+        Fpdu openFpdu = new Fpdu(FpduType.OPEN).withIdDst(serverConnId);
+        if (compression.isEnabled()) {
+            openFpdu.withParameter(new ParameterValue(PI_21_COMPRESSION, compression.toPi21()));
+        }
+        Fpdu ackOpen = session.sendFpduWithAck(openFpdu);
+        ParameterValue pi21 = ackOpen.getParameter(PI_21_COMPRESSION);
+        compression = compression.intersect(CompressionMode.fromPi21(pi21 != null ? pi21.getValue() : null));
 
         // READ avec point de reprise
         if (restartPoint > 0) {
@@ -187,12 +210,13 @@ public class PesitReceiveService {
 
         // Recevoir les données
         return receiveData(session, serverConnId, connectionId, connector, destPath, expectedSize,
-                ctx, restartPoint, restartBytePos, cancelledTransfers);
+                ctx, restartPoint, restartBytePos, compression.isEnabled() ? new CompressionDecoder() : null,
+                cancelledTransfers);
     }
 
     private long receiveData(PesitSession session, int serverConnId, int connectionId,
             StorageConnector connector, String destPath, long expectedSize, TransferContext ctx,
-            int restartPoint, long restartBytePos, Set<String> cancelledTransfers)
+            int restartPoint, long restartBytePos, CompressionDecoder decoder, Set<String> cancelledTransfers)
             throws IOException, InterruptedException, ConnectorException, RestartRequiredException {
 
         long totalBytes = restartBytePos;
@@ -201,8 +225,9 @@ public class PesitReceiveService {
         boolean interrupted = false;
         int restartCode = 0;
 
-        OutputStream os = null;
+        ConnectorWriteChannel out = null;
         RandomAccessFile raf = null;
+        FpduReader reader = null;
 
         try {
             if (restartBytePos > 0) {
@@ -210,10 +235,10 @@ public class PesitReceiveService {
                 raf.seek(restartBytePos);
                 raf.setLength(restartBytePos);
             } else {
-                os = connector.write(destPath, false);
+                out = connectorFactory.openWriteChannel(connector, destPath, false);
             }
 
-            FpduReader reader = new FpduReader(session);
+            reader = new FpduReader(session);
             boolean receiving = true;
             long lastProgressUpdate = System.currentTimeMillis();
 
@@ -223,26 +248,30 @@ public class PesitReceiveService {
                     throw new RuntimeException("Transfer cancelled by user");
                 }
 
-                Fpdu fpdu = reader.read();
-                FpduType type = fpdu.getFpduType();
-
-                if (isDtfType(type)) {
-                    byte[] data = fpdu.getData();
-                    if (data != null && data.length > 0) {
-                        if (raf != null)
-                            raf.write(data);
-                        else
-                            os.write(data);
-                        totalBytes += data.length;
+                // DTF payloads are written straight from the receive buffer
+                FpduView view = reader.readView();
+                if (view == null) {
+                    continue;
+                }
+                if (view.isDtf()) {
+                    long dataLength = writeDtf(view, decoder, raf, out);
+                    if (dataLength > 0) {
+                        totalBytes += dataLength;
 
                         // Progress update via TransferContext
-                        ctx.addBytes(data.length);
+                        ctx.addBytes(dataLength);
                         long now = System.currentTimeMillis();
                         if (now - lastProgressUpdate >= 100) {
                             lastProgressUpdate = now;
                         }
                     }
-                } else if (type == FpduType.SYN) {
+                    continue;
+                }
+
+                Fpdu fpdu = view.toFpdu();
+                FpduType type = fpdu.getFpduType();
+
+                if (type == FpduType.SYN) {
                     ParameterValue pi20 = fpdu.getParameter(PI_20_NUM_SYNC);
                     lastSync = pi20 != null && pi20.getValue() != null ? parseNumeric(pi20.getValue()) : lastSync + 1;
                     lastSyncPos = totalBytes;
@@ -261,10 +290,12 @@ public class PesitReceiveService {
                 }
             }
         } finally {
+            if (reader != null)
+                reader.release();
             if (raf != null)
                 raf.close();
-            if (os != null)
-                os.close();
+            if (out != null)
+                out.close();
         }
 
         if (!interrupted) {
@@ -289,8 +320,27 @@ public class PesitReceiveService {
 
     // === Helpers ===
 
-    private boolean isDtfType(FpduType type) {
-        return type == FpduType.DTF || type == FpduType.DTFDA || type == FpduType.DTFMA || type == FpduType.DTFFA;
+    /**
+     * Écrit le contenu d'un DTF depuis le buffer de réception, en le
+     * décompressant article par article si la compression est négociée.
+     */
+    private long writeDtf(FpduView view, CompressionDecoder decoder, RandomAccessFile raf,
+            ConnectorWriteChannel out) throws IOException {
+        ByteBuffer data = view.data();
+        if (decoder == null) {
+            int length = data.remaining();
+            write(data, raf, out);
+            return length;
+        }
+        return decoder.decodeEntity(data, view.getFpduType() == FpduType.DTF ? view.getIdSrc() : 0,
+                article -> write(article, raf, out));
+    }
+
+    private void write(ByteBuffer data, RandomAccessFile raf, ConnectorWriteChannel out) throws IOException {
+        if (raf != null)
+            raf.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        else
+            out.write(data);
     }
 
     private boolean resolveSyncEnabled(TransferRequest req, TransferConfig cfg) {
@@ -2,16 +2,16 @@ package com.pesitwizard.client.pesit;
 
 import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.pesitwizard.client.dto.TransferRequest;
@@ -19,9 +19,14 @@ import com.pesitwizard.client.entity.PesitServer;
 import com.pesitwizard.client.entity.TransferConfig;
 import com.pesitwizard.client.entity.TransferHistory.TransferStatus;
 import com.pesitwizard.client.event.TransferEventBus;
+import com.pesitwizard.client.pesit.PesitSessionManager.SessionKey;
+import com.pesitwizard.client.pesit.TransferDispatcher.Lane;
 import com.pesitwizard.client.repository.TransferHistoryRepository;
+import com.pesitwizard.connector.ConnectorReadChannel;
 import com.pesitwizard.connector.StorageConnector;
 import com.pesitwizard.exception.PesitException;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.ConnectMessageBuilder;
 import com.pesitwizard.fpdu.CreateMessageBuilder;
 import com.pesitwizard.fpdu.Fpdu;
@@ -29,6 +34,7 @@ import com.pesitwizard.fpdu.FpduType;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.security.SecretsService;
 import com.pesitwizard.session.PesitSession;
+import com.pesitwizard.session.SyncPointWindow;
 import com.pesitwizard.transport.TransportChannel;
 
 import io.micrometer.observation.Observation;
@@ -44,39 +50,118 @@ public class PesitSendService {
     private static final AtomicInteger TRANSFER_ID_COUNTER = new AtomicInteger(1);
 
     private final PesitChannelFactory channelFactory;
+    private final PesitSessionManager sessionManager;
+    private final TransferDispatcher dispatcher;
     private final StorageConnectorFactory connectorFactory;
     private final SecretsService secretsService;
     private final TransferHistoryRepository historyRepository;
     private final TransferEventBus eventBus;
     private final ObservationRegistry observationRegistry;
 
-    @Async("transferExecutor")
+    /**
+     * Queue the transfer on the dispatcher, in the lane of its priority
+     */
     public void sendFileAsync(TransferRequest request, String historyId, PesitServer server,
             TransferConfig config, long fileSize, String correlationId, Set<String> cancelledTransfers) {
-        Observation.createNotStarted("pesit.send", observationRegistry)
-                .lowCardinalityKeyValue("pesit.direction", "SEND")
-                .highCardinalityKeyValue("pesit.server", request.getServer())
-                .highCardinalityKeyValue("correlation.id", correlationId)
-                .observe(() -> sendFile(request, historyId, server, config, fileSize, cancelledTransfers));
+        dispatcher.submit(server.getId(), request.getPartnerId(), Lane.of(request, config),
+                () -> Observation.createNotStarted("pesit.send", observationRegistry)
+                        .lowCardinalityKeyValue("pesit.direction", "SEND")
+                        .highCardinalityKeyValue("pesit.server", request.getServer())
+                        .highCardinalityKeyValue("correlation.id", correlationId)
+                        .observe(() -> sendFile(request, historyId, server, config, fileSize,
+                                cancelledTransfers)),
+                reason -> abandon(historyId, reason, cancelledTransfers));
     }
 
     public void sendFile(TransferRequest request, String historyId, PesitServer server,
             TransferConfig config, long fileSize, Set<String> cancelledTransfers) {
+        sendFile(new BatchItem(request, historyId, fileSize), server, config, cancelledTransfers, false);
+    }
+
+    /**
+     * One file of a batch, with its transfer history record
+     */
+    public record BatchItem(TransferRequest request, String historyId, long fileSize) {
+    }
+
+    /**
+     * Queue a batch of files for one partner on the dispatcher. The batch
+     * takes one slot of the partner, in the lane of its most urgent file.
+     */
+    public void sendBatchAsync(List<BatchItem> items, PesitServer server, TransferConfig config,
+            String correlationId, Set<String> cancelledTransfers) {
+        Lane lane = items.stream().map(item -> Lane.of(item.request(), config))
+                .min(Comparator.naturalOrder()).orElse(Lane.NORMAL);
+        dispatcher.submit(server.getId(), items.get(0).request().getPartnerId(), lane,
+                () -> Observation.createNotStarted("pesit.send.batch", observationRegistry)
+                        .lowCardinalityKeyValue("pesit.direction", "SEND")
+                        .highCardinalityKeyValue("pesit.server", server.getName())
+                        .highCardinalityKeyValue("correlation.id", correlationId)
+                        .observe(() -> sendBatch(items, server, config, cancelledTransfers)),
+                reason -> items.forEach(item -> abandon(item.historyId(), reason, cancelledTransfers)));
+    }
+
+    /**
+     * Fail a transfer that the dispatcher will not run
+     */
+    private void abandon(String historyId, String reason, Set<String> cancelledTransfers) {
+        log.error("Transfer {} FAILED: {}", historyId, reason);
+        cancelledTransfers.remove(historyId);
+        updateHistoryFailed(historyId, reason, null);
+        new TransferContext(historyId, eventBus).error(reason, null);
+    }
+
+    /**
+     * Send files one after the other over pooled sessions (see
+     * PesitSessionManager): files for the same partner and credentials share
+     * one connected session. A file that fails closes its session and the
+     * next file opens a new one.
+     */
+    public void sendBatch(List<BatchItem> items, PesitServer server, TransferConfig config,
+            Set<String> cancelledTransfers) {
+        for (BatchItem item : items) {
+            if (cancelledTransfers.remove(item.historyId())) {
+                log.info("Transfer {} cancelled before it started", item.historyId());
+                continue;
+            }
+            sendFile(item, server, config, cancelledTransfers, true);
+        }
+    }
+
+    private void sendFile(BatchItem item, PesitServer server, TransferConfig config,
+            Set<String> cancelledTransfers, boolean pooled) {
+        TransferRequest request = item.request();
+        String historyId = item.historyId();
         StorageConnector connector = null;
-        InputStream inputStream = null;
-        TransferContext ctx = new TransferContext(historyId, fileSize, eventBus);
+        ConnectorReadChannel source = null;
+        TransferContext ctx = new TransferContext(historyId, item.fileSize(), eventBus);
 
         try {
+            // A local file (or a connector with native channels) can be sent without copies
+            boolean zeroCopy;
             if (request.getSourceConnectionId() != null) {
-                connector = connectorFactory.createFromConnectionId(request.getSourceConnectionId());
-                inputStream = connector.read(request.getFilename(), 0);
+                connector = connectorFactory.acquire(request.getSourceConnectionId());
+                source = connectorFactory.openReadChannel(connector, request.getFilename());
+                zeroCopy = connector.supportsChannels();
             } else {
-                inputStream = new BufferedInputStream(Files.newInputStream(Path.of(request.getFilename())), 64 * 1024);
+                source = ConnectorReadChannel.of(
+                        FileChannel.open(Path.of(request.getFilename()), StandardOpenOption.READ));
+                zeroCopy = true;
             }
 
-            TransportChannel channel = channelFactory.createChannel(server, fileSize);
-            try (PesitSession session = new PesitSession(channel, false)) {
-                executeTransfer(session, server, request, inputStream, config, ctx, cancelledTransfers);
+            if (pooled) {
+                sendOverPooledSession(server, request, source, zeroCopy, config, ctx, item.fileSize(),
+                        cancelledTransfers);
+            } else {
+                TransportChannel channel = channelFactory.createChannel(server, item.fileSize());
+                try (PesitSession session = new PesitSession(channel, false)) {
+                    session.setConcatenateFpdus(server.isConcatenateFpdus());
+                    ctx.connectSent();
+                    PesitConnection connection = connect(session, server, request, config);
+                    ctx.connectAck();
+                    transferFile(connection, request, source, zeroCopy, config, ctx, cancelledTransfers);
+                    release(connection, ctx);
+                }
             }
             updateHistorySuccess(historyId, ctx.getBytesTransferred());
             ctx.completed();
@@ -90,38 +175,92 @@ public class PesitSendService {
             ctx.error(e.getMessage(), null);
         } finally {
             cancelledTransfers.remove(historyId);
-            closeQuietly(inputStream);
+            closeQuietly(source);
             closeQuietly(connector);
         }
     }
 
-    private void executeTransfer(PesitSession session, PesitServer server, TransferRequest request,
-            InputStream inputStream, TransferConfig config, TransferContext ctx,
+    private void sendOverPooledSession(PesitServer server, TransferRequest request, ConnectorReadChannel source,
+            boolean zeroCopy, TransferConfig config, TransferContext ctx, long fileSize,
             Set<String> cancelledTransfers) throws IOException, InterruptedException {
+        SessionKey key = SessionKey.of(server, request, config, true, syncAckWindow(config));
+        while (true) {
+            PesitConnection connection = sessionManager.acquire(key, () -> {
+                PesitSession session = new PesitSession(channelFactory.createChannel(server), false);
+                try {
+                    session.setConcatenateFpdus(server.isConcatenateFpdus());
+                    return connect(session, server, request, config);
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    session.close();
+                    throw e;
+                }
+            });
+            boolean reused = connection.getTransferCount() > 0;
+            try {
+                connection.getSession().setReceiveTimeout(channelFactory.calculateTimeout(server, fileSize));
+                ctx.sessionConnected();
+                transferFile(connection, request, source, zeroCopy, config, ctx, cancelledTransfers);
+                connection.transferCompleted();
+                return;
+            } catch (IOException e) {
+                connection.markBroken();
+                // The server may have dropped a session while it was idle:
+                // nothing was sent yet, so start over on a new one
+                if (reused && ctx.getBytesTransferred() == 0) {
+                    log.info("Pooled PeSIT session for {} lost ({}), retrying on a new session", key,
+                            e.getMessage());
+                    // The packed path reads the source sequentially and may
+                    // already have filled the entity it failed to send
+                    source.position(0);
+                    continue;
+                }
+                throw e;
+            } catch (RuntimeException | InterruptedException e) {
+                connection.markBroken();
+                throw e;
+            } finally {
+                sessionManager.release(key, connection);
+            }
+        }
+    }
 
+    private PesitConnection connect(PesitSession session, PesitServer server, TransferRequest request,
+            TransferConfig config) throws IOException, InterruptedException {
         int connectionId = 1;
-        String virtualFile = request.getVirtualFile() != null ? request.getVirtualFile() : request.getRemoteFilename();
-        int recordLength = config.getRecordLength() != null ? config.getRecordLength() : 506;
         boolean syncEnabled = config.isSyncPointsEnabled();
         int syncIntervalKb = syncEnabled ? 10 : 0;
 
         ConnectMessageBuilder connectBuilder = new ConnectMessageBuilder()
                 .demandeur(request.getPartnerId()).serveur(server.getServerId()).writeAccess()
-                .syncPointsEnabled(syncEnabled).syncIntervalKb(syncIntervalKb).resyncEnabled(config.isResyncEnabled());
+                .syncPointsEnabled(syncEnabled).syncIntervalKb(syncIntervalKb).syncAckWindow(syncAckWindow(config))
+                .resyncEnabled(config.isResyncEnabled());
 
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             connectBuilder.password(secretsService.decrypt(request.getPassword()));
         }
 
-        ctx.connectSent();
         Fpdu aconnect = session.sendFpduWithAck(connectBuilder.build(connectionId));
-        ctx.connectAck();
-        int serverConnId = aconnect.getIdSrc();
+        return new PesitConnection(session, connectionId, aconnect);
+    }
+
+    /**
+     * One file over a connected session: CREATE, OPEN, WRITE, data, then
+     * back to the connected state with DESELECT
+     */
+    private void transferFile(PesitConnection connection, TransferRequest request, ConnectorReadChannel source,
+            boolean zeroCopy, TransferConfig config, TransferContext ctx, Set<String> cancelledTransfers)
+            throws IOException, InterruptedException {
+
+        PesitSession session = connection.getSession();
+        int serverConnId = connection.getServerConnId();
+        Fpdu aconnect = connection.getAconnect();
+        String virtualFile = request.getVirtualFile() != null ? request.getVirtualFile() : request.getRemoteFilename();
+        int recordLength = config.getRecordLength() != null ? config.getRecordLength() : 506;
 
         int negotiatedSyncKb = parsePI7(aconnect);
         long syncIntervalBytes = negotiatedSyncKb * 1024L;
-        if (negotiatedSyncKb == 0)
-            syncEnabled = false;
+        boolean syncEnabled = config.isSyncPointsEnabled() && negotiatedSyncKb != 0;
+        int syncWindow = Math.min(syncAckWindow(config), parsePI7Window(aconnect));
 
         int serverMaxEntity = parsePI25(aconnect);
         int transferId = TRANSFER_ID_COUNTER.getAndIncrement() % 0xFFFFFF;
@@ -130,61 +269,91 @@ public class PesitSendService {
 
         ctx.createSent();
         int negotiatedPi25 = negotiateCreate(session, serverConnId, virtualFile, transferId, fileSizeKB, initialPi25,
-                recordLength);
+                recordLength, Lane.of(request, config).pi17());
         ctx.createAck();
 
+        boolean compressionEnabled = request.getCompressionEnabled() != null ? request.getCompressionEnabled()
+                : config.isCompressionEnabled();
+        CompressionMode compression = CompressionMode.of(compressionEnabled,
+                config.getCompressionType() != null ? config.getCompressionType() : 0);
         ctx.openSent();
-        session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverConnId));
+        Fpdu ackOpen = session.sendFpduWithAck(buildOpen(serverConnId, compression));
         ctx.openAck();
+        compression = compression.intersect(parsePI21(ackOpen));
 
         ctx.writeSent();
         session.sendFpduWithAck(new Fpdu(FpduType.WRITE).withIdDst(serverConnId));
         ctx.writeAck();
 
-        sendData(session, serverConnId, inputStream, negotiatedPi25, recordLength, syncIntervalBytes, syncEnabled, ctx,
-                cancelledTransfers);
-        sendCleanup(session, serverConnId, connectionId, ctx);
+        sendData(session, serverConnId, source, zeroCopy, negotiatedPi25, recordLength, syncIntervalBytes,
+                syncEnabled, syncWindow, compression, ctx, cancelledTransfers);
+        endFile(session, serverConnId, ctx);
+    }
+
+    private static int syncAckWindow(TransferConfig config) {
+        return config.getSyncAckWindow() != null ? config.getSyncAckWindow() : 1;
     }
 
-    private void sendData(PesitSession session, int serverConnId, InputStream inputStream,
-            int entitySize, int chunkSize, long syncInterval, boolean syncEnabled,
-            TransferContext ctx, Set<String> cancelledTransfers) throws IOException, InterruptedException {
+    private void sendData(PesitSession session, int serverConnId, ConnectorReadChannel source, boolean zeroCopy,
+            int entitySize, int chunkSize, long syncInterval, boolean syncEnabled, int syncWindow,
+            CompressionMode compression, TransferContext ctx, Set<String> cancelledTransfers)
+            throws IOException, InterruptedException {
 
-        FpduWriter writer = new FpduWriter(session, serverConnId, entitySize, chunkSize, false);
-        byte[] buffer = new byte[Math.min(chunkSize, writer.getMaxDataPerDtf())];
+        // Keep streaming while up to syncWindow SYNs await their ACK_SYN; the
+        // restart point is the last acknowledged one
+        SyncPointWindow window = new SyncPointWindow(syncWindow, ctx::syncPoint);
+        // An entity never carries more data than the sync interval allows
+        int entityLimit = syncEnabled ? FpduWriter.entitySizeForSyncInterval(entitySize, chunkSize, syncInterval)
+                : entitySize;
+        FpduWriter writer = new FpduWriter(session, serverConnId, entityLimit, chunkSize, false,
+                compression.isEnabled() ? new CompressionEncoder(compression) : null);
+        // Records are packed into full multi-article entities; records too
+        // large to pack go one per DTF, cut from the source by position
+        // (positional reads, or transferTo to the socket for native channels)
+        boolean packed = writer.packsRecords();
+        int dtfSize = chunkSize > 0 ? Math.min(chunkSize, writer.getMaxDataPerDtf()) : writer.getMaxDataPerDtf();
+        long size = packed ? 0 : source.size();
+        long position = 0;
         long bytesSinceSync = 0;
         int syncNum = 0;
-        int bytesRead;
 
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
+        while (true) {
+            int length = packed ? writer.fillEntity(source) : (int) Math.min(dtfSize, size - position);
+            if (length <= 0) {
+                break;
+            }
             if (cancelledTransfers.contains(ctx.getTransferId())) {
                 ctx.cancelled();
                 throw new RuntimeException("Transfer cancelled");
             }
-            if (syncEnabled && syncInterval > 0 && bytesSinceSync > 0 && bytesSinceSync + bytesRead > syncInterval) {
+            if (syncEnabled && syncInterval > 0 && bytesSinceSync > 0 && bytesSinceSync + length > syncInterval) {
                 syncNum++;
                 ctx.syncSent();
-                session.sendFpduWithAck(new Fpdu(FpduType.SYN).withIdDst(serverConnId)
-                        .withParameter(new ParameterValue(PI_20_NUM_SYNC, syncNum)));
+                session.sendSyn(window, serverConnId, syncNum, ctx.getBytesTransferred());
                 ctx.syncAckSend();
-                ctx.syncPoint(syncNum, ctx.getBytesTransferred());
                 bytesSinceSync = 0;
             }
-            byte[] chunk = bytesRead == buffer.length ? buffer : java.util.Arrays.copyOf(buffer, bytesRead);
-            writer.writeDtf(chunk);
-            ctx.addBytes(bytesRead);
-            bytesSinceSync += bytesRead;
+            int sent = packed ? writer.sendEntity() : writer.writeDtf(source, position, length, zeroCopy);
+            if (sent == 0) {
+                break; // file truncated while being sent
+            }
+            position += sent;
+            ctx.addBytes(sent);
+            bytesSinceSync += sent;
         }
+        session.drainAckSyn(window);
         log.info("Send complete: {} bytes", ctx.getBytesTransferred());
     }
 
-    private void sendCleanup(PesitSession session, int serverConnId, int connectionId, TransferContext ctx)
+    private void endFile(PesitSession session, int serverConnId, TransferContext ctx)
             throws IOException, InterruptedException {
+        // DTF.END has no acknowledgement: it goes out with TRANS.END
         ctx.dtfEndSent();
-        session.sendFpdu(new Fpdu(FpduType.DTF_END).withIdDst(serverConnId)
-                .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })));
         ctx.transEndSent();
-        session.sendFpduWithAck(new Fpdu(FpduType.TRANS_END).withIdDst(serverConnId));
+        session.sendFpdusWithAck(
+                new Fpdu(FpduType.DTF_END).withIdDst(serverConnId)
+                        .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })),
+                new Fpdu(FpduType.TRANS_END).withIdDst(serverConnId));
         ctx.transEndAck();
         ctx.closeSent();
         session.sendFpduWithAck(new Fpdu(FpduType.CLOSE).withIdDst(serverConnId)
@@ -194,23 +363,40 @@ public class PesitSendService {
         session.sendFpduWithAck(new Fpdu(FpduType.DESELECT).withIdDst(serverConnId)
                 .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })));
         ctx.deselectAck();
+    }
+
+    private void release(PesitConnection connection, TransferContext ctx) throws IOException, InterruptedException {
         ctx.releaseSent();
-        session.sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(serverConnId).withIdSrc(connectionId)
+        connection.getSession().sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(connection.getServerConnId())
+                .withIdSrc(connection.getConnectionId())
                 .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })));
         ctx.releaseAck();
     }
 
     private int negotiateCreate(PesitSession session, int serverConnId, String virtualFile,
-            int transferId, long fileSizeKB, int initialPi25, int recordLength)
+            int transferId, long fileSizeKB, int initialPi25, int recordLength, int priority)
             throws IOException, InterruptedException {
         int pi25 = initialPi25;
         Fpdu create = new CreateMessageBuilder().filename(virtualFile).transferId(transferId)
                 .variableFormat().recordLength(recordLength).maxEntitySize(pi25).fileSizeKB(fileSizeKB)
-                .build(serverConnId);
+                .priority(priority).build(serverConnId);
         session.sendFpduWithAck(create);
         return pi25;
     }
 
+    private Fpdu buildOpen(int serverConnId, CompressionMode compression) {
+        Fpdu open = new Fpdu(FpduType.OPEN).withIdDst(serverConnId);
+        if (compression.isEnabled()) {
+            open.withParameter(new ParameterValue(PI_21_COMPRESSION, compression.toPi21()));
+        }
+        return open;
+    }
+
+    private CompressionMode parsePI21(Fpdu fpdu) {
+        ParameterValue pv = fpdu.getParameter(PI_21_COMPRESSION);
+        return CompressionMode.fromPi21(pv != null ? pv.getValue() : null);
+    }
+
     private int parsePI7(Fpdu fpdu) {
         ParameterValue pv = fpdu.getParameter(PI_07_SYNC_POINTS);
         if (pv != null && pv.getValue() != null && pv.getValue().length >= 2) {
@@ -219,6 +405,11 @@ public class PesitSendService {
         return 0;
     }
 
+    private int parsePI7Window(Fpdu fpdu) {
+        ParameterValue pv = fpdu.getParameter(PI_07_SYNC_POINTS);
+        return SyncPointWindow.negotiatedSize(pv != null ? pv.getValue() : null);
+    }
+
     private int parsePI25(Fpdu fpdu) {
         ParameterValue pv = fpdu.getParameter(PI_25_TAILLE_MAX_ENTITE);
         if (pv != null && pv.getValue() != null) {
@@ -0,0 +1,170 @@
+package com.pesitwizard.client.pesit;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pesitwizard.client.dto.TransferRequest;
+import com.pesitwizard.client.entity.PesitServer;
+import com.pesitwizard.client.entity.TransferConfig;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connected PeSIT sessions kept per server, partner and credentials, so that
+ * successive file transfers to the same partner pay the TCP/TLS and CONNECT
+ * handshakes once.
+ *
+ * A connection is lent to one transfer at a time. Given back reusable (the
+ * transfer ended with DESELECT), it is kept for the next transfer of the
+ * same key, up to maxIdle per key; otherwise it is closed. Idle connections
+ * are released (RELEASE) after idleTimeout, which must stay below the read
+ * timeout of the servers.
+ */
+@Slf4j
+@Component
+public class PesitSessionManager {
+
+    /**
+     * Opens a new connection (transport, then CONNECT) for a key
+     */
+    @FunctionalInterface
+    public interface ConnectionOpener {
+        PesitConnection open() throws IOException, InterruptedException;
+    }
+
+    /**
+     * What the CONNECT of a session carried: connections are only shared by
+     * transfers that would have sent the same CONNECT.
+     */
+    public record SessionKey(String serverId, String partnerId, String password, boolean writeAccess,
+            boolean syncPointsEnabled, int syncAckWindow, boolean resyncEnabled) {
+
+        public static SessionKey of(PesitServer server, TransferRequest request, TransferConfig config,
+                boolean writeAccess, int syncAckWindow) {
+            return new SessionKey(server.getId(), request.getPartnerId(), request.getPassword(), writeAccess,
+                    config.isSyncPointsEnabled(), syncAckWindow, config.isResyncEnabled());
+        }
+
+        @Override
+        public String toString() {
+            return serverId + "/" + partnerId + (writeAccess ? "/write" : "/read");
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxIdle;
+    private final long idleTimeoutMs;
+
+    private final Map<SessionKey, Deque<PesitConnection>> idle = new ConcurrentHashMap<>();
+
+    public PesitSessionManager(
+            @Value("${pesitwizard.client.sessions.enabled:true}") boolean enabled,
+            @Value("${pesitwizard.client.sessions.max-idle:2}") int maxIdle,
+            @Value("${pesitwizard.client.sessions.idle-timeout-ms:30000}") long idleTimeoutMs) {
+        this.enabled = enabled;
+        this.maxIdle = Math.max(0, maxIdle);
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * Take an idle connection of the key, or open a new one.
+     * Give it back with {@link #release(SessionKey, PesitConnection)}.
+     */
+    public PesitConnection acquire(SessionKey key, ConnectionOpener opener) throws IOException, InterruptedException {
+        Deque<PesitConnection> connections = idle.get(key);
+        if (connections != null) {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+            PesitConnection connection;
+            while ((connection = poll(connections)) != null) {
+                if (connection.isReusable() && connection.getLastUsed() >= cutoff) {
+                    log.debug("Reusing PeSIT session {} for {} (transfer {})",
+                            connection.getServerConnId(), key, connection.getTransferCount() + 1);
+                    return connection;
+                }
+                connection.release();
+            }
+        }
+        PesitConnection connection = opener.open();
+        log.debug("Opened PeSIT session {} for {}", connection.getServerConnId(), key);
+        return connection;
+    }
+
+    /**
+     * Give a connection back: kept for the next transfer of the key if it is
+     * still reusable, closed otherwise.
+     */
+    public void release(SessionKey key, PesitConnection connection) {
+        if (!connection.isReusable()) {
+            connection.close();
+            return;
+        }
+        if (!enabled || maxIdle == 0) {
+            connection.release();
+            return;
+        }
+        Deque<PesitConnection> connections = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (connections) {
+            if (connections.size() < maxIdle) {
+                connections.addFirst(connection);
+                return;
+            }
+        }
+        connection.release();
+    }
+
+    public int getIdleCount(SessionKey key) {
+        Deque<PesitConnection> connections = idle.get(key);
+        if (connections == null) {
+            return 0;
+        }
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    /**
+     * Release connections idle for longer than idleTimeout
+     */
+    @Scheduled(fixedDelayString = "${pesitwizard.client.sessions.evict-interval-ms:10000}")
+    public void evict() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        idle.forEach((key, connections) -> {
+            Deque<PesitConnection> expired = new ArrayDeque<>();
+            synchronized (connections) {
+                connections.removeIf(connection -> {
+                    if (connection.getLastUsed() >= cutoff && connection.isReusable()) {
+                        return false;
+                    }
+                    expired.add(connection);
+                    return true;
+                });
+            }
+            expired.forEach(PesitConnection::release);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        idle.values().forEach(connections -> {
+            PesitConnection connection;
+            while ((connection = poll(connections)) != null) {
+                connection.release();
+            }
+        });
+        idle.clear();
+    }
+
+    private static PesitConnection poll(Deque<PesitConnection> connections) {
+        synchronized (connections) {
+            return connections.pollFirst();
+        }
+    }
+}
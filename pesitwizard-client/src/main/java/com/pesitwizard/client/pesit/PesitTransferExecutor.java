@@ -4,8 +4,8 @@ import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.stereotype.Component;
@@ -15,15 +15,21 @@ import com.pesitwizard.client.entity.PesitServer;
 import com.pesitwizard.client.entity.TransferConfig;
 import com.pesitwizard.client.service.RestartRequiredException;
 import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorWriteChannel;
 import com.pesitwizard.connector.StorageConnector;
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.ConnectMessageBuilder;
 import com.pesitwizard.fpdu.CreateMessageBuilder;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.fpdu.ParameterGroupIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.security.SecretsService;
 import com.pesitwizard.session.PesitSession;
+import com.pesitwizard.session.SyncPointWindow;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +44,7 @@ public class PesitTransferExecutor {
 
     private static final AtomicInteger TRANSFER_ID_COUNTER = new AtomicInteger(1);
     private final SecretsService secretsService;
+    private final StorageConnectorFactory connectorFactory;
 
     public interface ProgressCallback {
         void onProgress(long bytesTransferred, long totalSize, int syncPoint);
@@ -89,12 +96,14 @@ public class PesitTransferExecutor {
             boolean syncEnabled = request.getSyncPointsEnabled() != null ? request.getSyncPointsEnabled()
                     : config.isSyncPointsEnabled();
             long syncInterval = calculateSyncInterval(fileSize, syncEnabled);
+            int syncAckWindow = config.getSyncAckWindow() != null ? config.getSyncAckWindow() : 1;
 
             // CONNECT
             ConnectMessageBuilder cb = new ConnectMessageBuilder()
                     .demandeur(request.getPartnerId()).serveur(server.getServerId())
                     .writeAccess().syncPointsEnabled(syncEnabled && syncInterval > 0)
-                    .syncIntervalKb(syncInterval > 0 ? (int) (syncInterval / 1024) : 0);
+                    .syncIntervalKb(syncInterval > 0 ? (int) (syncInterval / 1024) : 0)
+                    .syncAckWindow(syncAckWindow);
             if (request.getPassword() != null)
                 cb.password(secretsService.decrypt(request.getPassword()));
 
@@ -104,17 +113,21 @@ public class PesitTransferExecutor {
             if (negSyncKb == 0)
                 syncEnabled = false;
             long negSyncBytes = negSyncKb * 1024L;
+            int syncWindow = Math.min(syncAckWindow, parsePI7Window(aconnect));
 
             // CREATE
             int txId = TRANSFER_ID_COUNTER.getAndIncrement() % 0xFFFFFF;
             int pi25 = negotiateCreate(session, serverId, virtualFile, txId, (fileSize + 1023) / 1024, recordLength);
 
-            // OPEN, WRITE
-            session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverId));
+            // OPEN (PI 21 negotiation), WRITE
+            CompressionMode compression = requestedCompression(request, config);
+            Fpdu ackOpen = session.sendFpduWithAck(buildOpen(serverId, compression));
+            compression = compression.intersect(parsePI21(ackOpen));
             session.sendFpduWithAck(new Fpdu(FpduType.WRITE).withIdDst(serverId));
 
             // Send data
-            long totalSent = sendData(session, serverId, pi25, recordLength, negSyncBytes, syncEnabled);
+            long totalSent = sendData(session, serverId, pi25, recordLength, negSyncBytes, syncEnabled, syncWindow,
+                    compression);
 
             // Cleanup
             session.sendFpdu(new Fpdu(FpduType.DTF_END).withIdDst(serverId)
@@ -125,8 +138,11 @@ public class PesitTransferExecutor {
         }
 
         private long sendData(PesitSession session, int serverId, int entitySize, int recordLength,
-                long syncInterval, boolean syncEnabled) throws IOException, InterruptedException {
-            FpduWriter writer = new FpduWriter(session, serverId, entitySize, recordLength, false);
+                long syncInterval, boolean syncEnabled, int syncWindow, CompressionMode compression)
+                throws IOException, InterruptedException {
+            SyncPointWindow window = new SyncPointWindow(syncWindow);
+            FpduWriter writer = new FpduWriter(session, serverId, entitySize, recordLength, false,
+                    compression.isEnabled() ? new CompressionEncoder(compression) : null);
             byte[] buffer = new byte[Math.min(recordLength > 0 ? recordLength : 4096, writer.getMaxDataPerDtf())];
             long totalSent = 0, bytesSinceSync = 0;
             int syncNum = 0, bytesRead;
@@ -141,13 +157,13 @@ public class PesitTransferExecutor {
 
                 if (syncEnabled && syncInterval > 0 && bytesSinceSync >= syncInterval) {
                     syncNum++;
-                    session.sendFpduWithAck(new Fpdu(FpduType.SYN).withIdDst(serverId)
-                            .withParameter(new ParameterValue(PI_20_NUM_SYNC, syncNum)));
+                    session.sendSyn(window, serverId, syncNum, totalSent);
                     bytesSinceSync = 0;
                 }
                 if (callback != null)
-                    callback.onProgress(totalSent, fileSize, syncNum);
+                    callback.onProgress(totalSent, fileSize, window.getLastAcknowledgedSync());
             }
+            session.drainAckSyn(window);
             return totalSent;
         }
     }
@@ -206,16 +222,20 @@ public class PesitTransferExecutor {
             Fpdu ackSelect = session.sendFpduWithAck(select);
             long expectedSize = parseFileSize(ackSelect);
 
-            // OPEN, READ
-            session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverId));
+            // OPEN (PI 21 negotiation), READ
+            CompressionMode compression = requestedCompression(request, config);
+            Fpdu ackOpen = session.sendFpduWithAck(buildOpen(serverId, compression));
+            compression = compression.intersect(parsePI21(ackOpen));
             session.sendFpduWithAck(new Fpdu(FpduType.READ).withIdDst(serverId)
                     .withParameter(new ParameterValue(PI_18_POINT_RELANCE, restartPoint)));
 
             // Receive data
-            return receiveData(session, serverId, connectionId, expectedSize);
+            return receiveData(session, serverId, connectionId, expectedSize,
+                    compression.isEnabled() ? new CompressionDecoder() : null);
         }
 
-        private long receiveData(PesitSession session, int serverId, int connId, long expectedSize)
+        private long receiveData(PesitSession session, int serverId, int connId, long expectedSize,
+                CompressionDecoder decoder)
                 throws IOException, InterruptedException, ConnectorException, RestartRequiredException {
             long totalBytes = restartBytePos;
             int lastSync = restartPoint;
@@ -223,38 +243,39 @@ public class PesitTransferExecutor {
             boolean interrupted = false;
             int restartCode = 0;
 
-            OutputStream os = null;
+            ConnectorWriteChannel out = null;
             RandomAccessFile raf = null;
+            FpduReader reader = null;
             try {
                 if (restartBytePos > 0) {
                     raf = new RandomAccessFile(destPath, "rw");
                     raf.seek(restartBytePos);
                     raf.setLength(restartBytePos);
                 } else {
-                    os = connector.write(destPath, false);
+                    out = connectorFactory.openWriteChannel(connector, destPath, false);
                 }
 
-                FpduReader reader = new FpduReader(session);
+                reader = new FpduReader(session);
                 boolean receiving = true;
                 while (receiving) {
                     if (callback != null && callback.isCancelled())
                         throw new RuntimeException("Cancelled");
-                    Fpdu fpdu = reader.read();
-                    FpduType type = fpdu.getFpduType();
-
-                    if (type == FpduType.DTF || type == FpduType.DTFDA || type == FpduType.DTFMA
-                            || type == FpduType.DTFFA) {
-                        byte[] data = fpdu.getData();
-                        if (data != null && data.length > 0) {
-                            if (raf != null)
-                                raf.write(data);
-                            else
-                                os.write(data);
-                            totalBytes += data.length;
+                    FpduView view = reader.readView();
+                    if (view == null)
+                        continue;
+                    if (view.isDtf()) {
+                        long dataLength = writeDtf(view, decoder, raf, out);
+                        if (dataLength > 0) {
+                            totalBytes += dataLength;
                             if (callback != null)
                                 callback.onProgress(totalBytes, expectedSize, lastSync);
                         }
-                    } else if (type == FpduType.SYN) {
+                        continue;
+                    }
+
+                    Fpdu fpdu = view.toFpdu();
+                    FpduType type = fpdu.getFpduType();
+                    if (type == FpduType.SYN) {
                         ParameterValue pv = fpdu.getParameter(PI_20_NUM_SYNC);
                         lastSync = pv != null && pv.getValue() != null ? parseNum(pv.getValue()) : lastSync + 1;
                         lastSyncPos = totalBytes;
@@ -272,10 +293,12 @@ public class PesitTransferExecutor {
                     }
                 }
             } finally {
+                if (reader != null)
+                    reader.release();
                 if (raf != null)
                     raf.close();
-                if (os != null)
-                    os.close();
+                if (out != null)
+                    out.close();
             }
 
             if (!interrupted)
@@ -287,6 +310,47 @@ public class PesitTransferExecutor {
     }
 
     // Shared helpers
+    private CompressionMode requestedCompression(TransferRequest request, TransferConfig config) {
+        boolean enabled = request.getCompressionEnabled() != null ? request.getCompressionEnabled()
+                : config.isCompressionEnabled();
+        return CompressionMode.of(enabled, config.getCompressionType() != null ? config.getCompressionType() : 0);
+    }
+
+    private Fpdu buildOpen(int srv, CompressionMode compression) {
+        Fpdu open = new Fpdu(FpduType.OPEN).withIdDst(srv);
+        if (compression.isEnabled())
+            open.withParameter(new ParameterValue(PI_21_COMPRESSION, compression.toPi21()));
+        return open;
+    }
+
+    private CompressionMode parsePI21(Fpdu fpdu) {
+        ParameterValue pi21 = fpdu.getParameter(PI_21_COMPRESSION);
+        return CompressionMode.fromPi21(pi21 != null ? pi21.getValue() : null);
+    }
+
+    /**
+     * Write a DTF payload straight from the receive buffer, expanding it
+     * article by article when compression was negotiated.
+     */
+    private long writeDtf(FpduView view, CompressionDecoder decoder, RandomAccessFile raf,
+            ConnectorWriteChannel out) throws IOException {
+        ByteBuffer data = view.data();
+        if (decoder == null) {
+            int length = data.remaining();
+            write(data, raf, out);
+            return length;
+        }
+        return decoder.decodeEntity(data, view.getFpduType() == FpduType.DTF ? view.getIdSrc() : 0,
+                article -> write(article, raf, out));
+    }
+
+    private void write(ByteBuffer data, RandomAccessFile raf, ConnectorWriteChannel out) throws IOException {
+        if (raf != null)
+            raf.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        else
+            out.write(data);
+    }
+
     private void cleanup(PesitSession s, int srv, int conn) throws IOException, InterruptedException {
         s.sendFpduWithAck(new Fpdu(FpduType.CLOSE).withIdDst(srv)
                 .withParameter(new ParameterValue(PI_02_DIAG, new byte[] { 0, 0, 0 })));
@@ -322,6 +386,11 @@ public class PesitTransferExecutor {
                 : 0;
     }
 
+    private int parsePI7Window(Fpdu fpdu) {
+        ParameterValue pi7 = fpdu.getParameter(PI_07_SYNC_POINTS);
+        return SyncPointWindow.negotiatedSize(pi7 != null ? pi7.getValue() : null);
+    }
+
     private long parseFileSize(Fpdu ack) {
         ParameterValue pgi40 = ack.getParameter(ParameterGroupIdentifier.PGI_40_ATTR_PHYSIQUES);
         if (pgi40 != null && pgi40.getValues() != null) {
@@ -3,13 +3,18 @@ package com.pesitwizard.client.pesit;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pesitwizard.client.connector.ConnectorPool;
 import com.pesitwizard.client.connector.ConnectorRegistry;
 import com.pesitwizard.client.entity.StorageConnection;
 import com.pesitwizard.client.repository.StorageConnectionRepository;
+import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.connector.ConnectorWriteChannel;
 import com.pesitwizard.connector.StorageConnector;
 import com.pesitwizard.security.SecretsService;
 
@@ -31,9 +36,41 @@ public class StorageConnectorFactory {
 
     private final StorageConnectionRepository connectionRepository;
     private final ConnectorRegistry connectorRegistry;
+    private final ConnectorPool connectorPool;
     private final ObjectMapper objectMapper;
     private final SecretsService secretsService;
 
+    @Value("${pesitwizard.connectors.pipeline.enabled:true}")
+    private boolean pipelineEnabled;
+
+    @Value("${pesitwizard.connectors.pipeline.buffers:4}")
+    private int pipelineBuffers;
+
+    @Value("${pesitwizard.connectors.pipeline.buffer-size:131072}")
+    private int pipelineBufferSize;
+
+    /**
+     * Borrow a pooled connector for a connection ID. Closing it gives it back
+     * to the pool; a new connector is only created and initialized when none
+     * can be reused.
+     *
+     * @param connectionId Storage connection ID
+     * @return Configured StorageConnector, to be closed after the transfer
+     * @throws IllegalArgumentException if connection not found, disabled or
+     *                                  no connector can be obtained
+     */
+    public StorageConnector acquire(String connectionId) {
+        StorageConnection connection = findEnabled(connectionId);
+        try {
+            return connectorPool.acquire(connectionId,
+                    connection.getConnectorType() + ":" + connection.getConfigJson(),
+                    () -> createFromConnection(connection));
+        } catch (ConnectorException e) {
+            throw new IllegalArgumentException(
+                    "Failed to get connector for connection " + connection.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Create a connector from a connection ID.
      *
@@ -42,16 +79,34 @@ public class StorageConnectorFactory {
      * @throws IllegalArgumentException if connection not found or disabled
      */
     public StorageConnector createFromConnectionId(String connectionId) {
-        StorageConnection connection = connectionRepository.findById(connectionId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Storage connection not found: " + connectionId));
+        return createFromConnection(findEnabled(connectionId));
+    }
 
-        if (!connection.isEnabled()) {
-            throw new IllegalArgumentException(
-                    "Storage connection is disabled: " + connection.getName());
+    /**
+     * Open a file of a connector for a transfer to read. Unless the connector
+     * has native channels (local files), a read-ahead thread prefetches the
+     * file so that storage and network latencies overlap.
+     */
+    public ConnectorReadChannel openReadChannel(StorageConnector connector, String path) throws ConnectorException {
+        ConnectorReadChannel channel = connector.openReadChannel(path);
+        if (!pipelineEnabled || connector.supportsChannels()) {
+            return channel;
         }
+        return ConnectorReadChannel.readAhead(channel, pipelineBuffers, pipelineBufferSize);
+    }
 
-        return createFromConnection(connection);
+    /**
+     * Open a file of a connector for a transfer to write. Unless the connector
+     * has native channels (local files), a write-behind thread writes to
+     * storage while the transfer keeps receiving.
+     */
+    public ConnectorWriteChannel openWriteChannel(StorageConnector connector, String path, boolean append)
+            throws ConnectorException {
+        ConnectorWriteChannel channel = connector.openWriteChannel(path, append);
+        if (!pipelineEnabled || connector.supportsChannels()) {
+            return channel;
+        }
+        return ConnectorWriteChannel.writeBehind(channel, pipelineBuffers, pipelineBufferSize);
     }
 
     /**
@@ -75,6 +130,18 @@ public class StorageConnectorFactory {
         }
     }
 
+    private StorageConnection findEnabled(String connectionId) {
+        StorageConnection connection = connectionRepository.findById(connectionId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Storage connection not found: " + connectionId));
+
+        if (!connection.isEnabled()) {
+            throw new IllegalArgumentException(
+                    "Storage connection is disabled: " + connection.getName());
+        }
+        return connection;
+    }
+
     private Map<String, String> decryptSensitiveFields(Map<String, String> config) {
         if (config == null) {
             return null;
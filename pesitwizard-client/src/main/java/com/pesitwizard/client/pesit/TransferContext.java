@@ -95,6 +95,18 @@ public class TransferContext {
         transition(ClientState.CN03_CONNECTED);
     }
 
+    /**
+     * The transfer starts on a session that is already connected (pooled by
+     * PesitSessionManager, or a new attempt after a lost session)
+     */
+    public void sessionConnected() {
+        ClientState prev = state;
+        state = ClientState.CN03_CONNECTED;
+        if (eventBus != null && prev != state) {
+            eventBus.stateChange(transferId, prev, state);
+        }
+    }
+
     public void createSent() {
         transition(ClientState.SF01A_CREATE_PENDING);
     }
@@ -0,0 +1,279 @@
+package com.pesitwizard.client.pesit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pesitwizard.client.dto.TransferRequest;
+import com.pesitwizard.client.entity.TransferConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts transfers on the transfer executor (virtual threads) within
+ * concurrency limits: overall, per server and per partner. A transfer waits
+ * in the lane of its PI 17 priority; lanes are served highest first and,
+ * within a lane, partners take turns, so a partner at its limit (a slow one)
+ * neither blocks the others nor gets more than its share.
+ *
+ * A transfer that will not run (rejected by the executor, or still queued
+ * at shutdown) is handed to its abandon callback so that it can be failed.
+ *
+ * Metrics: pesit.transfers.queued and pesit.transfers.wait per lane,
+ * pesit.transfers.active.
+ */
+@Slf4j
+@Component
+public class TransferDispatcher {
+
+    /**
+     * PI 17 priority, served in declaration order
+     */
+    public enum Lane {
+        HIGH(0), NORMAL(1), LOW(2);
+
+        private final int pi17;
+
+        Lane(int pi17) {
+            this.pi17 = pi17;
+        }
+
+        /**
+         * Value sent in PI 17 (0 high, 1 normal, 2 low)
+         */
+        public int pi17() {
+            return pi17;
+        }
+
+        /**
+         * Lane of a 0-9 priority (0 highest): 0-2 high, 3-6 normal, 7-9 low
+         */
+        public static Lane of(Integer priority) {
+            if (priority == null) {
+                return NORMAL;
+            }
+            if (priority <= 2) {
+                return HIGH;
+            }
+            return priority <= 6 ? NORMAL : LOW;
+        }
+
+        /**
+         * Lane of a transfer: the request priority, else the config one
+         */
+        public static Lane of(TransferRequest request, TransferConfig config) {
+            return of(request.getPriority() != null ? request.getPriority() : config.getPriority());
+        }
+    }
+
+    private final Executor executor;
+    private final int maxConcurrent;
+    private final int maxPerServer;
+    private final int maxPerPartner;
+
+    private final Object lock = new Object();
+    /** Per lane, waiting transfers per partner in turn order */
+    private final Map<Lane, LinkedHashMap<String, ArrayDeque<Task>>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Lane, Integer> queued = new EnumMap<>(Lane.class);
+    private final Map<String, Integer> runningPerServer = new HashMap<>();
+    private final Map<String, Integer> runningPerPartner = new HashMap<>();
+    private int running;
+    private boolean shutdown;
+
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+
+    public TransferDispatcher(@Qualifier("transferExecutor") Executor executor, MeterRegistry meterRegistry,
+            @Value("${pesitwizard.client.dispatcher.max-concurrent:1000}") int maxConcurrent,
+            @Value("${pesitwizard.client.dispatcher.max-per-server:100}") int maxPerServer,
+            @Value("${pesitwizard.client.dispatcher.max-per-partner:10}") int maxPerPartner) {
+        this.executor = executor;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxPerServer = Math.max(1, maxPerServer);
+        this.maxPerPartner = Math.max(1, maxPerPartner);
+
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LinkedHashMap<>());
+            queued.put(lane, 0);
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("pesit.transfers.queued", this, d -> d.getQueued(lane))
+                    .description("Transfers waiting for a slot").tag("lane", tag).register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("pesit.transfers.wait")
+                    .description("Time transfers waited for a slot").tag("lane", tag).register(meterRegistry));
+        }
+        Gauge.builder("pesit.transfers.active", this, TransferDispatcher::getRunning)
+                .description("Transfers running").register(meterRegistry);
+    }
+
+    /**
+     * Queue a transfer. It runs on the transfer executor once the server and
+     * the partner are below their limits.
+     *
+     * @param onAbandoned given the reason when the transfer will not run
+     */
+    public void submit(String serverId, String partnerId, Lane lane, Runnable transfer,
+            Consumer<String> onAbandoned) {
+        Task task = new Task(serverId, serverId + "/" + partnerId, lane, transfer, onAbandoned);
+        synchronized (lock) {
+            if (!shutdown) {
+                lanes.get(lane).computeIfAbsent(task.partnerKey, k -> new ArrayDeque<>()).addLast(task);
+                queued.merge(lane, 1, Integer::sum);
+                task = null;
+            }
+        }
+        if (task != null) {
+            task.abandon("Transfer client is shutting down");
+            return;
+        }
+        dispatch();
+    }
+
+    /**
+     * Abandon the transfers still waiting for a slot; running ones finish
+     * with the transfer executor
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<Task> abandoned = new ArrayList<>();
+        synchronized (lock) {
+            shutdown = true;
+            for (Lane lane : Lane.values()) {
+                lanes.get(lane).values().forEach(abandoned::addAll);
+                lanes.get(lane).clear();
+                queued.put(lane, 0);
+            }
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Abandoning {} queued transfer(s) at shutdown", abandoned.size());
+        }
+        abandoned.forEach(task -> task.abandon("Transfer client shut down before the transfer started"));
+    }
+
+    public int getQueued(Lane lane) {
+        synchronized (lock) {
+            return queued.get(lane);
+        }
+    }
+
+    public int getRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    private void dispatch() {
+        List<Task> startable = new ArrayList<>();
+        synchronized (lock) {
+            while (running < maxConcurrent) {
+                Task task = null;
+                for (Lane lane : Lane.values()) {
+                    task = pollStartable(lanes.get(lane));
+                    if (task != null) {
+                        break;
+                    }
+                }
+                if (task == null) {
+                    break;
+                }
+                queued.merge(task.lane, -1, Integer::sum);
+                running++;
+                runningPerServer.merge(task.serverId, 1, Integer::sum);
+                runningPerPartner.merge(task.partnerKey, 1, Integer::sum);
+                startable.add(task);
+            }
+        }
+        for (Task task : startable) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.error("Transfer executor rejected a transfer for {}: {}", task.partnerKey, e.getMessage());
+                task.abandon("Transfer executor rejected the transfer: " + e.getMessage());
+                finished(task);
+            }
+        }
+    }
+
+    /**
+     * First partner of the lane, in turn order, whose next transfer may start.
+     * That partner then goes to the end of the turn.
+     */
+    private Task pollStartable(LinkedHashMap<String, ArrayDeque<Task>> lane) {
+        Iterator<Map.Entry<String, ArrayDeque<Task>>> it = lane.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, ArrayDeque<Task>> entry = it.next();
+            Task head = entry.getValue().peekFirst();
+            if (runningPerPartner.getOrDefault(head.partnerKey, 0) < maxPerPartner
+                    && runningPerServer.getOrDefault(head.serverId, 0) < maxPerServer) {
+                entry.getValue().pollFirst();
+                it.remove();
+                if (!entry.getValue().isEmpty()) {
+                    lane.put(entry.getKey(), entry.getValue());
+                }
+                return head;
+            }
+        }
+        return null;
+    }
+
+    private void finished(Task task) {
+        synchronized (lock) {
+            running--;
+            runningPerServer.computeIfPresent(task.serverId, (k, n) -> n > 1 ? n - 1 : null);
+            runningPerPartner.computeIfPresent(task.partnerKey, (k, n) -> n > 1 ? n - 1 : null);
+        }
+        dispatch();
+    }
+
+    private final class Task implements Runnable {
+        private final String serverId;
+        private final String partnerKey;
+        private final Lane lane;
+        private final Runnable transfer;
+        private final Consumer<String> onAbandoned;
+        private final long queuedAt = System.nanoTime();
+
+        Task(String serverId, String partnerKey, Lane lane, Runnable transfer, Consumer<String> onAbandoned) {
+            this.serverId = serverId;
+            this.partnerKey = partnerKey;
+            this.lane = lane;
+            this.transfer = transfer;
+            this.onAbandoned = onAbandoned;
+        }
+
+        void abandon(String reason) {
+            try {
+                onAbandoned.accept(reason);
+            } catch (RuntimeException e) {
+                log.error("Failed to abandon a transfer for {}: {}", partnerKey, e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void run() {
+            waitTimers.get(lane).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                transfer.run();
+            } catch (RuntimeException e) {
+                log.error("Transfer for {} failed: {}", partnerKey, e.getMessage(), e);
+            } finally {
+                finished(this);
+            }
+        }
+    }
+}
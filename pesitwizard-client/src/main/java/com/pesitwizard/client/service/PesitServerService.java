@@ -143,6 +143,7 @@ public class PesitServerService {
                 // TLS certificates are uploaded separately via dedicated endpoints
                 .connectionTimeout(dto.getConnectionTimeout())
                 .readTimeout(dto.getReadTimeout())
+                .concatenateFpdus(dto.isConcatenateFpdus())
                 .enabled(dto.isEnabled())
                 .defaultServer(dto.isDefaultServer())
                 .build();
@@ -158,6 +159,7 @@ public class PesitServerService {
         // TLS certificates are uploaded separately via dedicated endpoints
         server.setConnectionTimeout(dto.getConnectionTimeout());
         server.setReadTimeout(dto.getReadTimeout());
+        server.setConcatenateFpdus(dto.isConcatenateFpdus());
         server.setEnabled(dto.isEnabled());
         server.setDefaultServer(dto.isDefaultServer());
     }
@@ -175,6 +177,7 @@ public class PesitServerService {
                 .keystoreConfigured(server.getKeystoreData() != null && server.getKeystoreData().length > 0)
                 .connectionTimeout(server.getConnectionTimeout())
                 .readTimeout(server.getReadTimeout())
+                .concatenateFpdus(server.isConcatenateFpdus())
                 .enabled(server.isEnabled())
                 .defaultServer(server.isDefaultServer())
                 .build();
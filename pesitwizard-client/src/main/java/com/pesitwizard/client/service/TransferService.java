@@ -3,7 +3,11 @@ package com.pesitwizard.client.service;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -26,6 +30,7 @@ import com.pesitwizard.client.entity.TransferHistory.TransferStatus;
 import com.pesitwizard.client.pesit.PesitMessageService;
 import com.pesitwizard.client.pesit.PesitReceiveService;
 import com.pesitwizard.client.pesit.PesitSendService;
+import com.pesitwizard.client.pesit.PesitSendService.BatchItem;
 import com.pesitwizard.client.pesit.StorageConnectorFactory;
 import com.pesitwizard.client.repository.TransferConfigRepository;
 import com.pesitwizard.client.repository.TransferHistoryRepository;
@@ -79,6 +84,51 @@ public class TransferService {
                 return mapToResponse(history);
         }
 
+        /**
+         * Envoi d'un lot de fichiers. Les fichiers d'un même serveur, d'un même
+         * partenaire et d'une même configuration partent l'un après l'autre sur
+         * des sessions PeSIT réutilisées : une connexion (TCP/TLS + CONNECT) par
+         * partenaire au lieu d'une par fichier.
+         */
+        public List<TransferResponse> sendBatch(List<TransferRequest> requests) {
+                // Tout résoudre avant de créer un historique : une erreur rejette le lot entier
+                Map<String, PesitServer> servers = new HashMap<>();
+                Map<String, TransferConfig> configs = new HashMap<>();
+                List<Long> fileSizes = new ArrayList<>(requests.size());
+                for (TransferRequest request : requests) {
+                        servers.computeIfAbsent(request.getServer(), this::resolveServer);
+                        configs.computeIfAbsent(request.getTransferConfig(), this::resolveConfig);
+                        fileSizes.add(getFileSize(request));
+                }
+
+                Map<String, BatchGroup> groups = new LinkedHashMap<>();
+                List<TransferResponse> responses = new ArrayList<>(requests.size());
+                for (int i = 0; i < requests.size(); i++) {
+                        TransferRequest request = requests.get(i);
+                        String correlationId = resolveCorrelationId(request.getCorrelationId());
+                        PesitServer server = servers.get(request.getServer());
+                        TransferConfig config = configs.get(request.getTransferConfig());
+
+                        TransferHistory history = createHistory(server, config, TransferDirection.SEND,
+                                        request.getFilename(), request.getRemoteFilename(), request.getPartnerId(),
+                                        correlationId);
+                        history.setFileSize(fileSizes.get(i));
+                        history.setStatus(TransferStatus.IN_PROGRESS);
+                        history = historyRepository.save(history);
+
+                        groups.computeIfAbsent(server.getId() + "/" + request.getPartnerId() + "/" + config.getName(),
+                                        k -> new BatchGroup(server, config, correlationId, new ArrayList<>()))
+                                        .items().add(new BatchItem(request, history.getId(), fileSizes.get(i)));
+                        responses.add(mapToResponse(history));
+                }
+
+                // Un envoi séquentiel par groupe, les groupes en parallèle
+                groups.values().forEach(group -> sendService.sendBatchAsync(group.items(), group.server(),
+                                group.config(), group.correlationId(), cancelledTransfers));
+
+                return responses;
+        }
+
         public TransferResponse receiveFile(TransferRequest request) {
                 String correlationId = resolveCorrelationId(request.getCorrelationId());
                 PesitServer server = resolveServer(request.getServer());
@@ -223,6 +273,10 @@ public class TransferService {
 
         // ========== Helpers privés ==========
 
+        private record BatchGroup(PesitServer server, TransferConfig config, String correlationId,
+                        List<BatchItem> items) {
+        }
+
         private String resolveCorrelationId(String correlationId) {
                 return correlationId != null ? correlationId : UUID.randomUUID().toString();
         }
@@ -258,7 +312,7 @@ public class TransferService {
                 try {
                         if (request.getSourceConnectionId() != null) {
                                 try (StorageConnector c = connectorFactory
-                                                .createFromConnectionId(request.getSourceConnectionId())) {
+                                                .acquire(request.getSourceConnectionId())) {
                                         return c.getMetadata(request.getFilename()).getSize();
                                 }
                         }
@@ -2,12 +2,15 @@ package com.pesitwizard.client.config;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
@@ -32,32 +35,28 @@ class AsyncConfigTest {
 
         // Assert
         assertNotNull(executor, "transferExecutor should not be null");
-        assertTrue(executor instanceof ThreadPoolTaskExecutor, "Should be ThreadPoolTaskExecutor");
+        assertTrue(executor instanceof SimpleAsyncTaskExecutor, "Should be SimpleAsyncTaskExecutor");
 
-        ThreadPoolTaskExecutor taskExecutor = (ThreadPoolTaskExecutor) executor;
-        assertEquals(4, taskExecutor.getCorePoolSize(), "Core pool size should be 4");
-        assertEquals(10, taskExecutor.getMaxPoolSize(), "Max pool size should be 10");
-        assertEquals(100, taskExecutor.getQueueCapacity(), "Queue capacity should be 100");
+        SimpleAsyncTaskExecutor taskExecutor = (SimpleAsyncTaskExecutor) executor;
+        assertFalse(taskExecutor.isThrottleActive(), "Concurrency is bounded by TransferDispatcher");
         assertTrue(taskExecutor.getThreadNamePrefix().startsWith("transfer-"),
                 "Thread name prefix should be 'transfer-'");
     }
 
     @Test
-    @DisplayName("websocketExecutor should be configured with correct settings")
-    void websocketExecutor_shouldBeConfiguredCorrectly() {
+    @DisplayName("transferExecutor should run tasks on virtual threads")
+    void transferExecutor_shouldRunOnVirtualThreads() throws Exception {
+        // Arrange
+        Executor executor = config.transferExecutor();
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+
         // Act
-        Executor executor = config.websocketExecutor();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
 
         // Assert
-        assertNotNull(executor, "websocketExecutor should not be null");
-        assertTrue(executor instanceof ThreadPoolTaskExecutor, "Should be ThreadPoolTaskExecutor");
-
-        ThreadPoolTaskExecutor taskExecutor = (ThreadPoolTaskExecutor) executor;
-        assertEquals(2, taskExecutor.getCorePoolSize(), "Core pool size should be 2");
-        assertEquals(4, taskExecutor.getMaxPoolSize(), "Max pool size should be 4");
-        assertEquals(100, taskExecutor.getQueueCapacity(), "Queue capacity should be 100");
-        assertTrue(taskExecutor.getThreadNamePrefix().startsWith("websocket-"),
-                "Thread name prefix should be 'websocket-'");
+        Thread worker = thread.get(5, TimeUnit.SECONDS);
+        assertTrue(worker.isVirtual(), "Transfer should run on a virtual thread");
+        assertTrue(worker.getName().startsWith("transfer-"), "Thread name should start with 'transfer-'");
     }
 
     @Test
@@ -87,59 +86,23 @@ class AsyncConfigTest {
     @DisplayName("All executors should have unique thread name prefixes")
     void allExecutors_shouldHaveUniqueThreadNamePrefixes() {
         // Act
-        ThreadPoolTaskExecutor transferExecutor = (ThreadPoolTaskExecutor) config.transferExecutor();
-        ThreadPoolTaskExecutor websocketExecutor = (ThreadPoolTaskExecutor) config.websocketExecutor();
+        SimpleAsyncTaskExecutor transferExecutor = (SimpleAsyncTaskExecutor) config.transferExecutor();
         ThreadPoolTaskExecutor pluginExecutor = (ThreadPoolTaskExecutor) config.pluginExecutor();
 
         // Assert
         String transferPrefix = transferExecutor.getThreadNamePrefix();
-        String websocketPrefix = websocketExecutor.getThreadNamePrefix();
         String pluginPrefix = pluginExecutor.getThreadNamePrefix();
 
-        assertNotEquals(transferPrefix, websocketPrefix, "Transfer and WebSocket should have different prefixes");
         assertNotEquals(transferPrefix, pluginPrefix, "Transfer and Plugin should have different prefixes");
-        assertNotEquals(websocketPrefix, pluginPrefix, "WebSocket and Plugin should have different prefixes");
-    }
-
-    @Test
-    @DisplayName("websocketExecutor should have smaller pool than transferExecutor")
-    void websocketExecutor_shouldHaveSmallerPoolThanTransferExecutor() {
-        // Act
-        ThreadPoolTaskExecutor transferExecutor = (ThreadPoolTaskExecutor) config.transferExecutor();
-        ThreadPoolTaskExecutor websocketExecutor = (ThreadPoolTaskExecutor) config.websocketExecutor();
-
-        // Assert - WebSocket is lower priority, should have smaller pool
-        assertTrue(websocketExecutor.getCorePoolSize() <= transferExecutor.getCorePoolSize(),
-                "WebSocket core pool should be <= transfer core pool");
-        assertTrue(websocketExecutor.getMaxPoolSize() <= transferExecutor.getMaxPoolSize(),
-                "WebSocket max pool should be <= transfer max pool");
-    }
-
-    @Test
-    @DisplayName("pluginExecutor should have smaller queue than transferExecutor")
-    void pluginExecutor_shouldHaveSmallerQueueThanTransferExecutor() {
-        // Act
-        ThreadPoolTaskExecutor transferExecutor = (ThreadPoolTaskExecutor) config.transferExecutor();
-        ThreadPoolTaskExecutor pluginExecutor = (ThreadPoolTaskExecutor) config.pluginExecutor();
-
-        // Assert - Plugin queue should be smaller (plugins can use CallerRunsPolicy fallback)
-        assertTrue(pluginExecutor.getQueueCapacity() <= transferExecutor.getQueueCapacity(),
-                "Plugin queue should be <= transfer queue");
     }
 
     @Test
     @DisplayName("Executors should be properly initialized after creation")
     void executors_shouldBeInitializedAfterCreation() {
         // Act
-        ThreadPoolTaskExecutor transferExecutor = (ThreadPoolTaskExecutor) config.transferExecutor();
-        ThreadPoolTaskExecutor websocketExecutor = (ThreadPoolTaskExecutor) config.websocketExecutor();
         ThreadPoolTaskExecutor pluginExecutor = (ThreadPoolTaskExecutor) config.pluginExecutor();
 
-        // Assert - All executors should be initialized and have thread pools
-        assertNotNull(transferExecutor.getThreadPoolExecutor(),
-                "Transfer executor should have initialized thread pool");
-        assertNotNull(websocketExecutor.getThreadPoolExecutor(),
-                "WebSocket executor should have initialized thread pool");
+        // Assert - Pooled executors should be initialized and have thread pools
         assertNotNull(pluginExecutor.getThreadPoolExecutor(),
                 "Plugin executor should have initialized thread pool");
     }
@@ -0,0 +1,225 @@
+package com.pesitwizard.client.connector;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.StorageConnector;
+
+@DisplayName("ConnectorPool Tests")
+class ConnectorPoolTest {
+
+    private static final String CONNECTION = "conn-1";
+    private static final String CONFIG = "sftp:{\"host\":\"a\"}";
+
+    private final List<StorageConnector> created = new ArrayList<>();
+
+    private ConnectorPool pool(int maxTotal, int maxIdle, long validateAfterIdleMs) {
+        return new ConnectorPool(true, maxTotal, maxIdle, 300_000, validateAfterIdleMs, 50, 1_800_000);
+    }
+
+    private ConnectorPool.ConnectorSupplier supplier(boolean threadSafe) {
+        return () -> {
+            StorageConnector connector = mock(StorageConnector.class);
+            lenient().when(connector.isThreadSafe()).thenReturn(threadSafe);
+            created.add(connector);
+            return connector;
+        };
+    }
+
+    @Nested
+    @DisplayName("Thread-safe connectors")
+    class ThreadSafe {
+
+        @Test
+        @DisplayName("should share one connector between concurrent leases")
+        void shouldShareOneConnector() throws Exception {
+            ConnectorPool pool = pool(8, 4, 30_000);
+
+            StorageConnector first = pool.acquire(CONNECTION, CONFIG, supplier(true));
+            StorageConnector second = pool.acquire(CONNECTION, CONFIG, supplier(true));
+            first.exists("a.txt");
+            second.exists("b.txt");
+            first.close();
+            second.close();
+
+            assertThat(created).hasSize(1);
+            verify(created.get(0)).exists("a.txt");
+            verify(created.get(0)).exists("b.txt");
+            verify(created.get(0), never()).close();
+            assertThat(pool.getIdleCount(CONNECTION)).isEqualTo(1);
+            assertThat(pool.getBorrowedCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should close shared connector on invalidate once no longer borrowed")
+        void shouldCloseOnInvalidateAfterRelease() throws Exception {
+            ConnectorPool pool = pool(8, 4, 30_000);
+            StorageConnector lease = pool.acquire(CONNECTION, CONFIG, supplier(true));
+
+            pool.invalidate(CONNECTION);
+            verify(created.get(0), never()).close();
+            lease.close();
+
+            verify(created.get(0)).close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Other connectors")
+    class Exclusive {
+
+        @Test
+        @DisplayName("should lend one connector per lease and reuse it afterwards")
+        void shouldReuseReleasedConnector() throws Exception {
+            ConnectorPool pool = pool(8, 4, 30_000);
+
+            StorageConnector first = pool.acquire(CONNECTION, CONFIG, supplier(false));
+            StorageConnector second = pool.acquire(CONNECTION, CONFIG, supplier(false));
+            first.close();
+            second.close();
+            pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+
+            assertThat(created).hasSize(2);
+            assertThat(pool.getIdleCount(CONNECTION)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should close connectors beyond maxIdle")
+        void shouldCloseBeyondMaxIdle() throws Exception {
+            ConnectorPool pool = pool(8, 1, 30_000);
+
+            StorageConnector first = pool.acquire(CONNECTION, CONFIG, supplier(false));
+            StorageConnector second = pool.acquire(CONNECTION, CONFIG, supplier(false));
+            first.close();
+            second.close();
+
+            verify(created.get(0), never()).close();
+            verify(created.get(1)).close();
+            assertThat(pool.getIdleCount(CONNECTION)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should fail after borrow timeout when maxTotal connectors are borrowed")
+        void shouldTimeOutAtMaxTotal() throws Exception {
+            ConnectorPool pool = pool(1, 1, 30_000);
+            StorageConnector lease = pool.acquire(CONNECTION, CONFIG, supplier(false));
+
+            assertThatThrownBy(() -> pool.acquire(CONNECTION, CONFIG, supplier(false)))
+                    .isInstanceOf(ConnectorException.class);
+
+            lease.close();
+            pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+            assertThat(created).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("should not block other leases while a connector is created")
+        void shouldCreateOutsidePoolLock() throws Exception {
+            ConnectorPool pool = pool(2, 2, 30_000);
+            StorageConnector lease = pool.acquire(CONNECTION, CONFIG, supplier(false));
+            CountDownLatch creating = new CountDownLatch(1);
+            CountDownLatch proceed = new CountDownLatch(1);
+            CompletableFuture<StorageConnector> slow = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.acquire(CONNECTION, CONFIG, () -> {
+                        creating.countDown();
+                        try {
+                            proceed.await();
+                        } catch (InterruptedException e) {
+                            throw new ConnectorException("Interrupted", e);
+                        }
+                        return mock(StorageConnector.class);
+                    });
+                } catch (ConnectorException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            try {
+                assertThat(creating.await(5, TimeUnit.SECONDS)).isTrue();
+                assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                    lease.close();
+                    pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+                });
+            } finally {
+                proceed.countDown();
+            }
+            slow.get(5, TimeUnit.SECONDS).close();
+
+            assertThat(created).hasSize(1);
+            assertThat(pool.getIdleCount(CONNECTION)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should replace a connector failing validation")
+        void shouldReplaceInvalidConnector() throws Exception {
+            ConnectorPool pool = pool(8, 4, 0);
+            pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+            when(created.get(0).testConnection()).thenReturn(false);
+
+            pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+
+            assertThat(created).hasSize(2);
+            verify(created.get(0)).close();
+        }
+    }
+
+    @Test
+    @DisplayName("should retire connectors when the connection configuration changes")
+    void shouldRetireOnConfigurationChange() throws Exception {
+        ConnectorPool pool = pool(8, 4, 30_000);
+        pool.acquire(CONNECTION, CONFIG, supplier(false)).close();
+
+        pool.acquire(CONNECTION, "sftp:{\"host\":\"b\"}", supplier(false)).close();
+
+        assertThat(created).hasSize(2);
+        verify(created.get(0)).close();
+    }
+
+    @Test
+    @DisplayName("should close idle connectors on eviction")
+    void shouldEvictIdleConnectors() throws Exception {
+        ConnectorPool pool = new ConnectorPool(true, 8, 4, 0, 30_000, 50, 1_800_000);
+        pool.acquire(CONNECTION, CONFIG, supplier(true)).close();
+        Thread.sleep(5);
+
+        pool.evict();
+
+        verify(created.get(0)).close();
+        assertThat(pool.getIdleCount(CONNECTION)).isZero();
+    }
+
+    @Test
+    @DisplayName("should reject calls on a lease after it is closed")
+    void shouldRejectCallsAfterClose() throws Exception {
+        ConnectorPool pool = pool(8, 4, 30_000);
+        StorageConnector lease = pool.acquire(CONNECTION, CONFIG, supplier(false));
+        lease.close();
+        lease.close();
+
+        assertThatThrownBy(() -> lease.read("a.txt")).isInstanceOf(ConnectorException.class);
+        assertThat(pool.getIdleCount(CONNECTION)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should create a new connector per acquire when disabled")
+    void shouldBypassPoolWhenDisabled() throws Exception {
+        ConnectorPool pool = new ConnectorPool(false, 8, 4, 300_000, 30_000, 50, 1_800_000);
+
+        StorageConnector connector = pool.acquire(CONNECTION, CONFIG, supplier(true));
+
+        assertThat(connector).isSameAs(created.get(0));
+    }
+}
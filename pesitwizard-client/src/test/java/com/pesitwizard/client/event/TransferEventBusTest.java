@@ -1,9 +1,16 @@
 package com.pesitwizard.client.event;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,7 +27,7 @@ import com.pesitwizard.client.pesit.ClientState;
 
 /**
  * Unit tests for TransferEventBus.
- * Tests the event publishing logic to both Spring events and WebSocket.
+ * Tests the event delivery to both Spring events and WebSocket.
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("TransferEventBus Unit Tests")
@@ -50,64 +57,88 @@ class TransferEventBusTest {
     }
 
     @Test
-    @DisplayName("publish() should call both Spring event publisher and WebSocket async")
-    void publish_shouldCallBothChannels() {
+    @DisplayName("publish() should deliver to plugins and WebSocket off the caller thread")
+    void publish_shouldDeliverOffCallerThread() throws Exception {
         // Arrange
         TransferEvent event = TransferEvent.progress(TEST_TRANSFER_ID, 5000L, 10000L);
+        CompletableFuture<Thread> pluginThread = new CompletableFuture<>();
+        doAnswer(inv -> pluginThread.complete(Thread.currentThread())).when(eventPublisher).publishEvent(event);
 
         // Act
         eventBus.publish(event);
 
-        // Assert - Spring event should be published synchronously
-        verify(eventPublisher, times(1)).publishEvent(event);
-
-        // Note: WebSocket publishing is async, so we verify it's called
-        // but the actual execution happens in a separate thread
-        verify(messagingTemplate, timeout(1000).atLeastOnce())
-            .convertAndSend(any(String.class), any(TransferEvent.class));
+        // Assert
+        Thread thread = pluginThread.get(1, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread(), thread, "Plugins should not run on the publishing thread");
+        assertTrue(thread.getName().startsWith("transfer-events-"));
+        verify(messagingTemplate, timeout(1000))
+            .convertAndSend(eq("/topic/transfer/" + TEST_TRANSFER_ID + "/progress"), eq(event));
+        verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/transfers"), eq(List.of(event)));
     }
 
     @Test
-    @DisplayName("publishToWebSocketAsync() should publish to correct topic with /progress suffix")
-    void publishToWebSocketAsync_shouldUseCorrectTopic() throws InterruptedException {
-        // Arrange
-        TransferEvent event = TransferEvent.progress(TEST_TRANSFER_ID, 5000L, 10000L);
+    @DisplayName("publish() should not block when a plugin is slow")
+    void publish_shouldNotBlockOnSlowPlugin() throws Exception {
+        // Arrange - first listener call blocks until released
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS))
+            .when(eventPublisher).publishEvent(any(TransferEvent.class));
 
         // Act
-        eventBus.publishToWebSocketAsync(event);
-
-        // Wait for async execution
-        Thread.sleep(200);
-
-        // Assert - Should publish to /topic/transfer/{id}/progress
-        verify(messagingTemplate, times(1))
-            .convertAndSend(eq("/topic/transfer/" + TEST_TRANSFER_ID + "/progress"), eq(event));
-
-        // Should also publish to broadcast topic
-        verify(messagingTemplate, times(1))
-            .convertAndSend(eq("/topic/transfers"), eq(event));
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            eventBus.syncPoint(TEST_TRANSFER_ID, i, i * 1000L);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert - nothing lost once the plugin catches up, WebSocket not held back
+        assertTrue(elapsedMs < 1000, "publish() took " + elapsedMs + " ms");
+        verify(messagingTemplate, timeout(1000).times(1000))
+            .convertAndSend(eq("/topic/transfer/" + TEST_TRANSFER_ID + "/progress"), any(TransferEvent.class));
+        verify(eventPublisher, timeout(5000).times(1000)).publishEvent(any(TransferEvent.class));
     }
 
     @Test
-    @DisplayName("publishToWebSocketAsync() should publish to broadcast topic")
-    void publishToWebSocketAsync_shouldPublishToBroadcast() throws InterruptedException {
-        // Arrange
-        TransferEvent event = TransferEvent.completed(TEST_TRANSFER_ID, 10000L);
+    @DisplayName("Queued progress events of a transfer should be conflated, latest wins")
+    void progress_shouldBeConflatedWhileQueued() throws Exception {
+        // Arrange - hold the plugin sink on the first event
+        CountDownLatch release = new CountDownLatch(1);
+        List<TransferEvent> received = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            TransferEvent event = inv.getArgument(0);
+            if (received.isEmpty()) {
+                received.add(event);
+                release.await(5, TimeUnit.SECONDS);
+            } else {
+                received.add(event);
+            }
+            return null;
+        }).when(eventPublisher).publishEvent(any(TransferEvent.class));
+        eventBus.stateChange(TEST_TRANSFER_ID, ClientState.CN01_REPOS, ClientState.CN02A_CONNECT_PENDING);
+        verify(eventPublisher, timeout(1000)).publishEvent(any(TransferEvent.class));
 
         // Act
-        eventBus.publishToWebSocketAsync(event);
-
-        // Wait for async execution
-        Thread.sleep(200);
+        for (int i = 1; i <= 100; i++) {
+            eventBus.progress(TEST_TRANSFER_ID, i * 100L, 10000L);
+            eventBus.progress("other-transfer", i * 10L, 1000L);
+        }
+        eventBus.completed(TEST_TRANSFER_ID, 10000L);
+        release.countDown();
 
         // Assert
-        verify(messagingTemplate, times(1))
-            .convertAndSend(eq("/topic/transfers"), eq(event));
+        verify(eventPublisher, timeout(1000).times(4)).publishEvent(any(TransferEvent.class));
+        assertEquals(TransferEvent.EventType.STATE_CHANGE, received.get(0).getType());
+        assertEquals(TEST_TRANSFER_ID, received.get(1).getTransferId());
+        assertEquals(100, received.get(1).getPercentComplete());
+        assertEquals("other-transfer", received.get(2).getTransferId());
+        assertEquals(100, received.get(2).getPercentComplete());
+        assertEquals(TransferEvent.EventType.COMPLETED, received.get(3).getType());
     }
 
     @Test
-    @DisplayName("publishToWebSocketAsync() should handle null transferId gracefully")
-    void publishToWebSocketAsync_withNullTransferId_shouldOnlyPublishToBroadcast() throws InterruptedException {
+    @DisplayName("Events without transferId should only go to the broadcast topic")
+    void publish_withNullTransferId_shouldOnlyPublishToBroadcast() {
         // Arrange
         TransferEvent event = TransferEvent.builder()
             .type(TransferEvent.EventType.ERROR)
@@ -116,37 +147,30 @@ class TransferEventBusTest {
             .build();
 
         // Act
-        eventBus.publishToWebSocketAsync(event);
-
-        // Wait for async execution
-        Thread.sleep(200);
+        eventBus.publish(event);
 
         // Assert - Should only publish to broadcast topic
-        verify(messagingTemplate, times(1))
-            .convertAndSend(eq("/topic/transfers"), eq(event));
-
-        // Should NOT publish to transfer-specific topic
+        verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/transfers"), eq(List.of(event)));
         verify(messagingTemplate, never())
             .convertAndSend(contains("/topic/transfer/"), any(TransferEvent.class));
     }
 
     @Test
-    @DisplayName("publishToWebSocketAsync() should not throw exception if WebSocket fails")
-    void publishToWebSocketAsync_shouldHandleWebSocketFailure() throws InterruptedException {
+    @DisplayName("Failing WebSocket or plugin should not stop later events")
+    void publish_shouldSurviveDeliveryFailures() {
         // Arrange
-        TransferEvent event = TransferEvent.error(TEST_TRANSFER_ID, "Test error", "1234");
         doThrow(new RuntimeException("WebSocket connection failed"))
-            .when(messagingTemplate).convertAndSend(any(String.class), any(TransferEvent.class));
+            .when(messagingTemplate).convertAndSend(any(String.class), any(Object.class));
+        doThrow(new RuntimeException("Kafka down")).when(eventPublisher).publishEvent(any(TransferEvent.class));
 
-        // Act - should not throw exception
-        eventBus.publishToWebSocketAsync(event);
-
-        // Wait for async execution
-        Thread.sleep(200);
+        // Act
+        eventBus.error(TEST_TRANSFER_ID, "Test error", "1234");
+        eventBus.cancelled(TEST_TRANSFER_ID);
 
-        // Assert - verify attempt was made
-        verify(messagingTemplate, atLeastOnce())
-            .convertAndSend(any(String.class), any(TransferEvent.class));
+        // Assert
+        verify(eventPublisher, timeout(1000).times(2)).publishEvent(any(TransferEvent.class));
+        verify(messagingTemplate, timeout(1000).times(2))
+            .convertAndSend(contains("/topic/transfer/"), any(Object.class));
     }
 
     @Test
@@ -160,7 +184,7 @@ class TransferEventBusTest {
         eventBus.stateChange(TEST_TRANSFER_ID, from, to);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.STATE_CHANGE;
@@ -180,7 +204,7 @@ class TransferEventBusTest {
         eventBus.progress(TEST_TRANSFER_ID, bytes, total);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.PROGRESS;
@@ -201,7 +225,7 @@ class TransferEventBusTest {
         eventBus.syncPoint(TEST_TRANSFER_ID, syncNum, bytePos);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.SYNC_POINT;
@@ -221,7 +245,7 @@ class TransferEventBusTest {
         eventBus.error(TEST_TRANSFER_ID, errorMessage, diagCode);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.ERROR;
@@ -240,7 +264,7 @@ class TransferEventBusTest {
         eventBus.completed(TEST_TRANSFER_ID, totalBytes);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.COMPLETED;
@@ -255,7 +279,7 @@ class TransferEventBusTest {
         eventBus.cancelled(TEST_TRANSFER_ID);
 
         // Assert
-        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        verify(eventPublisher, timeout(1000)).publishEvent(eventCaptor.capture());
         TransferEvent capturedEvent = eventCaptor.getValue();
 
         assert capturedEvent.getType() == TransferEvent.EventType.CANCELLED;
@@ -275,8 +299,8 @@ class TransferEventBusTest {
         eventBus.publish(event2);
         eventBus.publish(event3);
 
-        // Assert - Events should be published in order (Spring events are synchronous)
-        verify(eventPublisher, times(3)).publishEvent(eventCaptor.capture());
+        // Assert - Events should be published in order
+        verify(eventPublisher, timeout(1000).times(3)).publishEvent(eventCaptor.capture());
         var capturedEvents = eventCaptor.getAllValues();
 
         assert capturedEvents.get(0).getType() == TransferEvent.EventType.STATE_CHANGE;
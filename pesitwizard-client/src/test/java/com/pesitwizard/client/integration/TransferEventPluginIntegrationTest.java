@@ -50,7 +50,7 @@ class TransferEventPluginIntegrationTest {
     }
 
     @Test
-    @DisplayName("Synchronous plugin should receive all events")
+    @DisplayName("Plugin should receive all events")
     void synchronousPlugin_shouldReceiveAllEvents() throws InterruptedException {
         // Arrange
         String transferId = "sync-test-123";
@@ -61,9 +61,7 @@ class TransferEventPluginIntegrationTest {
         eventBus.syncPoint(transferId, 5, 50000L);
         eventBus.completed(transferId, 10000L);
 
-        // Assert - Synchronous events should be immediate
-        assertEquals(4, syncPlugin.receivedEvents.size(), "Should receive all 4 events");
-
+        // Assert - Events are delivered on the bus thread, in order
         TransferEvent event1 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
         assertNotNull(event1);
         assertEquals(TransferEvent.EventType.PROGRESS, event1.getType());
@@ -125,11 +123,7 @@ class TransferEventPluginIntegrationTest {
         eventBus.progress(transferId, 7500L, 10000L);
         eventBus.error(transferId, "Test error", "1234");
 
-        // Assert - Both sync and filtered plugins should have received events
-        assertFalse(syncPlugin.receivedEvents.isEmpty(), "Sync plugin should receive events");
-        assertFalse(filteredPlugin.receivedEvents.isEmpty(), "Filtered plugin should receive error event");
-
-        // Sync plugin should have both events
+        // Assert - Sync plugin should have both events
         TransferEvent syncEvent1 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
         TransferEvent syncEvent2 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
         assertNotNull(syncEvent1);
@@ -154,18 +148,12 @@ class TransferEventPluginIntegrationTest {
         eventBus.progress(transferId, 5000L, 10000L);
         eventBus.completed(transferId, 10000L);
 
-        // Assert - Events should be received in order (sync plugin)
+        // Assert - Events should be received in order; the two progress events
+        // may have been conflated into the latest one
         TransferEvent event1 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
         TransferEvent event2 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
-        TransferEvent event3 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
-        TransferEvent event4 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
-        TransferEvent event5 = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
-
         assertNotNull(event1);
         assertNotNull(event2);
-        assertNotNull(event3);
-        assertNotNull(event4);
-        assertNotNull(event5);
 
         assertEquals(TransferEvent.EventType.STATE_CHANGE, event1.getType());
         assertEquals(ClientState.CN02A_CONNECT_PENDING, event1.getCurrentState());
@@ -173,13 +161,17 @@ class TransferEventPluginIntegrationTest {
         assertEquals(TransferEvent.EventType.STATE_CHANGE, event2.getType());
         assertEquals(ClientState.CN03_CONNECTED, event2.getCurrentState());
 
-        assertEquals(TransferEvent.EventType.PROGRESS, event3.getType());
-        assertEquals(10, event3.getPercentComplete());
-
-        assertEquals(TransferEvent.EventType.PROGRESS, event4.getType());
-        assertEquals(50, event4.getPercentComplete());
+        TransferEvent event = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
+        TransferEvent lastProgress = null;
+        while (event != null && event.getType() == TransferEvent.EventType.PROGRESS) {
+            lastProgress = event;
+            event = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS);
+        }
+        assertNotNull(lastProgress);
+        assertEquals(50, lastProgress.getPercentComplete());
 
-        assertEquals(TransferEvent.EventType.COMPLETED, event5.getType());
+        assertNotNull(event);
+        assertEquals(TransferEvent.EventType.COMPLETED, event.getType());
     }
 
     @Test
@@ -194,22 +186,24 @@ class TransferEventPluginIntegrationTest {
             eventBus.progress(transferId, i * 100L, 10000L);
         }
 
-        // Assert - All events should be received by sync plugin
-        assertEquals(eventCount, syncPlugin.receivedEvents.size(),
-            "Sync plugin should receive all " + eventCount + " events");
-
-        // Verify first and last events
-        TransferEvent firstEvent = syncPlugin.receivedEvents.poll();
-        assertNotNull(firstEvent);
-        assertEquals(1, firstEvent.getPercentComplete());
-
-        // Skip to last
+        // Assert - Progress is conflated: at most one event per publication,
+        // in increasing order, ending with the latest
         TransferEvent lastEvent = null;
-        while (!syncPlugin.receivedEvents.isEmpty()) {
-            lastEvent = syncPlugin.receivedEvents.poll();
+        int received = 0;
+        TransferEvent event;
+        while ((event = syncPlugin.receivedEvents.poll(1, TimeUnit.SECONDS)) != null) {
+            if (lastEvent != null) {
+                assertTrue(event.getPercentComplete() > lastEvent.getPercentComplete());
+            }
+            lastEvent = event;
+            received++;
+            if (event.getPercentComplete() == 100) {
+                break;
+            }
         }
         assertNotNull(lastEvent);
         assertEquals(100, lastEvent.getPercentComplete());
+        assertTrue(received <= eventCount, "Should not receive more than " + eventCount + " events");
     }
 
     @Test
@@ -3,6 +3,7 @@ package com.pesitwizard.client.integration;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -77,8 +78,7 @@ class WebSocketEventIntegrationTest {
      */
     private void publishAndWait(Runnable publisher) throws InterruptedException {
         publisher.run();
-        // Wait for async @Async(websocketExecutor) method to execute and deliver
-        // message
+        // Wait for the event bus WebSocket sink to deliver the message
         Thread.sleep(1000);
     }
 
@@ -290,12 +290,13 @@ class WebSocketEventIntegrationTest {
         stompSession.subscribe(broadcastTopic, new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
-                return TransferEvent.class;
+                return TransferEvent[].class;
             }
 
             @Override
             public void handleFrame(StompHeaders headers, Object payload) {
-                receivedEvents.add((TransferEvent) payload);
+                // One list of events per delivery batch
+                receivedEvents.addAll(Arrays.asList((TransferEvent[]) payload));
             }
         });
         waitForSubscription();
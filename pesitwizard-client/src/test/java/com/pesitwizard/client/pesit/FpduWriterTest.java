@@ -6,6 +6,9 @@ import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -14,9 +17,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.fpdu.DtfEntityAssembler;
+import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.session.PesitSession;
 
 @ExtendWith(MockitoExtension.class)
@@ -231,6 +239,111 @@ class FpduWriterTest {
         }
     }
 
+    @Nested
+    @DisplayName("Channel Source")
+    class ChannelSourceTests {
+
+        @TempDir
+        Path tempDir;
+
+        private ConnectorReadChannel source(int size) throws IOException {
+            byte[] data = new byte[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = (byte) i;
+            }
+            Path file = Files.write(tempDir.resolve("source.dat"), data);
+            return ConnectorReadChannel.of(FileChannel.open(file));
+        }
+
+        @Test
+        @DisplayName("should send region directly when transport supports it")
+        void shouldSendRegionDirectly() throws Exception {
+            when(session.supportsDirectPayload(anyInt())).thenReturn(true);
+            FpduWriter writer = new FpduWriter(session, SERVER_CONNECTION_ID, 32768);
+
+            try (ConnectorReadChannel source = source(40000)) {
+                assertEquals(20000, writer.writeDtf(source, 100, 20000, true));
+            }
+
+            verify(session).sendFpduWithPayload(any(Fpdu.class), eq(20000), any());
+            verify(session, never()).sendFpduWithData(any(), any());
+            assertEquals(20000, writer.getTotalBytesSent());
+        }
+
+        @Test
+        @DisplayName("should copy region of a non-native source")
+        void shouldCopyNonNativeSource() throws Exception {
+            FpduWriter writer = new FpduWriter(session, SERVER_CONNECTION_ID, 1000);
+
+            try (ConnectorReadChannel source = source(300)) {
+                assertEquals(100, writer.writeDtf(source, 10, 100, false));
+            }
+
+            ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+            verify(session).sendFpduWithData(any(), sent.capture());
+            assertEquals(100, sent.getValue().length);
+            assertEquals(10, sent.getValue()[0]);
+            verify(session, never()).sendFpduWithPayload(any(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("should send what is left at end of file")
+        void shouldStopAtEndOfFile() throws Exception {
+            FpduWriter writer = new FpduWriter(session, SERVER_CONNECTION_ID, 1000);
+
+            try (ConnectorReadChannel source = source(250)) {
+                assertEquals(50, writer.writeDtf(source, 200, 100, true));
+                assertEquals(0, writer.writeDtf(source, 250, 100, true));
+            }
+
+            ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+            verify(session, times(1)).sendFpduWithData(any(), sent.capture());
+            byte[] expected = new byte[50];
+            for (int i = 0; i < 50; i++) {
+                expected[i] = (byte) (200 + i);
+            }
+            assertArrayEquals(expected, sent.getValue());
+        }
+    }
+
+    @Nested
+    @DisplayName("Record Packing")
+    class RecordPackingTests {
+
+        @Test
+        @DisplayName("should pack records only when two of them fit in an entity")
+        void shouldPackWhenTwoRecordsFit() {
+            assertTrue(new FpduWriter(session, SERVER_CONNECTION_ID, 4096, 506, false).packsRecords());
+            assertFalse(new FpduWriter(session, SERVER_CONNECTION_ID, 4096, 3000, false).packsRecords());
+            assertFalse(new FpduWriter(session, SERVER_CONNECTION_ID, 4096, 0, false).packsRecords());
+        }
+
+        @Test
+        @DisplayName("should fill one entity with all records that fit")
+        void shouldFillEntityWithRecords() throws Exception {
+            FpduWriter writer = new FpduWriter(session, SERVER_CONNECTION_ID, 4096, 100, false);
+            java.nio.channels.ReadableByteChannel source = java.nio.channels.Channels
+                    .newChannel(new ByteArrayInputStream(new byte[1250]));
+
+            assertEquals(1250, writer.fillEntity(source));
+            assertEquals(1250, writer.sendEntity());
+            assertEquals(0, writer.fillEntity(source));
+
+            verify(session, times(1)).sendEntity(any(DtfEntityAssembler.class));
+            verify(session, never()).sendFpduWithData(any(), any());
+            assertEquals(1250, writer.getTotalBytesSent());
+        }
+
+        @Test
+        @DisplayName("should cap entity size to the sync interval")
+        void shouldCapEntityToSyncInterval() {
+            assertEquals(6 + 20 * 508, FpduWriter.entitySizeForSyncInterval(65535, 506, 10240));
+            assertEquals(6 + 508, FpduWriter.entitySizeForSyncInterval(65535, 506, 100));
+            assertEquals(4096, FpduWriter.entitySizeForSyncInterval(4096, 506, 1 << 20));
+            assertEquals(65535, FpduWriter.entitySizeForSyncInterval(65535, 506, 0));
+        }
+    }
+
     @Nested
     @DisplayName("Error Handling")
     class ErrorHandlingTests {
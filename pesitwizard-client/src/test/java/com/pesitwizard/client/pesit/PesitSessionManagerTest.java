@@ -0,0 +1,125 @@
+package com.pesitwizard.client.pesit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.pesitwizard.client.pesit.PesitSessionManager.SessionKey;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.session.PesitSession;
+
+@DisplayName("PesitSessionManager Tests")
+class PesitSessionManagerTest {
+
+    private final SessionKey key = new SessionKey("server-1", "PARTNER", null, true, true, 1, true);
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private PesitConnection newConnection() {
+        opened.incrementAndGet();
+        PesitSession session = mock(PesitSession.class);
+        when(session.isConnected()).thenReturn(true);
+        return new PesitConnection(session, 1, new Fpdu(FpduType.ACONNECT).withIdSrc(opened.get()));
+    }
+
+    @Nested
+    @DisplayName("Session reuse")
+    class SessionReuseTests {
+
+        @Test
+        @DisplayName("should run successive transfers over one connected session")
+        void shouldReuseConnectedSession() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 2, 30000);
+
+            PesitConnection first = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+            first.transferCompleted();
+            manager.release(key, first);
+            PesitConnection second = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.getTransferCount()).isEqualTo(1);
+            assertThat(opened).hasValue(1);
+            verify(first.getSession(), never()).close();
+        }
+
+        @Test
+        @DisplayName("should not share sessions between partners")
+        void shouldNotShareSessionsBetweenKeys() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 2, 30000);
+            SessionKey otherPartner = new SessionKey("server-1", "OTHER", null, true, true, 1, true);
+
+            manager.release(key, manager.acquire(key, PesitSessionManagerTest.this::newConnection));
+            manager.acquire(otherPartner, PesitSessionManagerTest.this::newConnection);
+
+            assertThat(opened).hasValue(2);
+            assertThat(manager.getIdleCount(key)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should release sessions beyond maxIdle")
+        void shouldReleaseSessionsBeyondMaxIdle() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 1, 30000);
+            PesitConnection first = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+            PesitConnection second = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+
+            manager.release(key, first);
+            manager.release(key, second);
+
+            assertThat(manager.getIdleCount(key)).isEqualTo(1);
+            verify(second.getSession()).sendFpduWithAck(argThat(f -> f.getFpduType() == FpduType.RELEASE));
+            verify(second.getSession()).close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Failures and expiry")
+    class FailureTests {
+
+        @Test
+        @DisplayName("should close a broken session instead of keeping it")
+        void shouldCloseBrokenSession() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 2, 30000);
+            PesitConnection connection = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+
+            connection.markBroken();
+            manager.release(key, connection);
+
+            assertThat(manager.getIdleCount(key)).isZero();
+            verify(connection.getSession(), never()).sendFpduWithAck(any());
+            verify(connection.getSession()).close();
+        }
+
+        @Test
+        @DisplayName("should release expired idle sessions and open a new one")
+        void shouldReplaceExpiredSession() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 2, -1);
+            PesitConnection expired = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+            manager.release(key, expired);
+
+            PesitConnection fresh = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+
+            assertThat(fresh).isNotSameAs(expired);
+            verify(expired.getSession()).sendFpduWithAck(argThat(f -> f.getFpduType() == FpduType.RELEASE));
+            verify(expired.getSession()).close();
+        }
+
+        @Test
+        @DisplayName("evict should release idle sessions past the timeout")
+        void evictShouldReleaseIdleSessions() throws Exception {
+            PesitSessionManager manager = new PesitSessionManager(true, 2, -1);
+            PesitConnection connection = manager.acquire(key, PesitSessionManagerTest.this::newConnection);
+            manager.release(key, connection);
+
+            manager.evict();
+
+            assertThat(manager.getIdleCount(key)).isZero();
+            verify(connection.getSession()).close();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.pesitwizard.client.pesit;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.pesitwizard.client.dto.TransferRequest;
+import com.pesitwizard.client.entity.TransferConfig;
+import com.pesitwizard.client.pesit.TransferDispatcher.Lane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("TransferDispatcher Tests")
+class TransferDispatcherTest {
+
+    /** Holds started transfers until the test runs them */
+    private final Deque<Runnable> started = new ArrayDeque<>();
+    private final Executor executor = started::addLast;
+    private final List<String> order = new ArrayList<>();
+    private final List<String> abandoned = new ArrayList<>();
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    private TransferDispatcher dispatcher(int maxConcurrent, int maxPerServer, int maxPerPartner) {
+        return new TransferDispatcher(executor, registry, maxConcurrent, maxPerServer, maxPerPartner);
+    }
+
+    private Runnable transfer(String name) {
+        return () -> order.add(name);
+    }
+
+    /** Run the oldest started transfer to completion */
+    private void completeNext() {
+        started.pollFirst().run();
+    }
+
+    @Nested
+    @DisplayName("Concurrency limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("should hold transfers beyond the partner limit")
+        void shouldHoldTransfersBeyondPartnerLimit() {
+            TransferDispatcher dispatcher = dispatcher(100, 100, 2);
+
+            for (int i = 0; i < 5; i++) {
+                dispatcher.submit("srv", "SLOW", Lane.NORMAL, transfer("slow-" + i), abandoned::add);
+            }
+
+            assertThat(started).hasSize(2);
+            assertThat(dispatcher.getRunning()).isEqualTo(2);
+            assertThat(dispatcher.getQueued(Lane.NORMAL)).isEqualTo(3);
+
+            completeNext();
+
+            assertThat(started).hasSize(2);
+            assertThat(dispatcher.getQueued(Lane.NORMAL)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("a partner at its limit should not block other partners")
+        void saturatedPartnerShouldNotBlockOthers() {
+            TransferDispatcher dispatcher = dispatcher(100, 100, 1);
+
+            for (int i = 0; i < 10; i++) {
+                dispatcher.submit("srv", "SLOW", Lane.NORMAL, transfer("slow-" + i), abandoned::add);
+            }
+            dispatcher.submit("srv", "FAST", Lane.NORMAL, transfer("fast"), abandoned::add);
+
+            assertThat(started).hasSize(2);
+            started.pollLast().run();
+            assertThat(order).containsExactly("fast");
+        }
+
+        @Test
+        @DisplayName("should apply the server limit across partners")
+        void shouldApplyServerLimit() {
+            TransferDispatcher dispatcher = dispatcher(100, 2, 10);
+
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("a"), abandoned::add);
+            dispatcher.submit("srv", "B", Lane.NORMAL, transfer("b"), abandoned::add);
+            dispatcher.submit("srv", "C", Lane.NORMAL, transfer("c"), abandoned::add);
+            dispatcher.submit("other", "C", Lane.NORMAL, transfer("other-c"), abandoned::add);
+
+            assertThat(started).hasSize(3);
+            assertThat(dispatcher.getQueued(Lane.NORMAL)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("a failing transfer should free its slot")
+        void failingTransferShouldFreeSlot() {
+            TransferDispatcher dispatcher = dispatcher(1, 1, 1);
+
+            dispatcher.submit("srv", "A", Lane.NORMAL, () -> {
+                throw new IllegalStateException("boom");
+            }, abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("next"), abandoned::add);
+            completeNext();
+            completeNext();
+
+            assertThat(order).containsExactly("next");
+            assertThat(dispatcher.getRunning()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Abandoned transfers")
+    class AbandonTests {
+
+        @Test
+        @DisplayName("should abandon a transfer rejected by the executor and free its slot")
+        void shouldAbandonRejectedTransfer() {
+            Executor rejecting = task -> {
+                throw new RejectedExecutionException("executor shut down");
+            };
+            TransferDispatcher dispatcher = new TransferDispatcher(rejecting, registry, 1, 1, 1);
+
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("a"), abandoned::add);
+
+            assertThat(abandoned).singleElement().asString().contains("rejected");
+            assertThat(order).isEmpty();
+            assertThat(dispatcher.getRunning()).isZero();
+        }
+
+        @Test
+        @DisplayName("should abandon queued and later transfers at shutdown")
+        void shouldAbandonQueuedTransfersAtShutdown() {
+            TransferDispatcher dispatcher = dispatcher(1, 1, 1);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("running"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("queued"), abandoned::add);
+
+            dispatcher.shutdown();
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("late"), abandoned::add);
+            completeNext();
+
+            assertThat(order).containsExactly("running");
+            assertThat(abandoned).hasSize(2);
+            assertThat(started).isEmpty();
+            assertThat(dispatcher.getQueued(Lane.NORMAL)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Scheduling order")
+    class OrderTests {
+
+        @Test
+        @DisplayName("should start higher priority lanes first")
+        void shouldStartHigherLanesFirst() {
+            TransferDispatcher dispatcher = dispatcher(1, 10, 10);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("first"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.LOW, transfer("low"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("normal"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.HIGH, transfer("high"), abandoned::add);
+
+            while (!started.isEmpty()) {
+                completeNext();
+            }
+
+            assertThat(order).containsExactly("first", "high", "normal", "low");
+        }
+
+        @Test
+        @DisplayName("partners should take turns within a lane")
+        void partnersShouldTakeTurns() {
+            TransferDispatcher dispatcher = dispatcher(1, 10, 10);
+            dispatcher.submit("srv", "Z", Lane.NORMAL, transfer("z"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("a0"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("a1"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.NORMAL, transfer("a2"), abandoned::add);
+            dispatcher.submit("srv", "B", Lane.NORMAL, transfer("b0"), abandoned::add);
+            dispatcher.submit("srv", "B", Lane.NORMAL, transfer("b1"), abandoned::add);
+
+            while (!started.isEmpty()) {
+                completeNext();
+            }
+
+            assertThat(order).containsExactly("z", "a0", "b0", "a1", "b1", "a2");
+        }
+    }
+
+    @Nested
+    @DisplayName("Priority and metrics")
+    class PriorityTests {
+
+        @Test
+        @DisplayName("should map 0-9 priorities to PI 17 lanes")
+        void shouldMapPriorityToLane() {
+            assertThat(Lane.of(0)).isEqualTo(Lane.HIGH);
+            assertThat(Lane.of(5)).isEqualTo(Lane.NORMAL);
+            assertThat(Lane.of(9)).isEqualTo(Lane.LOW);
+            assertThat(Lane.of((Integer) null)).isEqualTo(Lane.NORMAL);
+            assertThat(Lane.LOW.pi17()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("request priority should override the config priority")
+        void requestPriorityShouldOverrideConfig() {
+            TransferConfig config = TransferConfig.builder().priority(8).build();
+
+            assertThat(Lane.of(TransferRequest.builder().build(), config)).isEqualTo(Lane.LOW);
+            assertThat(Lane.of(TransferRequest.builder().priority(1).build(), config)).isEqualTo(Lane.HIGH);
+        }
+
+        @Test
+        @DisplayName("should publish queue depth, active count and wait time")
+        void shouldPublishMetrics() {
+            TransferDispatcher dispatcher = dispatcher(1, 1, 1);
+            dispatcher.submit("srv", "A", Lane.HIGH, transfer("a"), abandoned::add);
+            dispatcher.submit("srv", "A", Lane.HIGH, transfer("b"), abandoned::add);
+
+            assertThat(registry.get("pesit.transfers.queued").tag("lane", "high").gauge().value()).isEqualTo(1);
+            assertThat(registry.get("pesit.transfers.active").gauge().value()).isEqualTo(1);
+
+            completeNext();
+            completeNext();
+
+            assertThat(registry.get("pesit.transfers.wait").tag("lane", "high").timer().count()).isEqualTo(2);
+            assertThat(registry.get("pesit.transfers.active").gauge().value()).isZero();
+        }
+    }
+}
@@ -4,15 +4,20 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
@@ -20,13 +25,17 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.pesitwizard.client.dto.TransferRequest;
+import com.pesitwizard.client.dto.TransferResponse;
 import com.pesitwizard.client.dto.TransferStats;
+import com.pesitwizard.client.entity.PesitServer;
 import com.pesitwizard.client.entity.TransferHistory;
 import com.pesitwizard.client.entity.TransferHistory.TransferDirection;
 import com.pesitwizard.client.entity.TransferHistory.TransferStatus;
 import com.pesitwizard.client.pesit.PesitMessageService;
 import com.pesitwizard.client.pesit.PesitReceiveService;
 import com.pesitwizard.client.pesit.PesitSendService;
+import com.pesitwizard.client.pesit.PesitSendService.BatchItem;
 import com.pesitwizard.client.pesit.StorageConnectorFactory;
 import com.pesitwizard.client.repository.TransferConfigRepository;
 import com.pesitwizard.client.repository.TransferHistoryRepository;
@@ -103,6 +112,60 @@ class TransferServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("sendBatch")
+    class SendBatchTests {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("should send the files of one server in a single sequential batch")
+        @SuppressWarnings("unchecked")
+        void shouldGroupFilesOfOneServer() throws Exception {
+            PesitServer server = PesitServer.builder().id("server-1").name("TestServer").build();
+            when(serverService.findServer("TestServer")).thenReturn(Optional.of(server));
+            when(configRepository.findByDefaultConfigTrue()).thenReturn(Optional.empty());
+            AtomicInteger ids = new AtomicInteger();
+            when(historyRepository.save(any())).thenAnswer(inv -> {
+                TransferHistory h = inv.getArgument(0);
+                h.setId("t" + ids.incrementAndGet());
+                return h;
+            });
+            Path a = Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+            Path b = Files.writeString(tempDir.resolve("b.txt"), "bb");
+
+            List<TransferResponse> responses = transferService.sendBatch(List.of(
+                    batchRequest(a, "A"), batchRequest(b, "B")));
+
+            assertThat(responses).extracting(TransferResponse::getTransferId).containsExactly("t1", "t2");
+            ArgumentCaptor<List<BatchItem>> items = ArgumentCaptor.forClass(List.class);
+            verify(sendService, times(1)).sendBatchAsync(items.capture(), eq(server), any(), any(), any());
+            assertThat(items.getValue()).extracting(BatchItem::historyId).containsExactly("t1", "t2");
+            assertThat(items.getValue()).extracting(BatchItem::fileSize).containsExactly(4L, 2L);
+        }
+
+        @Test
+        @DisplayName("should reject the whole batch when a file is missing")
+        void shouldRejectBatchWithMissingFile() throws Exception {
+            PesitServer server = PesitServer.builder().id("server-1").name("TestServer").build();
+            when(serverService.findServer("TestServer")).thenReturn(Optional.of(server));
+            when(configRepository.findByDefaultConfigTrue()).thenReturn(Optional.empty());
+            Path a = Files.writeString(tempDir.resolve("a.txt"), "aaaa");
+
+            assertThatThrownBy(() -> transferService.sendBatch(List.of(
+                    batchRequest(a, "A"), batchRequest(tempDir.resolve("missing.txt"), "B"))))
+                    .hasMessageContaining("Cannot determine file size");
+            verify(historyRepository, never()).save(any());
+            verifyNoInteractions(sendService);
+        }
+
+        private TransferRequest batchRequest(Path file, String remote) {
+            return TransferRequest.builder().server("TestServer").partnerId("PARTNER")
+                    .filename(file.toString()).remoteFilename(remote).build();
+        }
+    }
+
     @Nested
     @DisplayName("getHistory")
     class GetHistoryTests {
@@ -0,0 +1,85 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel reading a file from a storage connector.
+ *
+ * Besides sequential reads, it supports positional reads that leave the
+ * channel position unchanged, so a transfer can resume or re-read from any
+ * offset without reopening the file, and transfers of a region to another
+ * channel. Channels backed by a local file hand such transfers to the kernel
+ * ({@link FileChannel#transferTo}); the default copies through a buffer.
+ *
+ * Not thread-safe: one channel per transfer.
+ */
+public interface ConnectorReadChannel extends SeekableByteChannel {
+
+    /**
+     * Read bytes starting at the given file position, without changing the
+     * channel position.
+     *
+     * @param dst      buffer to fill
+     * @param position file position of the first byte to read
+     * @return number of bytes read, -1 at end of file
+     * @throws IOException on read error
+     */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * Write up to count bytes of the file, starting at position, to the
+     * target channel. The channel position is unchanged.
+     *
+     * @param position file position of the first byte
+     * @param count    maximum number of bytes to transfer
+     * @param target   destination channel
+     * @return number of bytes transferred, less than count only at end of file
+     * @throws IOException on read or write error
+     */
+    default long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 64 * 1024));
+        long transferred = 0;
+        while (transferred < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+            int n = read(buffer, position + transferred);
+            if (n < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Read channel over a local file.
+     *
+     * @param file file channel open for reading, closed with the returned channel
+     * @return read channel using positional and zero-copy file operations
+     */
+    static ConnectorReadChannel of(FileChannel file) {
+        return new FileReadChannel(file);
+    }
+
+    /**
+     * Read channel prefetching a source on a background thread into a ring
+     * of reusable buffers, so that a slow source and a slow consumer overlap
+     * instead of adding up. Worth it for remote connectors, not for local
+     * files (page cache, zero-copy transferTo).
+     *
+     * @param source     channel to prefetch, closed with the returned channel
+     * @param buffers    number of buffers in the ring
+     * @param bufferSize size of each buffer
+     * @return read channel serving sequential reads from the ring
+     */
+    static ConnectorReadChannel readAhead(ConnectorReadChannel source, int buffers, int bufferSize) {
+        return new ReadAheadChannel(source, buffers, bufferSize);
+    }
+}
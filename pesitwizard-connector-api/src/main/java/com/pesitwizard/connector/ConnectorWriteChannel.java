@@ -0,0 +1,49 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel writing a file to a storage connector.
+ *
+ * Writes may be buffered by the connector; {@link #force()} is an explicit
+ * checkpoint after which everything written so far must survive a crash of
+ * this process (and, for local files, of the host). Transfers call it only
+ * where they promise durability to the partner, since it can be costly.
+ *
+ * Not thread-safe: one channel per transfer.
+ */
+public interface ConnectorWriteChannel extends WritableByteChannel {
+
+    /**
+     * Make all bytes written so far durable.
+     *
+     * @throws IOException if the data cannot be made durable
+     */
+    void force() throws IOException;
+
+    /**
+     * Write channel over a local file.
+     *
+     * @param file file channel open for writing, closed with the returned channel
+     * @return write channel forcing file content (not metadata) to the device
+     */
+    static ConnectorWriteChannel of(FileChannel file) {
+        return new FileWriteChannel(file);
+    }
+
+    /**
+     * Write channel handing writes to a background thread through a ring of
+     * reusable buffers, so that target latency does not stall the caller
+     * until the ring is full. force() and close() wait for pending writes.
+     *
+     * @param target     channel to write to, closed with the returned channel
+     * @param buffers    number of buffers in the ring
+     * @param bufferSize size of each buffer
+     * @return write channel writing to the target in the background
+     */
+    static ConnectorWriteChannel writeBehind(ConnectorWriteChannel target, int buffers, int bufferSize) {
+        return new WriteBehindChannel(target, buffers, bufferSize);
+    }
+}
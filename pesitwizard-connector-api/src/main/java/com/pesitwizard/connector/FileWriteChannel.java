@@ -0,0 +1,40 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Write channel over a local FileChannel; force() syncs file content.
+ */
+final class FileWriteChannel implements ConnectorWriteChannel {
+    private final FileChannel file;
+
+    FileWriteChannel(FileChannel file) {
+        this.file = file;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = 0;
+        while (src.hasRemaining()) {
+            written += file.write(src);
+        }
+        return written;
+    }
+
+    @Override
+    public void force() throws IOException {
+        file.force(false);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return file.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,252 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Read channel prefetching its source on a background (virtual) thread.
+ *
+ * A producer reads the source sequentially into a fixed ring of reusable
+ * buffers while the caller consumes filled ones, so source latency overlaps
+ * with whatever the caller does with the data. When every buffer is filled
+ * the producer waits for the caller to hand one back; a source error is
+ * thrown by the read that reaches it. A read at another position than the
+ * next prefetched byte stops the producer, drops the prefetched data and
+ * restarts it there.
+ *
+ * The source is only used by the producer while it runs, so it needs no
+ * thread safety of its own.
+ */
+final class ReadAheadChannel implements ConnectorReadChannel {
+
+    /** A filled buffer, the end of the source, or a source error */
+    private record Chunk(ByteBuffer buffer, IOException error) {
+        static final Chunk EOF = new Chunk(null, null);
+    }
+
+    private final ConnectorReadChannel source;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<Chunk> filled;
+
+    private Thread producer;
+    private volatile boolean stopping;
+    private Chunk current;
+    /** File position of the next byte the pipeline delivers */
+    private long nextPosition = -1;
+    private long position;
+    private long size = -1;
+    private boolean open = true;
+
+    ReadAheadChannel(ConnectorReadChannel source, int buffers, int bufferSize) {
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int n = read(dst, position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (producer == null || position != nextPosition) {
+            restart(position);
+        }
+        while (current == null || (current.buffer() != null && !current.buffer().hasRemaining())) {
+            if (current != null) {
+                // Cleared first: if take() is interrupted, recycle() must not hand it back twice
+                ByteBuffer spent = current.buffer();
+                current = null;
+                free.add(spent);
+            }
+            current = take();
+        }
+        if (current.error() != null) {
+            throw new IOException("Read-ahead failed: " + current.error().getMessage(), current.error());
+        }
+        if (current.buffer() == null) {
+            return -1;
+        }
+        ByteBuffer src = current.buffer();
+        int n = Math.min(dst.remaining(), src.remaining());
+        int limit = src.limit();
+        src.limit(src.position() + n);
+        dst.put(src);
+        src.limit(limit);
+        nextPosition += n;
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * Size of the source. Asked once prefetching has started, it pauses the
+     * producer, which restarts on the next read.
+     */
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        if (size < 0) {
+            stopProducer();
+            size = source.size();
+        }
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        stopping = true;
+        // Closing the source first unblocks a producer waiting on it
+        try {
+            source.close();
+        } finally {
+            stopProducer();
+        }
+    }
+
+    private void restart(long from) throws IOException {
+        stopProducer();
+        nextPosition = from;
+        stopping = false;
+        producer = Thread.ofVirtual().name("read-ahead").start(() -> produce(from));
+    }
+
+    private void produce(long from) {
+        long readPosition = from;
+        try {
+            while (true) {
+                ByteBuffer buffer = free.take();
+                if (stopping) {
+                    free.add(buffer);
+                    return;
+                }
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    int n = source.read(buffer, readPosition + buffer.position());
+                    if (n < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                boolean eof = buffer.limit() < buffer.capacity();
+                if (buffer.hasRemaining()) {
+                    filled.put(new Chunk(buffer, null));
+                    readPosition += buffer.limit();
+                } else {
+                    free.add(buffer);
+                }
+                if (eof) {
+                    filled.put(Chunk.EOF);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (!stopping) {
+                filled.offer(new Chunk(null, e));
+            }
+        }
+    }
+
+    /**
+     * Stop the producer and return every buffer to the free ring. The producer
+     * is not interrupted (an interrupt closes interruptible channels): it
+     * stops after its current read, and never blocks on a full ring since
+     * the ring holds one more slot than there are buffers.
+     */
+    private void stopProducer() throws IOException {
+        if (producer == null) {
+            return;
+        }
+        stopping = true;
+        recycle();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while stopping read-ahead");
+        }
+        producer = null;
+        recycle();
+    }
+
+    private void recycle() {
+        if (current != null && current.buffer() != null) {
+            free.add(current.buffer());
+        }
+        current = null;
+        Chunk chunk;
+        while ((chunk = filled.poll()) != null) {
+            if (chunk.buffer() != null) {
+                free.add(chunk.buffer());
+            }
+        }
+    }
+
+    private Chunk take() throws IOException {
+        try {
+            return filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for read-ahead");
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -134,6 +134,44 @@ public interface StorageConnector extends AutoCloseable {
      */
     OutputStream write(String path, boolean append) throws ConnectorException;
 
+    /**
+     * Check if openReadChannel/openWriteChannel are native to this connector
+     * rather than adapters over read/write streams. Callers may pick a
+     * zero-copy path (e.g. file to socket) only for native channels.
+     *
+     * @return true if channels are implemented natively
+     */
+    default boolean supportsChannels() {
+        return false;
+    }
+
+    /**
+     * Open a channel to read a file with positional reads.
+     * The default adapts {@link #read(String, long)}, reopening the stream
+     * only when a read does not continue the previous one.
+     *
+     * @param path Remote path to read
+     * @return read channel positioned at the start of the file
+     * @throws ConnectorException if file not found or error
+     */
+    default ConnectorReadChannel openReadChannel(String path) throws ConnectorException {
+        return new StreamReadChannel(this, path);
+    }
+
+    /**
+     * Open a channel to write a file, with explicit durability checkpoints.
+     * The default adapts {@link #write(String, boolean)}; its force() only
+     * flushes the stream.
+     *
+     * @param path   Remote path to write
+     * @param append If true, append to existing file
+     * @return write channel
+     * @throws ConnectorException on error
+     */
+    default ConnectorWriteChannel openWriteChannel(String path, boolean append) throws ConnectorException {
+        return new StreamWriteChannel(write(path, append));
+    }
+
     /**
      * Delete a file.
      * 
@@ -185,6 +223,19 @@ public interface StorageConnector extends AutoCloseable {
         return false;
     }
 
+    /**
+     * Check if one initialized instance can be used by several threads at
+     * once. The client shares a thread-safe connector between all transfers
+     * of a storage connection; other connectors are lent to one transfer at a
+     * time and reused by the next one, so they must not keep per-transfer
+     * state between calls.
+     * 
+     * @return true if concurrent calls on the same instance are safe
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Close the connector and release resources.
      */
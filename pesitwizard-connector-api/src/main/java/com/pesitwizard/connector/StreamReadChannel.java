@@ -0,0 +1,136 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read channel adapting the stream API of a connector: reads are served by a
+ * stream opened with read(path, offset), reopened only when a read does not
+ * continue where the previous one stopped. The size comes from getMetadata.
+ */
+final class StreamReadChannel implements ConnectorReadChannel {
+    private final StorageConnector connector;
+    private final String path;
+
+    private InputStream stream;
+    private long streamPosition;
+    private long position;
+    private long size = -1;
+    private boolean open = true;
+
+    StreamReadChannel(StorageConnector connector, String path) {
+        this.connector = connector;
+        this.path = path;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int n = read(dst, position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (stream == null || streamPosition != position) {
+            closeStream();
+            try {
+                stream = connector.read(path, position);
+            } catch (ConnectorException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            streamPosition = position;
+        }
+        int n;
+        if (dst.hasArray()) {
+            n = stream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+        } else {
+            byte[] chunk = new byte[Math.min(dst.remaining(), 64 * 1024)];
+            n = stream.read(chunk);
+            if (n > 0) {
+                dst.put(chunk, 0, n);
+            }
+        }
+        if (n > 0) {
+            streamPosition += n;
+        }
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        if (size < 0) {
+            try {
+                size = connector.getMetadata(path).getSize();
+            } catch (ConnectorException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        closeStream();
+    }
+
+    private void closeStream() throws IOException {
+        if (stream != null) {
+            InputStream s = stream;
+            stream = null;
+            s.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
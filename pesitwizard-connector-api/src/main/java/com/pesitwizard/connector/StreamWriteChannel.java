@@ -0,0 +1,62 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+/**
+ * Write channel adapting the stream API of a connector. force() flushes the
+ * stream; how durable the data then is depends on the connector.
+ */
+final class StreamWriteChannel implements ConnectorWriteChannel {
+    private final OutputStream stream;
+    private boolean open = true;
+
+    StreamWriteChannel(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        int length = src.remaining();
+        if (src.hasArray()) {
+            stream.write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.limit());
+        } else {
+            byte[] chunk = new byte[Math.min(length, 64 * 1024)];
+            while (src.hasRemaining()) {
+                int n = Math.min(chunk.length, src.remaining());
+                src.get(chunk, 0, n);
+                stream.write(chunk, 0, n);
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void force() throws IOException {
+        ensureOpen();
+        stream.flush();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            stream.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.pesitwizard.connector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Write channel handing its data to a background (virtual) thread that
+ * writes it to the target.
+ *
+ * Writes are copied into a fixed ring of reusable buffers; a buffer goes to
+ * the writer once full, so small writes also reach the target as large
+ * ones. When every buffer waits to be written, write() blocks until the
+ * writer frees one. The first target error is thrown by the next write(),
+ * force() or close(). force() and close() wait until everything written
+ * before them has reached the target; force() then forces the target.
+ *
+ * The target is only used by the writer thread, so it needs no thread
+ * safety of its own.
+ */
+final class WriteBehindChannel implements ConnectorWriteChannel {
+
+    /** A buffer to write, a barrier completed once the writer reaches it, or STOP */
+    private record Chunk(ByteBuffer buffer, CompletableFuture<Void> barrier, boolean force) {
+        static final Chunk STOP = new Chunk(null, null, false);
+    }
+
+    private final ConnectorWriteChannel target;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread writer;
+
+    private volatile IOException error;
+    private ByteBuffer current;
+    private boolean open = true;
+
+    WriteBehindChannel(ConnectorWriteChannel target, int buffers, int bufferSize) {
+        this.target = target;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        // Every buffer plus one barrier or STOP: put() blocks only on buffers
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+        this.writer = Thread.ofVirtual().name("write-behind").start(this::drain);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        checkError();
+        int length = src.remaining();
+        while (src.hasRemaining()) {
+            if (current == null) {
+                current = take();
+                current.clear();
+            }
+            int n = Math.min(src.remaining(), current.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + n);
+            current.put(src);
+            src.limit(limit);
+            if (!current.hasRemaining()) {
+                submit();
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void force() throws IOException {
+        ensureOpen();
+        barrier(true);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            barrier(false);
+        } finally {
+            // Once the barrier is passed the ring is empty; if it was not
+            // (interrupted caller), the writer is interrupted instead
+            if (!filled.offer(Chunk.STOP)) {
+                writer.interrupt();
+            }
+            target.close();
+        }
+    }
+
+    /**
+     * Hand the pending buffer to the writer, then wait until it has written
+     * everything up to this point (and forced the target if asked)
+     */
+    private void barrier(boolean force) throws IOException {
+        checkError();
+        if (current != null) {
+            submit();
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        put(new Chunk(null, done, force));
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for write-behind");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    private void submit() throws IOException {
+        current.flip();
+        put(new Chunk(current, null, false));
+        current = null;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Chunk chunk = filled.take();
+                if (chunk == Chunk.STOP) {
+                    return;
+                }
+                if (chunk.buffer() != null) {
+                    ByteBuffer buffer = chunk.buffer();
+                    try {
+                        while (error == null && buffer.hasRemaining()) {
+                            target.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    free.add(buffer);
+                } else {
+                    try {
+                        if (error == null && chunk.force()) {
+                            target.force();
+                        }
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    if (error != null) {
+                        chunk.barrier().completeExceptionally(error);
+                    } else {
+                        chunk.barrier().complete(null);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed while writes were pending
+        }
+    }
+
+    private ByteBuffer take() throws IOException {
+        try {
+            return free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for write-behind");
+        }
+    }
+
+    private void put(Chunk chunk) throws IOException {
+        try {
+            filled.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for write-behind");
+        }
+    }
+
+    private void checkError() throws IOException {
+        IOException e = error;
+        if (e != null) {
+            throw new IOException("Write-behind failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.pesitwizard.connector;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ReadAheadChannelTest {
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    private static byte[] readAll(ConnectorReadChannel in, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(chunk);
+        while (in.read(buffer.clear()) > 0) {
+            out.write(buffer.array(), 0, buffer.position());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void testReadsSourceSequentially() throws Exception {
+        byte[] content = content(10_000);
+        try (ConnectorReadChannel in = ConnectorReadChannel.readAhead(new MemorySource(content), 3, 512)) {
+            assertThat(readAll(in, 700)).isEqualTo(content);
+            assertThat(in.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void testSourceErrorSurfacesOnRead() throws Exception {
+        MemorySource source = new MemorySource(content(10_000));
+        source.failAt = 3000;
+        try (ConnectorReadChannel in = ConnectorReadChannel.readAhead(source, 2, 1024)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            // The buffers filled before the failure are still delivered
+            for (int i = 0; i < 2; i++) {
+                assertThat(in.read(buffer.clear())).isEqualTo(1024);
+            }
+            assertThatThrownBy(() -> in.read(buffer.clear()))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Source failed at 3000")
+                    .hasCauseInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void testBlockedConsumerBoundsProducerToRing() throws Exception {
+        MemorySource source = new MemorySource(content(100_000));
+        try (ConnectorReadChannel in = ConnectorReadChannel.readAhead(source, 4, 1000)) {
+            assertThat(in.read(ByteBuffer.allocate(10))).isEqualTo(10);
+
+            // The consumer stops here: the producer fills the ring, then waits
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (source.bytesRead.get() < 4000 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            assertThat(source.bytesRead.get()).isEqualTo(4000);
+
+            // Consuming frees buffers and lets it go on
+            assertThat(readAll(in, 4096)).hasSize(100_000 - 10);
+            assertThat(source.bytesRead.get()).isEqualTo(100_000);
+        }
+    }
+
+    @Test
+    void testInterruptedReadKeepsRingConsistent() throws Exception {
+        byte[] content = content(10_000);
+        try (ConnectorReadChannel in = ConnectorReadChannel.readAhead(new MemorySource(content), 2, 4)) {
+            assertThat(in.read(ByteBuffer.allocate(4))).isEqualTo(4);
+
+            // The next read hands its spent buffer back, then is interrupted waiting for a filled one
+            Thread.currentThread().interrupt();
+            assertThatThrownBy(() -> in.read(ByteBuffer.allocate(4)))
+                    .isInstanceOf(InterruptedIOException.class);
+            assertThat(Thread.interrupted()).isTrue();
+
+            // Restarting returns every buffer to the ring exactly once
+            in.position(0);
+            assertThat(in.read(ByteBuffer.allocate(4), 0)).isEqualTo(4);
+            assertThat(readAll(in, 100)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void testCloseClosesSource() throws Exception {
+        MemorySource source = new MemorySource(content(100));
+        ConnectorReadChannel in = ConnectorReadChannel.readAhead(source, 2, 16);
+        in.read(ByteBuffer.allocate(8));
+        in.close();
+
+        assertThat(source.isOpen()).isFalse();
+        assertThatThrownBy(() -> in.read(ByteBuffer.allocate(8))).isInstanceOf(ClosedChannelException.class);
+    }
+
+    /** In-memory source counting the bytes read, optionally failing at an offset */
+    private static final class MemorySource implements ConnectorReadChannel {
+        private final byte[] content;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private volatile long failAt = -1;
+        private volatile boolean open = true;
+        private long position;
+
+        MemorySource(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (position >= content.length) {
+                return -1;
+            }
+            int n = (int) Math.min(dst.remaining(), content.length - position);
+            if (failAt >= 0 && position + n > failAt) {
+                throw new IOException("Source failed at " + failAt);
+            }
+            dst.put(content, (int) position, n);
+            bytesRead.addAndGet(n);
+            return n;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int n = read(dst, position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) {
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
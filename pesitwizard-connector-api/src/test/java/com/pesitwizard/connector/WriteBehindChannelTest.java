@@ -0,0 +1,180 @@
+package com.pesitwizard.connector;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class WriteBehindChannelTest {
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes());
+    }
+
+    @Test
+    void testWritesReachTargetInFullBuffers() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        for (char c : "0123456789".toCharArray()) {
+            out.write(bytes(String.valueOf(c)));
+        }
+        out.force();
+
+        assertThat(target.content()).isEqualTo("0123456789");
+        assertThat(target.writes.get()).isEqualTo(3);
+        assertThat(target.forces.get()).isEqualTo(1);
+
+        out.close();
+        assertThat(target.open).isFalse();
+        assertThatThrownBy(() -> out.write(bytes("x"))).isInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test
+    void testTargetErrorSurfacesOnNextWrite() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        target.failWrites = true;
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        // Accepted into the ring, written (and failed) in the background
+        assertThat(out.write(bytes("0123"))).isEqualTo(4);
+
+        target.attempted.await(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> out.write(bytes("4567")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Target down");
+        assertThatThrownBy(out::close).isInstanceOf(IOException.class);
+        assertThat(target.open).isFalse();
+    }
+
+    @Test
+    void testTargetErrorSurfacesOnForce() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        target.failWrites = true;
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        out.write(bytes("01"));
+
+        assertThatThrownBy(out::force).isInstanceOf(IOException.class).hasMessageContaining("Target down");
+        assertThat(target.forces.get()).isZero();
+    }
+
+    @Test
+    void testForceErrorSurfacesOnForce() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        target.failForce = true;
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        out.write(bytes("01"));
+
+        assertThatThrownBy(out::force).isInstanceOf(IOException.class).hasMessageContaining("Force failed");
+        assertThat(target.content()).isEqualTo("01");
+    }
+
+    @Test
+    void testTargetErrorSurfacesOnClose() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        target.failWrites = true;
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        out.write(bytes("01"));
+
+        assertThatThrownBy(out::close).isInstanceOf(IOException.class).hasMessageContaining("Target down");
+        assertThat(target.open).isFalse();
+    }
+
+    @Test
+    void testBlockedTargetBoundsWriterToRing() throws Exception {
+        MemoryTarget target = new MemoryTarget();
+        target.blocked = new CountDownLatch(1);
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(target, 2, 4);
+        AtomicInteger accepted = new AtomicInteger();
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                for (int i = 0; i < 100; i++) {
+                    out.write(bytes("x"));
+                    accepted.incrementAndGet();
+                }
+                out.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // One buffer in the stalled target write, one waiting: the ninth byte has nowhere to go
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (accepted.get() < 8 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        assertThat(accepted.get()).isEqualTo(8);
+        assertThat(producer.isAlive()).isTrue();
+
+        target.blocked.countDown();
+        producer.join(5000);
+        assertThat(accepted.get()).isEqualTo(100);
+        assertThat(target.content()).hasSize(100);
+    }
+
+    /** In-memory target, optionally failing or blocking its writes */
+    private static final class MemoryTarget implements ConnectorWriteChannel {
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger forces = new AtomicInteger();
+        private final CountDownLatch attempted = new CountDownLatch(1);
+        private volatile boolean failWrites;
+        private volatile boolean failForce;
+        private volatile CountDownLatch blocked;
+        private volatile boolean open = true;
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            attempted.countDown();
+            CountDownLatch latch = blocked;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted");
+                }
+            }
+            if (failWrites) {
+                throw new IOException("Target down");
+            }
+            int n = src.remaining();
+            synchronized (data) {
+                data.write(src.array(), src.arrayOffset() + src.position(), n);
+            }
+            src.position(src.limit());
+            writes.incrementAndGet();
+            return n;
+        }
+
+        @Override
+        public void force() throws IOException {
+            if (failForce) {
+                throw new IOException("Force failed");
+            }
+            forces.incrementAndGet();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        String content() {
+            synchronized (data) {
+                return data.toString();
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -17,6 +18,8 @@ import org.slf4j.LoggerFactory;
 
 import com.pesitwizard.connector.ConfigParameter;
 import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.connector.ConnectorWriteChannel;
 import com.pesitwizard.connector.FileMetadata;
 import com.pesitwizard.connector.StorageConnector;
 
@@ -211,6 +214,43 @@ public class LocalFileConnector implements StorageConnector {
         }
     }
 
+    @Override
+    public ConnectorReadChannel openReadChannel(String path) throws ConnectorException {
+        checkInitialized();
+        Path resolved = resolvePath(path);
+
+        if (!Files.exists(resolved)) {
+            throw new ConnectorException(
+                    ConnectorException.ErrorCode.FILE_NOT_FOUND,
+                    "File not found: " + path);
+        }
+
+        try {
+            return ConnectorReadChannel.of(FileChannel.open(resolved, StandardOpenOption.READ));
+        } catch (IOException e) {
+            throw new ConnectorException("Failed to open file: " + path, e);
+        }
+    }
+
+    @Override
+    public ConnectorWriteChannel openWriteChannel(String path, boolean append) throws ConnectorException {
+        checkInitialized();
+        Path resolved = resolvePath(path);
+
+        try {
+            Path parent = resolved.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+
+            return ConnectorWriteChannel.of(FileChannel.open(resolved, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+        } catch (IOException e) {
+            throw new ConnectorException("Failed to write file: " + path, e);
+        }
+    }
+
     @Override
     public void delete(String path) throws ConnectorException {
         checkInitialized();
@@ -256,6 +296,16 @@ public class LocalFileConnector implements StorageConnector {
         return true;
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsChannels() {
+        return true;
+    }
+
     @Override
     public void close() {
         this.initialized = false;
@@ -2,8 +2,12 @@ package com.pesitwizard.connector.local;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +18,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import com.pesitwizard.connector.ConnectorException;
+import com.pesitwizard.connector.ConnectorReadChannel;
+import com.pesitwizard.connector.ConnectorWriteChannel;
 import com.pesitwizard.connector.FileMetadata;
 
 class LocalFileConnectorTest {
@@ -94,6 +100,84 @@ class LocalFileConnectorTest {
         }
     }
 
+    @Test
+    void testWriteChannelAndPositionalRead() throws Exception {
+        assertThat(connector.supportsChannels()).isTrue();
+
+        try (ConnectorWriteChannel out = connector.openWriteChannel("channel.txt", false)) {
+            out.write(ByteBuffer.wrap("0123".getBytes()));
+            out.force();
+        }
+        try (ConnectorWriteChannel out = connector.openWriteChannel("channel.txt", true)) {
+            out.write(ByteBuffer.wrap("456789".getBytes()));
+        }
+
+        try (ConnectorReadChannel in = connector.openReadChannel("channel.txt")) {
+            ByteBuffer buffer = ByteBuffer.allocate(3);
+            assertThat(in.size()).isEqualTo(10);
+            assertThat(in.read(buffer, 6)).isEqualTo(3);
+            assertThat(new String(buffer.array())).isEqualTo("678");
+            assertThat(in.position()).isZero();
+        }
+    }
+
+    @Test
+    void testReadChannelTransferTo() throws Exception {
+        try (OutputStream os = connector.write("transfer.txt")) {
+            os.write("0123456789".getBytes());
+        }
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (ConnectorReadChannel in = connector.openReadChannel("transfer.txt")) {
+            assertThat(in.transferTo(2, 5, Channels.newChannel(target))).isEqualTo(5);
+            assertThat(in.transferTo(8, 5, Channels.newChannel(target))).isEqualTo(2);
+        }
+        assertThat(target.toString()).isEqualTo("2345689");
+    }
+
+    @Test
+    void testReadAheadChannel() throws Exception {
+        byte[] content = new byte[100_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        try (OutputStream os = connector.write("ahead.bin")) {
+            os.write(content);
+        }
+
+        try (ConnectorReadChannel in = ConnectorReadChannel.readAhead(connector.openReadChannel("ahead.bin"), 3,
+                4096)) {
+            assertThat(in.size()).isEqualTo(content.length);
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(1000);
+            while (in.read(buffer.clear()) > 0) {
+                sequential.write(buffer.array(), 0, buffer.position());
+            }
+            assertThat(sequential.toByteArray()).isEqualTo(content);
+
+            // A read elsewhere restarts the prefetch there
+            assertThat(in.read(buffer.clear(), 50_000)).isPositive();
+            assertThat(buffer.get(0)).isEqualTo(content[50_000]);
+            assertThat(in.read(buffer.clear(), 10)).isPositive();
+            assertThat(buffer.get(0)).isEqualTo(content[10]);
+        }
+    }
+
+    @Test
+    void testWriteBehindChannel() throws Exception {
+        ConnectorWriteChannel out = ConnectorWriteChannel.writeBehind(
+                connector.openWriteChannel("behind.txt", false), 2, 4);
+        out.write(ByteBuffer.wrap("0123456789".getBytes()));
+        out.force();
+        assertThat(connector.getMetadata("behind.txt").getSize()).isEqualTo(10);
+
+        out.write(ByteBuffer.wrap("ab".getBytes()));
+        out.close();
+        assertThat(new String(connector.read("behind.txt").readAllBytes())).isEqualTo("0123456789ab");
+        assertThatThrownBy(() -> out.write(ByteBuffer.wrap("c".getBytes())))
+                .isInstanceOf(ClosedChannelException.class);
+    }
+
     @Test
     void testGetMetadata() throws Exception {
         String content = "Test content";
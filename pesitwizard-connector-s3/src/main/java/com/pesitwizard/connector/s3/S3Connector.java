@@ -2,19 +2,18 @@ package com.pesitwizard.connector.s3;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
@@ -25,11 +24,23 @@ import com.pesitwizard.connector.ConnectorException;
 import com.pesitwizard.connector.FileMetadata;
 import com.pesitwizard.connector.StorageConnector;
 
+/**
+ * S3 / MinIO connector. Writes are multipart uploads of partSizeMb parts sent
+ * by uploadConcurrency parallel requests; reads from a given offset use
+ * downloadConcurrency parallel ranged GETs of rangeSizeMb, reassembled in
+ * order.
+ */
 public class S3Connector implements StorageConnector {
     private static final Logger log = LoggerFactory.getLogger(S3Connector.class);
+    private static final int MB = 1024 * 1024;
     private S3Client s3;
     private String bucket;
     private String prefix;
+    private int partSize;
+    private int uploadConcurrency;
+    private int rangeSize;
+    private int downloadConcurrency;
+    private ExecutorService executor;
     private boolean initialized = false;
 
     @Override public String getType() { return "s3"; }
@@ -39,7 +50,6 @@ public class S3Connector implements StorageConnector {
     @Override
     public void initialize(Map<String, String> config) throws ConnectorException {
         bucket = config.get("bucket");
-        prefix = config.getOrDefault("prefix", "");
         String accessKey = config.get("accessKey");
         String secretKey = config.get("secretKey");
         String region = config.getOrDefault("region", "us-east-1");
@@ -55,14 +65,32 @@ public class S3Connector implements StorageConnector {
             if (endpoint != null) {
                 builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
             }
-            s3 = builder.build();
-            initialized = true;
+            initialize(builder.build(), config);
             log.info("S3 connected to bucket: {}", bucket);
+        } catch (ConnectorException e) {
+            throw e;
         } catch (Exception e) {
             throw new ConnectorException(ConnectorException.ErrorCode.CONNECTION_FAILED, e.getMessage(), e);
         }
     }
 
+    /**
+     * Initialize with a given client (tests, S3-compatible stand-ins)
+     */
+    void initialize(S3Client client, Map<String, String> config) throws ConnectorException {
+        bucket = config.get("bucket");
+        prefix = config.getOrDefault("prefix", "");
+        if (bucket == null) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Bucket required");
+        partSize = intParam(config, "partSizeMb", 16) * MB;
+        if (partSize < S3MultipartOutputStream.MIN_PART_SIZE) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "partSizeMb must be at least 5");
+        uploadConcurrency = Math.max(1, intParam(config, "uploadConcurrency", 4));
+        rangeSize = Math.max(1, intParam(config, "rangeSizeMb", 16)) * MB;
+        downloadConcurrency = Math.max(1, intParam(config, "downloadConcurrency", 4));
+        s3 = client;
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        initialized = true;
+    }
+
     @Override public boolean testConnection() throws ConnectorException {
         checkInit(); try { s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build()); return true; } catch (Exception e) { return false; }
     }
@@ -91,21 +119,34 @@ public class S3Connector implements StorageConnector {
         }
         return result;
     }
-    @Override public InputStream read(String path) throws ConnectorException {
-        checkInit(); return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(resolve(path)).build());
-    }
+    @Override public InputStream read(String path) throws ConnectorException { return read(path, 0); }
     @Override public InputStream read(String path, long offset) throws ConnectorException {
-        checkInit(); return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(resolve(path)).range("bytes=" + offset + "-").build());
+        checkInit();
+        String key = resolve(path);
+        try {
+            if (downloadConcurrency > 1) {
+                HeadObjectResponse head = s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+                if (head.contentLength() - offset > rangeSize) {
+                    return new S3RangedInputStream(s3, bucket, key, head.eTag(), offset, head.contentLength(), rangeSize, downloadConcurrency, executor);
+                }
+            }
+            GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+            return s3.getObject(offset > 0 ? request.range("bytes=" + offset + "-").build() : request.build());
+        } catch (NoSuchKeyException e) {
+            throw new ConnectorException(ConnectorException.ErrorCode.FILE_NOT_FOUND, "Not found: " + path);
+        } catch (Exception e) { throw new ConnectorException("Read error", e); }
     }
     @Override public OutputStream write(String path) throws ConnectorException { return write(path, false); }
+    /**
+     * With append (restart), the current object is kept and the written data
+     * follows it; S3 has no append, the object is rebuilt server-side
+     */
     @Override public OutputStream write(String path, boolean append) throws ConnectorException {
         checkInit();
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, bucket, resolve(path), partSize, uploadConcurrency, executor);
         try {
-            PipedInputStream pis = new PipedInputStream();
-            PipedOutputStream pos = new PipedOutputStream(pis);
-            String key = resolve(path);
-            Thread.startVirtualThread(() -> { try { s3.putObject(PutObjectRequest.builder().bucket(bucket).key(key).build(), RequestBody.fromInputStream(pis, -1)); } catch (Exception e) { log.error("S3 upload error", e); } });
-            return pos;
+            if (append && exists(path)) out.appendTo(getMetadata(path).getSize());
+            return out;
         } catch (Exception e) { throw new ConnectorException("Write error", e); }
     }
     @Override public void delete(String path) throws ConnectorException {
@@ -121,11 +162,19 @@ public class S3Connector implements StorageConnector {
         return List.of(ConfigParameter.required("bucket", "S3 bucket name"));
     }
     @Override public List<ConfigParameter> getOptionalParameters() {
-        return List.of(ConfigParameter.password("accessKey", "AWS Access Key"), ConfigParameter.password("secretKey", "AWS Secret Key"), ConfigParameter.optional("region", "AWS Region", "us-east-1"), ConfigParameter.optional("endpoint", "Custom endpoint (MinIO)", null));
+        return List.of(ConfigParameter.password("accessKey", "AWS Access Key"), ConfigParameter.password("secretKey", "AWS Secret Key"), ConfigParameter.optional("region", "AWS Region", "us-east-1"), ConfigParameter.optional("endpoint", "Custom endpoint (MinIO)", null),
+                ConfigParameter.integer("partSizeMb", "Multipart upload part size in MB (min 5)", 16), ConfigParameter.integer("uploadConcurrency", "Parts uploaded in parallel", 4),
+                ConfigParameter.integer("rangeSizeMb", "Ranged download size in MB", 16), ConfigParameter.integer("downloadConcurrency", "Ranges downloaded in parallel (1 = single GET)", 4));
     }
     @Override public boolean supportsResume() { return true; }
-    @Override public void close() { if (s3 != null) s3.close(); initialized = false; }
+    @Override public boolean isThreadSafe() { return true; }
+    @Override public void close() { if (executor != null) executor.shutdownNow(); if (s3 != null) s3.close(); initialized = false; }
 
     private void checkInit() throws ConnectorException { if (!initialized) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Not initialized"); }
+    private static int intParam(Map<String, String> config, String name, int defaultValue) throws ConnectorException {
+        String value = config.get(name);
+        try { return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim()); }
+        catch (NumberFormatException e) { throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Invalid " + name + ": " + value); }
+    }
     private String resolve(String p) { return prefix.isEmpty() ? p : prefix + "/" + p; }
 }
@@ -0,0 +1,253 @@
+package com.pesitwizard.connector.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * OutputStream uploading an object as an S3 multipart upload.
+ *
+ * Parts of partSize bytes are uploaded by up to concurrency tasks while the
+ * caller keeps writing; the writer blocks when they are all busy, so memory
+ * stays below (concurrency + 1) parts. An object smaller than one part is
+ * sent with a single PUT. An upload failure is rethrown by the next write or
+ * by close, and the multipart upload is aborted.
+ *
+ * For a restart (append), the existing object is kept as the first parts:
+ * copied server-side, or read back into the first part when it is smaller
+ * than the S3 minimum part size.
+ */
+final class S3MultipartOutputStream extends OutputStream {
+    private static final Logger log = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    static final int MAX_PARTS = 10_000;
+    private static final long MAX_COPY_PART_SIZE = 1L << 30;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String key;
+    private final int partSize;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final List<Future<CompletedPart>> parts = new ArrayList<>();
+    private volatile Throwable failure;
+
+    private String uploadId;
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    S3MultipartOutputStream(S3Client s3, String bucket, String key, int partSize, int concurrency,
+            ExecutorService executor) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.key = key;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.executor = executor;
+        this.inFlight = new Semaphore(Math.max(concurrency, 1));
+        this.buffer = new byte[this.partSize];
+    }
+
+    /**
+     * Keep the first existingLength bytes of the current object before the
+     * data written to this stream (restart of an interrupted transfer)
+     */
+    void appendTo(long existingLength) throws IOException {
+        if (existingLength >= MIN_PART_SIZE) {
+            startUpload();
+            for (long start = 0; start < existingLength;) {
+                long end = Math.min(existingLength, start + MAX_COPY_PART_SIZE);
+                if (existingLength - end < MIN_PART_SIZE) {
+                    end = existingLength; // only the last part may be small
+                }
+                parts.add(CompletableFuture.completedFuture(copyPart(parts.size() + 1, start, end - 1)));
+                start = end;
+            }
+        } else if (existingLength > 0) {
+            try (InputStream in = s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key)
+                    .range("bytes=0-" + (existingLength - 1)).build())) {
+                count = in.readNBytes(buffer, 0, (int) existingLength);
+            }
+            if (count != existingLength) {
+                throw new IOException("Object " + key + " is shorter than " + existingLength + " bytes");
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[count++] = (byte) b;
+        if (count == buffer.length) {
+            flushPart();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == buffer.length) {
+                flushPart();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            checkFailure();
+            if (uploadId == null) {
+                s3.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentLength((long) count).build(),
+                        body(buffer, count));
+                return;
+            }
+            if (count > 0) {
+                flushPart();
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(bucket).key(key)
+                    .uploadId(uploadId).multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+            log.debug("S3 multipart upload of {} completed: {} parts", key, completed.size());
+        } catch (Exception e) {
+            abort();
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw cause instanceof IOException io ? io : new IOException("S3 upload of " + key + " failed", cause);
+        } finally {
+            buffer = null;
+            freeBuffers.clear();
+        }
+    }
+
+    private void flushPart() throws IOException {
+        checkFailure();
+        if (uploadId == null) {
+            startUpload();
+        }
+        if (parts.size() >= MAX_PARTS) {
+            throw new IOException("S3 upload of " + key + " exceeds " + MAX_PARTS + " parts, increase partSizeMb");
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an S3 part upload", e);
+        }
+        byte[] part = buffer;
+        int length = count;
+        int partNumber = parts.size() + 1;
+        parts.add(executor.submit(() -> {
+            try {
+                return uploadPart(partNumber, part, length);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                throw e;
+            } finally {
+                freeBuffers.offer(part);
+                inFlight.release();
+            }
+        }));
+        byte[] free = freeBuffers.poll();
+        buffer = free != null ? free : new byte[partSize];
+        count = 0;
+    }
+
+    private void startUpload() {
+        uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build())
+                .uploadId();
+    }
+
+    private CompletedPart uploadPart(int partNumber, byte[] data, int length) {
+        String eTag = s3.uploadPart(UploadPartRequest.builder().bucket(bucket).key(key).uploadId(uploadId)
+                .partNumber(partNumber).contentLength((long) length).build(),
+                body(data, length)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    /**
+     * Request body reading the buffer in place (no copy); the buffer is not
+     * reused before the request returns
+     */
+    private static RequestBody body(byte[] data, int length) {
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data, 0, length), length,
+                "application/octet-stream");
+    }
+
+    private CompletedPart copyPart(int partNumber, long first, long last) {
+        String eTag = s3.uploadPartCopy(UploadPartCopyRequest.builder().sourceBucket(bucket).sourceKey(key)
+                .destinationBucket(bucket).destinationKey(key).uploadId(uploadId).partNumber(partNumber)
+                .copySourceRange("bytes=" + first + "-" + last).build()).copyPartResult().eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private void abort() {
+        for (Future<CompletedPart> part : parts) {
+            part.cancel(true);
+        }
+        if (uploadId != null) {
+            try {
+                s3.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(bucket).key(key)
+                        .uploadId(uploadId).build());
+            } catch (Exception e) {
+                log.warn("Failed to abort S3 multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable t = failure;
+        if (t != null) {
+            throw new IOException("S3 part upload of " + key + " failed: " + t.getMessage(), t);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.pesitwizard.connector.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+/**
+ * InputStream reading an object with parallel ranged GETs.
+ *
+ * Up to concurrency ranges of rangeSize bytes are fetched ahead of the
+ * reader and handed out in order, so memory stays below concurrency ranges.
+ * Every GET is conditional on the ETag seen when the stream was opened: if
+ * the object is replaced meanwhile, the read fails instead of mixing
+ * versions.
+ */
+final class S3RangedInputStream extends InputStream {
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String key;
+    private final String eTag;
+    private final long end;
+    private final int rangeSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private long nextRange;
+    private byte[] current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * @param offset first byte to read (restart offset)
+     * @param length object length
+     */
+    S3RangedInputStream(S3Client s3, String bucket, String key, String eTag, long offset, long length,
+            int rangeSize, int concurrency, ExecutorService executor) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.key = key;
+        this.eTag = eTag;
+        this.end = length;
+        this.rangeSize = rangeSize;
+        this.concurrency = Math.max(concurrency, 1);
+        this.executor = executor;
+        this.nextRange = offset;
+        fetchAhead();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextRange() ? current[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextRange()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.length - position : 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = null;
+        for (Future<byte[]> range : pending) {
+            range.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Make sure current has unread bytes; false at end of object
+     */
+    private boolean nextRange() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position == current.length) {
+            Future<byte[]> range = pending.poll();
+            if (range == null) {
+                return false;
+            }
+            try {
+                current = range.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + key, e);
+            } catch (ExecutionException e) {
+                close();
+                throw e.getCause() instanceof IOException io ? io
+                        : new IOException("S3 ranged read of " + key + " failed", e.getCause());
+            }
+            position = 0;
+            fetchAhead();
+        }
+        return true;
+    }
+
+    private void fetchAhead() {
+        while (pending.size() < concurrency && nextRange < end) {
+            long first = nextRange;
+            long last = Math.min(end, first + rangeSize) - 1;
+            nextRange = last + 1;
+            pending.add(executor.submit(() -> fetch(first, last)));
+        }
+    }
+
+    private byte[] fetch(long first, long last) throws IOException {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key)
+                .range("bytes=" + first + "-" + last);
+        if (eTag != null) {
+            request.ifMatch(eTag);
+        }
+        try (InputStream in = s3.getObject(request.build())) {
+            byte[] data = in.readAllBytes();
+            if (data.length != last - first + 1) {
+                throw new IOException("Short read of " + key + " at " + first + ": " + data.length + " bytes");
+            }
+            return data;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.pesitwizard.connector.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+/**
+ * S3 stand-in keeping objects in memory, with the multipart rules that
+ * matter here (minimum part size, ordered parts, conditional GET).
+ */
+class InMemoryS3Client implements S3Client {
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final AtomicInteger puts = new AtomicInteger();
+    final AtomicInteger partUploads = new AtomicInteger();
+    final AtomicInteger partCopies = new AtomicInteger();
+    final AtomicInteger rangedGets = new AtomicInteger();
+    final AtomicInteger aborts = new AtomicInteger();
+    final AtomicInteger maxConcurrentParts = new AtomicInteger();
+    volatile IntPredicate failPart = partNumber -> false;
+    volatile long partDelayMs;
+
+    private final AtomicInteger concurrentParts = new AtomicInteger();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+    @Override
+    public String serviceName() {
+        return "s3";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        byte[] data = object(request.key());
+        return HeadObjectResponse.builder().contentLength((long) data.length).eTag(eTag(data)).build();
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        byte[] data = object(request.key());
+        if (request.ifMatch() != null && !request.ifMatch().equals(eTag(data))) {
+            throw S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+        }
+        if (request.range() != null) {
+            rangedGets.incrementAndGet();
+            data = range(data, request.range());
+        }
+        return new ResponseInputStream<>(GetObjectResponse.builder().contentLength((long) data.length).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(data)));
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        puts.incrementAndGet();
+        byte[] data = bytes(body);
+        objects.put(request.key(), data);
+        return PutObjectResponse.builder().eTag(eTag(data)).build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentHashMap<>());
+        return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        maxConcurrentParts.accumulateAndGet(concurrentParts.incrementAndGet(), Math::max);
+        try {
+            if (partDelayMs > 0) {
+                Thread.sleep(partDelayMs);
+            }
+            if (failPart.test(request.partNumber())) {
+                throw S3Exception.builder().statusCode(500).message("Internal Error").build();
+            }
+            partUploads.incrementAndGet();
+            byte[] data = bytes(body);
+            upload(request.uploadId()).put(request.partNumber(), data);
+            return UploadPartResponse.builder().eTag(eTag(data)).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            concurrentParts.decrementAndGet();
+        }
+    }
+
+    @Override
+    public UploadPartCopyResponse uploadPartCopy(UploadPartCopyRequest request) {
+        partCopies.incrementAndGet();
+        byte[] data = range(object(request.sourceKey()), request.copySourceRange());
+        upload(request.uploadId()).put(request.partNumber(), data);
+        return UploadPartCopyResponse.builder().copyPartResult(CopyPartResult.builder().eTag(eTag(data)).build())
+                .build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Map<Integer, byte[]> parts = new TreeMap<>(upload(request.uploadId()));
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        int expected = 1;
+        for (CompletedPart part : request.multipartUpload().parts()) {
+            byte[] data = parts.get(part.partNumber());
+            if (part.partNumber() != expected++ || data == null || !eTag(data).equals(part.eTag())) {
+                throw S3Exception.builder().statusCode(400).message("InvalidPart").build();
+            }
+            if (part.partNumber() < parts.size() && data.length < S3MultipartOutputStream.MIN_PART_SIZE) {
+                throw S3Exception.builder().statusCode(400).message("EntityTooSmall").build();
+            }
+            object.writeBytes(data);
+        }
+        objects.put(request.key(), object.toByteArray());
+        uploads.remove(request.uploadId());
+        return CompleteMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        aborts.incrementAndGet();
+        uploads.remove(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    private byte[] object(String key) {
+        byte[] data = objects.get(key);
+        if (data == null) {
+            throw NoSuchKeyException.builder().message("Not found: " + key).build();
+        }
+        return data;
+    }
+
+    private Map<Integer, byte[]> upload(String uploadId) {
+        Map<Integer, byte[]> parts = uploads.get(uploadId);
+        if (parts == null) {
+            throw NoSuchUploadException.builder().message("No upload " + uploadId).build();
+        }
+        return parts;
+    }
+
+    private static byte[] range(byte[] data, String range) {
+        String[] bounds = range.substring("bytes=".length()).split("-", -1);
+        int first = Integer.parseInt(bounds[0]);
+        int last = bounds[1].isEmpty() ? data.length - 1 : Math.min(Integer.parseInt(bounds[1]), data.length - 1);
+        return Arrays.copyOfRange(data, first, last + 1);
+    }
+
+    private static byte[] bytes(RequestBody body) {
+        try {
+            return body.contentStreamProvider().newStream().readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String eTag(byte[] data) {
+        return "\"" + Integer.toHexString(Arrays.hashCode(data)) + "-" + data.length + "\"";
+    }
+}
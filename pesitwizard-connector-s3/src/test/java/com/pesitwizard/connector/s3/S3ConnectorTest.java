@@ -0,0 +1,154 @@
+package com.pesitwizard.connector.s3;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class S3ConnectorTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private InMemoryS3Client s3;
+    private S3Connector connector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = new InMemoryS3Client();
+        connector = connector(Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    private S3Connector connector(Map<String, String> extra) throws Exception {
+        Map<String, String> config = new HashMap<>(Map.of("bucket", "test", "partSizeMb", "5",
+                "uploadConcurrency", "3", "rangeSizeMb", "1", "downloadConcurrency", "4"));
+        config.putAll(extra);
+        S3Connector c = new S3Connector();
+        c.initialize(s3, config);
+        return c;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private void write(String path, boolean append, byte[] data) throws Exception {
+        try (OutputStream out = connector.write(path, append)) {
+            for (int off = 0; off < data.length; off += 65536) {
+                out.write(data, off, Math.min(65536, data.length - off));
+            }
+        }
+    }
+
+    @Test
+    void testSmallObjectUsesSinglePut() throws Exception {
+        byte[] data = randomBytes(1000);
+
+        write("small.dat", false, data);
+
+        assertThat(s3.objects.get("small.dat")).isEqualTo(data);
+        assertThat(s3.puts.get()).isEqualTo(1);
+        assertThat(s3.partUploads.get()).isZero();
+    }
+
+    @Test
+    void testMultipartUploadWithBoundedConcurrency() throws Exception {
+        byte[] data = randomBytes(23 * MB);
+        s3.partDelayMs = 50;
+
+        write("big.dat", false, data);
+
+        assertThat(s3.objects.get("big.dat")).isEqualTo(data);
+        assertThat(s3.partUploads.get()).isEqualTo(5);
+        assertThat(s3.maxConcurrentParts.get()).isBetween(1, 3);
+        assertThat(s3.puts.get()).isZero();
+    }
+
+    @Test
+    void testPartFailureReachesWriterAndAbortsUpload() {
+        s3.failPart = partNumber -> partNumber == 2;
+
+        assertThatThrownBy(() -> write("failed.dat", false, randomBytes(12 * MB)))
+                .isInstanceOf(IOException.class);
+
+        assertThat(s3.aborts.get()).isEqualTo(1);
+        assertThat(s3.objects).doesNotContainKey("failed.dat");
+    }
+
+    @Test
+    void testAppendKeepsExistingObject() throws Exception {
+        byte[] existing = randomBytes(7 * MB);
+        byte[] rest = randomBytes(MB + 3);
+        s3.objects.put("restart.dat", existing);
+
+        write("restart.dat", true, rest);
+
+        byte[] expected = Arrays.copyOf(existing, existing.length + rest.length);
+        System.arraycopy(rest, 0, expected, existing.length, rest.length);
+        assertThat(s3.objects.get("restart.dat")).isEqualTo(expected);
+        assertThat(s3.partCopies.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testAppendToSmallObject() throws Exception {
+        s3.objects.put("restart.dat", "Hello, ".getBytes());
+
+        write("restart.dat", true, "Vectis!".getBytes());
+
+        assertThat(new String(s3.objects.get("restart.dat"))).isEqualTo("Hello, Vectis!");
+        assertThat(s3.partCopies.get()).isZero();
+    }
+
+    @Test
+    void testParallelRangedReadFromOffset() throws Exception {
+        byte[] data = randomBytes(20 * MB + 123);
+        s3.objects.put("download.dat", data);
+        int offset = 3 * MB + 7;
+
+        byte[] read;
+        try (InputStream in = connector.read("download.dat", offset)) {
+            read = in.readAllBytes();
+        }
+
+        assertThat(read).isEqualTo(Arrays.copyOfRange(data, offset, data.length));
+        assertThat(s3.rangedGets.get()).isEqualTo(18);
+    }
+
+    @Test
+    void testRangedReadFailsWhenObjectIsReplaced() throws Exception {
+        s3.objects.put("changing.dat", randomBytes(8 * MB));
+
+        try (InputStream in = connector.read("changing.dat")) {
+            s3.objects.put("changing.dat", randomBytes(8 * MB + 1));
+            assertThatThrownBy(in::readAllBytes).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void testSingleGetWhenDownloadConcurrencyIsOne() throws Exception {
+        connector.close();
+        connector = connector(Map.of("downloadConcurrency", "1"));
+        byte[] data = randomBytes(3 * MB);
+        s3.objects.put("single.dat", data);
+
+        try (InputStream in = connector.read("single.dat", 10)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, 10, data.length));
+        }
+        assertThat(s3.rangedGets.get()).isEqualTo(1);
+    }
+}
@@ -1,19 +1,22 @@
 package com.pesitwizard.connector.sftp;
 
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import com.jcraft.jsch.SftpATTRS;
 import com.jcraft.jsch.SftpException;
 import com.pesitwizard.connector.ConfigParameter;
@@ -21,12 +24,23 @@ import com.pesitwizard.connector.ConnectorException;
 import com.pesitwizard.connector.FileMetadata;
 import com.pesitwizard.connector.StorageConnector;
 
+/**
+ * SFTP connector. Sessions and channels come from a pool shared by every
+ * connector to the same account, so a connector per transfer does not cost
+ * an SSH handshake, and one connector can serve several threads: each call
+ * (or each open stream) holds its own channel.
+ *
+ * Downloads keep up to pipelineDepth READ requests in flight. Uploads go
+ * through a buffer so that JSch sends full WRITE packets, kept in flight
+ * without waiting for each acknowledgement.
+ */
 public class SftpConnector implements StorageConnector {
     private static final Logger log = LoggerFactory.getLogger(SftpConnector.class);
-    private String host, username, password, privateKeyPath, basePath;
-    private int port;
-    private Session session;
-    private ChannelSftp channel;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_SIZE = 32 * 1024;
+    private String host, basePath;
+    private int pipelineDepth;
+    private SftpSessionPool.Settings settings;
     private boolean initialized = false;
 
     @Override public String getType() { return "sftp"; }
@@ -36,86 +50,125 @@ public class SftpConnector implements StorageConnector {
     @Override
     public void initialize(Map<String, String> config) throws ConnectorException {
         host = config.get("host");
-        port = Integer.parseInt(config.getOrDefault("port", "22"));
-        username = config.get("username");
-        password = config.get("password");
-        privateKeyPath = config.get("privateKey");
+        String username = config.get("username");
         basePath = config.getOrDefault("basePath", "");
         
         if (host == null) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Host required");
         if (username == null) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Username required");
         
-        try {
-            JSch jsch = new JSch();
-            if (privateKeyPath != null) jsch.addIdentity(privateKeyPath);
-            session = jsch.getSession(username, host, port);
-            if (password != null) session.setPassword(password);
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.connect(30000);
-            channel = (ChannelSftp) session.openChannel("sftp");
-            channel.connect();
-            initialized = true;
-            log.info("SFTP connected: {}@{}:{}", username, host, port);
-        } catch (JSchException e) {
-            throw new ConnectorException(ConnectorException.ErrorCode.CONNECTION_FAILED, e.getMessage(), e);
-        }
+        settings = new SftpSessionPool.Settings(host, intParam(config, "port", 22), username,
+                config.get("password"), config.get("privateKey"), 30000,
+                Math.max(1, intParam(config, "maxSessions", 4)), Math.max(1, intParam(config, "channelsPerSession", 4)),
+                Math.max(1, intParam(config, "idleTimeoutSeconds", 60)) * 1000L, Math.max(1, intParam(config, "borrowTimeoutSeconds", 30)) * 1000L);
+        pipelineDepth = Math.max(1, intParam(config, "pipelineDepth", 64));
+        // Borrow once so that connection and authentication errors show up here
+        try { SftpSessionPool.borrow(settings).release(); } catch (JSchException e) { throw new ConnectorException(ConnectorException.ErrorCode.CONNECTION_FAILED, e.getMessage(), e); }
+        initialized = true;
+        log.debug("SFTP connector ready: {}@{}:{}", username, host, settings.port());
     }
 
     @Override public boolean testConnection() throws ConnectorException {
-        checkInit(); try { channel.pwd(); return true; } catch (Exception e) { return false; }
+        checkInit(); try { return call(c -> { c.pwd(); return true; }); } catch (ConnectorException e) { return false; }
     }
     @Override public boolean exists(String path) throws ConnectorException {
-        checkInit(); try { channel.stat(resolve(path)); return true; } catch (SftpException e) { return false; }
+        return call(c -> { try { c.stat(resolve(path)); return true; } catch (SftpException e) { return false; } });
     }
     @Override public FileMetadata getMetadata(String path) throws ConnectorException {
-        checkInit();
-        try {
-            SftpATTRS a = channel.stat(resolve(path));
-            return FileMetadata.builder().name(path).path(path).size(a.getSize())
-                .lastModified(java.time.Instant.ofEpochSecond(a.getMTime())).directory(a.isDir()).build();
-        } catch (SftpException e) { throw new ConnectorException("Metadata error", e); }
+        SftpATTRS a = call(c -> c.stat(resolve(path)), "Metadata error");
+        return FileMetadata.builder().name(path).path(path).size(a.getSize())
+            .lastModified(java.time.Instant.ofEpochSecond(a.getMTime())).directory(a.isDir()).build();
     }
     @Override @SuppressWarnings("unchecked")
     public List<FileMetadata> list(String path) throws ConnectorException {
-        checkInit();
-        try {
-            List<FileMetadata> r = new ArrayList<>();
-            for (ChannelSftp.LsEntry e : (Vector<ChannelSftp.LsEntry>) channel.ls(resolve(path))) {
-                if (!e.getFilename().startsWith("."))
-                    r.add(FileMetadata.builder().name(e.getFilename()).path(path+"/"+e.getFilename())
-                        .size(e.getAttrs().getSize()).directory(e.getAttrs().isDir()).build());
-            }
-            return r;
-        } catch (SftpException e) { throw new ConnectorException("List error", e); }
-    }
-    @Override public InputStream read(String path) throws ConnectorException {
-        checkInit(); try { return channel.get(resolve(path)); } catch (SftpException e) { throw new ConnectorException("Read error", e); }
+        List<FileMetadata> r = new ArrayList<>();
+        for (ChannelSftp.LsEntry e : (Vector<ChannelSftp.LsEntry>) call(c -> c.ls(resolve(path)), "List error")) {
+            if (!e.getFilename().startsWith("."))
+                r.add(FileMetadata.builder().name(e.getFilename()).path(path+"/"+e.getFilename())
+                    .size(e.getAttrs().getSize()).directory(e.getAttrs().isDir()).build());
+        }
+        return r;
     }
+    @Override public InputStream read(String path) throws ConnectorException { return read(path, 0); }
     @Override public InputStream read(String path, long offset) throws ConnectorException {
-        checkInit(); try { return channel.get(resolve(path), null, offset); } catch (SftpException e) { throw new ConnectorException("Read error", e); }
+        SftpSessionPool.PooledChannel pc = borrow();
+        try {
+            ChannelSftp c = pc.channel();
+            // Read-ahead sized to what is left: READ requests past the end are wasted round trips
+            long remaining = c.stat(resolve(path)).getSize() - offset;
+            c.setBulkRequests((int) Math.max(1, Math.min(pipelineDepth, remaining / READ_SIZE + 1)));
+            return new PooledInputStream(c.get(resolve(path), null, offset), pc);
+        } catch (SftpException | JSchException e) { pc.release(); throw new ConnectorException("Read error", e); }
     }
     @Override public OutputStream write(String path) throws ConnectorException { return write(path, false); }
     @Override public OutputStream write(String path, boolean append) throws ConnectorException {
-        checkInit(); try { return channel.put(resolve(path), append ? ChannelSftp.APPEND : ChannelSftp.OVERWRITE); } catch (SftpException e) { throw new ConnectorException("Write error", e); }
+        SftpSessionPool.PooledChannel pc = borrow();
+        try { return new PooledOutputStream(pc.channel().put(resolve(path), append ? ChannelSftp.APPEND : ChannelSftp.OVERWRITE), pc); }
+        catch (SftpException e) { pc.release(); throw new ConnectorException("Write error", e); }
     }
     @Override public void delete(String path) throws ConnectorException {
-        checkInit(); try { channel.rm(resolve(path)); } catch (SftpException e) { /* ignore */ }
+        call(c -> { try { c.rm(resolve(path)); } catch (SftpException e) { /* ignore */ } return null; });
     }
     @Override public void mkdir(String path) throws ConnectorException {
-        checkInit(); try { channel.mkdir(resolve(path)); } catch (SftpException e) { /* ignore */ }
+        call(c -> { try { c.mkdir(resolve(path)); } catch (SftpException e) { /* ignore */ } return null; });
     }
     @Override public void rename(String src, String dst) throws ConnectorException {
-        checkInit(); try { channel.rename(resolve(src), resolve(dst)); } catch (SftpException e) { throw new ConnectorException("Rename error", e); }
+        call(c -> { c.rename(resolve(src), resolve(dst)); return null; }, "Rename error");
     }
     @Override public List<ConfigParameter> getRequiredParameters() {
         return List.of(ConfigParameter.required("host", "SFTP host"), ConfigParameter.required("username", "Username"));
     }
     @Override public List<ConfigParameter> getOptionalParameters() {
-        return List.of(ConfigParameter.password("password", "Password"), ConfigParameter.integer("port", "Port", 22));
+        return List.of(ConfigParameter.password("password", "Password"), ConfigParameter.integer("port", "Port", 22),
+                ConfigParameter.integer("maxSessions", "SSH sessions pooled per server and account", 4), ConfigParameter.integer("channelsPerSession", "SFTP channels per SSH session", 4),
+                ConfigParameter.integer("idleTimeoutSeconds", "Idle time before a pooled channel is closed", 60), ConfigParameter.integer("borrowTimeoutSeconds", "Wait for a free channel when all are busy", 30),
+                ConfigParameter.integer("pipelineDepth", "READ requests kept in flight per download", 64));
     }
     @Override public boolean supportsResume() { return true; }
-    @Override public void close() { if (channel != null) channel.disconnect(); if (session != null) session.disconnect(); initialized = false; }
+    @Override public boolean isThreadSafe() { return true; }
+    /** Pooled sessions stay open for the next connector; idle ones are closed by the pool */
+    @Override public void close() { initialized = false; }
     
     private void checkInit() throws ConnectorException { if (!initialized) throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, "Not initialized"); }
     private String resolve(String p) { return basePath.isEmpty() ? p : basePath + "/" + p; }
+
+    private static int intParam(Map<String, String> config, String name, int defaultValue) throws ConnectorException {
+        String value = config.get(name);
+        try { return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim()); }
+        catch (NumberFormatException e) { throw new ConnectorException(ConnectorException.ErrorCode.INVALID_CONFIG, name + " must be an integer"); }
+    }
+
+    @FunctionalInterface
+    private interface SftpCall<T> { T apply(ChannelSftp channel) throws SftpException; }
+
+    private SftpSessionPool.PooledChannel borrow() throws ConnectorException {
+        checkInit();
+        try { return SftpSessionPool.borrow(settings); } catch (JSchException e) { throw new ConnectorException(ConnectorException.ErrorCode.CONNECTION_FAILED, e.getMessage(), e); }
+    }
+    private <T> T call(SftpCall<T> call) throws ConnectorException { return call(call, "SFTP error"); }
+    private <T> T call(SftpCall<T> call, String error) throws ConnectorException {
+        SftpSessionPool.PooledChannel pc = borrow();
+        try { return call.apply(pc.channel()); } catch (SftpException e) { throw new ConnectorException(error, e); } finally { pc.release(); }
+    }
+
+    /** Gives the channel back to the pool when the download is closed */
+    private final class PooledInputStream extends FilterInputStream {
+        private final SftpSessionPool.PooledChannel channel;
+        private final AtomicBoolean released = new AtomicBoolean();
+        PooledInputStream(InputStream in, SftpSessionPool.PooledChannel channel) { super(in); this.channel = channel; }
+        @Override public int read(byte[] b, int off, int len) throws IOException { return in.read(b, off, len); }
+        @Override public void close() throws IOException {
+            try { super.close(); } finally { if (released.compareAndSet(false, true)) channel.release(); }
+        }
+    }
+
+    /** Buffers small writes into full WRITE packets; gives the channel back on close */
+    private final class PooledOutputStream extends FilterOutputStream {
+        private final SftpSessionPool.PooledChannel channel;
+        private final AtomicBoolean released = new AtomicBoolean();
+        PooledOutputStream(OutputStream out, SftpSessionPool.PooledChannel channel) { super(new BufferedOutputStream(out, WRITE_BUFFER_SIZE)); this.channel = channel; }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+        @Override public void close() throws IOException {
+            try { super.close(); } finally { if (released.compareAndSet(false, true)) channel.release(); }
+        }
+    }
 }
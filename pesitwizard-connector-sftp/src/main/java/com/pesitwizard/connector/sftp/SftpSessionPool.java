@@ -0,0 +1,343 @@
+package com.pesitwizard.connector.sftp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+/**
+ * Pool of SSH sessions and SFTP channels shared by all connectors to the same
+ * server with the same credentials, so a connector created per transfer
+ * reuses an authenticated session instead of doing a new SSH handshake.
+ *
+ * A key has up to maxSessions sessions of up to channelsPerSession channels.
+ * Channels are checked before being lent and dropped when their channel or
+ * session is down; channels idle for longer than idleTimeout are closed, and
+ * so are sessions left without channels. Borrowers wait up to borrowTimeout
+ * when every channel is in use. A borrower reserves its session or channel
+ * under the pool lock and connects outside it, so a slow handshake does not
+ * hold up releases or other borrowers. A pool left without sessions is
+ * dropped by its evictor.
+ */
+final class SftpSessionPool {
+    private static final Logger log = LoggerFactory.getLogger(SftpSessionPool.class);
+
+    private static final Map<Key, SftpSessionPool> POOLS = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sftp-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Connection and pool settings; the pool key leaves out the pool sizes so
+     * that every connector to the same account shares one pool
+     */
+    record Settings(String host, int port, String username, String password, String privateKeyPath,
+            int connectTimeoutMs, int maxSessions, int channelsPerSession, long idleTimeoutMs,
+            long borrowTimeoutMs) {
+
+        Key key() {
+            return new Key(host, port, username, password, privateKeyPath);
+        }
+    }
+
+    /**
+     * Server and exact credentials: connectors only share sessions
+     * authenticated with the same password and private key
+     */
+    record Key(String host, int port, String username, String password, String privateKeyPath) {
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port;
+        }
+    }
+
+    private final Settings settings;
+    private final Key key;
+    private final List<PooledSession> sessions = new ArrayList<>();
+    private final Deque<PooledChannel> idle = new ArrayDeque<>();
+    private final ScheduledFuture<?> eviction;
+    /** Sessions being connected, counted against maxSessions */
+    private int connecting;
+    /** Dropped from POOLS: borrowers go to the pool that replaces it */
+    private boolean retired;
+
+    private SftpSessionPool(Settings settings) {
+        this.settings = settings;
+        this.key = settings.key();
+        long period = Math.max(settings.idleTimeoutMs() / 2, 1000);
+        this.eviction = EVICTOR.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pool for these settings, created on first use
+     */
+    static SftpSessionPool of(Settings settings) {
+        return POOLS.computeIfAbsent(settings.key(), key -> new SftpSessionPool(settings));
+    }
+
+    /**
+     * Borrow a connected channel from the pool of these settings; give it
+     * back with {@link PooledChannel#release()}
+     */
+    static PooledChannel borrow(Settings settings) throws JSchException {
+        while (true) {
+            PooledChannel channel = of(settings).borrow();
+            if (channel != null) {
+                return channel;
+            }
+        }
+    }
+
+    /**
+     * Number of live pools
+     */
+    static int poolCount() {
+        return POOLS.size();
+    }
+
+    /**
+     * Close every pool (sessions in use are disconnected too)
+     */
+    static void closeAll() {
+        POOLS.values().forEach(SftpSessionPool::close);
+        POOLS.clear();
+    }
+
+    /**
+     * Borrow a connected channel, null if this pool was retired meanwhile
+     */
+    private PooledChannel borrow() throws JSchException {
+        long deadline = System.currentTimeMillis() + settings.borrowTimeoutMs();
+        PooledSession session;
+        synchronized (this) {
+            while (true) {
+                if (retired) {
+                    return null;
+                }
+                PooledChannel channel;
+                while ((channel = idle.pollFirst()) != null) {
+                    if (channel.isHealthy()) {
+                        return channel;
+                    }
+                    discard(channel);
+                }
+                session = sessionWithRoom();
+                if (session != null || sessions.size() + connecting < settings.maxSessions()) {
+                    break;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new JSchException("No SFTP channel available for " + settings.host() + " within "
+                            + settings.borrowTimeoutMs() + " ms");
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JSchException("Interrupted while waiting for an SFTP channel", e);
+                }
+            }
+            // Reserve the channel (and the session when there is none with room)
+            if (session != null) {
+                session.channels++;
+            } else {
+                connecting++;
+            }
+        }
+        if (session == null) {
+            session = connectSession();
+        }
+        try {
+            return session.openChannel();
+        } catch (JSchException | RuntimeException e) {
+            synchronized (this) {
+                session.channels--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Give a channel back; it is kept only if still connected
+     */
+    synchronized void release(PooledChannel channel) {
+        if (channel.isHealthy()) {
+            channel.lastUsed = System.currentTimeMillis();
+            idle.addFirst(channel); // most recently used first
+        } else {
+            discard(channel);
+        }
+        notifyAll();
+    }
+
+    synchronized int sessionCount() {
+        return sessions.size();
+    }
+
+    synchronized void evictIdle() {
+        long cutoff = System.currentTimeMillis() - settings.idleTimeoutMs();
+        for (Iterator<PooledChannel> it = idle.iterator(); it.hasNext();) {
+            PooledChannel channel = it.next();
+            if (channel.lastUsed < cutoff || !channel.isHealthy()) {
+                it.remove();
+                discard(channel);
+            }
+        }
+        for (Iterator<PooledSession> it = sessions.iterator(); it.hasNext();) {
+            PooledSession session = it.next();
+            if (session.channels == 0 || !session.session.isConnected()) {
+                it.remove();
+                session.session.disconnect();
+                log.debug("SFTP session to {} closed", settings.host());
+            }
+        }
+        if (sessions.isEmpty() && connecting == 0 && !retired) {
+            retired = true;
+            eviction.cancel(false);
+            POOLS.remove(key, this);
+            log.debug("SFTP pool for {} dropped", key);
+        }
+    }
+
+    private synchronized void close() {
+        retired = true;
+        eviction.cancel(false);
+        idle.forEach(channel -> channel.channel.disconnect());
+        idle.clear();
+        sessions.forEach(session -> session.session.disconnect());
+        sessions.clear();
+        notifyAll();
+    }
+
+    private PooledSession sessionWithRoom() {
+        for (Iterator<PooledSession> it = sessions.iterator(); it.hasNext();) {
+            PooledSession session = it.next();
+            if (!session.session.isConnected()) {
+                if (session.channels == 0) {
+                    it.remove();
+                }
+            } else if (session.channels < settings.channelsPerSession()) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Connect the session reserved by borrow, which holds its first channel
+     */
+    private PooledSession connectSession() throws JSchException {
+        Session ssh;
+        try {
+            ssh = connect();
+        } catch (JSchException | RuntimeException e) {
+            synchronized (this) {
+                connecting--;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            connecting--;
+            notifyAll();
+            if (retired) {
+                // Closed while connecting: nobody would evict the session
+                ssh.disconnect();
+                throw new JSchException("SFTP pool for " + key + " closed");
+            }
+            PooledSession session = new PooledSession(ssh);
+            session.channels = 1;
+            sessions.add(session);
+            return session;
+        }
+    }
+
+    private Session connect() throws JSchException {
+        JSch jsch = new JSch();
+        if (settings.privateKeyPath() != null) {
+            jsch.addIdentity(settings.privateKeyPath());
+        }
+        Session session = jsch.getSession(settings.username(), settings.host(), settings.port());
+        if (settings.password() != null) {
+            session.setPassword(settings.password());
+        }
+        session.setConfig("StrictHostKeyChecking", "no");
+        // Keep WRITE requests in flight when the server window fills up, instead of
+        // waiting for every acknowledgement (JSch 0.2 workaround, ignored by 0.1)
+        session.setConfig("use_sftp_write_flush_workaround", "no");
+        session.connect(settings.connectTimeoutMs());
+        log.info("SFTP connected: {}@{}:{}", settings.username(), settings.host(), settings.port());
+        return session;
+    }
+
+    private void discard(PooledChannel channel) {
+        channel.channel.disconnect();
+        channel.session.channels--;
+    }
+
+    private final class PooledSession {
+        private final Session session;
+        private int channels;
+
+        private PooledSession(Session session) {
+            this.session = session;
+        }
+
+        /**
+         * Open the channel reserved in {@link #channels}
+         */
+        private PooledChannel openChannel() throws JSchException {
+            ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+            channel.connect(settings.connectTimeoutMs());
+            return new PooledChannel(channel, this);
+        }
+
+        private SftpSessionPool pool() {
+            return SftpSessionPool.this;
+        }
+    }
+
+    static final class PooledChannel {
+        private final ChannelSftp channel;
+        private final PooledSession session;
+        private long lastUsed;
+
+        private PooledChannel(ChannelSftp channel, PooledSession session) {
+            this.channel = channel;
+            this.session = session;
+        }
+
+        ChannelSftp channel() {
+            return channel;
+        }
+
+        /**
+         * Give the channel back to its pool
+         */
+        void release() {
+            session.pool().release(this);
+        }
+
+        private boolean isHealthy() {
+            return channel.isConnected() && !channel.isClosed() && session.session.isConnected();
+        }
+    }
+}
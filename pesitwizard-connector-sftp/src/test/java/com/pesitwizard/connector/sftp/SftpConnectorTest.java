@@ -0,0 +1,255 @@
+package com.pesitwizard.connector.sftp;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pesitwizard.connector.ConnectorException;
+
+/**
+ * Runs the connector against an embedded SFTP server (Apache MINA SSHD).
+ */
+class SftpConnectorTest {
+
+    @TempDir
+    static Path root;
+
+    private static SshServer server;
+    private static final AtomicInteger sessionsCreated = new AtomicInteger();
+    private static volatile long authDelayMs;
+
+    private final List<SftpConnector> connectors = new ArrayList<>();
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        CoreModuleProperties.TCP_NODELAY.set(server, true);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(root.resolve("hostkey.ser")));
+        server.setPasswordAuthenticator((user, password, session) -> {
+            if (authDelayMs > 0) {
+                try {
+                    Thread.sleep(authDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "test".equals(user) && "secret".equals(password);
+        });
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        Files.createDirectories(root.resolve("files"));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root.resolve("files")));
+        server.addSessionListener(new SessionListener() {
+            @Override
+            public void sessionCreated(Session session) {
+                sessionsCreated.incrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        SftpSessionPool.closeAll();
+        server.stop(true);
+    }
+
+    @BeforeEach
+    void setUp() {
+        SftpSessionPool.closeAll();
+        sessionsCreated.set(0);
+        authDelayMs = 0;
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectors.forEach(SftpConnector::close);
+    }
+
+    private SftpConnector connector(Map<String, String> extra) throws ConnectorException {
+        Map<String, String> config = new HashMap<>(Map.of("host", "127.0.0.1", "port", String.valueOf(server.getPort()),
+                "username", "test", "password", "secret"));
+        config.putAll(extra);
+        SftpConnector connector = new SftpConnector();
+        connector.initialize(config);
+        connectors.add(connector);
+        return connector;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static void write(SftpConnector connector, String path, boolean append, byte[] data) throws Exception {
+        try (OutputStream out = connector.write(path, append)) {
+            for (int off = 0; off < data.length; off += 8192) {
+                out.write(data, off, Math.min(8192, data.length - off));
+            }
+        }
+    }
+
+    private static byte[] read(SftpConnector connector, String path, long offset) throws Exception {
+        try (InputStream in = connector.read(path, offset)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void testWriteReadAndResume() throws Exception {
+        SftpConnector connector = connector(Map.of());
+        byte[] data = randomBytes(3 * 1024 * 1024 + 17);
+
+        write(connector, "data.bin", false, Arrays.copyOf(data, 1_000_000));
+        write(connector, "data.bin", true, Arrays.copyOfRange(data, 1_000_000, data.length));
+
+        assertThat(connector.getMetadata("data.bin").getSize()).isEqualTo(data.length);
+        assertThat(read(connector, "data.bin", 0)).isEqualTo(data);
+        assertThat(read(connector, "data.bin", 2_500_000)).isEqualTo(Arrays.copyOfRange(data, 2_500_000, data.length));
+    }
+
+    @Test
+    void testConnectorsShareOneSession() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            SftpConnector connector = connector(Map.of());
+            write(connector, "file" + i + ".txt", false, ("content " + i).getBytes());
+            assertThat(connector.exists("file" + i + ".txt")).isTrue();
+            connector.close();
+        }
+
+        assertThat(sessionsCreated.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testOtherPasswordDoesNotShareSession() throws Exception {
+        connector(Map.of());
+        // Same String.hashCode as "secret"
+        assertThat("secrfU".hashCode()).isEqualTo("secret".hashCode());
+
+        assertThatThrownBy(() -> connector(Map.of("password", "secrfU"))).isInstanceOf(ConnectorException.class);
+    }
+
+    @Test
+    void testSlowHandshakeDoesNotBlockOtherBorrowers() throws Exception {
+        SftpConnector connector = connector(Map.of("maxSessions", "2", "channelsPerSession", "1"));
+        write(connector, "slow.txt", false, "slow".getBytes());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> second;
+            authDelayMs = 2000;
+            try (InputStream in = connector.read("slow.txt")) {
+                // The only channel is busy: this borrower connects a second session
+                second = executor.submit(() -> connector.exists("slow.txt"));
+                await(() -> sessionsCreated.get() == 2);
+            }
+
+            long start = System.nanoTime();
+            assertThat(connector.exists("slow.txt")).isTrue();
+            assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+            assertThat(second.get()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentTransfersOnOneConnector() throws Exception {
+        SftpConnector connector = connector(Map.of("maxSessions", "2", "channelsPerSession", "2"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String path = "parallel" + i + ".bin";
+                byte[] data = randomBytes(512 * 1024 + i);
+                results.add(executor.submit(() -> {
+                    write(connector, path, false, data);
+                    return Arrays.equals(read(connector, path, 0), data);
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sessionsCreated.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void testBorrowTimesOutWhenAllChannelsAreBusy() throws Exception {
+        SftpConnector connector = connector(Map.of("maxSessions", "1", "channelsPerSession", "1",
+                "borrowTimeoutSeconds", "1"));
+        write(connector, "busy.txt", false, "busy".getBytes());
+
+        try (InputStream in = connector.read("busy.txt")) {
+            assertThatThrownBy(() -> connector.exists("busy.txt")).isInstanceOf(ConnectorException.class);
+        }
+
+        assertThat(connector.exists("busy.txt")).isTrue();
+    }
+
+    @Test
+    void testBrokenSessionIsReplaced() throws Exception {
+        SftpConnector connector = connector(Map.of());
+        write(connector, "before.txt", false, "before".getBytes());
+
+        server.getActiveSessions().forEach(session -> session.close(true));
+        await(() -> server.getActiveSessions().isEmpty());
+        Thread.sleep(200);
+
+        write(connector, "after.txt", false, "after".getBytes());
+        assertThat(read(connector, "before.txt", 0)).isEqualTo("before".getBytes());
+        assertThat(sessionsCreated.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testIdleSessionIsClosed() throws Exception {
+        SftpConnector connector = connector(Map.of("idleTimeoutSeconds", "1"));
+        assertThat(connector.testConnection()).isTrue();
+
+        await(() -> server.getActiveSessions().isEmpty());
+        await(() -> SftpSessionPool.poolCount() == 0);
+
+        assertThat(connector.exists("missing.txt")).isFalse();
+        assertThat(sessionsCreated.get()).isEqualTo(2);
+    }
+}
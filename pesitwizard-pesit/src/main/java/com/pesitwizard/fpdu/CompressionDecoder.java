@@ -0,0 +1,137 @@
+package com.pesitwizard.fpdu;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Streaming PeSIT compression decoder (see CompressionEncoder for the string
+ * format).
+ *
+ * Articles are expanded into one of two reusable buffers; the other one holds
+ * the previous article for vertical strings. Stateful, one instance per
+ * transfer direction, not thread-safe.
+ */
+public class CompressionDecoder {
+    private byte[] current;
+    private byte[] previous;
+    private int previousLength;
+
+    public CompressionDecoder() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedArticleLength initial buffer size (PI 32), buffers grow as
+     *                              needed
+     */
+    public CompressionDecoder(int expectedArticleLength) {
+        int size = Math.max(expectedArticleLength, CompressionEncoder.MAX_STRING);
+        this.current = new byte[size];
+        this.previous = new byte[size];
+    }
+
+    /**
+     * Expand one compressed article. The source buffer is fully consumed.
+     *
+     * @return the article, valid until the next call
+     * @throws FpduParseException if the article is not a valid string sequence
+     */
+    public ByteBuffer decode(ByteBuffer src) {
+        int out = 0;
+        while (src.hasRemaining()) {
+            int control = src.get() & 0xFF;
+            int length = (control & 0x3F) + 1;
+            ensureCapacity(out + length);
+            switch (control & 0xC0) {
+                case CompressionEncoder.UNCOMPRESSED -> {
+                    if (src.remaining() < length) {
+                        throw new FpduParseException("Truncated compressed string: " + length + " bytes expected, "
+                                + src.remaining() + " available");
+                    }
+                    src.get(current, out, length);
+                }
+                case CompressionEncoder.HORIZONTAL -> {
+                    if (!src.hasRemaining()) {
+                        throw new FpduParseException("Truncated horizontal compression string");
+                    }
+                    byte b = src.get();
+                    for (int i = 0; i < length; i++) {
+                        current[out + i] = b;
+                    }
+                }
+                case CompressionEncoder.VERTICAL -> {
+                    if (out + length > previousLength) {
+                        throw new FpduParseException("Vertical compression string beyond previous article ("
+                                + previousLength + " bytes)");
+                    }
+                    System.arraycopy(previous, out, current, out, length);
+                }
+                default -> throw new FpduParseException(
+                        String.format("Invalid compression control octet 0x%02X", control));
+            }
+            out += length;
+        }
+
+        byte[] article = current;
+        current = previous;
+        previous = article;
+        previousLength = out;
+        return ByteBuffer.wrap(article, 0, out);
+    }
+
+    /**
+     * Expand every article of a DTF payload.
+     *
+     * @param data         DTF payload, consumed
+     * @param articleCount idSrc of the DTF: number of length-prefixed articles,
+     *                     0 when the payload is a single article
+     * @param consumer     receives each expanded article
+     * @return number of expanded bytes
+     */
+    public long decodeEntity(ByteBuffer data, int articleCount, ArticleConsumer consumer) throws IOException {
+        long expanded = 0;
+        if (articleCount == 0) {
+            ByteBuffer article = decode(data);
+            expanded += article.remaining();
+            consumer.accept(article);
+            return expanded;
+        }
+        int end = data.limit();
+        for (int i = 0; i < articleCount; i++) {
+            if (data.remaining() < 2) {
+                throw new FpduParseException("Missing article " + (i + 1) + " of " + articleCount);
+            }
+            int length = data.getShort() & 0xFFFF;
+            if (length > data.remaining()) {
+                throw FpduParseException.incompleteBuffer(length, data.remaining());
+            }
+            data.limit(data.position() + length);
+            ByteBuffer article = decode(data);
+            data.limit(end);
+            expanded += article.remaining();
+            consumer.accept(article);
+        }
+        return expanded;
+    }
+
+    /**
+     * Forget the previous article (e.g. before a restart)
+     */
+    public void reset() {
+        previousLength = 0;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > current.length) {
+            int newSize = Math.max(size, current.length * 2);
+            current = Arrays.copyOf(current, newSize);
+            previous = Arrays.copyOf(previous, newSize);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ArticleConsumer {
+        void accept(ByteBuffer article) throws IOException;
+    }
+}
@@ -0,0 +1,146 @@
+package com.pesitwizard.fpdu;
+
+/**
+ * Streaming PeSIT compression encoder, one article at a time.
+ *
+ * A compressed article is a sequence of strings, each introduced by a control
+ * octet: the two high bits give the string type, the six low bits its length
+ * minus one (1..64 bytes).
+ * <ul>
+ * <li>00 - uncompressed: the bytes follow</li>
+ * <li>01 - horizontal: the next octet is repeated</li>
+ * <li>10 - vertical: bytes are identical to the same positions of the
+ * previous article</li>
+ * </ul>
+ *
+ * The previous article is kept for vertical compression, so the encoder is
+ * stateful: one instance per transfer direction, not thread-safe. A restarted
+ * transfer starts from a fresh encoder at the restart offset, as does the
+ * receiver's decoder.
+ */
+public class CompressionEncoder {
+    static final int MAX_STRING = 64;
+    static final int UNCOMPRESSED = 0x00;
+    static final int HORIZONTAL = 0x40;
+    static final int VERTICAL = 0x80;
+
+    private static final int MIN_HORIZONTAL_RUN = 3; // shorter runs do not save anything
+    private static final int MIN_VERTICAL_RUN = 2;
+
+    private final CompressionMode mode;
+    private byte[] previous = new byte[0];
+    private int previousLength;
+
+    public CompressionEncoder(CompressionMode mode) {
+        if (!mode.isEnabled()) {
+            throw new IllegalArgumentException("Compression mode must not be NONE");
+        }
+        this.mode = mode;
+    }
+
+    public CompressionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Worst-case encoded size of an article (incompressible data)
+     */
+    public static int maxEncodedLength(int articleLength) {
+        return articleLength + (articleLength + MAX_STRING - 1) / MAX_STRING;
+    }
+
+    /**
+     * Largest article whose worst-case encoding fits in the given space
+     */
+    public static int maxArticleLength(int encodedSpace) {
+        return encodedSpace - (encodedSpace + MAX_STRING) / (MAX_STRING + 1);
+    }
+
+    /**
+     * Encode one article.
+     *
+     * @param dst must have room for maxEncodedLength(len) bytes at dstOff
+     * @return number of bytes written to dst
+     */
+    public int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        boolean vertical = mode.isVertical();
+        boolean horizontal = mode.isHorizontal();
+        int verticalLimit = vertical ? Math.min(len, previousLength) : 0;
+        int out = dstOff;
+        int literalStart = -1;
+        int i = 0;
+
+        while (i < len) {
+            int verticalRun = i < verticalLimit ? verticalRun(src, off + i, previous, i, verticalLimit - i) : 0;
+            int horizontalRun = horizontal ? horizontalRun(src, off + i, len - i) : 0;
+
+            if (verticalRun >= MIN_VERTICAL_RUN && verticalRun >= horizontalRun) {
+                out = flushLiteral(src, off, literalStart, i, dst, out);
+                literalStart = -1;
+                dst[out++] = (byte) (VERTICAL | (verticalRun - 1));
+                i += verticalRun;
+            } else if (horizontalRun >= MIN_HORIZONTAL_RUN) {
+                out = flushLiteral(src, off, literalStart, i, dst, out);
+                literalStart = -1;
+                dst[out++] = (byte) (HORIZONTAL | (horizontalRun - 1));
+                dst[out++] = src[off + i];
+                i += horizontalRun;
+            } else {
+                if (literalStart < 0) {
+                    literalStart = i;
+                }
+                i++;
+                if (i - literalStart == MAX_STRING) {
+                    out = flushLiteral(src, off, literalStart, i, dst, out);
+                    literalStart = -1;
+                }
+            }
+        }
+        out = flushLiteral(src, off, literalStart, len, dst, out);
+
+        if (vertical) {
+            if (previous.length < len) {
+                previous = new byte[len];
+            }
+            System.arraycopy(src, off, previous, 0, len);
+            previousLength = len;
+        }
+        return out - dstOff;
+    }
+
+    /**
+     * Forget the previous article (e.g. before a restart)
+     */
+    public void reset() {
+        previousLength = 0;
+    }
+
+    private static int flushLiteral(byte[] src, int off, int start, int end, byte[] dst, int out) {
+        if (start < 0) {
+            return out;
+        }
+        int length = end - start;
+        dst[out++] = (byte) (UNCOMPRESSED | (length - 1));
+        System.arraycopy(src, off + start, dst, out, length);
+        return out + length;
+    }
+
+    private static int horizontalRun(byte[] src, int pos, int remaining) {
+        int max = Math.min(remaining, MAX_STRING);
+        byte b = src[pos];
+        int run = 1;
+        while (run < max && src[pos + run] == b) {
+            run++;
+        }
+        return run;
+    }
+
+    private static int verticalRun(byte[] src, int pos, byte[] previous, int prevPos, int remaining) {
+        int max = Math.min(remaining, MAX_STRING);
+        int run = 0;
+        while (run < max && src[pos + run] == previous[prevPos + run]) {
+            run++;
+        }
+        return run;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pesitwizard.fpdu;
+
+/**
+ * PeSIT compression (PI 21).
+ *
+ * PI 21 value: [requested/accepted (0|1)][type], type being a bit set of
+ * horizontal (1) and vertical (2) compression. A single-octet value is read
+ * as the type alone. The requester proposes in OPEN, the responder answers
+ * in ACK(OPEN) with the subset it accepts.
+ */
+public enum CompressionMode {
+    NONE(0),
+    HORIZONTAL(1),
+    VERTICAL(2),
+    HORIZONTAL_VERTICAL(3);
+
+    private final int code;
+
+    CompressionMode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public boolean isHorizontal() {
+        return (code & HORIZONTAL.code) != 0;
+    }
+
+    public boolean isVertical() {
+        return (code & VERTICAL.code) != 0;
+    }
+
+    public boolean isEnabled() {
+        return this != NONE;
+    }
+
+    /**
+     * Compression both partners support
+     */
+    public CompressionMode intersect(CompressionMode other) {
+        return fromCode(code & other.code);
+    }
+
+    /**
+     * PI 21 value advertising this mode
+     */
+    public byte[] toPi21() {
+        return new byte[] { (byte) (isEnabled() ? 1 : 0), (byte) code };
+    }
+
+    /**
+     * Mode to request from a configuration switch and type code, both kinds
+     * when enabled without a type
+     */
+    public static CompressionMode of(boolean enabled, int code) {
+        if (!enabled) {
+            return NONE;
+        }
+        return code == 0 ? HORIZONTAL_VERTICAL : fromCode(code);
+    }
+
+    public static CompressionMode fromCode(int code) {
+        return switch (code & 0x03) {
+            case 1 -> HORIZONTAL;
+            case 2 -> VERTICAL;
+            case 3 -> HORIZONTAL_VERTICAL;
+            default -> NONE;
+        };
+    }
+
+    /**
+     * Parse a PI 21 value, NONE when absent
+     */
+    public static CompressionMode fromPi21(byte[] value) {
+        if (value == null || value.length == 0) {
+            return NONE;
+        }
+        if (value.length == 1) {
+            return fromCode(value[0] & 0xFF);
+        }
+        return value[0] == 0 ? NONE : fromCode(value[1] & 0xFF);
+    }
+}
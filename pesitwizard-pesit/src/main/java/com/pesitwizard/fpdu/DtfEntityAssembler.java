@@ -0,0 +1,237 @@
+package com.pesitwizard.fpdu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import com.pesitwizard.transport.TransportChannel;
+
+/**
+ * Assembles multi-article DTF entities in a single reusable buffer.
+ *
+ * Articles are read from the source channel straight into their slot of the
+ * frame, so an entity is built without intermediate copies and sent with one
+ * write. Frame layout (same as FpduBuilder.buildMultiArticleDtf, preceded by
+ * the transport length prefix):
+ * [frame_len 2B][fpdu_len 2B][phase][type][idDst][nbArticles][len1][art1]...
+ *
+ * With a CompressionEncoder, each article is read into a scratch buffer and
+ * encoded into its slot; entities are then packed by encoded size, up to the
+ * 255 articles idSrc can count.
+ *
+ * An EbcdicTranscoder, when given, converts each article in place before
+ * compression (PI 16 = EBCDIC text files).
+ *
+ * Not thread-safe: one instance per transfer.
+ */
+public class DtfEntityAssembler {
+    private static final int FRAME_PREFIX_SIZE = 2; // transport length prefix
+    private static final int FPDU_HEADER_SIZE = 6; // len(2) + phase(1) + type(1) + idDst(1) + idSrc(1)
+    private static final int ARTICLE_PREFIX_SIZE = 2; // 2-byte length prefix per article
+    private static final int MAX_ARTICLES = 255; // idSrc is one octet
+
+    private final int recordLength;
+    private final int articlesPerEntity;
+    private final ByteBuffer buffer;
+    private final CompressionEncoder encoder;
+    private final EbcdicTranscoder transcoder;
+    private final ByteBuffer article; // raw article before encoding, compressed mode only
+
+    private int articleCount;
+    private int dataLength;
+    private boolean endOfInput;
+
+    /**
+     * @param maxEntitySize Negotiated PI_25 (max FPDU size)
+     * @param recordLength  PI_32 article size
+     */
+    public DtfEntityAssembler(int maxEntitySize, int recordLength) {
+        this(maxEntitySize, recordLength, null);
+    }
+
+    /**
+     * @param maxEntitySize Negotiated PI_25 (max FPDU size)
+     * @param recordLength  PI_32 article size
+     * @param encoder       PI 21 compression stage, null for none
+     */
+    public DtfEntityAssembler(int maxEntitySize, int recordLength, CompressionEncoder encoder) {
+        this(maxEntitySize, recordLength, encoder, null);
+    }
+
+    /**
+     * @param maxEntitySize Negotiated PI_25 (max FPDU size)
+     * @param recordLength  PI_32 article size
+     * @param encoder       PI 21 compression stage, null for none
+     * @param transcoder    data code conversion stage, null for none
+     */
+    public DtfEntityAssembler(int maxEntitySize, int recordLength, CompressionEncoder encoder,
+            EbcdicTranscoder transcoder) {
+        if (recordLength <= 0) {
+            throw new IllegalArgumentException("Record length must be positive: " + recordLength);
+        }
+        this.recordLength = recordLength;
+        this.encoder = encoder;
+        this.transcoder = transcoder;
+        if (encoder == null) {
+            this.articlesPerEntity = FpduBuilder.calculateArticlesPerEntity(recordLength, maxEntitySize);
+            int capacity = FRAME_PREFIX_SIZE + FPDU_HEADER_SIZE
+                    + articlesPerEntity * (ARTICLE_PREFIX_SIZE + recordLength);
+            this.buffer = ByteBuffer.allocate(capacity);
+            this.article = null;
+        } else {
+            // At least one worst-case (incompressible) article must fit
+            int minEntity = FPDU_HEADER_SIZE + ARTICLE_PREFIX_SIZE + CompressionEncoder.maxEncodedLength(recordLength);
+            this.articlesPerEntity = MAX_ARTICLES;
+            this.buffer = ByteBuffer.allocate(FRAME_PREFIX_SIZE + Math.max(maxEntitySize, minEntity));
+            this.article = ByteBuffer.allocate(recordLength);
+        }
+    }
+
+    /**
+     * Fill the next entity with up to articlesPerEntity articles read from the
+     * source. Every article is recordLength bytes except possibly the last one
+     * of the input.
+     *
+     * @param source source channel, positioned at the first byte to send
+     * @param idDst  destination connection ID
+     * @return number of data bytes in the entity (0 when input is exhausted)
+     */
+    public int fill(ReadableByteChannel source, int idDst) throws IOException {
+        articleCount = 0;
+        dataLength = 0;
+        if (endOfInput) {
+            return 0;
+        }
+
+        int position = encoder != null
+                ? fillCompressed(source, FRAME_PREFIX_SIZE + FPDU_HEADER_SIZE)
+                : fillRaw(source, FRAME_PREFIX_SIZE + FPDU_HEADER_SIZE);
+
+        if (articleCount > 0) {
+            int fpduLength = position - FRAME_PREFIX_SIZE;
+            buffer.putShort(0, (short) fpduLength);
+            buffer.putShort(2, (short) fpduLength);
+            buffer.put(4, (byte) FpduType.DTF.getPhase());
+            buffer.put(5, (byte) FpduType.DTF.getType());
+            buffer.put(6, (byte) idDst);
+            buffer.put(7, (byte) articleCount); // idSrc = number of articles for multi-article DTF
+        }
+        buffer.limit(position).position(0);
+        return dataLength;
+    }
+
+    private int fillRaw(ReadableByteChannel source, int position) throws IOException {
+        while (articleCount < articlesPerEntity) {
+            int articleStart = position + ARTICLE_PREFIX_SIZE;
+            buffer.limit(articleStart + recordLength).position(articleStart);
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer) < 0) {
+                    endOfInput = true;
+                    break;
+                }
+            }
+            int articleLength = buffer.position() - articleStart;
+            if (articleLength == 0) {
+                break;
+            }
+            if (transcoder != null) {
+                transcoder.transcode(buffer.array(), articleStart, articleLength);
+            }
+            buffer.putShort(position, (short) articleLength);
+            position = articleStart + articleLength;
+            dataLength += articleLength;
+            articleCount++;
+            if (endOfInput) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    private int fillCompressed(ReadableByteChannel source, int position) throws IOException {
+        int worstCase = ARTICLE_PREFIX_SIZE + CompressionEncoder.maxEncodedLength(recordLength);
+        buffer.clear(); // encoded articles are written by absolute index
+        while (articleCount < articlesPerEntity && position + worstCase <= buffer.capacity()) {
+            article.clear();
+            while (article.hasRemaining()) {
+                if (source.read(article) < 0) {
+                    endOfInput = true;
+                    break;
+                }
+            }
+            int articleLength = article.position();
+            if (articleLength == 0) {
+                break;
+            }
+            if (transcoder != null) {
+                transcoder.transcode(article.array(), 0, articleLength);
+            }
+            int encodedLength = encoder.encode(article.array(), 0, articleLength,
+                    buffer.array(), position + ARTICLE_PREFIX_SIZE);
+            buffer.putShort(position, (short) encodedLength);
+            position += ARTICLE_PREFIX_SIZE + encodedLength;
+            dataLength += articleLength;
+            articleCount++;
+            if (endOfInput) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Write the current entity (with its transport length prefix) in a single
+     * call. The stream is not flushed so consecutive entities can share
+     * segments; callers flush before waiting for a response.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (articleCount == 0) {
+            return;
+        }
+        out.write(buffer.array(), 0, buffer.limit());
+    }
+
+    /**
+     * Send the current entity as one transport frame, straight from the
+     * entity buffer (see TransportChannel.sendFrame).
+     */
+    public void sendTo(TransportChannel channel) throws IOException {
+        if (articleCount == 0) {
+            return;
+        }
+        channel.sendFrame(buffer.array(), 0, buffer.limit());
+    }
+
+    /**
+     * Current entity as a read-only view of the FPDU (without the transport
+     * length prefix).
+     */
+    public ByteBuffer fpdu() {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.position(FRAME_PREFIX_SIZE);
+        return view.slice();
+    }
+
+    public int getArticleCount() {
+        return articleCount;
+    }
+
+    /**
+     * Uncompressed data bytes in the current entity
+     */
+    public int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Articles per entity, an upper bound when compressing
+     */
+    public int getArticlesPerEntity() {
+        return articlesPerEntity;
+    }
+
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+}
@@ -0,0 +1,114 @@
+package com.pesitwizard.fpdu;
+
+import java.util.Locale;
+
+/**
+ * EBCDIC code pages supported for data transcoding (PI 16 = EBCDIC).
+ *
+ * Each table maps the 256 EBCDIC code points to ISO-8859-1, one to one, so
+ * files survive a round trip. NL (0x15) maps to NEL and LF (0x25) to LF,
+ * except for 1047 where NL is the line terminator (z/OS UNIX convention).
+ */
+public enum EbcdicCodePage {
+    /** US / Canada */
+    CP037(
+            "\u0000\u0001\u0002\u0003\u009C\t\u0086\u007F\u0097\u008D\u008E\u000B\f\r\u000E\u000F" +
+            "\u0010\u0011\u0012\u0013\u009D\u0085\b\u0087\u0018\u0019\u0092\u008F\u001C\u001D\u001E\u001F" +
+            "\u0080\u0081\u0082\u0083\u0084\n\u0017\u001B\u0088\u0089\u008A\u008B\u008C\u0005\u0006\u0007" +
+            "\u0090\u0091\u0016\u0093\u0094\u0095\u0096\u0004\u0098\u0099\u009A\u009B\u0014\u0015\u009E\u001A" +
+            " \u00A0\u00E2\u00E4\u00E0\u00E1\u00E3\u00E5\u00E7\u00F1\u00A2.<(+|" +
+            "&\u00E9\u00EA\u00EB\u00E8\u00ED\u00EE\u00EF\u00EC\u00DF!$*);\u00AC" +
+            "-/\u00C2\u00C4\u00C0\u00C1\u00C3\u00C5\u00C7\u00D1\u00A6,%_>?" +
+            "\u00F8\u00C9\u00CA\u00CB\u00C8\u00CD\u00CE\u00CF\u00CC`:#@'=\"" +
+            "\u00D8abcdefghi\u00AB\u00BB\u00F0\u00FD\u00FE\u00B1" +
+            "\u00B0jklmnopqr\u00AA\u00BA\u00E6\u00B8\u00C6\u00A4" +
+            "\u00B5~stuvwxyz\u00A1\u00BF\u00D0\u00DD\u00DE\u00AE" +
+            "^\u00A3\u00A5\u00B7\u00A9\u00A7\u00B6\u00BC\u00BD\u00BE[]\u00AF\u00A8\u00B4\u00D7" +
+            "{ABCDEFGHI\u00AD\u00F4\u00F6\u00F2\u00F3\u00F5" +
+            "}JKLMNOPQR\u00B9\u00FB\u00FC\u00F9\u00FA\u00FF" +
+            "\\\u00F7STUVWXYZ\u00B2\u00D4\u00D6\u00D2\u00D3\u00D5" +
+            "0123456789\u00B3\u00DB\u00DC\u00D9\u00DA\u009F"),
+
+    /** France */
+    CP297(
+            "\u0000\u0001\u0002\u0003\u009C\t\u0086\u007F\u0097\u008D\u008E\u000B\f\r\u000E\u000F" +
+            "\u0010\u0011\u0012\u0013\u009D\u0085\b\u0087\u0018\u0019\u0092\u008F\u001C\u001D\u001E\u001F" +
+            "\u0080\u0081\u0082\u0083\u0084\n\u0017\u001B\u0088\u0089\u008A\u008B\u008C\u0005\u0006\u0007" +
+            "\u0090\u0091\u0016\u0093\u0094\u0095\u0096\u0004\u0098\u0099\u009A\u009B\u0014\u0015\u009E\u001A" +
+            " \u00A0\u00E2\u00E4@\u00E1\u00E3\u00E5\\\u00F1\u00B0.<(+!" +
+            "&{\u00EA\u00EB}\u00ED\u00EE\u00EF\u00EC\u00DF\u00A7$*);^" +
+            "-/\u00C2\u00C4\u00C0\u00C1\u00C3\u00C5\u00C7\u00D1\u00F9,%_>?" +
+            "\u00F8\u00C9\u00CA\u00CB\u00C8\u00CD\u00CE\u00CF\u00CC\u00B5:\u00A3\u00E0'=\"" +
+            "\u00D8abcdefghi\u00AB\u00BB\u00F0\u00FD\u00FE\u00B1" +
+            "[jklmnopqr\u00AA\u00BA\u00E6\u00B8\u00C6\u00A4" +
+            "`\u00A8stuvwxyz\u00A1\u00BF\u00D0\u00DD\u00DE\u00AE" +
+            "\u00A2#\u00A5\u00B7\u00A9]\u00B6\u00BC\u00BD\u00BE\u00AC|\u00AF~\u00B4\u00D7" +
+            "\u00E9ABCDEFGHI\u00AD\u00F4\u00F6\u00F2\u00F3\u00F5" +
+            "\u00E8JKLMNOPQR\u00B9\u00FB\u00FC\u00A6\u00FA\u00FF" +
+            "\u00E7\u00F7STUVWXYZ\u00B2\u00D4\u00D6\u00D2\u00D3\u00D5" +
+            "0123456789\u00B3\u00DB\u00DC\u00D9\u00DA\u009F"),
+
+    /** Open Systems Latin-1 (z/OS UNIX) */
+    CP1047(
+            "\u0000\u0001\u0002\u0003\u009C\t\u0086\u007F\u0097\u008D\u008E\u000B\f\r\u000E\u000F" +
+            "\u0010\u0011\u0012\u0013\u009D\n\b\u0087\u0018\u0019\u0092\u008F\u001C\u001D\u001E\u001F" +
+            "\u0080\u0081\u0082\u0083\u0084\u0085\u0017\u001B\u0088\u0089\u008A\u008B\u008C\u0005\u0006\u0007" +
+            "\u0090\u0091\u0016\u0093\u0094\u0095\u0096\u0004\u0098\u0099\u009A\u009B\u0014\u0015\u009E\u001A" +
+            " \u00A0\u00E2\u00E4\u00E0\u00E1\u00E3\u00E5\u00E7\u00F1\u00A2.<(+|" +
+            "&\u00E9\u00EA\u00EB\u00E8\u00ED\u00EE\u00EF\u00EC\u00DF!$*);^" +
+            "-/\u00C2\u00C4\u00C0\u00C1\u00C3\u00C5\u00C7\u00D1\u00A6,%_>?" +
+            "\u00F8\u00C9\u00CA\u00CB\u00C8\u00CD\u00CE\u00CF\u00CC`:#@'=\"" +
+            "\u00D8abcdefghi\u00AB\u00BB\u00F0\u00FD\u00FE\u00B1" +
+            "\u00B0jklmnopqr\u00AA\u00BA\u00E6\u00B8\u00C6\u00A4" +
+            "\u00B5~stuvwxyz\u00A1\u00BF\u00D0[\u00DE\u00AE" +
+            "\u00AC\u00A3\u00A5\u00B7\u00A9\u00A7\u00B6\u00BC\u00BD\u00BE\u00DD\u00A8\u00AF]\u00B4\u00D7" +
+            "{ABCDEFGHI\u00AD\u00F4\u00F6\u00F2\u00F3\u00F5" +
+            "}JKLMNOPQR\u00B9\u00FB\u00FC\u00F9\u00FA\u00FF" +
+            "\\\u00F7STUVWXYZ\u00B2\u00D4\u00D6\u00D2\u00D3\u00D5" +
+            "0123456789\u00B3\u00DB\u00DC\u00D9\u00DA\u009F");
+
+    private final EbcdicTranscoder toAscii;
+    private final EbcdicTranscoder toEbcdic;
+
+    EbcdicCodePage(String latin1) {
+        byte[] toAsciiTable = new byte[256];
+        byte[] toEbcdicTable = new byte[256];
+        for (int ebcdic = 0; ebcdic < 256; ebcdic++) {
+            int ascii = latin1.charAt(ebcdic);
+            toAsciiTable[ebcdic] = (byte) ascii;
+            toEbcdicTable[ascii] = (byte) ebcdic;
+        }
+        this.toAscii = new EbcdicTranscoder(toAsciiTable);
+        this.toEbcdic = new EbcdicTranscoder(toEbcdicTable);
+    }
+
+    /**
+     * EBCDIC to ASCII (ISO-8859-1) transcoder
+     */
+    public EbcdicTranscoder toAscii() {
+        return toAscii;
+    }
+
+    /**
+     * ASCII (ISO-8859-1) to EBCDIC transcoder
+     */
+    public EbcdicTranscoder toEbcdic() {
+        return toEbcdic;
+    }
+
+    /**
+     * Parse a code page name: CP297, IBM297, IBM-297 or 297 (case-insensitive)
+     *
+     * @throws IllegalArgumentException if the code page is not supported
+     */
+    public static EbcdicCodePage fromName(String name) {
+        String number = name.trim().toUpperCase(Locale.ROOT).replaceFirst("^(CP|IBM-?)", "");
+        for (EbcdicCodePage codePage : values()) {
+            if (codePage.name().substring(2).equals(number)
+                    || codePage.name().substring(2).equals("0" + number)) {
+                return codePage;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported EBCDIC code page: " + name);
+    }
+}
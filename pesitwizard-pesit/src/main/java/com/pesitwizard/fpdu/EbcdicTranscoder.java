@@ -0,0 +1,112 @@
+package com.pesitwizard.fpdu;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Bulk single-byte transcoder (EBCDIC to ASCII or back) for whole files.
+ *
+ * Works in place or buffer to buffer, on arrays and on heap or direct
+ * ByteBuffers, without allocating. Heap data goes through a plain table loop
+ * (the JIT unrolls it); direct buffers are read and written eight bytes at a
+ * time so the per-byte cost is the table lookup only.
+ *
+ * Immutable and thread-safe; obtain instances from EbcdicCodePage.
+ */
+public final class EbcdicTranscoder {
+    private final byte[] table;
+
+    EbcdicTranscoder(byte[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Transcode a single byte
+     */
+    public byte transcode(byte b) {
+        return table[b & 0xFF];
+    }
+
+    /**
+     * Transcode in place
+     */
+    public void transcode(byte[] data, int offset, int length) {
+        transcode(data, offset, data, offset, length);
+    }
+
+    /**
+     * Transcode length bytes of src into dst (may be the same array)
+     */
+    public void transcode(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+        Objects.checkFromIndexSize(srcOffset, length, src.length);
+        Objects.checkFromIndexSize(dstOffset, length, dst.length);
+        byte[] t = table;
+        int delta = dstOffset - srcOffset;
+        for (int i = srcOffset, end = srcOffset + length; i < end; i++) {
+            dst[i + delta] = t[src[i] & 0xFF];
+        }
+    }
+
+    /**
+     * Transcode the remaining bytes of a buffer in place; position and limit
+     * are unchanged
+     */
+    public void transcode(ByteBuffer buffer) {
+        int position = buffer.position();
+        int length = buffer.remaining();
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + position;
+            transcode(buffer.array(), offset, buffer.array(), offset, length);
+        } else {
+            transcode(buffer, position, buffer, position, length);
+        }
+    }
+
+    /**
+     * Transcode the remaining bytes of src into dst, advancing both
+     *
+     * @throws BufferOverflowException if dst has less room than src has bytes
+     */
+    public void transcode(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            transcode(src.array(), src.arrayOffset() + src.position(),
+                    dst.array(), dst.arrayOffset() + dst.position(), length);
+        } else {
+            transcode(src, src.position(), dst, dst.position(), length);
+        }
+        src.position(src.position() + length);
+        dst.position(dst.position() + length);
+    }
+
+    private void transcode(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int length) {
+        int i = 0;
+        int words = src.order() == dst.order() ? length & ~7 : 0; // lanes must line up
+        for (; i < words; i += 8) {
+            dst.putLong(dstIndex + i, transcodeWord(src.getLong(srcIndex + i)));
+        }
+        for (; i < length; i++) {
+            dst.put(dstIndex + i, table[src.get(srcIndex + i) & 0xFF]);
+        }
+    }
+
+    /**
+     * Eight bytes at once; each byte keeps its lane whatever the byte order,
+     * as long as the read and the write use the same one
+     */
+    private long transcodeWord(long word) {
+        byte[] t = table;
+        return (t[(int) word & 0xFF] & 0xFFL)
+                | (t[(int) (word >>> 8) & 0xFF] & 0xFFL) << 8
+                | (t[(int) (word >>> 16) & 0xFF] & 0xFFL) << 16
+                | (t[(int) (word >>> 24) & 0xFF] & 0xFFL) << 24
+                | (t[(int) (word >>> 32) & 0xFF] & 0xFFL) << 32
+                | (t[(int) (word >>> 40) & 0xFF] & 0xFFL) << 40
+                | (t[(int) (word >>> 48) & 0xFF] & 0xFFL) << 48
+                | (t[(int) (word >>> 56) & 0xFF] & 0xFFL) << 56;
+    }
+}
@@ -0,0 +1,72 @@
+package com.pesitwizard.fpdu;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of reusable FPDU receive buffers.
+ *
+ * Buffers are heap buffers sized for the largest frame the 2-byte length
+ * prefix allows, so a connection can receive every frame into the same
+ * buffer. A reader acquires one buffer for its lifetime and releases it when
+ * the connection ends. Thread-safe.
+ */
+public class FpduBufferPool {
+    public static final int MAX_FRAME_SIZE = 65535;
+    private static final FpduBufferPool SHARED = new FpduBufferPool(256);
+
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int maxPooled;
+
+    /**
+     * @param maxPooled Maximum number of idle buffers kept (extra buffers are
+     *                  left to the GC)
+     */
+    public FpduBufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Pool shared by all readers of the JVM.
+     */
+    public static FpduBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get a cleared buffer of MAX_FRAME_SIZE capacity.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocate(MAX_FRAME_SIZE);
+        }
+        freeCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool. The caller must not use it afterwards.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() < MAX_FRAME_SIZE || buffer.isReadOnly() || !buffer.hasArray()) {
+            return;
+        }
+        if (freeCount.incrementAndGet() > maxPooled) {
+            freeCount.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        free.offer(buffer);
+    }
+
+    /**
+     * Number of idle buffers currently pooled.
+     */
+    public int available() {
+        return freeCount.get();
+    }
+}
@@ -22,6 +22,20 @@ public class FpduBuilder {
         return fpdu.array();
     }
 
+    /**
+     * Build the 6-byte header of an FPDU whose dataLength data bytes are sent
+     * separately (see TransportChannel.send(byte[], int, FramePayload)).
+     */
+    public static byte[] buildHeader(FpduType fpduType, int idDest, int idSrc, int dataLength) {
+        return ByteBuffer.allocate(6)
+                .putShort((short) (6 + dataLength))
+                .put((byte) fpduType.getPhase())
+                .put((byte) fpduType.getType())
+                .put((byte) idDest)
+                .put((byte) idSrc)
+                .array();
+    }
+
     public static byte[] buildFpdu(FpduType fpduType, int idDest, int idSrc) {
         return buildFpdu(fpduType, idDest, idSrc, new ParameterValue[0]);
     }
@@ -3,6 +3,7 @@ package com.pesitwizard.fpdu;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -70,6 +71,26 @@ public class FpduIO {
         return data;
     }
 
+    /**
+     * Read a single FPDU frame into a reusable heap buffer.
+     * On return the buffer position is 0 and its limit is the frame length.
+     *
+     * @param in     DataInputStream to read from
+     * @param target Receive buffer (see FpduBufferPool)
+     * @return Frame length (without the length prefix)
+     * @throws IOException if read fails, connection closed or frame too large
+     */
+    public static int readRawFpdu(DataInputStream in, ByteBuffer target) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length <= 0 || length > target.capacity()) {
+            throw new IOException("Invalid FPDU length: " + length);
+        }
+        in.readFully(target.array(), target.arrayOffset(), length);
+        target.clear();
+        target.limit(length);
+        return length;
+    }
+
     /**
      * Read and parse a single FPDU from the input stream.
      * 
@@ -92,10 +113,21 @@ public class FpduIO {
      * @throws IOException if write fails
      */
     public static void writeFpdu(DataOutputStream out, Fpdu fpdu) throws IOException {
-        byte[] data = FpduBuilder.buildFpdu(fpdu);
-        out.writeShort(data.length);
-        out.write(data);
-        out.flush();
+        writeRawFpdu(out, FpduBuilder.buildFpdu(fpdu), true);
+    }
+
+    /**
+     * Write an FPDU to the output stream, flushing it only if asked to.
+     * Over a buffered stream, unflushed FPDUs go out with the next flush,
+     * in the same TCP segments as what follows them.
+     * 
+     * @param out   DataOutputStream to write to
+     * @param fpdu  Fpdu to send
+     * @param flush whether to flush the stream
+     * @throws IOException if write fails
+     */
+    public static void writeFpdu(DataOutputStream out, Fpdu fpdu, boolean flush) throws IOException {
+        writeRawFpdu(out, FpduBuilder.buildFpdu(fpdu), flush);
     }
 
     /**
@@ -124,9 +156,23 @@ public class FpduIO {
      * @throws IOException if write fails
      */
     public static void writeRawFpdu(DataOutputStream out, byte[] rawData) throws IOException {
+        writeRawFpdu(out, rawData, true);
+    }
+
+    /**
+     * Write raw FPDU bytes to the output stream, flushing only if asked to.
+     * 
+     * @param out     DataOutputStream to write to
+     * @param rawData Raw FPDU bytes (without length prefix)
+     * @param flush   whether to flush the stream
+     * @throws IOException if write fails
+     */
+    public static void writeRawFpdu(DataOutputStream out, byte[] rawData, boolean flush) throws IOException {
         out.writeShort(rawData.length);
         out.write(rawData);
-        out.flush();
+        if (flush) {
+            out.flush();
+        }
     }
 
     /**
@@ -102,14 +102,14 @@ public class FpduParser {
                 }
                 buffer.get(paramData);
             }
-            if (ParameterIdentifier.fromId(paramId) != null) {
-                ParameterIdentifier paramIdEnum = ParameterIdentifier.fromId(paramId);
+            ParameterIdentifier paramIdEnum = ParameterIdentifier.fromId(paramId);
+            ParameterGroupIdentifier groupId = paramIdEnum == null ? ParameterGroupIdentifier.fromId(paramId) : null;
+            if (paramIdEnum != null) {
                 ParameterValue paramValue = new ParameterValue(paramIdEnum, paramData);
                 log.info("PI {} found which is {} and has a size of {} bytes with value {}", paramId, paramIdEnum,
-                        paramLength, paramValue.toString());
+                        paramLength, paramValue);
                 fpdu.getParameters().add(paramValue);
-            } else if (ParameterGroupIdentifier.fromId(paramId) != null) {
-                ParameterGroupIdentifier groupId = ParameterGroupIdentifier.fromId(paramId);
+            } else if (groupId != null) {
                 log.info("PGI {} found which is {}", paramId, groupId);
                 ParameterValue groupParameterValue = new ParameterValue(groupId, new ParameterValue[0]);
                 fpdu.getParameters().add(groupParameterValue);
@@ -123,7 +123,7 @@ public class FpduParser {
                     if (groupParamIdEnum != null) {
                         ParameterValue groupParamValue = new ParameterValue(groupParamIdEnum, groupParamData);
                         log.info("PI {} found which is {} and has a size of {} bytes with value {}", groupParamId,
-                                groupParamIdEnum, groupParamLength, groupParamValue.toString());
+                                groupParamIdEnum, groupParamLength, groupParamValue);
                         groupParameterValue.getValues().add(groupParamValue);
                     } else {
                         throw new UnknownParameterException(groupParamId, groupParamLength, "PGI " + groupId.name());
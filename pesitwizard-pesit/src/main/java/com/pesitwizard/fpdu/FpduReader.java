@@ -3,8 +3,6 @@ package com.pesitwizard.fpdu;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,15 +13,36 @@ import lombok.extern.slf4j.Slf4j;
  * A data entity received from the transport may contain multiple FPDUs.
  * This reader buffers them and returns one FPDU at a time.
  *
+ * Every entity is received into the same pooled buffer. readView() returns a
+ * flyweight over the next FPDU without any allocation (intended for DTF
+ * loops); read() materializes it as an Fpdu. Call release() when the
+ * connection ends to give the buffer back to the pool.
+ *
  * Shared between client and server implementations.
  */
 @Slf4j
 public class FpduReader {
-    private final DataInputStream input;
-    private final Deque<Fpdu> pendingFpdus = new ArrayDeque<>();
+    private static final int HEADER_SIZE = 6;
+
+    private final FrameReceiver receiver;
+    private final FpduBufferPool bufferPool;
+    private final FpduView view = new FpduView();
+    private ByteBuffer frame; // current data entity, positioned at the next FPDU
 
     public FpduReader(DataInputStream input) {
-        this.input = input;
+        this(input, FpduBufferPool.shared());
+    }
+
+    public FpduReader(DataInputStream input, FpduBufferPool bufferPool) {
+        this(target -> FpduIO.readRawFpdu(input, target), bufferPool);
+    }
+
+    /**
+     * Create a reader over any frame source (e.g. a TransportChannel).
+     */
+    public FpduReader(FrameReceiver receiver, FpduBufferPool bufferPool) {
+        this.receiver = receiver;
+        this.bufferPool = bufferPool;
     }
 
     /**
@@ -31,34 +50,57 @@ public class FpduReader {
      * Handles both single and concatenated FPDUs transparently.
      */
     public Fpdu read() throws IOException {
-        // Return buffered FPDU if available
-        if (!pendingFpdus.isEmpty()) {
-            return pendingFpdus.poll();
-        }
-
-        // Read next data entity from stream
-        byte[] data = FpduIO.readRawFpdu(input);
-        parseBuffer(data);
+        FpduView next = readView();
+        return next != null ? next.toFpdu() : null;
+    }
 
-        // Return first parsed FPDU
-        return pendingFpdus.poll();
+    /**
+     * Read the next FPDU as a flyweight view over the receive buffer.
+     * The view is only valid until the next read()/readView() call.
+     *
+     * @return the view, or null if the received entity holds no valid FPDU
+     */
+    public FpduView readView() throws IOException {
+        if (!hasPending()) {
+            receiveFrame();
+            if (!hasPending()) {
+                log.warn("No valid FPDU in received entity of {} bytes", frame.limit());
+                frame.position(frame.limit());
+                return null;
+            }
+        }
+        return view.wrap(frame);
     }
 
     /**
      * Read raw FPDU data (for backward compatibility or special handling).
      */
     public byte[] readRaw() throws IOException {
-        if (!pendingFpdus.isEmpty()) {
+        if (hasPending()) {
             throw new IllegalStateException("Cannot read raw data when FPDUs are buffered");
         }
-        return FpduIO.readRawFpdu(input);
+        receiveFrame();
+        byte[] data = new byte[frame.remaining()];
+        frame.get(data);
+        return data;
+    }
+
+    private void receiveFrame() throws IOException {
+        if (frame == null) {
+            frame = bufferPool.acquire();
+        }
+        receiver.receive(frame);
     }
 
     /**
      * Check if there are buffered FPDUs waiting to be read.
      */
     public boolean hasPending() {
-        return !pendingFpdus.isEmpty();
+        if (frame == null || frame.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        int fpduLen = frame.getShort(frame.position()) & 0xFFFF;
+        return fpduLen >= HEADER_SIZE && fpduLen <= frame.remaining();
     }
 
     /**
@@ -67,41 +109,39 @@ public class FpduReader {
      * handshake).
      */
     public void injectRawData(byte[] data) {
-        parseBuffer(data);
+        if (frame == null) {
+            frame = bufferPool.acquire();
+            frame.limit(0);
+        }
+        frame.compact();
+        if (data.length > frame.remaining()) {
+            frame.flip();
+            throw new IllegalArgumentException("Injected data exceeds receive buffer: " + data.length + " bytes");
+        }
+        frame.put(data);
+        frame.flip();
+        if (!hasPending()) {
+            log.warn("Data too short for FPDU: {} bytes", data.length);
+        }
     }
 
     /**
-     * Parse buffer containing one or more FPDUs.
-     * Format: [len1][fpdu1_content][len2][fpdu2_content]...
-     * Each FPDU: [len 2B][phase 1B][type 1B][idDst 1B][idSrc 1B][data/params]
+     * Give the receive buffer back to the pool. Pending FPDUs are discarded.
      */
-    private void parseBuffer(byte[] data) {
-        if (data.length < 6) {
-            log.warn("Data too short for FPDU: {} bytes", data.length);
-            return;
-        }
-
-        ByteBuffer buffer = ByteBuffer.wrap(data);
-        int fpduCount = 0;
-
-        while (buffer.remaining() >= 6) {
-            // Peek at length to validate
-            int fpduLen = buffer.getShort(buffer.position()) & 0xFFFF;
-            if (fpduLen < 6 || fpduLen > buffer.remaining()) {
-                log.warn("Invalid FPDU length: {} (remaining: {})", fpduLen, buffer.remaining());
-                break;
-            }
-
-            // Parse FPDU (FpduParser reads length and advances buffer position)
-            FpduParser parser = new FpduParser(buffer);
-            Fpdu fpdu = parser.parse();
-            pendingFpdus.add(fpdu);
-            fpduCount++;
-
-            log.debug("Parsed FPDU #{}: type={}, dataLen={}", fpduCount, fpdu.getFpduType(),
-                    fpdu.getData() != null ? fpdu.getData().length : 0);
+    public void release() {
+        if (frame != null) {
+            bufferPool.release(frame);
+            frame = null;
         }
+    }
 
-        log.debug("Parsed {} FPDU(s) from {} bytes", fpduCount, data.length);
+    /**
+     * Source of data entities: receives one frame (without its 2-byte length
+     * prefix) into the target buffer, leaving it positioned at 0 with the frame
+     * length as limit.
+     */
+    @FunctionalInterface
+    public interface FrameReceiver {
+        int receive(ByteBuffer target) throws IOException;
     }
 }
@@ -3,9 +3,6 @@ package com.pesitwizard.fpdu;
 import static com.pesitwizard.fpdu.ParameterGroupIdentifier.*;
 import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 
-import java.util.Map;
-import java.util.TreeMap;
-
 /**
  * PESIT FPDU (File Transfer Protocol Data Unit) Types
  * Based on PESIT E specification (September 1989)
@@ -235,7 +232,21 @@ public enum FpduType {
         private final String name;
         private final FpduType expectedAck;
         private final ParameterRequirement[] parameterRequirements;
-        private final Map<Integer, Boolean> parameterRequirementMap = new TreeMap<>();
+        // Indexed by PI/PGI id: NOT_SUPPORTED, OPTIONAL or MANDATORY
+        private final byte[] parameterRequirementTable = new byte[256];
+
+        private static final byte NOT_SUPPORTED = 0;
+        private static final byte OPTIONAL = 1;
+        private static final byte MANDATORY = 2;
+
+        // Indexed by (phase << 8) | type
+        private static final FpduType[] BY_CODE = new FpduType[0x10000];
+
+        static {
+                for (FpduType fpdu : values()) {
+                        BY_CODE[(fpdu.phase << 8) | fpdu.type] = fpdu;
+                }
+        }
 
         FpduType(int phase, int type, String name, ParameterRequirement... parameterRequirements) {
                 this(phase, type, name, null, parameterRequirements);
@@ -249,18 +260,21 @@ public enum FpduType {
                 this.expectedAck = expectedAck;
                 this.parameterRequirements = parameterRequirements != null ? parameterRequirements
                                 : new ParameterRequirement[0];
-                for (ParameterRequirement req : parameterRequirements) {
-                        parameterRequirementMap.put(req.getParameter().getId(), req.isMandatory());
+                for (ParameterRequirement req : this.parameterRequirements) {
+                        putRequirement(req);
                         if (req.getParameter() instanceof ParameterGroupIdentifier) {
                                 for (ParameterRequirement pgiReq : ((ParameterGroupIdentifier) req.getParameter())
                                                 .getContainedPIs()) {
-                                        parameterRequirementMap.put(pgiReq.getParameter().getId(),
-                                                        pgiReq.isMandatory());
+                                        putRequirement(pgiReq);
                                 }
                         }
                 }
         }
 
+        private void putRequirement(ParameterRequirement req) {
+                parameterRequirementTable[req.getParameter().getId()] = req.isMandatory() ? MANDATORY : OPTIONAL;
+        }
+
         public int getPhase() {
                 return phase;
         }
@@ -273,13 +287,14 @@ public enum FpduType {
                 return name;
         }
 
+        /**
+         * FPDU type for a header phase and type octet, null if unknown
+         */
         public static FpduType from(int phase, int type) {
-                for (FpduType fpdu : values()) {
-                        if (fpdu.phase == phase && fpdu.type == type) {
-                                return fpdu;
-                        }
+                if (((phase | type) & ~0xFF) != 0) {
+                        return null;
                 }
-                return null;
+                return BY_CODE[(phase << 8) | type];
         }
 
         public boolean isSessionLevel() {
@@ -326,13 +341,18 @@ public enum FpduType {
          * Check if a PI is supported by this FPDU
          */
         public boolean supportsParameter(Parameter p) {
-                return parameterRequirementMap.containsKey(p.getId());
+                return requirement(p) != NOT_SUPPORTED;
         }
 
         /**
          * Check if a PI is mandatory for this FPDU
          */
         public boolean requiresParameter(Parameter p) {
-                return parameterRequirementMap.getOrDefault(p.getId(), false);
+                return requirement(p) == MANDATORY;
+        }
+
+        private byte requirement(Parameter p) {
+                int id = p.getId();
+                return id >= 0 && id < parameterRequirementTable.length ? parameterRequirementTable[id] : NOT_SUPPORTED;
         }
 }
@@ -0,0 +1,252 @@
+package com.pesitwizard.fpdu;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Flyweight, read-only view over an encoded FPDU.
+ *
+ * A single view is re-pointed at each received FPDU with {@link #wrap} and
+ * never copies the frame: the DTF payload is exposed as a slice of the receive
+ * buffer and PI values are located through a table indexed by PI id (nested
+ * PIs of a PGI included), so lookups are O(1) and parsing allocates nothing.
+ *
+ * The view and every buffer it returns are only valid until the next wrap()
+ * or until the receive buffer is reused. Use {@link #toFpdu()} to keep an
+ * FPDU beyond that. Not thread-safe.
+ */
+public final class FpduView {
+    private static final int HEADER_SIZE = 6; // len(2) + phase(1) + type(1) + idDst(1) + idSrc(1)
+    private static final int ID_SPACE = 256;
+    private static final boolean[] GROUP_IDS = new boolean[ID_SPACE];
+
+    static {
+        for (ParameterGroupIdentifier pgi : ParameterGroupIdentifier.values()) {
+            GROUP_IDS[pgi.getId()] = true;
+        }
+    }
+
+    private final int[] valueOffset = new int[ID_SPACE];
+    private final int[] valueLength = new int[ID_SPACE];
+    // Generation stamps avoid clearing the tables for every FPDU
+    private final int[] stamp = new int[ID_SPACE];
+    private int generation;
+
+    private ByteBuffer source;
+    private ByteBuffer data; // reusable window on source for payload/value access
+    private int start;
+    private int length;
+    private int phase;
+    private int type;
+    private int idDst;
+    private int idSrc;
+
+    /**
+     * Point this view at the FPDU starting at the buffer position (FPDU length
+     * prefix included) and advance the buffer past it.
+     *
+     * @throws FpduParseException if the buffer does not hold a complete FPDU
+     */
+    public FpduView wrap(ByteBuffer buffer) {
+        int fpduStart = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw FpduParseException.incompleteBuffer(HEADER_SIZE, buffer.remaining());
+        }
+        int fpduLength = buffer.getShort(fpduStart) & 0xFFFF;
+        if (fpduLength < HEADER_SIZE) {
+            throw FpduParseException.invalidFpduLength(fpduLength);
+        }
+        if (fpduLength > buffer.remaining()) {
+            throw FpduParseException.incompleteBuffer(fpduLength, buffer.remaining());
+        }
+
+        if (source != buffer) {
+            source = buffer;
+            data = buffer.duplicate();
+        }
+        start = fpduStart;
+        length = fpduLength;
+        phase = buffer.get(fpduStart + 2) & 0xFF;
+        type = buffer.get(fpduStart + 3) & 0xFF;
+        idDst = buffer.get(fpduStart + 4) & 0xFF;
+        idSrc = buffer.get(fpduStart + 5) & 0xFF;
+
+        if (++generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        if (!isDtf()) {
+            indexParameters(fpduStart + HEADER_SIZE, fpduStart + fpduLength);
+        }
+
+        buffer.position(fpduStart + fpduLength);
+        return this;
+    }
+
+    private void indexParameters(int pos, int end) {
+        while (pos < end) {
+            int id = source.get(pos++) & 0xFF;
+            if (pos >= end) {
+                break;
+            }
+            int len = source.get(pos++) & 0xFF;
+            if (len == 0xFF) {
+                if (pos + 2 > end) {
+                    break;
+                }
+                len = source.getShort(pos) & 0xFFFF;
+                pos += 2;
+            }
+            if (pos + len > end) {
+                break;
+            }
+            index(id, pos, len);
+            if (GROUP_IDS[id]) {
+                indexGroup(pos, pos + len);
+            }
+            pos += len;
+        }
+    }
+
+    private void indexGroup(int pos, int end) {
+        // PIs inside a PGI always use a 1-byte length
+        while (pos + 2 <= end) {
+            int id = source.get(pos++) & 0xFF;
+            int len = source.get(pos++) & 0xFF;
+            if (pos + len > end) {
+                break;
+            }
+            index(id, pos, len);
+            pos += len;
+        }
+    }
+
+    private void index(int id, int offset, int len) {
+        // First occurrence wins, as with Fpdu.getParameter()
+        if (stamp[id] != generation) {
+            stamp[id] = generation;
+            valueOffset[id] = offset;
+            valueLength[id] = len;
+        }
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public FpduType getFpduType() {
+        return FpduType.from(phase, type);
+    }
+
+    public int getIdDst() {
+        return idDst;
+    }
+
+    /**
+     * Source connection ID, or the number of articles for a multi-article DTF.
+     */
+    public int getIdSrc() {
+        return idSrc;
+    }
+
+    /**
+     * True for DTF, DTFDA, DTFMA and DTFFA.
+     */
+    public boolean isDtf() {
+        return phase == 0x00 && (type == 0x00 || type == 0x40 || type == 0x41 || type == 0x42);
+    }
+
+    public int getDataLength() {
+        return isDtf() ? length - HEADER_SIZE : 0;
+    }
+
+    /**
+     * DTF payload as a window on the receive buffer (empty for other FPDUs).
+     * The same ByteBuffer instance is returned on every call.
+     */
+    public ByteBuffer data() {
+        int end = start + length;
+        data.clear();
+        data.limit(end).position(isDtf() ? start + HEADER_SIZE : end);
+        return data;
+    }
+
+    public boolean hasParameter(Parameter parameter) {
+        return stamp[parameter.getId() & 0xFF] == generation;
+    }
+
+    /**
+     * @return value length of the parameter, or -1 if absent
+     */
+    public int getParameterLength(Parameter parameter) {
+        int id = parameter.getId() & 0xFF;
+        return stamp[id] == generation ? valueLength[id] : -1;
+    }
+
+    /**
+     * Parameter value as a window on the receive buffer, or null if absent.
+     * Shares the instance returned by {@link #data()}.
+     */
+    public ByteBuffer parameterValue(Parameter parameter) {
+        int id = parameter.getId() & 0xFF;
+        if (stamp[id] != generation) {
+            return null;
+        }
+        data.clear();
+        data.limit(valueOffset[id] + valueLength[id]).position(valueOffset[id]);
+        return data;
+    }
+
+    /**
+     * Parameter value read as an unsigned big-endian number.
+     */
+    public long getParameterNumeric(Parameter parameter, long defaultValue) {
+        int id = parameter.getId() & 0xFF;
+        if (stamp[id] != generation) {
+            return defaultValue;
+        }
+        long value = 0;
+        int offset = valueOffset[id];
+        for (int i = 0; i < valueLength[id]; i++) {
+            value = (value << 8) | (source.get(offset + i) & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Copy of the parameter value, or null if absent.
+     */
+    public byte[] getParameterBytes(Parameter parameter) {
+        int id = parameter.getId() & 0xFF;
+        if (stamp[id] != generation) {
+            return null;
+        }
+        byte[] value = new byte[valueLength[id]];
+        source.get(valueOffset[id], value);
+        return value;
+    }
+
+    /**
+     * Materialize the viewed FPDU as a standalone Fpdu (copies data and
+     * parameters).
+     */
+    public Fpdu toFpdu() {
+        ByteBuffer fpdu = source.duplicate();
+        fpdu.limit(start + length).position(start);
+        return new FpduParser(fpdu).parse();
+    }
+
+    @Override
+    public String toString() {
+        return "FpduView{fpduType=" + getFpduType() + ", idSrc=" + idSrc + ", idDst=" + idDst
+                + ", length=" + length + '}';
+    }
+}
@@ -34,6 +34,15 @@ public enum ParameterGroupIdentifier implements Parameter {
     private final String name;
     private final ParameterRequirement[] containedPIs;
 
+    // Identifiers are one octet on the wire
+    private static final ParameterGroupIdentifier[] BY_ID = new ParameterGroupIdentifier[256];
+
+    static {
+        for (ParameterGroupIdentifier pgi : values()) {
+            BY_ID[pgi.id] = pgi;
+        }
+    }
+
     ParameterGroupIdentifier(int id, String name, ParameterRequirement... pis) {
         this.id = id;
         this.name = name;
@@ -62,11 +71,6 @@ public enum ParameterGroupIdentifier implements Parameter {
     }
 
     public static ParameterGroupIdentifier fromId(int id) {
-        for (ParameterGroupIdentifier pgi : values()) {
-            if (pgi.id == id) {
-                return pgi;
-            }
-        }
-        return null;
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
     }
 }
@@ -74,10 +74,19 @@ public enum ParameterIdentifier implements Parameter {
     PI_99_MESSAGE_LIBRE(99, ParameterValueType.C, 254, "Free Message");
 
     private final int id;
-    private ParameterValueType type;
+    private final ParameterValueType type;
     private final int length; // -1 = variable length
     private final String name;
 
+    // Identifiers are one octet on the wire
+    private static final ParameterIdentifier[] BY_ID = new ParameterIdentifier[256];
+
+    static {
+        for (ParameterIdentifier pi : values()) {
+            BY_ID[pi.id] = pi;
+        }
+    }
+
     ParameterIdentifier(int id, ParameterValueType type, int length, String name) {
         this.id = id;
         this.type = type;
@@ -86,11 +95,6 @@ public enum ParameterIdentifier implements Parameter {
     }
 
     public static ParameterIdentifier fromId(int id) {
-        for (ParameterIdentifier pi : values()) {
-            if (pi.id == id) {
-                return pi;
-            }
-        }
-        return null;
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
     }
 }
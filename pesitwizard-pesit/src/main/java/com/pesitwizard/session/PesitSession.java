@@ -3,9 +3,13 @@ package com.pesitwizard.session;
 import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.pesitwizard.exception.PesitException;
 import com.pesitwizard.fpdu.DiagnosticCode;
+import com.pesitwizard.fpdu.DtfEntityAssembler;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduBuilder;
 import com.pesitwizard.fpdu.FpduParser;
@@ -23,6 +27,8 @@ import lombok.extern.slf4j.Slf4j;
 public class PesitSession implements AutoCloseable {
     private TransportChannel channel;
     private boolean strict = false;
+    private boolean concatenateFpdus = false;
+    private ByteBuffer pendingFrame; // rest of a received frame, positioned at its next FPDU
 
     public PesitSession(TransportChannel channel) throws IOException {
         this.channel = channel;
@@ -39,13 +45,22 @@ public class PesitSession implements AutoCloseable {
         this.channel.close();
     }
 
-    private Fpdu checkForAbort(Fpdu context) throws IOException, InterruptedException {
-        // Wait a bit for server to process
-        Thread.sleep(300);
+    public boolean isConnected() {
+        return channel.isConnected();
+    }
+
+    /**
+     * Change the ACK deadline (e.g. for the size of the next file when the
+     * session carries several transfers)
+     */
+    public void setReceiveTimeout(int timeoutMs) {
+        channel.setReceiveTimeout(timeoutMs);
+    }
 
-        byte[] response = channel.receive();
-        FpduParser parser = new FpduParser(response);
-        Fpdu fpdu = parser.parse();
+    private Fpdu checkForAbort(Fpdu context) throws IOException, InterruptedException {
+        // Block until the response arrives; the channel receive timeout is the
+        // ACK deadline (SocketTimeoutException if the server stays silent)
+        Fpdu fpdu = nextFpdu();
 
         // Check for ABORT (0x40 0x25) or RCONNECT (connection rejected)
         if (fpdu.getFpduType() == FpduType.ABORT || fpdu.getFpduType() == FpduType.IDT
@@ -110,12 +125,80 @@ public class PesitSession implements AutoCloseable {
         channel.send(FpduBuilder.buildFpdu(fpdu));
     }
 
+    /**
+     * Send FPDUs that need no acknowledgement in between (e.g. DTF.END then
+     * TRANS.END) with a single flush, in one frame if concatenation is on.
+     */
+    public void sendFpdus(Fpdu... fpdus) throws IOException {
+        List<byte[]> frames = new ArrayList<>(fpdus.length);
+        for (Fpdu fpdu : fpdus) {
+            frames.add(FpduBuilder.buildFpdu(fpdu));
+        }
+        if (concatenateFpdus) {
+            channel.sendConcatenated(frames);
+        } else {
+            channel.sendBatch(frames);
+        }
+    }
+
+    /**
+     * Send FPDUs as {@link #sendFpdus(Fpdu...)} and wait for the
+     * acknowledgement of the last one.
+     */
+    public Fpdu sendFpdusWithAck(Fpdu... fpdus) throws IOException, InterruptedException {
+        sendFpdus(fpdus);
+        return checkForAbort(fpdus[fpdus.length - 1]);
+    }
+
+    /**
+     * Push FPDUs held back by write coalescing to the server
+     */
+    public void flush() throws IOException {
+        channel.flush();
+    }
+
+    /**
+     * Concatenate the FPDUs of {@link #sendFpdus(Fpdu...)} in one frame
+     * (PeSIT section 4.5). Only for servers known to read every FPDU of a
+     * frame.
+     */
+    public void setConcatenateFpdus(boolean concatenateFpdus) {
+        this.concatenateFpdus = concatenateFpdus;
+    }
+
     public void sendFpduWithData(Fpdu fpdu, byte[] data)
             throws IOException, InterruptedException {
         byte[] fpduBytes = FpduBuilder.buildFpdu(fpdu.getFpduType(), fpdu.getIdDst(), fpdu.getIdSrc(), data);
         channel.send(fpduBytes);
     }
 
+    /**
+     * Send the DTF entity currently held by the assembler in one write
+     */
+    public void sendEntity(DtfEntityAssembler entity) throws IOException {
+        entity.sendTo(channel);
+    }
+
+    /**
+     * Send an FPDU whose data is written by the payload (e.g. a file region),
+     * straight to the socket when the transport supports it.
+     *
+     * @param dataLength exact number of bytes the payload writes
+     */
+    public void sendFpduWithPayload(Fpdu fpdu, int dataLength, TransportChannel.FramePayload payload)
+            throws IOException {
+        channel.send(FpduBuilder.buildHeader(fpdu.getFpduType(), fpdu.getIdDst(), fpdu.getIdSrc(), dataLength),
+                dataLength, payload);
+    }
+
+    /**
+     * Check if an FPDU payload of this length goes straight to the socket (no
+     * copy through the heap)
+     */
+    public boolean supportsDirectPayload(int dataLength) {
+        return channel.supportsDirectPayload(dataLength);
+    }
+
     /**
      * Send raw FPDU bytes directly (already built by FpduBuilder).
      * Used for multi-article DTF where the caller builds the complete FPDU.
@@ -124,6 +207,64 @@ public class PesitSession implements AutoCloseable {
         channel.send(fpduBytes);
     }
 
+    /**
+     * Send a SYN without waiting for its ACK_SYN. Blocks only while the sync
+     * point window is full; ACK_SYNs already received are consumed on the way.
+     *
+     * @param idDst      server connection ID
+     * @param syncNum    sync point number (PI 20)
+     * @param byteOffset data bytes sent before this sync point
+     */
+    public void sendSyn(SyncPointWindow window, int idDst, int syncNum, long byteOffset)
+            throws IOException, InterruptedException {
+        while (window.isFull()) {
+            awaitAckSyn(window);
+        }
+        sendFpdu(new Fpdu(FpduType.SYN).withIdDst(idDst)
+                .withParameter(new ParameterValue(PI_20_NUM_SYNC, syncNum)));
+        window.sent(syncNum, byteOffset);
+        pollAckSyn(window);
+    }
+
+    /**
+     * Consume the ACK_SYNs that can be read without blocking.
+     */
+    public void pollAckSyn(SyncPointWindow window) throws IOException, InterruptedException {
+        while (window.hasOutstanding() && (hasPendingFpdu() || channel.available() > 0)) {
+            awaitAckSyn(window);
+        }
+    }
+
+    /**
+     * Wait for every outstanding ACK_SYN (before DTF.END).
+     */
+    public void drainAckSyn(SyncPointWindow window) throws IOException, InterruptedException {
+        while (window.hasOutstanding()) {
+            awaitAckSyn(window);
+        }
+    }
+
+    private void awaitAckSyn(SyncPointWindow window) throws IOException, InterruptedException {
+        int expected = window.getOldestOutstanding();
+        Fpdu ack = checkForAbort(new Fpdu(FpduType.SYN));
+        if (ack.getFpduType() != FpduType.ACK_SYN) {
+            throw new IOException("Expected ACK_SYN for sync point " + expected + ", received " + ack.getFpduType());
+        }
+        ParameterValue pi20 = ack.getParameter(PI_20_NUM_SYNC);
+        int syncNum = pi20 != null ? parseNumeric(pi20.getValue()) : expected;
+        if (!window.acknowledge(syncNum)) {
+            log.warn("ACK_SYN {} does not match an outstanding sync point, acknowledging {}", syncNum, expected);
+        }
+    }
+
+    private static int parseNumeric(byte[] value) {
+        int result = 0;
+        for (byte b : value) {
+            result = (result << 8) | (b & 0xFF);
+        }
+        return result;
+    }
+
     public Fpdu sendFpduWithDataAndAck(Fpdu fpdu, byte[] data)
             throws IOException, InterruptedException {
         sendFpduWithData(fpdu, data);
@@ -135,9 +276,41 @@ public class PesitSession implements AutoCloseable {
      * Used for receiving DTF data chunks during file reception
      */
     public Fpdu receiveFpdu() throws IOException {
-        byte[] response = channel.receive();
-        FpduParser parser = new FpduParser(response);
-        return parser.parse();
+        return nextFpdu();
+    }
+
+    /**
+     * Next FPDU from the server. A frame may carry several FPDUs (PeSIT
+     * section 4.5, e.g. ACK_SYNs sent together): the ones after the first are
+     * kept for the following calls.
+     */
+    private Fpdu nextFpdu() throws IOException {
+        if (!hasPendingFpdu()) {
+            pendingFrame = ByteBuffer.wrap(channel.receive());
+        }
+        return new FpduParser(pendingFrame).parse();
+    }
+
+    private boolean hasPendingFpdu() {
+        if (pendingFrame == null || pendingFrame.remaining() < 2) {
+            return false;
+        }
+        int fpduLength = pendingFrame.getShort(pendingFrame.position()) & 0xFFFF;
+        return fpduLength >= 2 && fpduLength <= pendingFrame.remaining();
+    }
+
+    /**
+     * Hand over the FPDUs left from the last frame, if any, as a frame of
+     * their own
+     */
+    private byte[] takePendingFrame() {
+        if (!hasPendingFpdu()) {
+            return null;
+        }
+        byte[] rest = new byte[pendingFrame.remaining()];
+        pendingFrame.get(rest);
+        pendingFrame = null;
+        return rest;
     }
 
     /**
@@ -146,7 +319,22 @@ public class PesitSession implements AutoCloseable {
      * payload
      */
     public byte[] receiveRawFpdu() throws IOException {
-        return channel.receive();
+        byte[] pending = takePendingFrame();
+        return pending != null ? pending : channel.receive();
+    }
+
+    /**
+     * Receive raw FPDU bytes into a reusable buffer (see FpduReader)
+     */
+    public int receiveRawFpdu(ByteBuffer target) throws IOException {
+        byte[] pending = takePendingFrame();
+        if (pending == null) {
+            return channel.receive(target);
+        }
+        target.clear();
+        target.put(pending);
+        target.flip();
+        return pending.length;
     }
 
     /**
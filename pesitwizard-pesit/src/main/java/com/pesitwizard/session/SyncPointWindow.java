@@ -0,0 +1,117 @@
+package com.pesitwizard.session;
+
+import java.util.ArrayDeque;
+
+/**
+ * Sender-side sync point window (PI 7, third octet).
+ *
+ * Up to {@code size} SYNs may be outstanding while data keeps flowing; the
+ * sender only blocks when the window is full. ACK_SYNs arrive in order and
+ * acknowledging sync point n also acknowledges every earlier one. The last
+ * acknowledged sync point is the restart point.
+ */
+public class SyncPointWindow {
+    /** Largest window a partner may negotiate */
+    public static final int MAX_SIZE = 16;
+
+    private final int size;
+    private final AckListener listener;
+    private final ArrayDeque<long[]> outstanding = new ArrayDeque<>(); // {syncNum, byteOffset}
+
+    private int lastAcknowledgedSync;
+    private long lastAcknowledgedOffset;
+
+    public SyncPointWindow(int size) {
+        this(size, null);
+    }
+
+    /**
+     * @param size     negotiated window, clamped to 1..MAX_SIZE (1 = stop-and-wait)
+     * @param listener called for each acknowledged sync point, may be null
+     */
+    public SyncPointWindow(int size, AckListener listener) {
+        this.size = Math.max(1, Math.min(size, MAX_SIZE));
+        this.listener = listener;
+    }
+
+    /**
+     * Window advertised in the third octet of PI 7, 1 when absent.
+     */
+    public static int negotiatedSize(byte[] pi7Value) {
+        if (pi7Value == null || pi7Value.length < 3 || pi7Value[2] == 0) {
+            return 1;
+        }
+        return Math.min(pi7Value[2] & 0xFF, MAX_SIZE);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return outstanding.size() >= size;
+    }
+
+    public boolean hasOutstanding() {
+        return !outstanding.isEmpty();
+    }
+
+    public int getOutstanding() {
+        return outstanding.size();
+    }
+
+    /** Sync number the next ACK_SYN is expected for, 0 if none outstanding */
+    public int getOldestOutstanding() {
+        return outstanding.isEmpty() ? 0 : (int) outstanding.peekFirst()[0];
+    }
+
+    public int getLastAcknowledgedSync() {
+        return lastAcknowledgedSync;
+    }
+
+    /** Byte offset covered by the last acknowledged sync point */
+    public long getLastAcknowledgedOffset() {
+        return lastAcknowledgedOffset;
+    }
+
+    /**
+     * Record a SYN that has been sent.
+     *
+     * @param syncNum    PI 20 of the SYN
+     * @param byteOffset data bytes sent before the SYN
+     */
+    public void sent(int syncNum, long byteOffset) {
+        if (isFull()) {
+            throw new IllegalStateException("Sync point window full (" + size + " outstanding)");
+        }
+        outstanding.addLast(new long[] { syncNum, byteOffset });
+    }
+
+    /**
+     * Record an ACK_SYN. Every outstanding sync point up to syncNum is
+     * acknowledged; a number that is not outstanding acknowledges the oldest
+     * one, as partners are not required to echo PI 20 exactly.
+     *
+     * @return true if syncNum matched an outstanding sync point
+     */
+    public boolean acknowledge(int syncNum) {
+        if (outstanding.isEmpty()) {
+            throw new IllegalStateException("ACK_SYN " + syncNum + " without outstanding SYN");
+        }
+        boolean matched = syncNum >= getOldestOutstanding() && syncNum <= (int) outstanding.peekLast()[0];
+        do {
+            long[] point = outstanding.pollFirst();
+            lastAcknowledgedSync = (int) point[0];
+            lastAcknowledgedOffset = point[1];
+            if (listener != null) {
+                listener.onAcknowledged(lastAcknowledgedSync, lastAcknowledgedOffset);
+            }
+        } while (matched && lastAcknowledgedSync < syncNum);
+        return matched;
+    }
+
+    @FunctionalInterface
+    public interface AckListener {
+        void onAcknowledged(int syncNum, long byteOffset);
+    }
+}
@@ -1,10 +1,15 @@
 package com.pesitwizard.transport;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.pesitwizard.fpdu.FpduIO;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,6 +22,10 @@ public abstract class AbstractSocketTransportChannel implements TransportChannel
 
     /** Default socket timeout in milliseconds. */
     protected static final int DEFAULT_TIMEOUT = 60000;
+    /** Smallest payload worth an extra flush to be written directly to the socket. */
+    protected static final int DIRECT_PAYLOAD_MIN = 16 * 1024;
+    /** Write buffer size: one full frame, length prefix included, is never split. */
+    protected static final int WRITE_BUFFER_SIZE = MAX_FRAME_LENGTH + 2;
 
     /** Remote host address. */
     protected final String host;
@@ -30,6 +39,8 @@ public abstract class AbstractSocketTransportChannel implements TransportChannel
     protected DataOutputStream outputStream;
     /** Receive timeout in milliseconds. */
     protected int receiveTimeout = DEFAULT_TIMEOUT;
+    /** Whether sends leave the data buffered until flush or receive. */
+    protected boolean writeCoalescing;
 
     /**
      * Construct a new transport channel.
@@ -65,7 +76,7 @@ public abstract class AbstractSocketTransportChannel implements TransportChannel
         socket.setTcpNoDelay(true);
 
         inputStream = new DataInputStream(socket.getInputStream());
-        outputStream = new DataOutputStream(socket.getOutputStream());
+        outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER_SIZE));
 
         log.info("Connected to {}:{}", host, port);
     }
@@ -79,16 +90,119 @@ public abstract class AbstractSocketTransportChannel implements TransportChannel
         // Write 2-byte length prefix (PeSIT standard) followed by data
         outputStream.writeShort(data.length);
         outputStream.write(data);
-        outputStream.flush();
+        flushUnlessCoalescing();
 
         log.debug("Sent {} bytes to {}:{}", data.length, host, port);
     }
 
+    @Override
+    public void sendBatch(List<byte[]> fpdus) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected");
+        }
+
+        for (byte[] fpdu : fpdus) {
+            outputStream.writeShort(fpdu.length);
+            outputStream.write(fpdu);
+        }
+        flushUnlessCoalescing();
+
+        log.debug("Sent {} FPDUs to {}:{}", fpdus.size(), host, port);
+    }
+
+    @Override
+    public void sendConcatenated(List<byte[]> fpdus) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected");
+        }
+        int total = 0;
+        for (byte[] fpdu : fpdus) {
+            total += fpdu.length;
+        }
+        if (total > MAX_FRAME_LENGTH) {
+            sendBatch(fpdus);
+            return;
+        }
+
+        outputStream.writeShort(total);
+        for (byte[] fpdu : fpdus) {
+            outputStream.write(fpdu);
+        }
+        flushUnlessCoalescing();
+
+        log.debug("Sent {} FPDUs in one {} bytes frame to {}:{}", fpdus.size(), total, host, port);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void setWriteCoalescing(boolean enabled) {
+        this.writeCoalescing = enabled;
+    }
+
+    private void flushUnlessCoalescing() throws IOException {
+        if (!writeCoalescing) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void sendFrame(byte[] frame, int offset, int length) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected");
+        }
+
+        outputStream.write(frame, offset, length);
+        flushUnlessCoalescing();
+
+        log.debug("Sent {} bytes to {}:{}", length - 2, host, port);
+    }
+
+    /**
+     * On a socket created from a SocketChannel, large payloads are written to
+     * the channel after the length prefix and header, so a FileChannel region
+     * goes to the socket with transferTo (sendfile) instead of being copied.
+     */
+    @Override
+    public void send(byte[] header, int payloadLength, FramePayload payload) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected");
+        }
+        if (!supportsDirectPayload(payloadLength)) {
+            TransportChannel.super.send(header, payloadLength, payload);
+            return;
+        }
+
+        outputStream.writeShort(header.length + payloadLength);
+        outputStream.write(header);
+        outputStream.flush();
+        long written = payload.writeTo(socket.getChannel());
+        if (written != payloadLength) {
+            // The peer has been sent a truncated frame: the connection is unusable
+            close();
+            throw new IOException("Frame payload of " + written + " bytes, expected " + payloadLength);
+        }
+
+        log.debug("Sent {} bytes to {}:{} (direct payload)", header.length + payloadLength, host, port);
+    }
+
+    @Override
+    public boolean supportsDirectPayload(int payloadLength) {
+        return payloadLength >= DIRECT_PAYLOAD_MIN && socket != null && socket.getChannel() != null;
+    }
+
     @Override
     public byte[] receive() throws IOException {
         if (!isConnected()) {
             throw new IOException("Not connected");
         }
+        // The peer cannot answer what it has not received
+        outputStream.flush();
 
         try {
             // Read 2-byte length prefix (PeSIT standard)
@@ -110,6 +224,30 @@ public abstract class AbstractSocketTransportChannel implements TransportChannel
         }
     }
 
+    @Override
+    public int receive(ByteBuffer target) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected");
+        }
+        outputStream.flush();
+
+        try {
+            return FpduIO.readRawFpdu(inputStream, target);
+        } catch (SocketTimeoutException e) {
+            log.debug("Receive timeout on {}:{}", host, port);
+            throw e;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (inputStream == null) {
+            return 0;
+        }
+        outputStream.flush();
+        return inputStream.available();
+    }
+
     @Override
     public boolean isConnected() {
         return socket != null && socket.isConnected() && !socket.isClosed();
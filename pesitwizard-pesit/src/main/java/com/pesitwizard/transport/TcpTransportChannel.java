@@ -1,7 +1,10 @@
 package com.pesitwizard.transport;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
 
 /**
  * TCP/IP transport implementation for PESIT protocol.
@@ -13,9 +16,19 @@ public class TcpTransportChannel extends AbstractSocketTransportChannel {
         super(host, port);
     }
 
+    /**
+     * The socket is opened as a (blocking) SocketChannel so that large DTF
+     * payloads can be sent from files without copying
+     * (see {@link #send(byte[], int, FramePayload)}).
+     */
     @Override
     protected Socket createSocket() throws IOException {
-        return new Socket(host, port);
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            // SocketChannel reports it as an unchecked UnresolvedAddressException
+            throw new UnknownHostException(host);
+        }
+        return SocketChannel.open(address).socket();
     }
 
     @Override
@@ -1,6 +1,10 @@
 package com.pesitwizard.transport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Transport layer abstraction for PESIT protocol
@@ -8,6 +12,9 @@ import java.io.IOException;
  */
 public interface TransportChannel {
 
+    /** Largest frame the 2-byte length prefix can describe. */
+    int MAX_FRAME_LENGTH = 0xFFFF;
+
     /**
      * Connect to remote endpoint.
      * 
@@ -23,6 +30,127 @@ public interface TransportChannel {
      */
     void send(byte[] data) throws IOException;
 
+    /**
+     * Send several FPDUs, each in its own frame, with a single flush so that
+     * they can share TCP segments.
+     * 
+     * @param fpdus FPDUs to send, in order
+     * @throws IOException if sending fails
+     */
+    default void sendBatch(List<byte[]> fpdus) throws IOException {
+        for (byte[] fpdu : fpdus) {
+            send(fpdu);
+        }
+    }
+
+    /**
+     * Send several FPDUs concatenated in a single frame (PeSIT section 4.5).
+     * Only for partners that read every FPDU of a received frame; falls back
+     * to {@link #sendBatch(List)} if the FPDUs do not fit in one frame.
+     * 
+     * @param fpdus FPDUs to send, in order
+     * @throws IOException if sending fails
+     */
+    default void sendConcatenated(List<byte[]> fpdus) throws IOException {
+        int total = 0;
+        for (byte[] fpdu : fpdus) {
+            total += fpdu.length;
+        }
+        if (total > MAX_FRAME_LENGTH) {
+            sendBatch(fpdus);
+            return;
+        }
+        byte[] frame = new byte[total];
+        int offset = 0;
+        for (byte[] fpdu : fpdus) {
+            System.arraycopy(fpdu, 0, frame, offset, fpdu.length);
+            offset += fpdu.length;
+        }
+        send(frame);
+    }
+
+    /**
+     * Push data held back by write coalescing to the peer.
+     * 
+     * @throws IOException if sending fails
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * Let sends stay buffered until {@link #flush()}, the next receive or a
+     * full buffer, so that consecutive FPDUs go out together. Transports
+     * without a write buffer ignore it.
+     * 
+     * @param enabled true to defer flushes
+     */
+    default void setWriteCoalescing(boolean enabled) {
+    }
+
+    /**
+     * Send a frame already carrying its 2-byte length prefix (e.g. a DTF
+     * entity built in place by DtfEntityAssembler), so that it goes out in a
+     * single write. The default strips the prefix and uses {@link #send(byte[])}.
+     * 
+     * @param frame  buffer holding the frame
+     * @param offset offset of the length prefix
+     * @param length frame length, prefix included
+     * @throws IOException if sending fails
+     */
+    default void sendFrame(byte[] frame, int offset, int length) throws IOException {
+        send(Arrays.copyOfRange(frame, offset + 2, offset + length));
+    }
+
+    /**
+     * Send a frame made of a header followed by payloadLength bytes written by
+     * the payload (e.g. a file region). Transports over a socket channel may
+     * let the payload write straight to the socket; the default collects it
+     * behind the header and sends the frame with {@link #send(byte[])}.
+     * 
+     * @param header        frame header
+     * @param payloadLength exact number of bytes the payload writes
+     * @param payload       writes the payload to the given channel
+     * @throws IOException if sending fails or the payload has another length
+     */
+    default void send(byte[] header, int payloadLength, FramePayload payload) throws IOException {
+        byte[] frame = Arrays.copyOf(header, header.length + payloadLength);
+        ByteBuffer body = ByteBuffer.wrap(frame, header.length, payloadLength);
+        long written = payload.writeTo(new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int n = Math.min(src.remaining(), body.remaining());
+                body.put(src.slice(src.position(), n));
+                src.position(src.position() + n);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return body.hasRemaining();
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        if (written != payloadLength || body.hasRemaining()) {
+            throw new IOException("Frame payload of " + written + " bytes, expected " + payloadLength);
+        }
+        send(frame);
+    }
+
+    /**
+     * Check if {@link #send(byte[], int, FramePayload)} hands a payload of
+     * this length a channel to the socket itself, so a file region can be
+     * sent without copying it through the JVM heap.
+     * 
+     * @param payloadLength payload length in bytes
+     * @return true if the payload would be written directly to the socket
+     */
+    default boolean supportsDirectPayload(int payloadLength) {
+        return false;
+    }
+
     /**
      * Receive data from the transport.
      * 
@@ -31,6 +159,33 @@ public interface TransportChannel {
      */
     byte[] receive() throws IOException;
 
+    /**
+     * Receive data into a reusable heap buffer instead of a new array.
+     * On return the buffer is positioned at 0 with the data length as limit.
+     * 
+     * @param target receive buffer, large enough for a full frame
+     * @return received data length
+     * @throws IOException if receiving fails
+     */
+    default int receive(ByteBuffer target) throws IOException {
+        byte[] data = receive();
+        target.clear();
+        target.put(data);
+        target.flip();
+        return data.length;
+    }
+
+    /**
+     * Number of bytes that can be received without blocking.
+     * Transports that cannot tell return 0.
+     * 
+     * @return bytes available
+     * @throws IOException if the transport is closed
+     */
+    default int available() throws IOException {
+        return 0;
+    }
+
     /**
      * Check if transport is connected.
      * 
@@ -79,4 +234,15 @@ public interface TransportChannel {
      * @return the transport type
      */
     TransportType getTransportType();
+
+    /**
+     * Writes the payload of a frame.
+     */
+    @FunctionalInterface
+    interface FramePayload {
+        /**
+         * @return number of bytes written to the target
+         */
+        long writeTo(WritableByteChannel target) throws IOException;
+    }
 }
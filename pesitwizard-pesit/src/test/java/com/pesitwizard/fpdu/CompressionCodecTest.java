@@ -0,0 +1,163 @@
+package com.pesitwizard.fpdu;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("PeSIT compression codec Tests")
+class CompressionCodecTest {
+
+    private static byte[] record(String content, int length) {
+        byte[] record = new byte[length];
+        Arrays.fill(record, (byte) ' ');
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, record, 0, Math.min(bytes.length, length));
+        return record;
+    }
+
+    private static byte[] encode(CompressionEncoder encoder, byte[] article) {
+        byte[] out = new byte[CompressionEncoder.maxEncodedLength(article.length)];
+        int length = encoder.encode(article, 0, article.length, out, 0);
+        return Arrays.copyOf(out, length);
+    }
+
+    private static byte[] decode(CompressionDecoder decoder, byte[] encoded) {
+        ByteBuffer article = decoder.decode(ByteBuffer.wrap(encoded));
+        byte[] result = new byte[article.remaining()];
+        article.get(result);
+        return result;
+    }
+
+    @Test
+    @DisplayName("should round-trip padded fixed records in every mode")
+    void shouldRoundTripRecords() {
+        byte[][] records = {
+                record("00001 DUPONT     PARIS      20240101 000000012500", 120),
+                record("00002 DUPONT     PARIS      20240101 000000013000", 120),
+                record("00003 MARTIN     LYON       20240101 000000000000", 120),
+                record("", 120),
+                record("00004 MARTIN", 40) };
+
+        for (CompressionMode mode : new CompressionMode[] { CompressionMode.HORIZONTAL, CompressionMode.VERTICAL,
+                CompressionMode.HORIZONTAL_VERTICAL }) {
+            CompressionEncoder encoder = new CompressionEncoder(mode);
+            CompressionDecoder decoder = new CompressionDecoder(64);
+            for (byte[] record : records) {
+                byte[] encoded = encode(encoder, record);
+                assertArrayEquals(record, decode(decoder, encoded), mode + " round trip");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("horizontal compression should collapse runs of identical octets")
+    void shouldCompressRunsHorizontally() {
+        CompressionEncoder encoder = new CompressionEncoder(CompressionMode.HORIZONTAL);
+        byte[] spaces = record("", 128);
+
+        byte[] encoded = encode(encoder, spaces);
+
+        // two strings of 64 repeated spaces
+        assertArrayEquals(new byte[] { 0x7F, ' ', 0x7F, ' ' }, encoded);
+    }
+
+    @Test
+    @DisplayName("vertical compression should reference the previous article")
+    void shouldCompressAgainstPreviousArticle() {
+        CompressionEncoder encoder = new CompressionEncoder(CompressionMode.VERTICAL);
+        CompressionDecoder decoder = new CompressionDecoder();
+        byte[] first = record("00001 DUPONT PARIS 20240101", 32);
+        byte[] second = record("00002 DUPONT PARIS 20240101", 32);
+
+        byte[] encodedFirst = encode(encoder, first);
+        byte[] encodedSecond = encode(encoder, second);
+
+        // vertical(4) + uncompressed "2" + vertical(27)
+        assertEquals(4, encodedSecond.length);
+        assertArrayEquals(first, decode(decoder, encodedFirst));
+        assertArrayEquals(second, decode(decoder, encodedSecond));
+    }
+
+    @Test
+    @DisplayName("incompressible data should stay within maxEncodedLength")
+    void shouldBoundIncompressibleData() {
+        Random random = new Random(42);
+        CompressionEncoder encoder = new CompressionEncoder(CompressionMode.HORIZONTAL_VERTICAL);
+        CompressionDecoder decoder = new CompressionDecoder();
+        for (int length : new int[] { 1, 63, 64, 65, 1000, 4096 }) {
+            byte[] article = new byte[length];
+            random.nextBytes(article);
+            byte[] encoded = encode(encoder, article);
+            assertTrue(encoded.length <= CompressionEncoder.maxEncodedLength(length));
+            assertArrayEquals(article, decode(decoder, encoded));
+        }
+    }
+
+    @Test
+    @DisplayName("maxArticleLength should be the inverse of maxEncodedLength")
+    void shouldInvertMaxEncodedLength() {
+        for (int space = 1; space < 5000; space++) {
+            int article = CompressionEncoder.maxArticleLength(space);
+            assertTrue(CompressionEncoder.maxEncodedLength(article) <= space);
+            assertTrue(CompressionEncoder.maxEncodedLength(article + 1) > space);
+        }
+    }
+
+    @Test
+    @DisplayName("should decode every article of a multi-article DTF")
+    void shouldDecodeEntity() throws Exception {
+        CompressionEncoder encoder = new CompressionEncoder(CompressionMode.HORIZONTAL_VERTICAL);
+        byte[] a = record("A", 50);
+        byte[] b = record("B", 50);
+        byte[] encodedA = encode(encoder, a);
+        byte[] encodedB = encode(encoder, b);
+        ByteBuffer payload = ByteBuffer.allocate(4 + encodedA.length + encodedB.length);
+        payload.putShort((short) encodedA.length).put(encodedA).putShort((short) encodedB.length).put(encodedB);
+        payload.flip();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long expanded = new CompressionDecoder().decodeEntity(payload, 2,
+                article -> out.write(article.array(), article.arrayOffset() + article.position(),
+                        article.remaining()));
+
+        assertEquals(100, expanded);
+        byte[] expected = new byte[100];
+        System.arraycopy(a, 0, expected, 0, 50);
+        System.arraycopy(b, 0, expected, 50, 50);
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("should reject malformed compressed articles")
+    void shouldRejectMalformedArticles() {
+        CompressionDecoder decoder = new CompressionDecoder();
+        // uncompressed string announcing 4 bytes, 2 present
+        assertThrows(FpduParseException.class, () -> decoder.decode(ByteBuffer.wrap(new byte[] { 0x03, 1, 2 })));
+        // vertical string without a previous article
+        assertThrows(FpduParseException.class, () -> decoder.decode(ByteBuffer.wrap(new byte[] { (byte) 0x81 })));
+        // reserved string type
+        assertThrows(FpduParseException.class, () -> decoder.decode(ByteBuffer.wrap(new byte[] { (byte) 0xC0 })));
+    }
+
+    @Test
+    @DisplayName("should parse and negotiate PI 21")
+    void shouldNegotiatePi21() {
+        assertEquals(CompressionMode.NONE, CompressionMode.fromPi21(null));
+        assertEquals(CompressionMode.HORIZONTAL, CompressionMode.fromPi21(new byte[] { 1 }));
+        assertEquals(CompressionMode.NONE, CompressionMode.fromPi21(new byte[] { 0, 3 }));
+        assertEquals(CompressionMode.HORIZONTAL_VERTICAL, CompressionMode.fromPi21(new byte[] { 1, 3 }));
+        assertArrayEquals(new byte[] { 1, 2 }, CompressionMode.VERTICAL.toPi21());
+        assertArrayEquals(new byte[] { 0, 0 }, CompressionMode.NONE.toPi21());
+
+        assertEquals(CompressionMode.HORIZONTAL,
+                CompressionMode.HORIZONTAL_VERTICAL.intersect(CompressionMode.HORIZONTAL));
+        assertEquals(CompressionMode.NONE, CompressionMode.VERTICAL.intersect(CompressionMode.HORIZONTAL));
+    }
+}
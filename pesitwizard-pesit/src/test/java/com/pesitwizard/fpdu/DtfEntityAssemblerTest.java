@@ -0,0 +1,187 @@
+package com.pesitwizard.fpdu;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.pesitwizard.transport.TransportChannel;
+
+@DisplayName("DtfEntityAssembler Tests")
+class DtfEntityAssemblerTest {
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    @Test
+    @DisplayName("should produce the same FPDU as buildMultiArticleDtf")
+    void shouldMatchBuildMultiArticleDtf() throws IOException {
+        byte[] file = data(25);
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 10);
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(file));
+
+        assertEquals(25, assembler.fill(source, 7));
+        assertEquals(3, assembler.getArticleCount());
+
+        List<byte[]> articles = Arrays.asList(
+                Arrays.copyOfRange(file, 0, 10),
+                Arrays.copyOfRange(file, 10, 20),
+                Arrays.copyOfRange(file, 20, 25));
+        byte[] expected = FpduBuilder.buildMultiArticleDtf(7, articles, 100);
+        ByteBuffer fpdu = assembler.fpdu();
+        byte[] actual = new byte[fpdu.remaining()];
+        fpdu.get(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("should send entity as one frame, without prefix on plain transports")
+    void shouldSendEntityAsFrame() throws IOException {
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 10);
+        assembler.fill(Channels.newChannel(new ByteArrayInputStream(data(15))), 1);
+        TransportChannel channel = mock(TransportChannel.class);
+        doCallRealMethod().when(channel).sendFrame(any(), anyInt(), anyInt());
+
+        assembler.sendTo(channel);
+
+        verify(channel).sendFrame(any(), eq(0), eq(2 + 6 + 2 + 10 + 2 + 5));
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(channel).send(sent.capture());
+        ByteBuffer fpdu = assembler.fpdu();
+        byte[] expected = new byte[fpdu.remaining()];
+        fpdu.get(expected);
+        assertArrayEquals(expected, sent.getValue());
+    }
+
+    @Test
+    @DisplayName("should write entity with transport length prefix in one frame")
+    void shouldWriteFrameWithLengthPrefix() throws IOException {
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 10);
+        assembler.fill(Channels.newChannel(new ByteArrayInputStream(data(10))), 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assembler.writeTo(out);
+
+        ByteBuffer frame = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(2 + 6 + 2 + 10, frame.remaining());
+        assertEquals(18, frame.getShort() & 0xFFFF); // transport prefix
+        assertEquals(18, frame.getShort() & 0xFFFF); // FPDU length
+        Fpdu parsed = new FpduParser(Arrays.copyOfRange(out.toByteArray(), 2, 20)).parse();
+        assertEquals(FpduType.DTF, parsed.getFpduType());
+        assertEquals(1, parsed.getIdSrc());
+    }
+
+    @Test
+    @DisplayName("should split file into entities and stop at end of input")
+    void shouldSplitIntoEntities() throws IOException {
+        // 7 articles of 10 bytes per 100-byte entity
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 10);
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(data(150)));
+
+        assertEquals(70, assembler.fill(source, 1));
+        assertEquals(7, assembler.getArticleCount());
+        assertEquals(70, assembler.fill(source, 1));
+        assertEquals(10, assembler.fill(source, 1));
+        assertEquals(1, assembler.getArticleCount());
+        assertEquals(0, assembler.fill(source, 1));
+        assertTrue(assembler.isEndOfInput());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assembler.writeTo(out);
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    @DisplayName("should fill complete articles from a channel returning short reads")
+    void shouldHandleShortReads() throws IOException {
+        byte[] file = data(30);
+        ReadableByteChannel trickle = new ReadableByteChannel() {
+            private int position;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (position >= file.length) {
+                    return -1;
+                }
+                dst.put(file[position++]); // one byte per read
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 10);
+        assertEquals(30, assembler.fill(trickle, 1));
+        assertEquals(3, assembler.getArticleCount());
+    }
+
+    @Test
+    @DisplayName("should pack compressed articles by encoded size")
+    void shouldPackCompressedArticles() throws IOException {
+        // 100 blank 80-byte records: each encodes to 4 bytes (2 horizontal strings)
+        byte[] file = new byte[8000];
+        Arrays.fill(file, (byte) ' ');
+        DtfEntityAssembler assembler = new DtfEntityAssembler(1024, 80,
+                new CompressionEncoder(CompressionMode.HORIZONTAL));
+
+        assertEquals(8000, assembler.fill(Channels.newChannel(new ByteArrayInputStream(file)), 1));
+        assertEquals(100, assembler.getArticleCount());
+
+        ByteBuffer fpdu = assembler.fpdu();
+        assertEquals(6 + 100 * (2 + 4), fpdu.remaining());
+        ByteBuffer payload = fpdu.position(6).slice();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CompressionDecoder(80).decodeEntity(payload, 100,
+                article -> out.write(article.array(), article.arrayOffset() + article.position(),
+                        article.remaining()));
+        assertArrayEquals(file, out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("should reject non-positive record length")
+    void shouldRejectInvalidRecordLength() {
+        assertThrows(IllegalArgumentException.class, () -> new DtfEntityAssembler(100, 0));
+    }
+
+    @Test
+    @DisplayName("should transcode articles before packing them")
+    void shouldTranscodeArticles() throws IOException {
+        byte[] file = "HELLO WORLD".getBytes(StandardCharsets.US_ASCII);
+        DtfEntityAssembler assembler = new DtfEntityAssembler(100, 6, null, EbcdicCodePage.CP037.toEbcdic());
+
+        assertEquals(11, assembler.fill(Channels.newChannel(new ByteArrayInputStream(file)), 1));
+
+        ByteBuffer fpdu = assembler.fpdu();
+        fpdu.position(6);
+        byte[] payload = new byte[fpdu.remaining()];
+        fpdu.get(payload);
+        byte[] expected = { 0, 6, (byte) 0xC8, (byte) 0xC5, (byte) 0xD3, (byte) 0xD3, (byte) 0xD6, 0x40,
+                0, 5, (byte) 0xE6, (byte) 0xD6, (byte) 0xD9, (byte) 0xD3, (byte) 0xC4 };
+        assertArrayEquals(expected, payload);
+    }
+}
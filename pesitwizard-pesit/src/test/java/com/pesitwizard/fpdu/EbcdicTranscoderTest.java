@@ -0,0 +1,114 @@
+package com.pesitwizard.fpdu;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("EBCDIC code pages and bulk transcoder Tests")
+class EbcdicTranscoderTest {
+
+    private static byte[] allBytes() {
+        byte[] all = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            all[i] = (byte) i;
+        }
+        return all;
+    }
+
+    @Test
+    @DisplayName("every code page should round-trip all 256 byte values")
+    void shouldRoundTripEveryByte() {
+        for (EbcdicCodePage codePage : EbcdicCodePage.values()) {
+            byte[] data = allBytes();
+            codePage.toEbcdic().transcode(data, 0, data.length);
+            codePage.toAscii().transcode(data, 0, data.length);
+            assertArrayEquals(allBytes(), data, codePage.name());
+        }
+    }
+
+    @Test
+    @DisplayName("code pages should agree with the JDK IBM charsets on printable characters")
+    void shouldMatchJdkCharsets() {
+        String text = "Hello World 0123456789 [crochets] {accolades} @#$ été à ça £";
+        byte[] latin1 = text.getBytes(StandardCharsets.ISO_8859_1);
+        for (EbcdicCodePage codePage : EbcdicCodePage.values()) {
+            Charset ibm = Charset.forName("IBM" + codePage.name().substring(2));
+            byte[] data = latin1.clone();
+            codePage.toEbcdic().transcode(data, 0, data.length);
+            assertArrayEquals(text.getBytes(ibm), data, codePage.name());
+        }
+    }
+
+    @Test
+    @DisplayName("French code page should place national characters")
+    void shouldMapFrenchCodePage() {
+        EbcdicTranscoder toEbcdic = EbcdicCodePage.CP297.toEbcdic();
+        assertEquals((byte) 0x44, toEbcdic.transcode((byte) '@'));
+        assertEquals((byte) 0xC0, toEbcdic.transcode((byte) 0xE9)); // é
+        assertEquals((byte) 0x7C, EbcdicCodePage.CP037.toEbcdic().transcode((byte) '@'));
+        assertEquals((byte) 0xAD, EbcdicCodePage.CP1047.toEbcdic().transcode((byte) '['));
+    }
+
+    @Test
+    @DisplayName("array, heap and direct buffer variants should produce the same output")
+    void shouldTranscodeAllBufferKinds() {
+        EbcdicTranscoder transcoder = EbcdicCodePage.CP037.toAscii();
+        Random random = new Random(42);
+        for (int length : new int[] { 0, 1, 7, 8, 9, 63, 4096, 4099 }) {
+            byte[] source = new byte[length + 3];
+            random.nextBytes(source);
+            byte[] expected = new byte[length];
+            for (int i = 0; i < length; i++) {
+                expected[i] = transcoder.transcode(source[3 + i]);
+            }
+
+            byte[] copy = new byte[length];
+            transcoder.transcode(source, 3, copy, 0, length);
+            assertArrayEquals(expected, copy, "array " + length);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(length + 3);
+            direct.put(source).position(3);
+            transcoder.transcode(direct);
+            assertEquals(3, direct.position());
+            byte[] inPlace = new byte[length];
+            direct.get(inPlace);
+            assertArrayEquals(expected, inPlace, "direct in place " + length);
+
+            ByteBuffer src = ByteBuffer.wrap(source, 3, length);
+            ByteBuffer dst = ByteBuffer.allocateDirect(length + 5).order(ByteOrder.LITTLE_ENDIAN);
+            dst.position(5);
+            transcoder.transcode(src, dst);
+            assertFalse(src.hasRemaining());
+            assertEquals(length + 5, dst.position());
+            byte[] mixed = new byte[length];
+            dst.position(5);
+            dst.get(mixed);
+            assertArrayEquals(expected, mixed, "heap to direct " + length);
+        }
+    }
+
+    @Test
+    @DisplayName("buffer to buffer should reject a destination that is too small")
+    void shouldRejectSmallDestination() {
+        assertThrows(BufferOverflowException.class, () -> EbcdicCodePage.CP037.toAscii()
+                .transcode(ByteBuffer.allocate(10), ByteBuffer.allocate(9)));
+    }
+
+    @Test
+    @DisplayName("should parse code page names")
+    void shouldParseCodePageNames() {
+        assertEquals(EbcdicCodePage.CP297, EbcdicCodePage.fromName("IBM297"));
+        assertEquals(EbcdicCodePage.CP297, EbcdicCodePage.fromName("cp297"));
+        assertEquals(EbcdicCodePage.CP037, EbcdicCodePage.fromName("37"));
+        assertEquals(EbcdicCodePage.CP1047, EbcdicCodePage.fromName("IBM-1047"));
+        assertThrows(IllegalArgumentException.class, () -> EbcdicCodePage.fromName("500"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.pesitwizard.fpdu;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FPDU type and parameter lookup Tests")
+class FpduTypeTest {
+
+    private static byte[] sample(ParameterIdentifier pi) {
+        byte[] value = new byte[pi.getLength() > 0 ? Math.min(pi.getLength(), 3) : 2];
+        Arrays.fill(value, (byte) '1');
+        return value;
+    }
+
+    private static ParameterValue sampleValue(Parameter parameter) {
+        if (parameter instanceof ParameterGroupIdentifier pgi) {
+            ParameterValue[] values = new ParameterValue[pgi.getContainedPIs().length];
+            for (int i = 0; i < values.length; i++) {
+                ParameterIdentifier pi = (ParameterIdentifier) pgi.getContainedPIs()[i].getParameter();
+                values[i] = new ParameterValue(pi, sample(pi));
+            }
+            return new ParameterValue(pgi, values);
+        }
+        ParameterIdentifier pi = (ParameterIdentifier) parameter;
+        return new ParameterValue(pi, sample(pi));
+    }
+
+    private static boolean isDtf(FpduType type) {
+        return type == FpduType.DTF || type == FpduType.DTFDA || type == FpduType.DTFMA || type == FpduType.DTFFA;
+    }
+
+    @Test
+    @DisplayName("every FPDU type should round-trip through the builder and the parser")
+    void shouldRoundTripEveryFpduType() {
+        for (FpduType type : FpduType.values()) {
+            byte[] bytes;
+            List<Parameter> expected = new ArrayList<>();
+            if (isDtf(type)) {
+                bytes = FpduBuilder.buildFpdu(type, 1, 2, new byte[] { 1, 2, 3 });
+            } else {
+                List<ParameterValue> values = new ArrayList<>();
+                for (ParameterRequirement req : type.getParameterRequirements()) {
+                    values.add(sampleValue(req.getParameter()));
+                    expected.add(req.getParameter());
+                }
+                bytes = FpduBuilder.buildFpdu(type, 1, 2, values.toArray(new ParameterValue[0]));
+            }
+
+            Fpdu fpdu = new FpduParser(bytes).parse();
+
+            assertEquals(type, fpdu.getFpduType(), type.getName());
+            assertEquals(1, fpdu.getIdDst(), type.getName());
+            assertEquals(2, fpdu.getIdSrc(), type.getName());
+            if (isDtf(type)) {
+                assertArrayEquals(new byte[] { 1, 2, 3 }, fpdu.getData(), type.getName());
+            } else {
+                assertEquals(expected, fpdu.getParameters().stream().map(ParameterValue::getParameter).toList(),
+                        type.getName());
+                for (ParameterValue value : fpdu.getParameters()) {
+                    assertTrue(type.supportsParameter(value.getParameter()), type.getName() + " " + value);
+                }
+            }
+            assertEquals(type, new FpduView().wrap(ByteBuffer.wrap(bytes)).getFpduType(), type.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("FpduType.from should match the enum declaration for every header code")
+    void shouldLookUpEveryHeaderCode() {
+        for (int phase = 0; phase < 256; phase++) {
+            for (int type = 0; type < 256; type++) {
+                FpduType expected = null;
+                for (FpduType fpdu : FpduType.values()) {
+                    if (fpdu.getPhase() == phase && fpdu.getType() == type) {
+                        expected = fpdu;
+                    }
+                }
+                assertSame(expected, FpduType.from(phase, type));
+            }
+        }
+        assertNull(FpduType.from(-1, 0x21));
+        assertNull(FpduType.from(0x40, 0x121));
+    }
+
+    @Test
+    @DisplayName("fromId should match the enum declaration for every identifier")
+    void shouldLookUpEveryParameterId() {
+        for (int id = -1; id <= 256; id++) {
+            ParameterIdentifier expectedPi = null;
+            for (ParameterIdentifier pi : ParameterIdentifier.values()) {
+                if (pi.getId() == id) {
+                    expectedPi = pi;
+                }
+            }
+            ParameterGroupIdentifier expectedPgi = null;
+            for (ParameterGroupIdentifier pgi : ParameterGroupIdentifier.values()) {
+                if (pgi.getId() == id) {
+                    expectedPgi = pgi;
+                }
+            }
+            assertSame(expectedPi, ParameterIdentifier.fromId(id), "PI " + id);
+            assertSame(expectedPgi, ParameterGroupIdentifier.fromId(id), "PGI " + id);
+            assertFalse(expectedPi != null && expectedPgi != null, "PI and PGI share id " + id);
+        }
+    }
+
+    @Test
+    @DisplayName("requirements should include the PIs of required PGIs")
+    void shouldExposeParameterRequirements() {
+        assertTrue(FpduType.CREATE.requiresParameter(ParameterGroupIdentifier.PGI_09_ID_FICHIER));
+        assertTrue(FpduType.CREATE.requiresParameter(ParameterIdentifier.PI_12_NOM_FICHIER));
+        assertTrue(FpduType.CREATE.supportsParameter(ParameterIdentifier.PI_03_DEMANDEUR));
+        assertFalse(FpduType.CREATE.requiresParameter(ParameterIdentifier.PI_03_DEMANDEUR));
+        assertFalse(FpduType.CREATE.supportsParameter(ParameterIdentifier.PI_20_NUM_SYNC));
+        assertFalse(FpduType.DTF.supportsParameter(ParameterIdentifier.PI_02_DIAG));
+    }
+}
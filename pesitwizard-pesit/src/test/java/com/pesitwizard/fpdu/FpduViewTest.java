@@ -0,0 +1,113 @@
+package com.pesitwizard.fpdu;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FpduView Tests")
+class FpduViewTest {
+
+    private static byte[] createFpdu() throws IOException {
+        return FpduBuilder.buildFpdu(new CreateMessageBuilder()
+                .filename("FILE").transferId(42).recordLength(512).maxEntitySize(4096)
+                .build(3));
+    }
+
+    @Test
+    @DisplayName("should locate top-level and nested PIs like FpduParser")
+    void shouldLocateParameters() throws IOException {
+        byte[] create = createFpdu();
+        FpduView view = new FpduView().wrap(ByteBuffer.wrap(create));
+
+        assertEquals(FpduType.CREATE, view.getFpduType());
+        assertEquals(3, view.getIdDst());
+        assertFalse(view.isDtf());
+        assertEquals(42, view.getParameterNumeric(ParameterIdentifier.PI_13_ID_TRANSFERT, -1));
+        assertEquals(4096, view.getParameterNumeric(ParameterIdentifier.PI_25_TAILLE_MAX_ENTITE, -1));
+        // PI 32 is nested in PGI 30
+        assertTrue(view.hasParameter(ParameterGroupIdentifier.PGI_30_ATTR_LOGIQUES));
+        assertEquals(512, view.getParameterNumeric(ParameterIdentifier.PI_32_LONG_ARTICLE, -1));
+        assertEquals("FILE", new String(view.getParameterBytes(ParameterIdentifier.PI_12_NOM_FICHIER)).trim());
+        assertFalse(view.hasParameter(ParameterIdentifier.PI_18_POINT_RELANCE));
+        assertEquals(-1, view.getParameterLength(ParameterIdentifier.PI_18_POINT_RELANCE));
+
+        Fpdu parsed = new FpduParser(create).parse();
+        assertEquals(parsed.toString(), view.toFpdu().toString());
+    }
+
+    @Test
+    @DisplayName("should expose DTF payload as a window on the receive buffer")
+    void shouldExposeDtfPayloadWithoutCopy() {
+        byte[] dtf = FpduBuilder.buildMultiArticleDtf(1, List.of("ABC".getBytes(), "DE".getBytes()), 4096);
+        ByteBuffer frame = ByteBuffer.wrap(dtf);
+        FpduView view = new FpduView().wrap(frame);
+
+        assertTrue(view.isDtf());
+        assertEquals(2, view.getIdSrc()); // article count
+        ByteBuffer data = view.data();
+        assertSame(dtf, data.array());
+        assertEquals(dtf.length - 6, data.remaining());
+        assertEquals(3, data.getShort());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("should forget previous parameters when re-wrapped")
+    void shouldResetOnWrap() throws IOException {
+        byte[] create = createFpdu();
+        byte[] syn = FpduBuilder.buildFpdu(new Fpdu(FpduType.SYN).withIdDst(1)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_20_NUM_SYNC, 7)));
+        ByteBuffer frame = ByteBuffer.allocate(create.length + syn.length).put(create).put(syn).flip();
+
+        FpduView view = new FpduView();
+        assertEquals(FpduType.CREATE, view.wrap(frame).getFpduType());
+        assertEquals(FpduType.SYN, view.wrap(frame).getFpduType());
+        assertEquals(7, view.getParameterNumeric(ParameterIdentifier.PI_20_NUM_SYNC, -1));
+        assertFalse(view.hasParameter(ParameterIdentifier.PI_13_ID_TRANSFERT));
+    }
+
+    @Test
+    @DisplayName("should reject truncated FPDU")
+    void shouldRejectTruncatedFpdu() {
+        ByteBuffer frame = ByteBuffer.wrap(new byte[] { 0x00, 10, 0x00, 0x00, 0x01, 0x00, 0x41 });
+        assertThrows(FpduParseException.class, () -> new FpduView().wrap(frame));
+    }
+
+    @Test
+    @DisplayName("FpduReader should reuse one pooled buffer across frames")
+    void readerShouldReusePooledBuffer() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(stream);
+        for (int i = 0; i < 3; i++) {
+            FpduIO.writeFpduWithData(out, FpduType.DTF, 1, 0, new byte[] { (byte) i, (byte) i });
+        }
+        FpduBufferPool pool = new FpduBufferPool(4);
+        FpduReader reader = new FpduReader(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())),
+                pool);
+
+        ByteBuffer firstBuffer = null;
+        for (int i = 0; i < 3; i++) {
+            FpduView view = reader.readView();
+            ByteBuffer data = view.data();
+            if (firstBuffer == null) {
+                firstBuffer = data;
+            }
+            assertSame(firstBuffer, data);
+            assertEquals(2, data.remaining());
+            assertEquals(i, data.get());
+        }
+
+        reader.release();
+        assertEquals(1, pool.available());
+        assertSame(firstBuffer.array(), pool.acquire().array());
+    }
+}
@@ -0,0 +1,169 @@
+package com.pesitwizard.integration;
+
+import static com.pesitwizard.fpdu.ParameterIdentifier.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.pesitwizard.fpdu.ConnectMessageBuilder;
+import com.pesitwizard.fpdu.CreateMessageBuilder;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduParser;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterRequirement;
+import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.session.PesitSession;
+import com.pesitwizard.transport.TcpTransportChannel;
+
+/**
+ * Throughput benchmark for small (1 KB) file transfers over a loopback
+ * responder that acknowledges every FPDU immediately.
+ *
+ * Each transfer waits for 8 ACKs (CONNECT, CREATE, OPEN, WRITE, TRANS.END,
+ * CLOSE, DESELECT, RELEASE). With the former fixed 300 ms sleep before every
+ * ACK read, a transfer could not take less than 2.4 s (about 0.4 files/s);
+ * ACK waiting is now bounded by the round trip only.
+ *
+ * Number of files: -Dpesit.bench.files=200 (default 50).
+ */
+@DisplayName("Small File Throughput Benchmark")
+public class SmallFileThroughputTest {
+
+    private static final int FILES = Integer.getInteger("pesit.bench.files", 50);
+    private static final int FILE_SIZE = 1024;
+    private static final int ACKS_PER_TRANSFER = 8;
+    private static final long FORMER_ACK_SLEEP_MS = 300;
+
+    private ServerSocket serverSocket;
+    private Thread responderThread;
+    private final AtomicInteger acksSent = new AtomicInteger();
+
+    @BeforeEach
+    void startResponder() throws IOException {
+        serverSocket = new ServerSocket(0);
+        responderThread = new Thread(this::runResponder, "AckResponder");
+        responderThread.setDaemon(true);
+        responderThread.start();
+    }
+
+    @AfterEach
+    void stopResponder() throws IOException {
+        serverSocket.close();
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("1 KB transfers should be bounded by round trip, not by a fixed ACK delay")
+    void smallFileTransfersShouldBeBoundedByRoundTrip() throws Exception {
+        byte[] payload = new byte[FILE_SIZE];
+
+        // Warm-up (class loading, JIT)
+        for (int i = 0; i < 5; i++) {
+            transferFile(payload, i + 1);
+        }
+        acksSent.set(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FILES; i++) {
+            transferFile(payload, i + 1);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        double filesPerSecond = FILES / (elapsedNanos / 1_000_000_000.0);
+        double formerCeiling = 1000.0 / (ACKS_PER_TRANSFER * FORMER_ACK_SLEEP_MS);
+        System.out.printf("Small file throughput: %d x %d B in %d ms -> %.1f files/s"
+                + " (fixed 300 ms ACK sleep ceiling: %.2f files/s)%n",
+                FILES, FILE_SIZE, elapsedNanos / 1_000_000, filesPerSecond, formerCeiling);
+
+        assertEquals(FILES * ACKS_PER_TRANSFER, acksSent.get());
+        assertTrue(filesPerSecond > formerCeiling * 10,
+                "Expected well above " + formerCeiling + " files/s, got " + filesPerSecond);
+    }
+
+    private void transferFile(byte[] payload, int transferId) throws IOException, InterruptedException {
+        try (PesitSession session = new PesitSession(new TcpTransportChannel("localhost", serverSocket.getLocalPort()),
+                true)) {
+            Fpdu aconnect = session.sendFpduWithAck(new ConnectMessageBuilder()
+                    .demandeur("LOOP").serveur("BENCH").writeAccess().build(5));
+            int serverId = aconnect.getIdSrc();
+
+            session.sendFpduWithAck(new CreateMessageBuilder()
+                    .filename("FILE").transferId(transferId).variableFormat()
+                    .recordLength(FILE_SIZE).maxEntitySize(4096).fileSizeKB(1)
+                    .build(serverId));
+            session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverId));
+            session.sendFpduWithAck(new Fpdu(FpduType.WRITE).withIdDst(serverId));
+
+            session.sendFpduWithData(new Fpdu(FpduType.DTF).withIdDst(serverId), payload);
+            session.sendFpdu(new Fpdu(FpduType.DTF_END).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.TRANS_END).withIdDst(serverId));
+
+            session.sendFpduWithAck(new Fpdu(FpduType.CLOSE).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.DESELECT).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(serverId).withIdSrc(5)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+        }
+    }
+
+    /**
+     * Minimal server: answers every FPDU that expects an ACK with that ACK,
+     * filling mandatory PIs with zeros (PI_02 = success).
+     */
+    private void runResponder() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                while (true) {
+                    int length = in.readUnsignedShort();
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    Fpdu request = new FpduParser(data).parse();
+                    FpduType ackType = request.getFpduType().getExpectedAck();
+                    if (ackType == null) {
+                        continue;
+                    }
+                    Fpdu ack = new Fpdu(ackType).withIdDst(request.getIdSrc()).withIdSrc(1);
+                    for (ParameterRequirement req : ackType.getParameterRequirements()) {
+                        if (req.isMandatory() && req.getParameter() instanceof ParameterIdentifier pi) {
+                            ack.withParameter(new ParameterValue(pi, new byte[Math.max(1, pi.getLength())]));
+                        }
+                    }
+                    byte[] response = FpduBuilder.buildFpdu(ack);
+                    // count before sending: the client may reset the counter as soon as it has the ACK
+                    acksSent.incrementAndGet();
+                    out.writeShort(response.length);
+                    out.write(response);
+                    out.flush();
+                    if (ackType == FpduType.RELCONF) {
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                // client closed
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.pesitwizard.integration;
+
+import static com.pesitwizard.fpdu.ParameterIdentifier.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.pesitwizard.fpdu.ConnectMessageBuilder;
+import com.pesitwizard.fpdu.CreateMessageBuilder;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduParser;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterRequirement;
+import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.session.PesitSession;
+import com.pesitwizard.session.SyncPointWindow;
+import com.pesitwizard.transport.TcpTransportChannel;
+
+/**
+ * Throughput versus RTT for windowed sync points.
+ *
+ * A proxy delays every byte by RTT/2 in each direction between the client and
+ * a responder that acknowledges each SYN immediately. With a window of 1 each
+ * sync point costs a full round trip; with a larger window the ACK_SYNs come
+ * back while DTFs keep flowing.
+ *
+ * RTTs in ms: -Dpesit.bench.rtts=0,20,80 (default 0,10,40).
+ */
+@DisplayName("Sync Point Window Latency Benchmark")
+public class SyncPointWindowLatencyTest {
+
+    private static final int[] RTTS_MS = Arrays.stream(System.getProperty("pesit.bench.rtts", "0,10,40").split(","))
+            .mapToInt(v -> Integer.parseInt(v.trim())).toArray();
+    private static final int[] WINDOWS = { 1, 4, 16 };
+    private static final int FILE_SIZE = 2 * 1024 * 1024;
+    private static final int ENTITY_SIZE = 8192;
+    private static final int DTF_DATA_SIZE = 4096;
+    private static final int SYNC_INTERVAL = 32 * 1024;
+
+    private ServerSocket responderSocket;
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    @BeforeEach
+    void startResponder() throws IOException {
+        responderSocket = new ServerSocket(0);
+        Thread responder = new Thread(this::runResponder, "SyncResponder");
+        responder.setDaemon(true);
+        responder.start();
+    }
+
+    @AfterEach
+    void stopResponder() throws IOException {
+        responderSocket.close();
+    }
+
+    @Test
+    @Timeout(120)
+    @DisplayName("windowed sync points should hide the round trip of each SYN")
+    void windowedSyncPointsShouldHideRoundTrip() throws Exception {
+        byte[] payload = new byte[FILE_SIZE];
+        int syncPoints = FILE_SIZE / SYNC_INTERVAL - 1;
+
+        // Warm-up (class loading, JIT)
+        transferFile(responderSocket.getLocalPort(), payload, 4);
+
+        Map<String, Double> throughput = new LinkedHashMap<>();
+        System.out.printf("Sync point window: %d KB file, SYN every %d KB (%d sync points)%n",
+                FILE_SIZE / 1024, SYNC_INTERVAL / 1024, syncPoints);
+        System.out.printf("%8s %8s %10s %10s%n", "RTT ms", "window", "time ms", "MB/s");
+        for (int rtt : RTTS_MS) {
+            for (int window : WINDOWS) {
+                try (LatencyProxy proxy = new LatencyProxy(responderSocket.getLocalPort(), rtt)) {
+                    bytesReceived.set(0);
+                    long start = System.nanoTime();
+                    SyncPointWindow syncWindow = transferFile(proxy.getPort(), payload, window);
+                    long elapsedNanos = System.nanoTime() - start;
+
+                    assertEquals(FILE_SIZE, bytesReceived.get());
+                    assertEquals(syncPoints, syncWindow.getLastAcknowledgedSync());
+                    assertEquals((long) syncPoints * SYNC_INTERVAL, syncWindow.getLastAcknowledgedOffset());
+
+                    double mbPerSecond = FILE_SIZE / (1024.0 * 1024.0) / (elapsedNanos / 1_000_000_000.0);
+                    throughput.put(rtt + "/" + window, mbPerSecond);
+                    System.out.printf("%8d %8d %10d %10.2f%n", rtt, window, elapsedNanos / 1_000_000, mbPerSecond);
+                }
+            }
+        }
+
+        int maxRtt = Arrays.stream(RTTS_MS).max().orElse(0);
+        if (maxRtt >= 10) {
+            double stopAndWait = throughput.get(maxRtt + "/1");
+            double windowed = throughput.get(maxRtt + "/" + WINDOWS[WINDOWS.length - 1]);
+            assertTrue(windowed > stopAndWait * 2,
+                    "Expected windowed sync points well above " + stopAndWait + " MB/s at " + maxRtt
+                            + " ms RTT, got " + windowed);
+        }
+    }
+
+    private SyncPointWindow transferFile(int port, byte[] payload, int window)
+            throws IOException, InterruptedException {
+        SyncPointWindow syncWindow = new SyncPointWindow(window);
+        try (PesitSession session = new PesitSession(new TcpTransportChannel("localhost", port), true)) {
+            Fpdu aconnect = session.sendFpduWithAck(new ConnectMessageBuilder()
+                    .demandeur("LOOP").serveur("BENCH").writeAccess()
+                    .syncPointsEnabled(true).syncIntervalKb(SYNC_INTERVAL / 1024).syncAckWindow(window)
+                    .build(5));
+            int serverId = aconnect.getIdSrc();
+
+            session.sendFpduWithAck(new CreateMessageBuilder()
+                    .filename("FILE").transferId(1).variableFormat()
+                    .recordLength(DTF_DATA_SIZE).maxEntitySize(ENTITY_SIZE).fileSizeKB(FILE_SIZE / 1024)
+                    .build(serverId));
+            session.sendFpduWithAck(new Fpdu(FpduType.OPEN).withIdDst(serverId));
+            session.sendFpduWithAck(new Fpdu(FpduType.WRITE).withIdDst(serverId));
+
+            int syncNum = 0;
+            long sent = 0;
+            long sinceSync = 0;
+            while (sent < payload.length) {
+                int length = (int) Math.min(DTF_DATA_SIZE, payload.length - sent);
+                if (sinceSync + length > SYNC_INTERVAL) {
+                    session.sendSyn(syncWindow, serverId, ++syncNum, sent);
+                    sinceSync = 0;
+                }
+                session.sendFpduWithData(new Fpdu(FpduType.DTF).withIdDst(serverId),
+                        Arrays.copyOfRange(payload, (int) sent, (int) sent + length));
+                sent += length;
+                sinceSync += length;
+            }
+            session.drainAckSyn(syncWindow);
+
+            session.sendFpdu(new Fpdu(FpduType.DTF_END).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.TRANS_END).withIdDst(serverId));
+            session.sendFpduWithAck(new Fpdu(FpduType.CLOSE).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.DESELECT).withIdDst(serverId)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+            session.sendFpduWithAck(new Fpdu(FpduType.RELEASE).withIdDst(serverId).withIdSrc(5)
+                    .withParameter(new ParameterValue(PI_02_DIAG, new byte[3])));
+        }
+        return syncWindow;
+    }
+
+    /**
+     * Minimal server: counts DTF bytes, echoes PI 20 in ACK_SYN and answers
+     * every other FPDU that expects an ACK with zero-filled mandatory PIs.
+     */
+    private void runResponder() {
+        while (!responderSocket.isClosed()) {
+            try (Socket socket = responderSocket.accept()) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                while (true) {
+                    int length = in.readUnsignedShort();
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    Fpdu request = new FpduParser(data).parse();
+                    if (request.getFpduType() == FpduType.DTF) {
+                        bytesReceived.addAndGet(request.getData().length);
+                        continue;
+                    }
+                    FpduType ackType = request.getFpduType().getExpectedAck();
+                    if (ackType == null) {
+                        continue;
+                    }
+                    Fpdu ack = new Fpdu(ackType).withIdDst(request.getIdSrc()).withIdSrc(1);
+                    if (ackType == FpduType.ACK_SYN) {
+                        ack.withParameter(request.getParameter(PI_20_NUM_SYNC));
+                    } else {
+                        for (ParameterRequirement req : ackType.getParameterRequirements()) {
+                            if (req.isMandatory() && req.getParameter() instanceof ParameterIdentifier pi) {
+                                ack.withParameter(new ParameterValue(pi, new byte[Math.max(1, pi.getLength())]));
+                            }
+                        }
+                    }
+                    byte[] response = FpduBuilder.buildFpdu(ack);
+                    out.writeShort(response.length);
+                    out.write(response);
+                    out.flush();
+                    if (ackType == FpduType.RELCONF) {
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                // client closed
+            } catch (IOException e) {
+                if (!responderSocket.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Single-connection TCP proxy delaying each direction by RTT/2.
+     */
+    private static class LatencyProxy implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final long oneWayNanos;
+        private volatile Socket client;
+        private volatile Socket upstream;
+
+        LatencyProxy(int targetPort, int rttMs) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.oneWayNanos = TimeUnit.MILLISECONDS.toNanos(rttMs) / 2;
+            Thread acceptor = new Thread(() -> {
+                try {
+                    client = serverSocket.accept();
+                    upstream = new Socket("localhost", targetPort);
+                    client.setTcpNoDelay(true);
+                    upstream.setTcpNoDelay(true);
+                    pipe(client.getInputStream(), upstream.getOutputStream());
+                    pipe(upstream.getInputStream(), client.getOutputStream());
+                } catch (IOException e) {
+                    // proxy closed before a client connected
+                }
+            }, "LatencyProxy");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void pipe(InputStream in, OutputStream out) {
+            BlockingQueue<Object[]> queue = new LinkedBlockingQueue<>(); // {deadline, bytes}
+            Thread reader = new Thread(() -> {
+                byte[] buffer = new byte[65536];
+                try {
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        queue.put(new Object[] { System.nanoTime() + oneWayNanos, Arrays.copyOf(buffer, n) });
+                    }
+                } catch (IOException | InterruptedException e) {
+                    // connection closed
+                }
+                queue.add(new Object[] { 0L, null });
+            }, "LatencyProxy-read");
+            Thread writer = new Thread(() -> {
+                try {
+                    while (true) {
+                        Object[] chunk = queue.take();
+                        if (chunk[1] == null) {
+                            out.close();
+                            return;
+                        }
+                        long wait = (long) chunk[0] - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        out.write((byte[]) chunk[1]);
+                        out.flush();
+                    }
+                } catch (IOException | InterruptedException e) {
+                    // connection closed
+                }
+            }, "LatencyProxy-write");
+            reader.setDaemon(true);
+            writer.setDaemon(true);
+            reader.start();
+            writer.start();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            if (client != null) {
+                client.close();
+            }
+            if (upstream != null) {
+                upstream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.pesitwizard.session;
+
+import static com.pesitwizard.fpdu.ParameterIdentifier.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.pesitwizard.exception.PesitException;
+import com.pesitwizard.fpdu.DiagnosticCode;
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.transport.TransportChannel;
+import com.pesitwizard.transport.TransportType;
+
+@DisplayName("PesitSession Tests")
+class PesitSessionTest {
+
+    private static byte[] ackSyn(int syncNum) {
+        return FpduBuilder.buildFpdu(new Fpdu(FpduType.ACK_SYN)
+                .withParameter(new ParameterValue(PI_20_NUM_SYNC, syncNum)));
+    }
+
+    private static byte[] concat(byte[]... fpdus) {
+        ByteBuffer frame = ByteBuffer.allocate(Arrays.stream(fpdus).mapToInt(f -> f.length).sum());
+        for (byte[] fpdu : fpdus) {
+            frame.put(fpdu);
+        }
+        return frame.array();
+    }
+
+    @Test
+    @DisplayName("should acknowledge every ACK_SYN of a concatenated frame")
+    void shouldReadConcatenatedAckSyns() throws Exception {
+        FrameChannel channel = new FrameChannel();
+        channel.frames.add(concat(ackSyn(1), ackSyn(2), ackSyn(3)));
+        List<Integer> acknowledged = new ArrayList<>();
+        SyncPointWindow window = new SyncPointWindow(4, (n, offset) -> acknowledged.add(n));
+        try (PesitSession session = new PesitSession(channel)) {
+            window.sent(1, 100);
+            window.sent(2, 200);
+            window.sent(3, 300);
+
+            session.drainAckSyn(window);
+
+            assertEquals(List.of(1, 2, 3), acknowledged);
+            assertEquals(1, channel.receives);
+        }
+    }
+
+    @Test
+    @DisplayName("should poll ACK_SYNs left in the last frame without receiving")
+    void shouldPollPendingAckSyns() throws Exception {
+        FrameChannel channel = new FrameChannel();
+        channel.frames.add(concat(ackSyn(1), ackSyn(2)));
+        SyncPointWindow window = new SyncPointWindow(1);
+        try (PesitSession session = new PesitSession(channel)) {
+            // The frame holding both ACK_SYNs arrives after the first SYN
+            session.sendSyn(window, 1, 1, 100);
+            assertEquals(1, window.getLastAcknowledgedSync());
+            session.sendSyn(window, 1, 2, 200);
+            assertFalse(window.hasOutstanding());
+            assertEquals(2, window.getLastAcknowledgedSync());
+            assertEquals(1, channel.receives);
+        }
+    }
+
+    @Test
+    @DisplayName("should abort on an ABORT following ACK_SYNs in the same frame")
+    void shouldAbortOnConcatenatedAbort() throws Exception {
+        FrameChannel channel = new FrameChannel();
+        byte[] abort = FpduBuilder.buildFpdu(new Fpdu(FpduType.ABORT)
+                .withParameter(new ParameterValue(PI_02_DIAG, DiagnosticCode.D3_311.toBytes())));
+        channel.frames.add(concat(ackSyn(1), abort));
+        SyncPointWindow window = new SyncPointWindow(2);
+        try (PesitSession session = new PesitSession(channel)) {
+            window.sent(1, 100);
+            window.sent(2, 200);
+
+            PesitException e = assertThrows(PesitException.class, () -> session.drainAckSyn(window));
+            assertEquals(DiagnosticCode.D3_311, e.getDiagnosticCode());
+            assertEquals(1, window.getLastAcknowledgedSync());
+        }
+    }
+
+    @Test
+    @DisplayName("should hand FPDUs left in a frame to the raw receive")
+    void shouldHandPendingFpdusToRawReceive() throws Exception {
+        FrameChannel channel = new FrameChannel();
+        byte[] dtfEnd = FpduBuilder.buildFpdu(new Fpdu(FpduType.DTF_END)
+                .withParameter(new ParameterValue(PI_02_DIAG, DiagnosticCode.D0_000.toBytes())));
+        channel.frames.add(concat(ackSyn(1), dtfEnd));
+        SyncPointWindow window = new SyncPointWindow(1);
+        try (PesitSession session = new PesitSession(channel)) {
+            window.sent(1, 100);
+            session.drainAckSyn(window);
+
+            ByteBuffer target = ByteBuffer.allocate(256);
+            assertEquals(dtfEnd.length, session.receiveRawFpdu(target));
+            assertEquals(ByteBuffer.wrap(dtfEnd), target);
+            assertEquals(1, channel.receives);
+        }
+    }
+
+    /** Transport replaying queued frames */
+    private static final class FrameChannel implements TransportChannel {
+        private final Deque<byte[]> frames = new ArrayDeque<>();
+        private int receives;
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void send(byte[] data) {
+        }
+
+        @Override
+        public byte[] receive() throws IOException {
+            byte[] frame = frames.poll();
+            if (frame == null) {
+                throw new IOException("No more frames");
+            }
+            receives++;
+            return frame;
+        }
+
+        @Override
+        public int available() {
+            return frames.isEmpty() ? 0 : frames.peek().length;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "remote";
+        }
+
+        @Override
+        public String getLocalAddress() {
+            return "local";
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        public void setReceiveTimeout(int timeoutMs) {
+        }
+
+        @Override
+        public TransportType getTransportType() {
+            return TransportType.TCP;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.pesitwizard.session;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SyncPointWindow Tests")
+class SyncPointWindowTest {
+
+    @Test
+    @DisplayName("should allow window-size SYNs outstanding before blocking")
+    void shouldFillUpToWindowSize() {
+        SyncPointWindow window = new SyncPointWindow(3);
+
+        window.sent(1, 1000);
+        window.sent(2, 2000);
+        assertFalse(window.isFull());
+        window.sent(3, 3000);
+        assertTrue(window.isFull());
+        assertEquals(3, window.getOutstanding());
+        assertThrows(IllegalStateException.class, () -> window.sent(4, 4000));
+    }
+
+    @Test
+    @DisplayName("should track the last acknowledged sync point as restart point")
+    void shouldTrackRestartPoint() {
+        List<String> acks = new ArrayList<>();
+        SyncPointWindow window = new SyncPointWindow(4, (n, offset) -> acks.add(n + "@" + offset));
+        window.sent(1, 1000);
+        window.sent(2, 2000);
+        window.sent(3, 3000);
+
+        assertTrue(window.acknowledge(1));
+        assertEquals(1, window.getLastAcknowledgedSync());
+        assertEquals(1000, window.getLastAcknowledgedOffset());
+        assertEquals(2, window.getOldestOutstanding());
+
+        // ACK of 3 also covers 2
+        assertTrue(window.acknowledge(3));
+        assertEquals(3, window.getLastAcknowledgedSync());
+        assertEquals(3000, window.getLastAcknowledgedOffset());
+        assertFalse(window.hasOutstanding());
+        assertEquals(List.of("1@1000", "2@2000", "3@3000"), acks);
+    }
+
+    @Test
+    @DisplayName("should acknowledge the oldest sync point on unexpected number")
+    void shouldAcknowledgeOldestOnMismatch() {
+        SyncPointWindow window = new SyncPointWindow(2);
+        window.sent(5, 500);
+        window.sent(6, 600);
+
+        assertFalse(window.acknowledge(42));
+        assertEquals(5, window.getLastAcknowledgedSync());
+        assertEquals(1, window.getOutstanding());
+        assertThrows(IllegalStateException.class, () -> {
+            window.acknowledge(6);
+            window.acknowledge(7);
+        });
+    }
+
+    @Test
+    @DisplayName("should read the window from PI 7 and clamp it")
+    void shouldNegotiateSizeFromPi7() {
+        assertEquals(1, SyncPointWindow.negotiatedSize(null));
+        assertEquals(1, SyncPointWindow.negotiatedSize(new byte[] { 0, 32 }));
+        assertEquals(1, SyncPointWindow.negotiatedSize(new byte[] { 0, 32, 0 }));
+        assertEquals(4, SyncPointWindow.negotiatedSize(new byte[] { 0, 32, 4 }));
+        assertEquals(SyncPointWindow.MAX_SIZE, SyncPointWindow.negotiatedSize(new byte[] { 0, 32, (byte) 0xFF }));
+        assertEquals(1, new SyncPointWindow(0).getSize());
+    }
+}
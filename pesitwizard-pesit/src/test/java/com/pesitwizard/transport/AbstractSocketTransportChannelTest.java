@@ -7,7 +7,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,6 +21,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.pesitwizard.fpdu.Fpdu;
+import com.pesitwizard.fpdu.FpduBuilder;
+import com.pesitwizard.fpdu.FpduReader;
+import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.ParameterIdentifier;
+import com.pesitwizard.fpdu.ParameterValue;
+
 /**
  * Unit tests for AbstractSocketTransportChannel and TcpTransportChannel.
  */
@@ -195,4 +207,92 @@ class AbstractSocketTransportChannelTest {
             // No assertion needed - just verifying no exception
         }
     }
+
+    @Nested
+    @DisplayName("Batching and Write Coalescing")
+    class BatchingTests {
+
+        private final byte[] dtfEnd = FpduBuilder.buildFpdu(new Fpdu(FpduType.DTF_END).withIdDst(1)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG, new byte[] { 0, 0, 0 })));
+        private final byte[] transEnd = FpduBuilder.buildFpdu(new Fpdu(FpduType.TRANS_END).withIdDst(1));
+
+        @Test
+        @DisplayName("sendBatch should keep one frame per FPDU")
+        void sendBatchShouldKeepOneFramePerFpdu() throws Exception {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                TcpTransportChannel channel = new TcpTransportChannel("127.0.0.1", server.getLocalPort());
+                channel.connect();
+                try (Socket peer = server.accept()) {
+                    channel.sendBatch(List.of(dtfEnd, transEnd));
+
+                    DataInputStream in = new DataInputStream(peer.getInputStream());
+                    assertThat(in.readUnsignedShort()).isEqualTo(dtfEnd.length);
+                    assertThat(in.readNBytes(dtfEnd.length)).isEqualTo(dtfEnd);
+                    assertThat(in.readUnsignedShort()).isEqualTo(transEnd.length);
+                    assertThat(in.readNBytes(transEnd.length)).isEqualTo(transEnd);
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("sendConcatenated should put all FPDUs in one frame")
+        void sendConcatenatedShouldPutFpdusInOneFrame() throws Exception {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                TcpTransportChannel channel = new TcpTransportChannel("127.0.0.1", server.getLocalPort());
+                channel.connect();
+                try (Socket peer = server.accept()) {
+                    channel.sendConcatenated(List.of(dtfEnd, transEnd));
+
+                    DataInputStream in = new DataInputStream(peer.getInputStream());
+                    FpduReader reader = new FpduReader(in);
+                    assertThat(reader.read().getFpduType()).isEqualTo(FpduType.DTF_END);
+                    assertThat(reader.hasPending()).isTrue();
+                    assertThat(reader.read().getFpduType()).isEqualTo(FpduType.TRANS_END);
+                    reader.release();
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("coalesced sends should be flushed before waiting for the answer")
+        void coalescedSendsShouldBeFlushedBeforeReceive() throws Exception {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                TcpTransportChannel channel = new TcpTransportChannel("127.0.0.1", server.getLocalPort());
+                channel.setWriteCoalescing(true);
+                channel.connect();
+                channel.setReceiveTimeout(5000);
+                try (Socket peer = server.accept()) {
+                    CompletableFuture<Integer> answered = CompletableFuture.supplyAsync(() -> {
+                        try {
+                            DataInputStream in = new DataInputStream(peer.getInputStream());
+                            DataOutputStream out = new DataOutputStream(peer.getOutputStream());
+                            int frames = 0;
+                            for (int i = 0; i < 2; i++) {
+                                in.readNBytes(in.readUnsignedShort());
+                                frames++;
+                            }
+                            out.writeShort(dtfEnd.length);
+                            out.write(dtfEnd);
+                            out.flush();
+                            return frames;
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+
+                    channel.send(dtfEnd);
+                    channel.send(transEnd);
+
+                    assertThat(channel.receive()).isEqualTo(dtfEnd);
+                    assertThat(answered.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+    }
 }
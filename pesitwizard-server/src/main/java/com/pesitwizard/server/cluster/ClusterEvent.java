@@ -16,7 +16,8 @@ public class ClusterEvent {
         LOST_LEADERSHIP,
         SERVER_ACQUIRED,
         SERVER_RELEASED,
-        SERVER_STATE_CHANGED
+        SERVER_STATE_CHANGED,
+        CONFIG_CHANGED
     }
 
     private final Type type;
@@ -48,4 +49,8 @@ public class ClusterEvent {
     public static ClusterEvent serverStateChanged(String serverId, String nodeId) {
         return new ClusterEvent(Type.SERVER_STATE_CHANGED, nodeId, serverId, 0, false);
     }
+
+    public static ClusterEvent configChanged(String nodeId) {
+        return new ClusterEvent(Type.CONFIG_CHANGED, nodeId, null, 0, false);
+    }
 }
@@ -19,7 +19,9 @@ public class ClusterMessage implements Serializable {
     public enum Type {
         SERVER_ACQUIRED,
         SERVER_RELEASED,
-        SERVER_STATE_CHANGED
+        SERVER_STATE_CHANGED,
+        /** Partners or virtual files changed; nodeId is the sender */
+        CONFIG_CHANGED
     }
 
     private Type type;
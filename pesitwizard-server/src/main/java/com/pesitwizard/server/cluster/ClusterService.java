@@ -353,6 +353,9 @@ public class ClusterService implements ClusterProvider, Receiver, Closeable {
             case SERVER_STATE_CHANGED -> {
                 notifyListeners(ClusterEvent.serverStateChanged(msg.getServerId(), msg.getNodeId()));
             }
+            case CONFIG_CHANGED -> {
+                notifyListeners(ClusterEvent.configChanged(msg.getNodeId()));
+            }
         }
     }
 
@@ -39,7 +39,8 @@ public class ClusterSchemaInterceptor implements StatementInspector {
                 .replaceAll("\\bpesit_server_config\\b", schema + ".pesit_server_config")
                 .replaceAll("\\bapi_keys\\b", schema + ".api_keys")
                 .replaceAll("\\bsecret_entries\\b", schema + ".secret_entries")
-                .replaceAll("\\bfile_checksums\\b", schema + ".file_checksums");
+                .replaceAll("\\bfile_checksums\\b", schema + ".file_checksums")
+                .replaceAll("\\btransfer_sync_points\\b", schema + ".transfer_sync_points");
 
         if (!rewritten.equals(sql)) {
             log.trace("Rewritten SQL for schema {}: {}", schema, rewritten);
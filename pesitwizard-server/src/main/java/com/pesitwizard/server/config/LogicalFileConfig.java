@@ -63,6 +63,9 @@ public class LogicalFileConfig {
     @Builder.Default
     private int recordFormat = 0x80;
 
+    /** Durability of received sync points, null = server default */
+    private SyncDurability syncDurability;
+
     public enum Direction {
         RECEIVE, // Only for CREATE (receiving files)
         SEND, // Only for SELECT (sending files)
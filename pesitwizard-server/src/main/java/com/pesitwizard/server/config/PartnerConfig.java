@@ -1,5 +1,7 @@
 package com.pesitwizard.server.config;
 
+import com.pesitwizard.fpdu.EbcdicCodePage;
+
 import lombok.Data;
 
 /**
@@ -29,6 +31,12 @@ public class PartnerConfig {
     /** List of logical files this partner can access (empty = all) */
     private String[] allowedFiles = {};
 
+    /**
+     * EBCDIC code page of this partner: files with PI 16 = EBCDIC are
+     * transcoded to/from ASCII with it. Null stores data as received.
+     */
+    private EbcdicCodePage codePage;
+
     public enum AccessType {
         READ, // Partner can only read (SELECT)
         WRITE, // Partner can only write (CREATE)
@@ -6,6 +6,8 @@ import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import com.pesitwizard.fpdu.CompressionMode;
+
 import lombok.Data;
 
 /**
@@ -31,6 +33,14 @@ public class PesitServerProperties {
     /** Maximum connections allowed */
     private int maxConnections = 100;
 
+    /**
+     * Engine running the per-connection session loop.
+     * PLATFORM_THREADS = fixed pool of maxConnections platform threads
+     * VIRTUAL_THREADS = one virtual thread per connection (for large numbers of
+     * mostly idle sessions; maxConnections then only caps admission)
+     */
+    private ConnectionEngine connectionEngine = ConnectionEngine.PLATFORM_THREADS;
+
     /** Connection timeout in milliseconds */
     private int connectionTimeout = 30000;
 
@@ -52,6 +62,18 @@ public class PesitServerProperties {
     /** Sync point interval in KB (D2-222 validation). 0 = no limit */
     private int syncIntervalKb = 0; // 0 = disabled, let client handle sync points
 
+    /** Largest sync point window granted (1 = stop-and-wait, max 16) */
+    private int syncAckWindow = 4;
+
+    /** What an ACK_SYN guarantees for received data, unless the logical file says otherwise */
+    private SyncDurability syncDurability = SyncDurability.FSYNC;
+
+    /** Minimum time between two forces to disk with SyncDurability.GROUP (ms) */
+    private long syncGroupCommitMs = 200;
+
+    /** Compression accepted in ACK(OPEN) (PI 21), NONE to refuse it */
+    private CompressionMode compression = CompressionMode.HORIZONTAL_VERTICAL;
+
     /** Enable resynchronization by default */
     private boolean resyncEnabled = true;
 
@@ -76,6 +98,11 @@ public class PesitServerProperties {
     /** Configured logical files (key = logical file ID / filename pattern) */
     private Map<String, LogicalFileConfig> files = new HashMap<>();
 
+    public enum ConnectionEngine {
+        PLATFORM_THREADS, // One pooled platform thread per connection
+        VIRTUAL_THREADS // One virtual thread per connection
+    }
+
     /**
      * Get partner configuration by ID
      * 
@@ -0,0 +1,19 @@
+package com.pesitwizard.server.config;
+
+/**
+ * What an acknowledged sync point (ACK_SYN) guarantees for the data received
+ * before it, from fastest to safest
+ */
+public enum SyncDurability {
+    /** Nothing: data may still be buffered, a restart starts over */
+    NONE,
+    /** Written to the operating system: survives a server crash, not a power loss */
+    FLUSH,
+    /**
+     * Written at each sync point, forced to disk at most once per
+     * sync-group-commit-ms: a restart resumes from the last forced sync point
+     */
+    GROUP,
+    /** Forced to disk before each ACK_SYN */
+    FSYNC
+}
@@ -2,6 +2,8 @@ package com.pesitwizard.server.entity;
 
 import java.time.LocalDateTime;
 
+import com.pesitwizard.fpdu.EbcdicCodePage;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -69,6 +71,13 @@ public class Partner {
     @Column(length = 1000)
     private String allowedFiles;
 
+    /**
+     * EBCDIC code page for files with PI 16 = EBCDIC (null = no transcoding)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private EbcdicCodePage codePage;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,50 @@
+package com.pesitwizard.server.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Byte offset of a sync point sent by the server, so that a restarted READ
+ * (PI 18 = sync point number) resumes at the right byte of the file.
+ */
+@Entity
+@Table(name = "transfer_sync_points", indexes = {
+        @Index(name = "idx_sync_point_transfer", columnList = "transferId, syncPoint", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferSyncPoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Transfer that sent the sync point
+     */
+    @Column(nullable = false, length = 36)
+    private String transferId;
+
+    /**
+     * Sync point number (PI 20)
+     */
+    @Column(nullable = false)
+    private Integer syncPoint;
+
+    /**
+     * Offset in the file of the first byte sent after the sync point
+     */
+    @Column(nullable = false)
+    private Long byteOffset;
+}
@@ -2,6 +2,8 @@ package com.pesitwizard.server.entity;
 
 import java.time.LocalDateTime;
 
+import com.pesitwizard.server.config.SyncDurability;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -101,6 +103,13 @@ public class VirtualFile {
     @Builder.Default
     private int recordFormat = 0x80;
 
+    /**
+     * Durability of received sync points (null = server default)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private SyncDurability syncDurability;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -8,7 +8,6 @@ import com.pesitwizard.fpdu.DiagnosticCode;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.ParameterIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
-import com.pesitwizard.security.SecretsService;
 import com.pesitwizard.server.config.PartnerConfig;
 import com.pesitwizard.server.config.PesitServerProperties;
 import com.pesitwizard.server.entity.Partner;
@@ -30,7 +29,6 @@ public class ConnectionValidator {
 
     private final PesitServerProperties properties;
     private final ConfigService configService;
-    private final SecretsService secretsService;
 
     /**
      * Validate partner on CONNECT
@@ -68,21 +66,11 @@ public class ConnectionValidator {
             ParameterValue pi5 = fpdu.getParameter(ParameterIdentifier.PI_05_CONTROLE_ACCES);
             String providedPassword = pi5 != null ? new String(pi5.getValue(), StandardCharsets.ISO_8859_1).trim() : "";
 
-            // Decrypt stored password (may be encrypted with vault: or ENC: prefix)
-            String storedPassword = secretsService.decryptFromStorage(partner.getPassword());
-
-            // Debug: log hex values
-            if (!storedPassword.equals(providedPassword)) {
-                byte[] providedBytes = providedPassword.getBytes(StandardCharsets.ISO_8859_1);
-                byte[] storedBytes = storedPassword.getBytes(StandardCharsets.ISO_8859_1);
-                StringBuilder providedHex = new StringBuilder();
-                StringBuilder storedHex = new StringBuilder();
-                for (byte b : providedBytes) providedHex.append(String.format("%02X ", b));
-                for (byte b : storedBytes) storedHex.append(String.format("%02X ", b));
-                log.debug("[{}] Password mismatch for partner '{}' (provided length: {}, stored length: {})",
-                        ctx.getSessionId(), partnerId, providedPassword.length(), storedPassword.length());
-                log.debug("[{}] Provided password hex: {}", ctx.getSessionId(), providedHex.toString());
-                log.debug("[{}] Stored password hex: {}", ctx.getSessionId(), storedHex.toString());
+            // Stored password may be encrypted (vault: or ENC: prefix); ConfigService
+            // compares against a digest cached in its lookup index
+            if (!configService.checkPartnerPassword(partner, providedPassword)) {
+                log.debug("[{}] Password mismatch for partner '{}' (provided length: {})",
+                        ctx.getSessionId(), partnerId, providedPassword.length());
                 return ValidationResult.error(DiagnosticCode.D3_304,
                         "Invalid password for partner '" + partnerId + "'");
             }
@@ -114,6 +102,7 @@ public class ConnectionValidator {
         config.setEnabled(partner.isEnabled());
         config.setAccessType(PartnerConfig.AccessType.valueOf(partner.getAccessType().name()));
         config.setMaxConnections(partner.getMaxConnections());
+        config.setCodePage(partner.getCodePage());
         if (partner.getAllowedFiles() != null && !partner.getAllowedFiles().isEmpty()) {
             config.setAllowedFiles(partner.getAllowedFiles().split(","));
         }
@@ -1,21 +1,28 @@
 package com.pesitwizard.server.handler;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
 
 import org.springframework.stereotype.Component;
 
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.DiagnosticCode;
+import com.pesitwizard.fpdu.DtfEntityAssembler;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduIO;
-import com.pesitwizard.fpdu.FpduParser;
+import com.pesitwizard.fpdu.FpduParseException;
+import com.pesitwizard.fpdu.FpduReader;
 import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.fpdu.ParameterIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.server.config.PesitServerProperties;
@@ -25,6 +32,7 @@ import com.pesitwizard.server.service.FpduResponseBuilder;
 import com.pesitwizard.server.service.FpduValidator;
 import com.pesitwizard.server.service.TransferTracker;
 import com.pesitwizard.server.state.ServerState;
+import com.pesitwizard.session.SyncPointWindow;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +45,8 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class DataTransferHandler {
 
+    private static final ByteBuffer EMPTY_DATA = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
     private final PesitServerProperties properties;
     private final TransferTracker transferTracker;
     private final FpduValidator fpduValidator;
@@ -46,8 +56,24 @@ public class DataTransferHandler {
      */
     public Fpdu handleWrite(SessionContext ctx, Fpdu fpdu) {
         log.info("[{}] WRITE: starting data reception", ctx.getSessionId());
+        TransferContext transfer = ctx.getCurrentTransfer();
+        int restartPoint = 0;
+        long offset = 0;
+        if (transfer != null && transfer.isRestart()) {
+            // Resume at the last sync point durably recorded for the file (PI 18)
+            try {
+                restartPoint = transfer.resumeFromLastSyncPoint();
+                offset = transfer.getBytesTransferred();
+            } catch (IOException e) {
+                log.error("[{}] WRITE: cannot resume {}: {}", ctx.getSessionId(), transfer.getLocalPath(),
+                        e.getMessage());
+                return FpduResponseBuilder.buildAbort(ctx, DiagnosticCode.D2_213, "Restart error: " + e.getMessage());
+            }
+            log.info("[{}] WRITE: restarting at sync point {} ({} bytes)", ctx.getSessionId(), restartPoint, offset);
+        }
+        transferTracker.startChecksum(ctx, offset);
         ctx.transitionTo(ServerState.TDE02B_RECEIVING_DATA);
-        return FpduResponseBuilder.buildAckWrite(ctx, 0);
+        return FpduResponseBuilder.buildAckWrite(ctx, restartPoint);
     }
 
     /**
@@ -67,21 +93,38 @@ public class DataTransferHandler {
             return FpduResponseBuilder.buildAckRead(ctx, DiagnosticCode.D2_205);
         }
 
-        // Extract PI 18 (Restart Point)
-        long restartPoint = extractRestartPoint(fpdu);
+        // PI 18 is the number of the sync point to restart from; its byte
+        // offset was recorded when the interrupted transfer sent it
+        int restartPoint = (int) extractRestartPoint(fpdu);
+        long startPosition = 0;
         if (restartPoint > 0) {
-            transfer.setRestartPoint((int) restartPoint);
-            log.info("[{}] READ: resuming from position {} for {}", ctx.getSessionId(), restartPoint, filePath);
+            startPosition = transferTracker.findSentSyncPointOffset(ctx, transfer.getFilename(), restartPoint);
+            if (startPosition < 0 || startPosition > Files.size(filePath)) {
+                log.warn("[{}] READ: no offset known for sync point {} of {}", ctx.getSessionId(), restartPoint,
+                        filePath);
+                return FpduResponseBuilder.buildAckRead(ctx, DiagnosticCode.D2_214);
+            }
+            transfer.setRestartPoint(restartPoint);
+            transfer.setCurrentSyncPoint(restartPoint);
+            // A new interruption may restart from the same sync point
+            transferTracker.trackSentSyncPoint(ctx, restartPoint, startPosition);
+            log.info("[{}] READ: resuming from sync point {} (byte {}) for {}", ctx.getSessionId(), restartPoint,
+                    startPosition, filePath);
         } else {
             log.info("[{}] READ: starting data transmission for {}", ctx.getSessionId(), filePath);
         }
 
-        // 1. Send ACK(READ)
-        FpduIO.writeFpdu(out, FpduResponseBuilder.buildAckRead(ctx, DiagnosticCode.D0_000));
+        // 1. Send ACK(READ), in the same write as the first entity
+        FpduIO.writeFpdu(out, FpduResponseBuilder.buildAckRead(ctx, DiagnosticCode.D0_000), false);
         log.info("[{}] Sent ACK(READ)", ctx.getSessionId());
 
         // 2. Stream file data as DTF chunks
-        long totalBytes = streamFileData(ctx, filePath, restartPoint, in, out);
+        long totalBytes;
+        try {
+            totalBytes = streamFileData(ctx, filePath, startPosition, in, out);
+        } catch (PeerAbortException e) {
+            return handlePeerAbort(ctx, e.abort);
+        }
 
         // 3. Send DTF.END
         FpduIO.writeFpdu(out, FpduResponseBuilder.buildDtfEnd(ctx));
@@ -100,8 +143,12 @@ public class DataTransferHandler {
      * Structure:
      * - An ENTITY (FPDU) contains multiple ARTICLES
      * - Each article = recordLength bytes, prefixed with 2-byte length
-     * - Within an entity: DTFDA (first) + DTFMA* (middle) + DTFFA (last)
-     * - SYN points are sent between entities (after DTFFA, before next DTFDA)
+     * - Multi-article DTF: idSrc = number of articles in the entity
+     * - SYN points are sent between entities
+     * 
+     * Articles are read from the file channel directly into a reusable entity
+     * buffer and each entity is written in one call. The socket is only flushed
+     * before waiting for ACK_SYN and at the end of the data phase.
      */
     private long streamFileData(SessionContext ctx, Path filePath, long startPosition, DataInputStream in,
             DataOutputStream out) throws IOException {
@@ -117,166 +164,143 @@ public class DataTransferHandler {
         long syncIntervalBytes = syncIntervalKb * 1024L;
         long bytesSinceLastSync = 0;
         int syncPointNumber = transfer != null ? transfer.getCurrentSyncPoint() : 0;
+        // Up to the negotiated window of SYNs stay unacknowledged while entities keep flowing
+        SyncPointWindow syncWindow = new SyncPointWindow(ctx.getSyncAckWindow(), (syncNum, offset) -> {
+            if (transfer != null) {
+                transfer.setCurrentSyncPoint(syncNum);
+            }
+            transferTracker.trackSentSyncPoint(ctx, syncNum, offset);
+            log.info("[{}] SYN point {} acknowledged", ctx.getSessionId(), syncNum);
+        });
 
-        // Calculate articles per entity: each article needs 6 (header) + 2 (length
-        // prefix) + recordLength
-        // But header is per FPDU, so: maxEntitySize = 6 + N * (2 + recordLength)
-        int articlesPerEntity = Math.max(1, (maxEntitySize - 6) / (2 + recordLength));
+        // PI 21: articles are compressed as they are packed into entities
+        CompressionEncoder encoder = transfer != null && transfer.getCompression() != 0
+                ? new CompressionEncoder(CompressionMode.fromCode(transfer.getCompression()))
+                : null;
+        DtfEntityAssembler entity = new DtfEntityAssembler(maxEntitySize, recordLength, encoder,
+                transfer != null ? transfer.getDataTranscoder() : null);
 
         long totalBytes = 0;
         int entityCount = 0;
-        byte[] articleBuffer = new byte[recordLength];
+        int recordCount = 0;
+        // ACK_SYNs may come several to a frame (PeSIT section 4.5)
+        FpduReader ackReader = new FpduReader(in);
 
-        try (InputStream rawIn = Files.newInputStream(filePath);
-                java.io.BufferedInputStream fileIn = new java.io.BufferedInputStream(rawIn)) {
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
             if (startPosition > 0) {
-                long skipped = fileIn.skip(startPosition);
-                log.info("[{}] READ: skipped {} bytes to resume position", ctx.getSessionId(), skipped);
+                fileChannel.position(startPosition);
+                log.info("[{}] READ: positioned at byte {} to resume", ctx.getSessionId(), startPosition);
             }
 
-            long fileSize = Files.size(filePath) - startPosition;
-            boolean hasMoreData = true;
-
-            // Estimate bytes per entity for sync point calculation
-            int bytesPerEntity = articlesPerEntity * recordLength;
-
-            while (hasMoreData) {
-                // Check if NEXT entity would exceed sync interval - send SYN BEFORE
+            while (entity.fill(fileChannel, ctx.getClientConnectionId()) > 0) {
+                // Check if this entity would exceed sync interval - send SYN BEFORE
                 if (syncEnabled && syncIntervalBytes > 0
-                        && (bytesSinceLastSync + bytesPerEntity) > syncIntervalBytes) {
+                        && (bytesSinceLastSync + entity.getDataLength()) > syncIntervalBytes) {
                     syncPointNumber++;
+                    if (syncWindow.isFull()) {
+                        out.flush();
+                        while (syncWindow.isFull()) {
+                            readAckSyn(ctx, ackReader, syncWindow);
+                        }
+                    }
                     log.info("[{}] Sending SYN point {} at {} bytes (before next entity would exceed {} limit)",
                             ctx.getSessionId(), syncPointNumber, totalBytes, syncIntervalBytes);
 
+                    // writeFpdu flushes pending entities together with the SYN
                     FpduIO.writeFpdu(out, FpduResponseBuilder.buildSyn(ctx, syncPointNumber));
-
-                    Fpdu ackSyn = readAndParseAckSyn(ctx, in, syncPointNumber);
-                    if (ackSyn == null) {
-                        throw new IOException("Timeout waiting for ACK_SYN");
+                    syncWindow.sent(syncPointNumber, startPosition + totalBytes);
+                    while (syncWindow.hasOutstanding() && (ackReader.hasPending() || in.available() > 0)) {
+                        readAckSyn(ctx, ackReader, syncWindow);
                     }
 
                     if (transfer != null) {
-                        transfer.setCurrentSyncPoint(syncPointNumber);
                         transfer.setBytesSinceLastSync(0);
                     }
                     bytesSinceLastSync = 0;
-                    log.info("[{}] SYN point {} acknowledged", ctx.getSessionId(), syncPointNumber);
-                }
-
-                // Build one entity with multiple articles
-                ByteArrayOutputStream entityData = new ByteArrayOutputStream();
-                int articlesInEntity = 0;
-
-                for (int i = 0; i < articlesPerEntity && hasMoreData; i++) {
-                    int bytesRead = fileIn.read(articleBuffer);
-                    if (bytesRead == -1) {
-                        hasMoreData = false;
-                        break;
-                    }
-
-                    byte[] article = (bytesRead == articleBuffer.length)
-                            ? articleBuffer
-                            : Arrays.copyOf(articleBuffer, bytesRead);
-
-                    // Determine article type within entity
-                    FpduType articleType;
-                    boolean isFirstInEntity = (articlesInEntity == 0);
-                    boolean isLastInEntity = (i == articlesPerEntity - 1) || (totalBytes + bytesRead >= fileSize);
-
-                    // Peek to see if more data
-                    if (!isLastInEntity) {
-                        fileIn.mark(1);
-                        int peek = fileIn.read();
-                        if (peek == -1) {
-                            isLastInEntity = true;
-                            hasMoreData = false;
-                        } else {
-                            fileIn.reset();
-                        }
-                    }
-
-                    if (isFirstInEntity && isLastInEntity) {
-                        articleType = FpduType.DTF;
-                    } else if (isFirstInEntity) {
-                        articleType = FpduType.DTFDA;
-                    } else if (isLastInEntity) {
-                        articleType = FpduType.DTFFA;
-                    } else {
-                        articleType = FpduType.DTFMA;
-                    }
-
-                    // Write article with 2-byte length prefix
-                    entityData.write((bytesRead >> 8) & 0xFF);
-                    entityData.write(bytesRead & 0xFF);
-                    entityData.write(article);
-
-                    totalBytes += bytesRead;
-                    bytesSinceLastSync += bytesRead;
-                    articlesInEntity++;
-
-                    log.debug("[{}] Article {}: {} {} bytes", ctx.getSessionId(), articlesInEntity, articleType,
-                            bytesRead);
-
-                    if (isLastInEntity)
-                        break;
                 }
 
-                // Send the entity if we have articles - always DTF for multi-articles
-                if (articlesInEntity > 0) {
-                    byte[] data = entityData.toByteArray();
-                    // Multi-article DTF: idSrc = number of articles
-                    FpduIO.writeFpduWithData(out, FpduType.DTF, ctx.getClientConnectionId(), articlesInEntity, data);
-                    entityCount++;
-                    log.debug("[{}] Entity {}: {} articles, {} bytes",
-                            ctx.getSessionId(), entityCount, articlesInEntity, data.length);
-                }
+                entity.writeTo(out);
+                totalBytes += entity.getDataLength();
+                bytesSinceLastSync += entity.getDataLength();
+                entityCount++;
+                recordCount += entity.getArticleCount();
+                log.debug("[{}] Entity {}: {} articles, {} bytes",
+                        ctx.getSessionId(), entityCount, entity.getArticleCount(), entity.getDataLength());
+            }
+            out.flush();
+            while (syncWindow.hasOutstanding()) {
+                readAckSyn(ctx, ackReader, syncWindow);
             }
+        } finally {
+            ackReader.release();
         }
 
         log.info("[{}] READ: sent {} bytes in {} entities, {} sync points",
                 ctx.getSessionId(), totalBytes, entityCount, syncPointNumber);
 
         if (transfer != null) {
-            transfer.setBytesTransferred(totalBytes);
-            transfer.setRecordsTransferred(entityCount);
+            transfer.setBytesTransferred(startPosition + totalBytes);
+            transfer.setRecordsTransferred(recordCount);
         }
 
         return totalBytes;
     }
 
     /**
-     * Read and parse ACK_SYN response from client
+     * Read the next ACK_SYN from the client and acknowledge it in the window
      */
-    private Fpdu readAndParseAckSyn(SessionContext ctx, DataInputStream in, int expectedSyncPoint) throws IOException {
-        // Read FPDU length
-        int length = in.readUnsignedShort();
-        if (length <= 0 || length > 65535) {
-            log.warn("[{}] Invalid FPDU length while waiting for ACK_SYN: {}", ctx.getSessionId(), length);
-            return null;
+    private void readAckSyn(SessionContext ctx, FpduReader ackReader, SyncPointWindow syncWindow)
+            throws IOException {
+        int expectedSyncPoint = syncWindow.getOldestOutstanding();
+        Fpdu fpdu = ackReader.read();
+        if (fpdu == null) {
+            throw new IOException("Invalid frame while waiting for ACK_SYN " + expectedSyncPoint);
+        }
+        if (fpdu.getFpduType() == FpduType.ABORT) {
+            throw new PeerAbortException(fpdu);
         }
-
-        byte[] data = new byte[length];
-        in.readFully(data);
-
-        FpduParser parser = new FpduParser(data, ctx.isEbcdicEncoding());
-        Fpdu fpdu = parser.parse();
-
         if (fpdu.getFpduType() != FpduType.ACK_SYN) {
-            log.warn("[{}] Expected ACK_SYN but got {}", ctx.getSessionId(), fpdu.getFpduType());
-            return null;
+            throw new IOException("Expected ACK_SYN for sync point " + expectedSyncPoint + " but got "
+                    + fpdu.getFpduType());
         }
 
         // Verify sync point number
         ParameterValue pi20 = fpdu.getParameter(ParameterIdentifier.PI_20_NUM_SYNC);
-        if (pi20 != null) {
-            int receivedSyncPoint = parseNumeric(pi20.getValue());
-            if (receivedSyncPoint != expectedSyncPoint) {
-                log.warn("[{}] ACK_SYN sync point mismatch: expected {}, got {}",
-                        ctx.getSessionId(), expectedSyncPoint, receivedSyncPoint);
-            }
+        int receivedSyncPoint = pi20 != null ? parseNumeric(pi20.getValue()) : expectedSyncPoint;
+        if (!syncWindow.acknowledge(receivedSyncPoint)) {
+            log.warn("[{}] ACK_SYN sync point mismatch: expected {}, got {}",
+                    ctx.getSessionId(), expectedSyncPoint, receivedSyncPoint);
         }
+    }
+
+    /**
+     * The client aborted while the file was being sent: same outcome as an
+     * ABORT received between FPDUs, no response
+     */
+    private Fpdu handlePeerAbort(SessionContext ctx, Fpdu abort) {
+        log.warn("[{}] ABORT received while sending data", ctx.getSessionId());
+        if (ctx.getTransferRecordId() != null) {
+            ParameterValue pi2 = abort.getParameter(ParameterIdentifier.PI_02_DIAG);
+            String errorCode = pi2 != null ? HexFormat.of().withUpperCase().formatHex(pi2.getValue()) : "ABORT";
+            transferTracker.trackTransferFailed(ctx, errorCode, "Transfer aborted by peer");
+        }
+        ctx.setAborted(true);
+        ctx.transitionTo(ServerState.CN01_REPOS);
+        return null;
+    }
+
+    /**
+     * ABORT read from the client in the middle of the data phase
+     */
+    private static final class PeerAbortException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Fpdu abort;
 
-        return fpdu;
+        PeerAbortException(Fpdu abort) {
+            super("Transfer aborted by peer");
+            this.abort = abort;
+        }
     }
 
     /**
@@ -329,6 +353,7 @@ public class DataTransferHandler {
             // With streaming, data is already on disk via appendData() calls
             // Just ensure the output stream is closed and flushed
             transfer.closeOutputStream();
+            transfer.discardSyncPoints();
 
             log.info("[{}] TRANS.END: streaming transfer complete, {} bytes written to {}",
                     ctx.getSessionId(), byteCount, transfer.getLocalPath());
@@ -351,25 +376,48 @@ public class DataTransferHandler {
      * Validates data without sync point (D2-222)
      */
     private Fpdu handleDtf(SessionContext ctx, Fpdu fpdu) {
+        byte[] data = fpdu.getData();
+        return handleDtfData(ctx, fpdu.getFpduType(), fpdu.getIdSrc(),
+                data != null ? ByteBuffer.wrap(data) : EMPTY_DATA);
+    }
+
+    /**
+     * Handle a DTF received as a flyweight view: the payload is written to the
+     * file straight from the receive buffer, without materializing an Fpdu.
+     */
+    public Fpdu handleDtf(SessionContext ctx, FpduView dtf) {
+        return handleDtfData(ctx, dtf.getFpduType(), dtf.getIdSrc(), dtf.data());
+    }
+
+    private Fpdu handleDtfData(SessionContext ctx, FpduType type, int articleCount, ByteBuffer data) {
         TransferContext transfer = ctx.getCurrentTransfer();
         if (transfer == null) {
             log.warn("[{}] DTF: no active transfer context", ctx.getSessionId());
             return FpduResponseBuilder.buildAbort(ctx, DiagnosticCode.D3_311);
         }
 
-        // Get data payload from FPDU
-        byte[] data = fpdu.getData();
-        int dataLength = data != null ? data.length : 0;
+        int dataLength = data.remaining();
+        if (transfer.getCompressionDecoder() != null) {
+            return handleCompressedDtf(ctx, transfer, type, articleCount, data);
+        }
 
-        // D2-220: Validate article length against announced record length
-        FpduValidator.ValidationResult validation = fpduValidator.validateDtf(fpdu, transfer, data);
+        // Only DTF (type 0x00) can have multi-article format with 2-byte length
+        // prefixes, announced by idSrc = number of articles (0 = one raw article);
+        // DTFDA/DTFMA/DTFFA are article segments written as-is
+        boolean isMultiArticle = type == FpduType.DTF && articleCount > 0;
+
+        // D2-220: Validate article length against announced record length (each
+        // article of a multi-article entity)
+        FpduValidator.ValidationResult validation = isMultiArticle
+                ? validateArticleLengths(transfer, data, articleCount)
+                : fpduValidator.validateDtfLength(transfer, dataLength);
         if (!validation.valid()) {
             log.warn("[{}] DTF validation failed: {}", ctx.getSessionId(), validation.message());
             return FpduResponseBuilder.buildAbort(ctx, validation.errorCode(), validation.message());
         }
 
         // Validate max entity size
-        validation = fpduValidator.validateMaxEntitySize(data, transfer);
+        validation = fpduValidator.validateEntityLength(transfer, dataLength);
         if (!validation.valid()) {
             log.warn("[{}] DTF max entity size validation failed: {}", ctx.getSessionId(), validation.message());
             return FpduResponseBuilder.buildAbort(ctx, validation.errorCode(), validation.message());
@@ -384,30 +432,25 @@ public class DataTransferHandler {
         }
 
         // Write data to output stream
-        // Only DTF (type 0x00) can have multi-article format with 2-byte length
-        // prefixes
-        // DTFDA/DTFMA/DTFFA are article segments - no prefixes, write data as-is
-        if (data != null && data.length > 0) {
+        int records = 1;
+        if (dataLength > 0) {
             try {
-                // Only check for multi-article if this is a DTF (not DTFDA/DTFMA/DTFFA)
-                boolean isDtfType = fpdu.getFpduType() == com.pesitwizard.fpdu.FpduType.DTF;
-                boolean isMultiArticle = isDtfType && looksLikeMultiArticle(data);
                 log.debug("[{}] {}: {} bytes, multiArticle={}",
-                        ctx.getSessionId(), fpdu.getFpduType(), data.length, isMultiArticle);
+                        ctx.getSessionId(), type, dataLength, isMultiArticle);
                 if (isMultiArticle) {
-                    // Extract articles from multi-article format
-                    java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(data);
+                    // Extract articles from multi-article format (framing checked by
+                    // validateArticleLengths), writing each one in place by narrowing
+                    // the buffer limit
+                    int end = data.limit();
                     int bytesWritten = 0;
-                    while (buffer.remaining() >= 2) {
-                        int articleLen = buffer.getShort() & 0xFFFF;
-                        if (articleLen == 0 || articleLen > buffer.remaining()) {
-                            break;
-                        }
-                        byte[] articleData = new byte[articleLen];
-                        buffer.get(articleData);
-                        transfer.appendData(articleData);
+                    for (int i = 0; i < articleCount; i++) {
+                        int articleLen = data.getShort() & 0xFFFF;
+                        data.limit(data.position() + articleLen);
+                        transfer.appendData(data);
+                        data.limit(end);
                         bytesWritten += articleLen;
                     }
+                    records = articleCount;
                     log.debug("[{}] DTF: received {} bytes, wrote {} bytes (multi-article), total: {} bytes",
                             ctx.getSessionId(), dataLength, bytesWritten, transfer.getBytesTransferred());
                 } else {
@@ -423,10 +466,85 @@ public class DataTransferHandler {
         } else {
             log.debug("[{}] DTF: received {} bytes (no data)", ctx.getSessionId(), dataLength);
         }
-        transfer.setRecordsTransferred(transfer.getRecordsTransferred() + 1);
+        transfer.setRecordsTransferred(transfer.getRecordsTransferred() + records);
         return null; // No response for DTF
     }
 
+    /**
+     * Validate the articleCount articles of a multi-article DTF: their
+     * length prefixes must frame the payload exactly (D3-311), and each
+     * article must fit the announced record length. The buffer is not
+     * consumed.
+     */
+    private FpduValidator.ValidationResult validateArticleLengths(TransferContext transfer, ByteBuffer data,
+            int articleCount) {
+        int position = data.position();
+        for (int i = 1; i <= articleCount; i++) {
+            if (data.limit() - position < 2) {
+                return FpduValidator.ValidationResult.error(DiagnosticCode.D3_311,
+                        "Missing article " + i + " of " + articleCount);
+            }
+            int articleLen = data.getShort(position) & 0xFFFF;
+            if (articleLen > data.limit() - position - 2) {
+                return FpduValidator.ValidationResult.error(DiagnosticCode.D3_311,
+                        "Article " + i + " of " + articleCount + " exceeds the entity");
+            }
+            FpduValidator.ValidationResult validation = fpduValidator.validateDtfLength(transfer, articleLen);
+            if (!validation.valid()) {
+                return validation;
+            }
+            position += 2 + articleLen;
+        }
+        if (position != data.limit()) {
+            return FpduValidator.ValidationResult.error(DiagnosticCode.D3_311,
+                    (data.limit() - position) + " bytes after the " + articleCount + " announced articles");
+        }
+        return FpduValidator.ValidationResult.ok();
+    }
+
+    /**
+     * Expand a compressed DTF (PI 21) article by article and write it. The
+     * record length check (D2-220) applies to the expanded articles.
+     */
+    private Fpdu handleCompressedDtf(SessionContext ctx, TransferContext transfer, FpduType type,
+            int articleCount, ByteBuffer data) {
+        int dataLength = data.remaining();
+        FpduValidator.ValidationResult validation = fpduValidator.validateEntityLength(transfer, dataLength);
+        if (!validation.valid()) {
+            log.warn("[{}] DTF max entity size validation failed: {}", ctx.getSessionId(), validation.message());
+            return FpduResponseBuilder.buildAbort(ctx, validation.errorCode(), validation.message());
+        }
+
+        int[] records = { 0 };
+        try {
+            // Only DTF carries length-prefixed articles (idSrc = count)
+            long expanded = transfer.getCompressionDecoder().decodeEntity(data,
+                    type == FpduType.DTF ? articleCount : 0, article -> {
+                        FpduValidator.ValidationResult result = fpduValidator.validateDtfLength(transfer,
+                                article.remaining());
+                        if (!result.valid()) {
+                            throw new DataTransferException(result.errorCode(), result.message());
+                        }
+                        transfer.appendData(article);
+                        records[0]++;
+                    });
+            transfer.setBytesSinceLastSync(transfer.getBytesSinceLastSync() + expanded);
+            log.debug("[{}] DTF: received {} compressed bytes, wrote {} bytes, total: {} bytes",
+                    ctx.getSessionId(), dataLength, expanded, transfer.getBytesTransferred());
+        } catch (DataTransferException e) {
+            log.warn("[{}] DTF validation failed: {}", ctx.getSessionId(), e.getMessage());
+            return FpduResponseBuilder.buildAbort(ctx, e.getDiagnosticCode(), e.getMessage());
+        } catch (FpduParseException e) {
+            log.error("[{}] DTF: invalid compressed data: {}", ctx.getSessionId(), e.getMessage());
+            return FpduResponseBuilder.buildAbort(ctx, DiagnosticCode.D3_311, e.getMessage());
+        } catch (IOException e) {
+            log.error("[{}] DTF: error writing data: {}", ctx.getSessionId(), e.getMessage());
+            return FpduResponseBuilder.buildAbort(ctx, DiagnosticCode.D2_213, "Write error: " + e.getMessage());
+        }
+        transfer.setRecordsTransferred(transfer.getRecordsTransferred() + records[0]);
+        return null;
+    }
+
     /**
      * Handle DTF.END FPDU - no response needed
      */
@@ -448,6 +566,13 @@ public class DataTransferHandler {
 
         TransferContext transfer = ctx.getCurrentTransfer();
         if (transfer != null) {
+            // The data before an acknowledged sync point must survive a restart
+            try {
+                transfer.syncPoint(syncPoint);
+            } catch (IOException e) {
+                log.error("[{}] SYN: cannot secure sync point {}: {}", ctx.getSessionId(), syncPoint, e.getMessage());
+                return FpduResponseBuilder.buildAbort(ctx, DiagnosticCode.D2_213, "Write error: " + e.getMessage());
+            }
             transfer.setCurrentSyncPoint(syncPoint);
             // Reset bytes since last sync for D2-222 tracking
             transfer.setBytesSinceLastSync(0);
@@ -530,20 +655,6 @@ public class DataTransferHandler {
         return value;
     }
 
-    /**
-     * Detect if data looks like multi-article format with 2-byte length prefixes.
-     * Check if first 2 bytes are a valid article length that fits in the data.
-     */
-    private boolean looksLikeMultiArticle(byte[] data) {
-        if (data == null || data.length < 4) {
-            return false;
-        }
-        int firstLen = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
-        // Valid if: length > 0, length <= remaining data, and length is reasonable (<
-        // 64KB)
-        return firstLen > 0 && firstLen <= data.length - 2 && firstLen < 65535;
-    }
-
     /**
      * Exception for data transfer errors with diagnostic code
      */
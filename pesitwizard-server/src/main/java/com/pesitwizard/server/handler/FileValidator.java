@@ -140,6 +140,7 @@ public class FileValidator {
                     .fileType(vf.getFileType())
                     .recordLength(vf.getRecordLength())
                     .recordFormat(vf.getRecordFormat())
+                    .syncDurability(vf.getSyncDurability())
                     .build();
         }
 
@@ -13,17 +13,20 @@ import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduBuilder;
 import com.pesitwizard.fpdu.FpduParser;
 import com.pesitwizard.fpdu.FpduType;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.fpdu.ParameterIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.server.cluster.ClusterProvider;
 import com.pesitwizard.server.config.PesitServerProperties;
 import com.pesitwizard.server.model.SessionContext;
+import com.pesitwizard.server.model.TransferContext;
 import com.pesitwizard.server.model.ValidationResult;
 import com.pesitwizard.server.service.AuditService;
 import com.pesitwizard.server.service.FpduResponseBuilder;
 import com.pesitwizard.server.service.FpduValidator;
 import com.pesitwizard.server.service.TransferTracker;
 import com.pesitwizard.server.state.ServerState;
+import com.pesitwizard.session.SyncPointWindow;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -102,6 +105,26 @@ public class PesitSessionHandler {
         return null;
     }
 
+    /**
+     * Process a DTF received as a flyweight view while receiving data (TDE02B).
+     * The payload is consumed from the receive buffer; other states fall back
+     * to the regular state machine.
+     */
+    public byte[] processIncomingDtf(SessionContext ctx, FpduView dtf, DataInputStream in, DataOutputStream out)
+            throws IOException {
+        if (ctx.getState() != ServerState.TDE02B_RECEIVING_DATA) {
+            return processIncomingFpdu(ctx, dtf.toFpdu(), in, out);
+        }
+        ctx.touch();
+
+        Fpdu response = dataTransferHandler.handleDtf(ctx, dtf);
+        if (response != null) {
+            log.info("[{}] Sending {} -> state {}", ctx.getSessionId(), response.getFpduType(), ctx.getState());
+            return FpduBuilder.buildFpdu(response);
+        }
+        return null;
+    }
+
     /**
      * Main state machine processing
      */
@@ -200,12 +223,16 @@ public class PesitSessionHandler {
                 ? ctx.getClientSyncIntervalKb()
                 : 0;
 
+        // Grant at most the configured window; the client may use less
+        ctx.setSyncAckWindow(Math.max(1, Math.min(ctx.getSyncAckWindow(), properties.getSyncAckWindow())));
+
         return FpduResponseBuilder.buildAconnect(ctx,
                 properties.getProtocolVersion(),
                 properties.isSyncPointsEnabled() && ctx.isSyncPointsEnabled(),
                 properties.isResyncEnabled() && ctx.isResyncEnabled(),
                 properties.getMaxEntitySize(),
-                negotiatedSyncInterval);
+                negotiatedSyncInterval,
+                ctx.getSyncAckWindow());
     }
 
     /**
@@ -250,7 +277,9 @@ public class PesitSessionHandler {
             int intervalKb = ((syncBytes[0] & 0xFF) << 8) | (syncBytes[1] & 0xFF);
             ctx.setSyncPointsEnabled(true);
             ctx.setClientSyncIntervalKb(intervalKb);
-            log.info("[{}] Client declared sync interval: {} KB", ctx.getSessionId(), intervalKb);
+            ctx.setSyncAckWindow(SyncPointWindow.negotiatedSize(syncBytes));
+            log.info("[{}] Client declared sync interval: {} KB, window {}", ctx.getSessionId(), intervalKb,
+                    ctx.getSyncAckWindow());
         } else {
             ctx.setSyncPointsEnabled(fpdu.hasParameter(ParameterIdentifier.PI_07_SYNC_POINTS));
             ctx.setClientSyncIntervalKb(0); // No sync interval declared
@@ -326,6 +355,10 @@ public class PesitSessionHandler {
     private Fpdu handleAbort(SessionContext ctx, Fpdu fpdu) {
         log.warn("[{}] ABORT received", ctx.getSessionId());
 
+        if (ctx.getCurrentTransfer() != null) {
+            ctx.getCurrentTransfer().closeOutputStream();
+        }
+
         // Track transfer failure if there was an active transfer
         if (ctx.getTransferRecordId() != null) {
             ParameterValue pi2 = fpdu.getParameter(ParameterIdentifier.PI_02_DIAG);
@@ -338,6 +371,26 @@ public class PesitSessionHandler {
         return null; // No response for ABORT
     }
 
+    /**
+     * Connection gone (closed, reset or timed out): release the file being
+     * received and leave a transfer cut in its data phase restartable
+     */
+    public void sessionClosed(SessionContext ctx) {
+        TransferContext transfer = ctx.getCurrentTransfer();
+        if (transfer == null) {
+            return;
+        }
+        transfer.closeOutputStream();
+        ServerState state = ctx.getState();
+        if (state == ServerState.TDE02B_RECEIVING_DATA || state == ServerState.TDE07_WRITE_END
+                || state == ServerState.TDL02B_SENDING_DATA) {
+            log.warn("[{}] Connection lost during transfer, at sync point {}", ctx.getSessionId(),
+                    transfer.getCurrentSyncPoint());
+            transferTracker.trackTransferInterrupted(ctx,
+                    "Connection lost at sync point " + transfer.getCurrentSyncPoint());
+        }
+    }
+
     /**
      * Convert bytes to hex string
      */
@@ -1,5 +1,6 @@
 package com.pesitwizard.server.handler;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -17,6 +18,7 @@ import com.pesitwizard.fpdu.EbcdicConverter;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduIO;
 import com.pesitwizard.fpdu.FpduReader;
+import com.pesitwizard.fpdu.FpduView;
 import com.pesitwizard.fpdu.PesitSessionRecorder;
 import com.pesitwizard.fpdu.PesitSessionRecorder.Direction;
 import com.pesitwizard.server.config.PesitServerProperties;
@@ -31,12 +33,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TcpConnectionHandler implements Runnable {
 
+    /** Room for one full frame, so a response is never split across writes */
+    private static final int WRITE_BUFFER_SIZE = 65537;
+
     private final Socket socket;
     private final PesitSessionHandler sessionHandler;
     private final PesitServerProperties properties;
     private final String serverId;
     private SessionContext sessionContext;
     private PesitSessionRecorder recorder;
+    private FpduReader fpduReader;
 
     public TcpConnectionHandler(Socket socket, PesitSessionHandler sessionHandler,
             PesitServerProperties properties, String serverId) {
@@ -78,10 +84,14 @@ public class TcpConnectionHandler implements Runnable {
             }
 
             DataInputStream in = new DataInputStream(socket.getInputStream());
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            // Responses are buffered and flushed once the received frame is
+            // fully processed, so FPDUs concatenated by the client are
+            // answered in one write
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER_SIZE));
 
             // Use FpduReader to handle concatenated FPDUs (PeSIT section 4.5)
-            FpduReader fpduReader = new FpduReader(in);
+            fpduReader = new FpduReader(in);
 
             // Handle pre-connection handshake first (IBM CX compatibility)
             // This is a 24-byte PURE EBCDIC message that comes BEFORE the CONNECT FPDU
@@ -113,23 +123,31 @@ public class TcpConnectionHandler implements Runnable {
 
                 try {
                     // Read next FPDU using FpduReader (handles concatenated FPDUs)
-                    Fpdu fpdu = fpduReader.read();
-                    if (fpdu == null) {
+                    FpduView view = fpduReader.readView();
+                    if (view == null) {
                         log.debug("[{}] No FPDU received", sessionContext.getSessionId());
                         break;
                     }
 
-                    log.debug("[{}] Received FPDU: type={} (encoding: {})",
-                            sessionContext.getSessionId(), fpdu.getFpduType(),
-                            sessionContext.isEbcdicEncoding() ? "EBCDIC" : "ASCII");
+                    byte[] response;
+                    if (view.isDtf() && recorder == null) {
+                        // DTF payloads go to disk straight from the receive buffer
+                        response = sessionHandler.processIncomingDtf(sessionContext, view, in, out);
+                    } else {
+                        Fpdu fpdu = view.toFpdu();
 
-                    // Record received FPDU if recording is enabled
-                    if (recorder != null) {
-                        recorder.record(Direction.RECEIVED, fpdu);
-                    }
+                        log.debug("[{}] Received FPDU: type={} (encoding: {})",
+                                sessionContext.getSessionId(), fpdu.getFpduType(),
+                                sessionContext.isEbcdicEncoding() ? "EBCDIC" : "ASCII");
+
+                        // Record received FPDU if recording is enabled
+                        if (recorder != null) {
+                            recorder.record(Direction.RECEIVED, fpdu);
+                        }
 
-                    // Process the FPDU directly (pass parsed Fpdu object to avoid data loss)
-                    byte[] response = sessionHandler.processIncomingFpdu(sessionContext, fpdu, in, out);
+                        // Process the FPDU directly (pass parsed Fpdu object to avoid data loss)
+                        response = sessionHandler.processIncomingFpdu(sessionContext, fpdu, in, out);
+                    }
 
                     // Send response if any (READ streams directly, so response may be null)
                     if (response != null) {
@@ -146,7 +164,7 @@ public class TcpConnectionHandler implements Runnable {
                                     hex.toString().trim());
                         }
 
-                        FpduIO.writeRawFpdu(out, response);
+                        FpduIO.writeRawFpdu(out, response, false);
                         log.debug("[{}] Sent {} bytes (client encoding: {})",
                                 sessionContext.getSessionId(), response.length,
                                 sessionContext.isEbcdicEncoding() ? "EBCDIC" : "ASCII");
@@ -157,6 +175,10 @@ public class TcpConnectionHandler implements Runnable {
                         }
                     }
 
+                    if (!fpduReader.hasPending()) {
+                        out.flush();
+                    }
+
                     // Check if session ended normally (RELCONF sent or ABORT)
                     if (sessionContext.getState() == ServerState.CN01_REPOS || sessionContext.isAborted()) {
                         log.info("[{}] Session ended normally", sessionContext.getSessionId());
@@ -172,6 +194,9 @@ public class TcpConnectionHandler implements Runnable {
                 }
             }
 
+        } catch (EOFException e) {
+            log.info("[{}] Client disconnected before sending any FPDU",
+                    sessionContext != null ? sessionContext.getSessionId() : "unknown");
         } catch (SocketException e) {
             log.info("[{}] Connection reset: {}",
                     sessionContext != null ? sessionContext.getSessionId() : "unknown",
@@ -185,6 +210,12 @@ public class TcpConnectionHandler implements Runnable {
                     sessionContext != null ? sessionContext.getSessionId() : "unknown",
                     e.getMessage(), e);
         } finally {
+            if (fpduReader != null) {
+                fpduReader.release();
+            }
+            if (sessionContext != null) {
+                sessionHandler.sessionClosed(sessionContext);
+            }
             saveRecordingIfEnabled();
             closeConnection();
         }
@@ -8,13 +8,17 @@ import java.nio.file.Paths;
 
 import org.springframework.stereotype.Component;
 
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.DiagnosticCode;
+import com.pesitwizard.fpdu.EbcdicCodePage;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.ParameterGroupIdentifier;
 import com.pesitwizard.fpdu.ParameterIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
 import com.pesitwizard.server.config.LogicalFileConfig;
 import com.pesitwizard.server.config.PesitServerProperties;
+import com.pesitwizard.server.config.SyncDurability;
 import com.pesitwizard.server.entity.TransferRecord.TransferDirection;
 import com.pesitwizard.server.model.SessionContext;
 import com.pesitwizard.server.model.TransferContext;
@@ -36,6 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class TransferOperationHandler {
 
+    private static final int DATA_CODE_EBCDIC = 1; // PI 16
+
     private final PesitServerProperties properties;
     private final FileValidator fileValidator;
     private final TransferTracker transferTracker;
@@ -64,12 +70,23 @@ public class TransferOperationHandler {
             return FpduResponseBuilder.buildAckCreate(ctx, properties.getMaxEntitySize(), fileValidation.getDiagCode());
         }
 
+        // A restart continues the file of the interrupted reception
+        Path localPath = transfer.isRestart() ? transferTracker.findRestartPath(ctx, transfer.getFilename()) : null;
+        if (transfer.isRestart() && localPath == null) {
+            log.info("[{}] CREATE: nothing to restart for '{}', receiving from the start",
+                    ctx.getSessionId(), transfer.getFilename());
+            transfer.setRestart(false);
+        }
+
         // Prepare local file path
-        Path localPath = prepareReceivePath(ctx, transfer);
+        if (localPath == null) {
+            localPath = prepareReceivePath(ctx, transfer);
+        }
         if (localPath == null) {
             return FpduResponseBuilder.buildAckCreate(ctx, properties.getMaxEntitySize(), DiagnosticCode.D2_211);
         }
         transfer.setLocalPath(localPath);
+        applySyncDurability(ctx, transfer);
 
         log.info("[{}] CREATE: file='{}', transferId={}, priority={}, localPath={}",
                 ctx.getSessionId(), transfer.getFilename(), transfer.getTransferId(),
@@ -168,15 +185,31 @@ public class TransferOperationHandler {
      * Handle OPEN (ORF) FPDU
      */
     public Fpdu handleOpen(SessionContext ctx, Fpdu fpdu) throws IOException {
-        // Extract PI 21 (Compression)
+        TransferContext transfer = ctx.getCurrentTransfer();
+
+        // Negotiate PI 21 (Compression): accept what both sides support
         ParameterValue pi21 = fpdu.getParameter(ParameterIdentifier.PI_21_COMPRESSION);
-        if (pi21 != null && pi21.getValue() != null && pi21.getValue().length > 0
-                && ctx.getCurrentTransfer() != null) {
-            ctx.getCurrentTransfer().setCompression(pi21.getValue()[0] & 0xFF);
+        CompressionMode requested = CompressionMode.fromPi21(pi21 != null ? pi21.getValue() : null);
+        if (requested.isEnabled() && transfer != null) {
+            CompressionMode supported = properties.getCompression() != null
+                    ? properties.getCompression()
+                    : CompressionMode.NONE;
+            CompressionMode accepted = requested.intersect(supported);
+            transfer.setCompression(accepted.getCode());
+            if (accepted.isEnabled() && transfer.isWriteMode()) {
+                transfer.setCompressionDecoder(new CompressionDecoder(transfer.getRecordLength()));
+            }
+            log.info("[{}] OPEN: compression requested {}, accepted {}", ctx.getSessionId(), requested, accepted);
+        }
+
+        // PI 16 = EBCDIC: transcode with the partner's code page, if it has one
+        EbcdicCodePage codePage = ctx.getPartnerConfig() != null ? ctx.getPartnerConfig().getCodePage() : null;
+        if (transfer != null && transfer.getDataCode() == DATA_CODE_EBCDIC && codePage != null) {
+            transfer.setDataTranscoder(transfer.isWriteMode() ? codePage.toAscii() : codePage.toEbcdic());
+            log.info("[{}] OPEN: EBCDIC data transcoded with {}", ctx.getSessionId(), codePage);
         }
 
         // Open output stream for streaming writes (write mode only)
-        TransferContext transfer = ctx.getCurrentTransfer();
         if (transfer != null && transfer.isWriteMode() && transfer.getLocalPath() != null) {
             transfer.openOutputStream();
             log.info("[{}] OPEN: streaming output opened to {}", ctx.getSessionId(), transfer.getLocalPath());
@@ -271,6 +304,12 @@ public class TransferOperationHandler {
             transfer.setMaxEntitySize(parseNumeric(pi25.getValue()));
         }
 
+        // PI 16 (Data Code)
+        ParameterValue pi16 = fpdu.getParameter(ParameterIdentifier.PI_16_CODE_DONNEES);
+        if (pi16 != null && pi16.getValue() != null && pi16.getValue().length > 0) {
+            transfer.setDataCode(pi16.getValue()[0] & 0xFF);
+        }
+
         // PI 15 (Transfer Restart)
         ParameterValue pi15 = fpdu.getParameter(ParameterIdentifier.PI_15_TRANSFERT_RELANCE);
         if (pi15 != null && pi15.getValue() != null && pi15.getValue().length > 0) {
@@ -340,6 +379,19 @@ public class TransferOperationHandler {
         return receiveDir.resolve(localFilename);
     }
 
+    /**
+     * Durability of the sync points of a reception: the logical file's, else
+     * the server's
+     */
+    private void applySyncDurability(SessionContext ctx, TransferContext transfer) {
+        LogicalFileConfig fileConfig = ctx.getLogicalFileConfig();
+        SyncDurability durability = fileConfig != null && fileConfig.getSyncDurability() != null
+                ? fileConfig.getSyncDurability()
+                : properties.getSyncDurability();
+        transfer.setSyncDurability(durability != null ? durability : SyncDurability.FSYNC);
+        transfer.setSyncGroupCommitMs(properties.getSyncGroupCommitMs());
+    }
+
     /**
      * Prepare send path for outgoing file
      */
@@ -51,6 +51,9 @@ public class SessionContext {
      */
     private int clientSyncIntervalKb;
 
+    /** Sync point window negotiated (PI 7, third octet): SYNs that may await ACK_SYN */
+    private int syncAckWindow = 1;
+
     /** Resynchronization option negotiated (PI 23) */
     private boolean resyncEnabled;
 
@@ -0,0 +1,116 @@
+package com.pesitwizard.server.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sync point number to byte offset index of a received file, kept next to it
+ * (file name + ".syn") so that a restarted WRITE can reopen the file at the
+ * offset of its last sync point.
+ *
+ * Sync point n is the fixed-size record n-1 of the index (sync number, then
+ * offset), so an offset is found with one positional read. A record only
+ * counts if it holds its own number, which ignores a record torn by a crash
+ * and the gaps left by skipped numbers.
+ */
+public class SyncPointLog implements Closeable {
+
+    public static final String SUFFIX = ".syn";
+
+    private static final int RECORD_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private SyncPointLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Open (or create) the index of a received file
+     */
+    public static SyncPointLog open(Path dataFile) throws IOException {
+        return new SyncPointLog(FileChannel.open(pathOf(dataFile), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Index file of a received file
+     */
+    public static Path pathOf(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Record the byte offset of a sync point (not forced, see {@link #force()})
+     */
+    public void record(int syncPoint, long offset) throws IOException {
+        if (syncPoint <= 0) {
+            return;
+        }
+        record.clear();
+        record.putInt(syncPoint).putLong(offset).flip();
+        long position = (long) (syncPoint - 1) * RECORD_SIZE;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+    }
+
+    /**
+     * Byte offset of a sync point, -1 if it was not recorded
+     */
+    public long offsetOf(int syncPoint) throws IOException {
+        if (syncPoint <= 0) {
+            return syncPoint == 0 ? 0 : -1;
+        }
+        long position = (long) (syncPoint - 1) * RECORD_SIZE;
+        if (position + RECORD_SIZE > channel.size()) {
+            return -1;
+        }
+        record.clear();
+        while (record.hasRemaining()) {
+            if (channel.read(record, position + record.position()) < 0) {
+                return -1;
+            }
+        }
+        record.flip();
+        return record.getInt() == syncPoint ? record.getLong() : -1;
+    }
+
+    /**
+     * Highest recorded sync point whose offset is within the first dataSize
+     * bytes of the file, 0 if there is none
+     */
+    public int lastSyncPoint(long dataSize) throws IOException {
+        for (int syncPoint = (int) (channel.size() / RECORD_SIZE); syncPoint > 0; syncPoint--) {
+            long offset = offsetOf(syncPoint);
+            if (offset >= 0 && offset <= dataSize) {
+                return syncPoint;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forget the sync points after the given one (0 = all)
+     */
+    public void truncate(int syncPoint) throws IOException {
+        channel.truncate((long) Math.max(0, syncPoint) * RECORD_SIZE);
+    }
+
+    /**
+     * Force the recorded sync points to disk
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
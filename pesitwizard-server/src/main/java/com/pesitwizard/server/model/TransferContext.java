@@ -1,20 +1,34 @@
 package com.pesitwizard.server.model;
 
-import java.io.BufferedOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
 
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.EbcdicTranscoder;
+import com.pesitwizard.server.config.SyncDurability;
+
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Context for a file transfer operation.
  * Supports streaming writes directly to disk to avoid memory issues with large
- * files.
+ * files. Received data goes through a 64KB buffer to a FileChannel; at each
+ * sync point it is made as durable as the sync durability asks and the sync
+ * point offset is recorded in a {@link SyncPointLog}, from which a restarted
+ * WRITE resumes.
  */
 @Data
 @Slf4j
@@ -50,9 +64,29 @@ public class TransferContext {
     /** Maximum entity size (PI 25) */
     private int maxEntitySize;
 
-    /** Compression mode (PI 21) */
+    /** Negotiated compression mode (PI 21, CompressionMode code) */
     private int compression;
 
+    /** Decoder for compressed DTF payloads received in write mode */
+    private CompressionDecoder compressionDecoder;
+
+    /** Data code conversion (PI 16 = EBCDIC with a partner code page), null for none */
+    private EbcdicTranscoder dataTranscoder;
+
+    /** Converted bytes on their way to disk, allocated with the first transcoded DTF */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private byte[] transcodeBuffer;
+
+    /** Running digest of the bytes written to disk, null when not hashing */
+    private MessageDigest digest;
+
+    /**
+     * Given the digest state and offset of each sync point recorded in the
+     * index, i.e. of each point a restart can resume from
+     */
+    private ObjLongConsumer<MessageDigest> digestCheckpoint;
+
     /** Is this a write (receive) or read (send) operation */
     private boolean writeMode;
 
@@ -62,6 +96,9 @@ public class TransferContext {
     /** Restart point (PI 18) */
     private int restartPoint;
 
+    /** Transfer record of the interrupted reception a restart continues */
+    private String resumedTransferId;
+
     /** Current sync point number */
     private int currentSyncPoint;
 
@@ -74,8 +111,43 @@ public class TransferContext {
     /** Total records transferred */
     private int recordsTransferred;
 
-    /** Output stream for streaming writes directly to disk */
-    private OutputStream fileOutputStream;
+    /** What an acknowledged sync point guarantees for the received data */
+    private SyncDurability syncDurability = SyncDurability.FSYNC;
+
+    /** Minimum time between two forces with SyncDurability.GROUP (ms) */
+    private long syncGroupCommitMs;
+
+    /** Channel for streaming writes directly to disk */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private FileChannel fileChannel;
+
+    /** Received bytes not yet written to the channel */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ByteBuffer writeBuffer;
+
+    /** Sync point offsets of the received file, null with SyncDurability.NONE */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SyncPointLog syncPointLog;
+
+    /** GROUP: sync point acknowledged since the last force, not yet recorded */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int uncommittedSyncPoint;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long uncommittedOffset;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MessageDigest uncommittedDigest;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long lastForceNanos;
 
     /** Transfer start time */
     private Instant startTime;
@@ -105,14 +177,22 @@ public class TransferContext {
         this.fileOrganization = 0;
         this.maxEntitySize = 0;
         this.compression = 0;
+        this.compressionDecoder = null;
+        this.dataTranscoder = null;
+        this.digest = null;
+        this.digestCheckpoint = null;
         this.writeMode = false;
         this.restart = false;
         this.restartPoint = 0;
+        this.resumedTransferId = null;
         this.currentSyncPoint = 0;
         this.bytesSinceLastSync = 0;
         this.bytesTransferred = 0;
         this.recordsTransferred = 0;
-        this.fileOutputStream = null;
+        this.syncDurability = SyncDurability.FSYNC;
+        this.syncGroupCommitMs = 0;
+        this.uncommittedSyncPoint = 0;
+        this.uncommittedDigest = null;
         this.startTime = null;
         this.endTime = null;
         this.clientId = null;
@@ -121,7 +201,8 @@ public class TransferContext {
 
     /**
      * Open the output stream for streaming writes.
-     * Must be called after localPath is set.
+     * Must be called after localPath is set. A new transfer truncates the
+     * file; a restart keeps it until {@link #resumeFromLastSyncPoint()}.
      */
     public void openOutputStream() throws IOException {
         if (localPath == null) {
@@ -129,36 +210,256 @@ public class TransferContext {
         }
         // Ensure parent directory exists
         Files.createDirectories(localPath.getParent());
-        // Use buffered output stream with 64KB buffer for better performance
-        this.fileOutputStream = new BufferedOutputStream(new FileOutputStream(localPath.toFile()), 64 * 1024);
-        log.debug("Opened streaming output to {}", localPath);
+        OpenOption[] options = restart
+                ? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE }
+                : new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING };
+        this.fileChannel = FileChannel.open(localPath, options);
+        this.writeBuffer = ByteBuffer.allocate(64 * 1024);
+        if (syncDurability != SyncDurability.NONE) {
+            this.syncPointLog = SyncPointLog.open(localPath);
+            if (!restart) {
+                syncPointLog.truncate(0);
+            }
+        }
+        this.lastForceNanos = System.nanoTime();
+        log.debug("Opened streaming output to {} (sync durability {})", localPath, syncDurability);
+    }
+
+    /**
+     * Restarted WRITE: position the file at the last recorded sync point that
+     * it still holds, dropping what was received after it, and return that
+     * sync point (0 = from the beginning). bytesTransferred becomes its offset.
+     */
+    public int resumeFromLastSyncPoint() throws IOException {
+        if (fileChannel == null) {
+            throw new IllegalStateException("Output stream not opened. Call openOutputStream() first.");
+        }
+        int syncPoint = 0;
+        long offset = 0;
+        if (syncPointLog != null) {
+            syncPoint = syncPointLog.lastSyncPoint(fileChannel.size());
+            offset = syncPointLog.offsetOf(syncPoint);
+            syncPointLog.truncate(syncPoint);
+        }
+        writeBuffer.clear();
+        fileChannel.truncate(offset);
+        fileChannel.position(offset);
+        this.restartPoint = syncPoint;
+        this.currentSyncPoint = syncPoint;
+        this.bytesTransferred = offset;
+        this.bytesSinceLastSync = 0;
+        return syncPoint;
+    }
+
+    /**
+     * An acknowledged sync point: make the data received so far as durable as
+     * the sync durability asks, then record the sync point offset. Must be
+     * called before ACK_SYN is sent.
+     */
+    public void syncPoint(int syncNum) throws IOException {
+        if (fileChannel == null || syncDurability == SyncDurability.NONE) {
+            return;
+        }
+        flushBuffer();
+        switch (syncDurability) {
+            case FLUSH -> {
+                syncPointLog.record(syncNum, bytesTransferred);
+                checkpointDigest(digest, bytesTransferred);
+            }
+            case FSYNC -> {
+                fileChannel.force(false);
+                syncPointLog.record(syncNum, bytesTransferred);
+                syncPointLog.force();
+                checkpointDigest(digest, bytesTransferred);
+            }
+            case GROUP -> {
+                uncommittedSyncPoint = syncNum;
+                uncommittedOffset = bytesTransferred;
+                uncommittedDigest = digestCheckpoint != null ? cloneDigest() : null;
+                if (System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(syncGroupCommitMs)) {
+                    commitSyncPoint();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * GROUP: one force covers every sync point acknowledged since the last
+     * one; only then does the latest of them become a restart point
+     */
+    private void commitSyncPoint() throws IOException {
+        fileChannel.force(false);
+        lastForceNanos = System.nanoTime();
+        if (uncommittedSyncPoint > 0) {
+            syncPointLog.record(uncommittedSyncPoint, uncommittedOffset);
+            syncPointLog.force();
+            checkpointDigest(uncommittedDigest, uncommittedOffset);
+            uncommittedSyncPoint = 0;
+            uncommittedDigest = null;
+        }
+    }
+
+    private void checkpointDigest(MessageDigest state, long offset) {
+        if (digestCheckpoint != null && state != null) {
+            digestCheckpoint.accept(state, offset);
+        }
+    }
+
+    private MessageDigest cloneDigest() {
+        if (digest == null) {
+            return null;
+        }
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            return null;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            fileChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        if (length > writeBuffer.remaining()) {
+            flushBuffer();
+        }
+        if (length >= writeBuffer.capacity()) {
+            ByteBuffer direct = ByteBuffer.wrap(data, offset, length);
+            while (direct.hasRemaining()) {
+                fileChannel.write(direct);
+            }
+        } else {
+            writeBuffer.put(data, offset, length);
+        }
     }
 
     /**
      * Append data directly to file (streaming - no memory buffering).
      */
     public void appendData(byte[] data) throws IOException {
-        if (fileOutputStream == null) {
+        if (fileChannel == null) {
             throw new IllegalStateException("Output stream not opened. Call openOutputStream() first.");
         }
-        fileOutputStream.write(data);
+        if (dataTranscoder != null) {
+            writeTranscoded(ByteBuffer.wrap(data));
+        } else {
+            write(data, 0, data.length);
+            if (digest != null) {
+                digest.update(data);
+            }
+        }
         bytesTransferred += data.length;
         // Note: recordsTransferred is managed by the caller (DataTransferHandler)
     }
 
     /**
-     * Close the output stream and flush data to disk.
+     * Append the remaining bytes of a buffer (e.g. a DTF payload still in the
+     * receive buffer) without copying it. The buffer position is advanced.
+     * The digest, if any, is updated with the bytes as written.
+     * With a data transcoder the bytes are converted through a reusable
+     * buffer, the source is left untouched (vertical decompression still
+     * refers to it).
+     */
+    public void appendData(ByteBuffer data) throws IOException {
+        if (fileChannel == null) {
+            throw new IllegalStateException("Output stream not opened. Call openOutputStream() first.");
+        }
+        int length = data.remaining();
+        if (dataTranscoder != null) {
+            writeTranscoded(data);
+        } else if (data.hasArray()) {
+            write(data.array(), data.arrayOffset() + data.position(), length);
+            if (digest != null) {
+                digest.update(data.array(), data.arrayOffset() + data.position(), length);
+            }
+            data.position(data.limit());
+        } else {
+            byte[] copy = new byte[length];
+            data.get(copy);
+            write(copy, 0, length);
+            if (digest != null) {
+                digest.update(copy);
+            }
+        }
+        bytesTransferred += length;
+    }
+
+    private void writeTranscoded(ByteBuffer data) throws IOException {
+        if (transcodeBuffer == null) {
+            transcodeBuffer = new byte[8192];
+        }
+        while (data.hasRemaining()) {
+            int chunk = Math.min(data.remaining(), transcodeBuffer.length);
+            ByteBuffer source = data.slice(data.position(), chunk);
+            dataTranscoder.transcode(source, ByteBuffer.wrap(transcodeBuffer, 0, chunk));
+            data.position(data.position() + chunk);
+            write(transcodeBuffer, 0, chunk);
+            if (digest != null) {
+                digest.update(transcodeBuffer, 0, chunk);
+            }
+        }
+    }
+
+    /**
+     * Close the output stream and flush data to disk. Unless sync points are
+     * not durable (NONE, FLUSH), the file is forced to disk first. The sync
+     * point index is kept for a restart.
      */
     public void closeOutputStream() {
-        if (fileOutputStream != null) {
+        if (fileChannel != null) {
             try {
-                fileOutputStream.flush();
-                fileOutputStream.close();
+                flushBuffer();
+                if (syncDurability == SyncDurability.GROUP) {
+                    commitSyncPoint();
+                } else if (syncDurability == SyncDurability.FSYNC) {
+                    fileChannel.force(false);
+                }
                 log.debug("Closed streaming output, total bytes: {}", bytesTransferred);
             } catch (IOException e) {
                 log.error("Error closing output stream: {}", e.getMessage());
+            } finally {
+                closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Drop the sync point index of a file received completely
+     */
+    public void discardSyncPoints() {
+        if (localPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(SyncPointLog.pathOf(localPath));
+        } catch (IOException e) {
+            log.warn("Error deleting sync point index of {}: {}", localPath, e.getMessage());
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            log.error("Error closing output stream: {}", e.getMessage());
+        }
+        fileChannel = null;
+        writeBuffer = null;
+        if (syncPointLog != null) {
+            try {
+                syncPointLog.close();
+            } catch (IOException e) {
+                log.warn("Error closing sync point index: {}", e.getMessage());
             }
-            fileOutputStream = null;
+            syncPointLog = null;
         }
     }
 
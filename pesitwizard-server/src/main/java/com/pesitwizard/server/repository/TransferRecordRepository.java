@@ -1,6 +1,7 @@
 package com.pesitwizard.server.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,11 @@ public interface TransferRecordRepository extends JpaRepository<TransferRecord,
      */
     Optional<TransferRecord> findByTransferId(String transferId);
 
+    /**
+     * Find by transfer IDs (batched progress updates)
+     */
+    List<TransferRecord> findByTransferIdIn(Collection<String> transferIds);
+
     /**
      * Find all transfers for a session
      */
@@ -89,6 +95,13 @@ public interface TransferRecordRepository extends JpaRepository<TransferRecord,
     Page<TransferRecord> findByPartnerIdAndStatusOrderByStartedAtDesc(
             String partnerId, TransferStatus status, Pageable pageable);
 
+    /**
+     * Resumable transfers of a partner's file in one of the given statuses,
+     * latest first
+     */
+    List<TransferRecord> findByPartnerIdAndFilenameAndDirectionAndResumableTrueAndStatusInOrderByStartedAtDesc(
+            String partnerId, String filename, TransferDirection direction, Collection<TransferStatus> statuses);
+
     /**
      * Find transfers by partner and direction
      */
@@ -0,0 +1,55 @@
+package com.pesitwizard.server.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.pesitwizard.server.entity.TransferRecord.TransferDirection;
+import com.pesitwizard.server.entity.TransferRecord.TransferStatus;
+import com.pesitwizard.server.entity.TransferSyncPoint;
+
+/**
+ * Repository for the sync point offsets of sent files
+ */
+@Repository
+public interface TransferSyncPointRepository extends JpaRepository<TransferSyncPoint, Long> {
+
+    /**
+     * Find one sync point of a transfer
+     */
+    Optional<TransferSyncPoint> findByTransferIdAndSyncPoint(String transferId, Integer syncPoint);
+
+    /**
+     * Find one sync point among a partner's transfers of a file in the given
+     * statuses, latest transfer first
+     */
+    @Query("SELECT s FROM TransferSyncPoint s, TransferRecord t WHERE t.transferId = s.transferId"
+            + " AND t.partnerId = :partnerId AND t.filename = :filename AND t.direction = :direction"
+            + " AND t.status IN :statuses AND s.syncPoint = :syncPoint ORDER BY t.startedAt DESC")
+    List<TransferSyncPoint> findByTransfer(@Param("partnerId") String partnerId, @Param("filename") String filename,
+            @Param("direction") TransferDirection direction, @Param("statuses") Collection<TransferStatus> statuses,
+            @Param("syncPoint") Integer syncPoint);
+
+    /**
+     * Delete the sync points of a transfer that will not be restarted
+     */
+    @Modifying
+    @Query("DELETE FROM TransferSyncPoint s WHERE s.transferId = :transferId")
+    int deleteByTransferId(@Param("transferId") String transferId);
+
+    /**
+     * Delete the sync points of transfers deleted or not updated since a date
+     * (failed or interrupted sends that were never restarted)
+     */
+    @Modifying
+    @Query("DELETE FROM TransferSyncPoint s WHERE NOT EXISTS (SELECT t.id FROM TransferRecord t"
+            + " WHERE t.transferId = s.transferId AND COALESCE(t.updatedAt, t.startedAt) >= :before)")
+    int deleteStale(@Param("before") Instant before);
+}
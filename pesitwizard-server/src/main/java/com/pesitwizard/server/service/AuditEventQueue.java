@@ -0,0 +1,381 @@
+package com.pesitwizard.server.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pesitwizard.server.config.ClusterSchemaInterceptor;
+import com.pesitwizard.server.entity.AuditEvent;
+import com.pesitwizard.server.entity.AuditEvent.AuditEventType;
+import com.pesitwizard.server.entity.AuditEvent.AuditOutcome;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded queue between AuditService and the audit_events table.
+ *
+ * Producers append to a lock-free queue; a single writer thread inserts the
+ * events in JDBC batches of up to pesit.audit.queue.batch-size, one
+ * transaction per batch, at least every flush-interval-ms. When the queue is
+ * full the overflow policy applies:
+ * <ul>
+ * <li>BLOCK: the producer waits for room (default, nothing is lost)</li>
+ * <li>SPILL: the event is appended to a local JSON-lines file, replayed into
+ * the database once the queue is empty</li>
+ * <li>DROP_ROUTINE: successful API request events are dropped, the others
+ * wait as with BLOCK</li>
+ * </ul>
+ * A batch that still fails after retries (database down) is spilled to the
+ * same file whatever the policy, and replayed with the next flush; events are
+ * only lost when the spill file cannot be written either. On shutdown the
+ * writer stops and everything still queued is written before the database
+ * goes away.
+ */
+@Slf4j
+@Component
+public class AuditEventQueue {
+
+    public enum OverflowPolicy {
+        BLOCK, SPILL, DROP_ROUTINE
+    }
+
+    // Column names as generated by the default Spring naming strategy for AuditEvent
+    private static final String INSERT_SQL = "INSERT INTO audit_events (timestamp, category, event_type, outcome,"
+            + " username, auth_method, client_ip, session_id, resource_type, resource_id, action, server_id,"
+            + " partner_id, transfer_id, filename, bytes_transferred, duration_ms, error_code, error_message,"
+            + " details, user_agent, request_uri, http_method, http_status)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterSchemaInterceptor schemaInterceptor;
+    private final ObjectMapper objectMapper;
+
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Object drainLock = new Object();
+    private final Object spillLock = new Object();
+    private volatile boolean spilled;
+    private volatile boolean stopped;
+    private volatile Thread writer;
+
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Counter dropped;
+    private final Counter spilledEvents;
+    private final Counter lost;
+
+    public AuditEventQueue(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ClusterSchemaInterceptor schemaInterceptor, ObjectMapper objectMapper, MeterRegistry registry,
+            @Value("${pesit.audit.queue.capacity:10000}") int capacity,
+            @Value("${pesit.audit.queue.batch-size:200}") int batchSize,
+            @Value("${pesit.audit.queue.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${pesit.audit.queue.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${pesit.audit.queue.spill-file:./audit-spill.jsonl}") String spillFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schemaInterceptor = schemaInterceptor;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = Path.of(spillFile);
+        this.spilled = Files.exists(this.spillFile);
+
+        Gauge.builder("pesit.audit.queue.depth", depth, AtomicInteger::get)
+                .description("Audit events waiting to be written")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("pesit.audit.batch.size")
+                .description("Audit events written per batch")
+                .register(registry);
+        lag = Timer.builder("pesit.audit.lag")
+                .description("Delay between an audit event and its write to the database")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        dropped = Counter.builder("pesit.audit.dropped")
+                .description("Routine audit events dropped on overflow")
+                .register(registry);
+        spilledEvents = Counter.builder("pesit.audit.spilled")
+                .description("Audit events spilled to the local file")
+                .register(registry);
+        lost = Counter.builder("pesit.audit.lost")
+                .description("Audit events that could not be written")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("Audit queue started: capacity={}, batchSize={}, overflowPolicy={}",
+                capacity, batchSize, overflowPolicy);
+    }
+
+    /**
+     * Stop the writer and write all queued events
+     */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        log.info("Audit queue stopped");
+    }
+
+    /**
+     * Queue an event for writing; applies the overflow policy when full
+     */
+    public void enqueue(AuditEvent event) {
+        if (stopped) {
+            persist(List.of(event)); // shutting down: write directly
+            return;
+        }
+        if (!reserve()) {
+            switch (overflowPolicy) {
+                case SPILL -> {
+                    spill(List.of(event));
+                    return;
+                }
+                case DROP_ROUTINE -> {
+                    if (isRoutine(event)) {
+                        dropped.increment();
+                        return;
+                    }
+                    waitForRoom();
+                }
+                default -> waitForRoom();
+            }
+        }
+        queue.offer(event);
+        if (stopped) {
+            flush(); // stop() may have drained before this offer
+            return;
+        }
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Write everything queued (and spilled) now, in the calling thread
+     */
+    public void flush() {
+        synchronized (drainLock) {
+            List<AuditEvent> batch;
+            while (!(batch = poll()).isEmpty()) {
+                persist(batch);
+            }
+            if (spilled) {
+                replaySpill();
+            }
+        }
+    }
+
+    /**
+     * Number of events waiting to be written
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    private void run() {
+        while (!stopped) {
+            if (depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Audit writer error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = depth.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!depth.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void waitForRoom() {
+        while (!reserve()) {
+            Thread thread = writer;
+            if (thread == null || !thread.isAlive()) {
+                flush(); // no writer (not started or stopped): make room ourselves
+            } else {
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private List<AuditEvent> poll() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(batchSize, Math.max(depth.get(), 1)));
+        AuditEvent event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private static boolean isRoutine(AuditEvent event) {
+        return event.getEventType() == AuditEventType.ACCESS_GRANTED && event.getOutcome() == AuditOutcome.SUCCESS;
+    }
+
+    /**
+     * Insert a batch, retrying transient failures; a batch that still fails
+     * is spilled to be replayed later
+     */
+    private void persist(List<AuditEvent> batch) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                insert(batch);
+                batchSizes.record(batch.size());
+                lag.record(Duration.between(batch.get(0).getTimestamp(), Instant.now()));
+                return;
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.error("Failed to write {} audit events, spilling to {}: {}", batch.size(), spillFile,
+                            e.getMessage());
+                    spill(batch);
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MS * attempt));
+            }
+        }
+    }
+
+    /**
+     * Insert events in one transaction, as JDBC batches of batchSize
+     */
+    private void insert(List<AuditEvent> events) {
+        String sql = schemaInterceptor.inspect(INSERT_SQL);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, events, batchSize,
+                AuditEventQueue::bind));
+    }
+
+    private static void bind(PreparedStatement ps, AuditEvent event) throws SQLException {
+        ps.setTimestamp(1, Timestamp.from(event.getTimestamp()));
+        ps.setString(2, event.getCategory().name());
+        ps.setString(3, event.getEventType().name());
+        ps.setString(4, event.getOutcome().name());
+        ps.setString(5, event.getUsername());
+        ps.setString(6, event.getAuthMethod());
+        ps.setString(7, event.getClientIp());
+        ps.setString(8, event.getSessionId());
+        ps.setString(9, event.getResourceType());
+        ps.setString(10, event.getResourceId());
+        ps.setString(11, event.getAction());
+        ps.setString(12, event.getServerId());
+        ps.setString(13, event.getPartnerId());
+        ps.setString(14, event.getTransferId());
+        ps.setString(15, event.getFilename());
+        ps.setObject(16, event.getBytesTransferred(), Types.BIGINT);
+        ps.setObject(17, event.getDurationMs(), Types.BIGINT);
+        ps.setString(18, event.getErrorCode());
+        ps.setString(19, event.getErrorMessage());
+        ps.setString(20, event.getDetails());
+        ps.setString(21, event.getUserAgent());
+        ps.setString(22, event.getRequestUri());
+        ps.setString(23, event.getHttpMethod());
+        ps.setObject(24, event.getHttpStatus(), Types.INTEGER);
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try {
+                StringBuilder lines = new StringBuilder();
+                for (AuditEvent event : events) {
+                    lines.append(objectMapper.writeValueAsString(event)).append('\n');
+                }
+                Files.writeString(spillFile, lines, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                spilled = true;
+                spilledEvents.increment(events.size());
+            } catch (IOException e) {
+                lost.increment(events.size());
+                log.error("Failed to spill {} audit events to {}: {}", events.size(), spillFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the spilled events to the database, then remove the file; the
+     * file is kept if the database is still unavailable
+     */
+    private void replaySpill() {
+        synchronized (spillLock) {
+            try {
+                if (!Files.exists(spillFile)) {
+                    spilled = false;
+                    return;
+                }
+                List<AuditEvent> events = new ArrayList<>();
+                for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        events.add(objectMapper.readValue(line, AuditEvent.class));
+                    }
+                }
+                insert(events);
+                Files.delete(spillFile);
+                spilled = false;
+                log.info("Replayed {} spilled audit events from {}", events.size(), spillFile);
+            } catch (Exception e) {
+                log.debug("Spilled audit events not replayed yet ({}): {}", spillFile, e.getMessage());
+            }
+        }
+    }
+}
@@ -8,7 +8,6 @@ import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Service for audit logging.
  * Provides structured audit trail for security and compliance.
+ * Events are persisted asynchronously in batches (see AuditEventQueue).
  */
 @Slf4j
 @Service
@@ -33,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 public class AuditService {
 
     private final AuditEventRepository auditRepository;
+    private final AuditEventQueue auditQueue;
     private final ObjectMapper objectMapper;
 
     @Value("${pesit.audit.retention-days:365}")
@@ -44,25 +45,22 @@ public class AuditService {
     // ========== Audit Event Creation ==========
 
     /**
-     * Log an audit event asynchronously
+     * Log an audit event; same as log, kept for existing callers
      */
-    @Async
-    @Transactional
     public void logAsync(AuditEvent.AuditEventBuilder builder) {
         log(builder);
     }
 
     /**
-     * Log an audit event synchronously
+     * Log an audit event. The event is written to the database in a batch by
+     * AuditEventQueue, so the returned event has no id yet.
      */
-    @Transactional
     public AuditEvent log(AuditEvent.AuditEventBuilder builder) {
         AuditEvent event = builder
                 .timestamp(Instant.now())
                 .build();
 
-        // Save to database
-        event = auditRepository.save(event);
+        auditQueue.enqueue(event);
 
         // Log to console in structured format
         if (logToConsole) {
@@ -0,0 +1,151 @@
+package com.pesitwizard.server.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.pesitwizard.server.entity.Partner;
+import com.pesitwizard.server.entity.VirtualFile;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-only snapshot of partners and virtual files used at connection setup.
+ *
+ * Partners are found by id, then by case-folded id. Virtual files are found
+ * by id, then among the wildcard ids of enabled files through a prefix trie
+ * keyed on the literal part of each pattern, so a lookup only tries the
+ * patterns that can match. Password digests are computed on first use and
+ * kept until the snapshot is replaced.
+ */
+@Slf4j
+final class ConfigIndex {
+
+    private static final String REGEX_META = "\\^$.|?*+()[]{}";
+
+    private final Map<String, Partner> partners = new HashMap<>();
+    private final Map<String, Partner> partnersByFoldedId = new HashMap<>();
+    private final Map<String, byte[]> passwordDigests = new ConcurrentHashMap<>();
+    private final Map<String, VirtualFile> files = new HashMap<>();
+    private final Node patterns = new Node();
+
+    ConfigIndex(List<Partner> allPartners, List<VirtualFile> allFiles) {
+        for (Partner partner : allPartners) {
+            partners.put(partner.getId(), partner);
+            partnersByFoldedId.putIfAbsent(fold(partner.getId()), partner);
+        }
+        int order = 0;
+        for (VirtualFile file : allFiles) {
+            files.put(file.getId(), file);
+            int literal = literalPrefixLength(file.getId());
+            if (file.isEnabled() && literal < file.getId().length()) {
+                addPattern(file, literal, order++);
+            }
+        }
+    }
+
+    /**
+     * Partner by exact id, else case-insensitive
+     */
+    Partner findPartner(String partnerId) {
+        Partner partner = partners.get(partnerId);
+        return partner != null ? partner : partnersByFoldedId.get(fold(partnerId));
+    }
+
+    /**
+     * Check a password against the stored one of a partner; decrypt resolves
+     * the stored value and is only called the first time
+     */
+    boolean checkPassword(Partner partner, String providedPassword, Function<String, String> decrypt) {
+        byte[] expected = passwordDigests.computeIfAbsent(partner.getId(),
+                id -> digest(decrypt.apply(partner.getPassword())));
+        return MessageDigest.isEqual(expected, digest(providedPassword));
+    }
+
+    /**
+     * Virtual file by exact id, else the first enabled one whose wildcard id
+     * matches the filename (declaration order)
+     */
+    VirtualFile findVirtualFile(String filename) {
+        VirtualFile file = files.get(filename);
+        if (file != null) {
+            return file;
+        }
+        FilePattern best = null;
+        Node node = patterns;
+        for (int i = 0; node != null; i++) {
+            for (FilePattern candidate : node.patterns) {
+                if ((best == null || candidate.order() < best.order())
+                        && candidate.pattern().matcher(filename).matches()) {
+                    best = candidate;
+                }
+            }
+            node = i < filename.length() ? node.children.get(filename.charAt(i)) : null;
+        }
+        return best != null ? best.file() : null;
+    }
+
+    private void addPattern(VirtualFile file, int literal, int order) {
+        Pattern pattern;
+        try {
+            // Same semantics as VirtualFile.matches: '*' is a wildcard, the id is a regex
+            pattern = Pattern.compile(file.getId().replace("*", ".*"));
+        } catch (PatternSyntaxException e) {
+            log.warn("Virtual file '{}' has an invalid pattern, only exact matches apply: {}",
+                    file.getId(), e.getDescription());
+            return;
+        }
+        Node node = patterns;
+        for (int i = 0; i < literal; i++) {
+            node = node.children.computeIfAbsent(file.getId().charAt(i), c -> new Node());
+        }
+        node.patterns.add(new FilePattern(order, pattern, file));
+    }
+
+    /**
+     * Length of the leading characters every match must start with
+     */
+    private static int literalPrefixLength(String id) {
+        if (id.indexOf('|') >= 0) {
+            return 0; // alternation: no common prefix
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (REGEX_META.indexOf(c) >= 0) {
+                // '?' and '{' may make the previous character optional
+                return (c == '?' || c == '{') && i > 0 ? i - 1 : i;
+            }
+        }
+        return id.length();
+    }
+
+    private static String fold(String id) {
+        return id.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] digest(String password) {
+        try {
+            byte[] bytes = (password != null ? password : "").getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<FilePattern> patterns = new ArrayList<>();
+    }
+
+    private record FilePattern(int order, Pattern pattern, VirtualFile file) {
+    }
+}
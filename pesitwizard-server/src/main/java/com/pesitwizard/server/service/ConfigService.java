@@ -2,11 +2,18 @@ package com.pesitwizard.server.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.pesitwizard.security.SecretsService;
+import com.pesitwizard.server.cluster.ClusterEvent;
+import com.pesitwizard.server.cluster.ClusterEventListener;
+import com.pesitwizard.server.cluster.ClusterMessage;
+import com.pesitwizard.server.cluster.ClusterProvider;
 import com.pesitwizard.server.config.PesitServerProperties;
 import com.pesitwizard.server.entity.Partner;
 import com.pesitwizard.server.entity.VirtualFile;
@@ -20,16 +27,25 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Service for managing partners and virtual files configuration.
  * Combines database storage with YAML-based defaults.
+ *
+ * Lookups made at connection setup (findPartner, findVirtualFile,
+ * checkPartnerPassword) go through an in-memory ConfigIndex, rebuilt on first
+ * use after any change made here or announced by another cluster node.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ConfigService {
+public class ConfigService implements ClusterEventListener {
 
     private final PartnerRepository partnerRepository;
     private final VirtualFileRepository virtualFileRepository;
     private final PesitServerProperties serverProperties;
     private final SecretsService secretsService;
+    private final ClusterProvider clusterProvider;
+
+    private volatile ConfigIndex index;
+    private final AtomicLong indexVersion = new AtomicLong();
+    private final Object indexLock = new Object();
 
     /**
      * Initialize database with YAML-configured partners and files if empty
@@ -37,6 +53,8 @@ public class ConfigService {
     @PostConstruct
     @Transactional
     public void initializeFromYaml() {
+        clusterProvider.addListener(this);
+
         // Import partners from YAML if database is empty
         if (partnerRepository.count() == 0 && !serverProperties.getPartners().isEmpty()) {
             log.info("Importing {} partners from YAML configuration", serverProperties.getPartners().size());
@@ -50,6 +68,7 @@ public class ConfigService {
                         .maxConnections(config.getMaxConnections())
                         .allowedFiles(
                                 config.getAllowedFiles() != null ? String.join(",", config.getAllowedFiles()) : null)
+                        .codePage(config.getCodePage())
                         .build();
                 partnerRepository.save(partner);
                 log.debug("Imported partner: {}", partner.getId());
@@ -71,6 +90,7 @@ public class ConfigService {
                         .overwrite(config.isOverwrite())
                         .maxFileSize(config.getMaxFileSize())
                         .fileType(config.getFileType())
+                        .syncDurability(config.getSyncDurability())
                         .build();
                 virtualFileRepository.save(file);
                 log.debug("Imported virtual file: {}", file.getId());
@@ -99,15 +119,17 @@ public class ConfigService {
         if (partnerId == null)
             return Optional.empty();
 
-        // Try exact match first
-        Optional<Partner> partner = partnerRepository.findById(partnerId);
-        if (partner.isPresent())
-            return partner;
+        // Exact match first, then case-insensitive
+        return Optional.ofNullable(index().findPartner(partnerId));
+    }
 
-        // Try case-insensitive match
-        return partnerRepository.findAll().stream()
-                .filter(p -> p.getId().equalsIgnoreCase(partnerId))
-                .findFirst();
+    /**
+     * Check a password presented at CONNECT (PI 5) against the partner's
+     * stored one. The stored secret is decrypted once per index, not per
+     * connection.
+     */
+    public boolean checkPartnerPassword(Partner partner, String providedPassword) {
+        return index().checkPassword(partner, providedPassword, secretsService::decryptFromStorage);
     }
 
     @Transactional
@@ -122,13 +144,16 @@ public class ConfigService {
             log.debug("Partner password encrypted for storage");
         }
 
-        return partnerRepository.save(partner);
+        Partner saved = partnerRepository.save(partner);
+        configChanged();
+        return saved;
     }
 
     @Transactional
     public void deletePartner(String id) {
         log.info("Deleting partner: {}", id);
         partnerRepository.deleteById(id);
+        configChanged();
     }
 
     public boolean partnerExists(String id) {
@@ -156,30 +181,89 @@ public class ConfigService {
         if (filename == null)
             return Optional.empty();
 
-        // Try exact match first
-        Optional<VirtualFile> file = virtualFileRepository.findById(filename);
-        if (file.isPresent())
-            return file;
-
-        // Try pattern match
-        return virtualFileRepository.findByEnabled(true).stream()
-                .filter(f -> f.matches(filename))
-                .findFirst();
+        // Exact match first, then wildcard patterns of enabled files
+        return Optional.ofNullable(index().findVirtualFile(filename));
     }
 
     @Transactional
     public VirtualFile saveVirtualFile(VirtualFile file) {
         log.info("Saving virtual file: {}", file.getId());
-        return virtualFileRepository.save(file);
+        VirtualFile saved = virtualFileRepository.save(file);
+        configChanged();
+        return saved;
     }
 
     @Transactional
     public void deleteVirtualFile(String id) {
         log.info("Deleting virtual file: {}", id);
         virtualFileRepository.deleteById(id);
+        configChanged();
     }
 
     public boolean virtualFileExists(String id) {
         return virtualFileRepository.existsById(id);
     }
+
+    // ==================== Lookup Index ====================
+
+    @Override
+    public void onClusterEvent(ClusterEvent event) {
+        if (event.getType() == ClusterEvent.Type.CONFIG_CHANGED) {
+            log.debug("Configuration changed on node {}, dropping lookup index", event.getNodeId());
+            invalidateIndex();
+        }
+    }
+
+    /**
+     * Drop the lookup index; the next lookup rebuilds it from the database
+     */
+    public void invalidateIndex() {
+        indexVersion.incrementAndGet();
+        index = null;
+    }
+
+    private ConfigIndex index() {
+        ConfigIndex current = index;
+        if (current == null) {
+            synchronized (indexLock) {
+                current = index;
+                if (current == null) {
+                    long version = indexVersion.get();
+                    current = new ConfigIndex(partnerRepository.findAll(), virtualFileRepository.findAll());
+                    // Keep it only if nothing changed while loading
+                    if (indexVersion.get() == version) {
+                        index = current;
+                    }
+                    log.debug("Configuration lookup index rebuilt");
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Invalidate the index here and on the other nodes once the change is
+     * committed, or written when there is no transaction. Called after the
+     * repository write: a rebuild that read the old state is then discarded.
+     * Services writing partners or virtual files through their repositories
+     * call it too.
+     */
+    public void configChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishConfigChange();
+                }
+            });
+        } else {
+            publishConfigChange();
+        }
+    }
+
+    private void publishConfigChange() {
+        invalidateIndex();
+        clusterProvider.broadcast(new ClusterMessage(ClusterMessage.Type.CONFIG_CHANGED, null,
+                clusterProvider.getNodeName()));
+    }
 }
@@ -21,13 +21,16 @@ public class EncryptionMigrationService extends AbstractEncryptionMigrationServi
 
     private final PartnerRepository partnerRepository;
     private final CertificateStoreRepository certificateStoreRepository;
+    private final ConfigService configService;
 
     public EncryptionMigrationService(SecretsService secretsService,
             PartnerRepository partnerRepository,
-            CertificateStoreRepository certificateStoreRepository) {
+            CertificateStoreRepository certificateStoreRepository,
+            ConfigService configService) {
         super(secretsService);
         this.partnerRepository = partnerRepository;
         this.certificateStoreRepository = certificateStoreRepository;
+        this.configService = configService;
     }
 
     @Override
@@ -40,6 +43,10 @@ public class EncryptionMigrationService extends AbstractEncryptionMigrationServi
         totalMigrated += p.migrated();
         totalSkipped += p.skipped();
         details.add("Partners: " + p.migrated() + " migrated");
+        if (p.migrated() > 0) {
+            // Partners are indexed by ConfigService: drop the stale entries once committed
+            configService.configChanged();
+        }
 
         var c = migrateCertificateStores();
         totalMigrated += c.migrated();
@@ -9,7 +9,9 @@ import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -48,6 +50,19 @@ public class FileIntegrityService {
     @Value("${pesit.integrity.buffer-size:8192}")
     private int bufferSize;
 
+    @Value("${pesit.integrity.inline-checksum:true}")
+    private boolean inlineChecksum;
+
+    private static final int MAX_CHECKPOINTS = 1024;
+
+    /** Digest state at the last sync point of received files, by local path (LRU) */
+    private final Map<String, DigestCheckpoint> checkpoints = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DigestCheckpoint> eldest) {
+            return size() > MAX_CHECKPOINTS;
+        }
+    };
+
     // ========== Checksum Computation ==========
 
     /**
@@ -97,8 +112,109 @@ public class FileIntegrityService {
         }
     }
 
+    // ========== Streaming Checksum ==========
+
+    /**
+     * New digest for hashing received data as it is written, or null when
+     * inline checksums are disabled
+     */
+    public MessageDigest newDigest() {
+        if (!inlineChecksum) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance(algorithmToJavaName(getDefaultAlgorithm()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unsupported algorithm: " + defaultAlgorithm, e);
+        }
+    }
+
+    /**
+     * Record the digest state of a received file at a sync point, so that a
+     * restart from that offset carries on hashing instead of re-reading
+     */
+    public void checkpoint(String localPath, long offset, MessageDigest digest) {
+        try {
+            DigestCheckpoint checkpoint = new DigestCheckpoint(offset, (MessageDigest) digest.clone());
+            synchronized (checkpoints) {
+                checkpoints.put(localPath, checkpoint);
+            }
+        } catch (CloneNotSupportedException e) {
+            log.debug("Digest {} cannot be checkpointed", digest.getAlgorithm());
+        }
+    }
+
+    /**
+     * Digest to continue hashing a received file from offset: a new one from
+     * 0, the state checkpointed at exactly that offset, or else (e.g. after a
+     * server restart) the digest of the first offset bytes of the file, which
+     * a restart keeps. Returns null if the file is shorter than offset.
+     */
+    public MessageDigest resumeDigest(String localPath, long offset) {
+        if (offset == 0) {
+            return newDigest();
+        }
+        DigestCheckpoint checkpoint;
+        synchronized (checkpoints) {
+            checkpoint = checkpoints.get(localPath);
+        }
+        if (checkpoint != null && checkpoint.offset() == offset) {
+            try {
+                return (MessageDigest) checkpoint.digest().clone();
+            } catch (CloneNotSupportedException e) {
+                log.debug("Digest {} cannot be resumed", checkpoint.digest().getAlgorithm());
+            }
+        }
+        return hashPrefix(Path.of(localPath), offset);
+    }
+
+    private MessageDigest hashPrefix(Path file, long length) {
+        MessageDigest digest = newDigest();
+        if (digest == null) {
+            return null;
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+            byte[] buffer = new byte[bufferSize];
+            long remaining = length;
+            while (remaining > 0) {
+                int bytesRead = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (bytesRead < 0) {
+                    return null;
+                }
+                digest.update(buffer, 0, bytesRead);
+                remaining -= bytesRead;
+            }
+            log.debug("No digest checkpoint at {} bytes of {}, hashed them again", length, file);
+            return digest;
+        } catch (IOException e) {
+            log.warn("Cannot hash the first {} bytes of {}: {}", length, file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Forget the sync point state of a received file
+     */
+    public void discardCheckpoint(String localPath) {
+        synchronized (checkpoints) {
+            checkpoints.remove(localPath);
+        }
+    }
+
     // ========== Checksum Storage ==========
 
+    /**
+     * Store the checksum of a file hashed inline while it was received.
+     * The hash covers the bytes as written, so no verification pass is needed.
+     */
+    @Transactional
+    public FileChecksum storeReceivedChecksum(String filename, long fileSize, String checksumHash,
+            String transferId, String partnerId, String serverId, String localPath) {
+        discardCheckpoint(localPath);
+        return store(filename, fileSize, checksumHash, transferId, partnerId, serverId,
+                TransferDirection.INBOUND, localPath, VerificationStatus.VERIFIED);
+    }
+
     /**
      * Store checksum for a transferred file
      */
@@ -106,6 +222,13 @@ public class FileIntegrityService {
     public FileChecksum storeChecksum(String filename, long fileSize, String checksumHash,
             String transferId, String partnerId, String serverId, TransferDirection direction,
             String localPath) {
+        return store(filename, fileSize, checksumHash, transferId, partnerId, serverId, direction,
+                localPath, VerificationStatus.PENDING);
+    }
+
+    private FileChecksum store(String filename, long fileSize, String checksumHash, String transferId,
+            String partnerId, String serverId, TransferDirection direction, String localPath,
+            VerificationStatus status) {
 
         HashAlgorithm algorithm = getDefaultAlgorithm();
 
@@ -133,7 +256,8 @@ public class FileIntegrityService {
                 .serverId(serverId)
                 .direction(direction)
                 .localPath(localPath)
-                .status(VerificationStatus.PENDING)
+                .status(status)
+                .verifiedAt(status == VerificationStatus.VERIFIED ? Instant.now() : null)
                 .duplicateCount(duplicateCount)
                 .build();
 
@@ -360,6 +484,9 @@ public class FileIntegrityService {
         };
     }
 
+    private record DigestCheckpoint(long offset, MessageDigest digest) {
+    }
+
     // ========== DTOs ==========
 
     @lombok.Data
@@ -6,6 +6,7 @@ import static com.pesitwizard.fpdu.ParameterIdentifier.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.DiagnosticCode;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduType;
@@ -27,7 +28,7 @@ public class FpduResponseBuilder {
      * Build ACONNECT response
      */
     public static Fpdu buildAconnect(SessionContext ctx, int protocolVersion,
-            boolean syncPoints, boolean resync, int maxEntitySize, int syncIntervalKb) {
+            boolean syncPoints, boolean resync, int maxEntitySize, int syncIntervalKb, int syncAckWindow) {
         // Per FpduType.ACONNECT definition:
         // Mandatory: PI_06 (version)
         // Optional: PI_05 (access control), PI_07 (sync points), PI_23 (resync), PI_99
@@ -43,7 +44,7 @@ public class FpduResponseBuilder {
             byte intervalHigh = (byte) ((syncIntervalKb >> 8) & 0xFF);
             byte intervalLow = (byte) (syncIntervalKb & 0xFF);
             response.withParameter(new ParameterValue(PI_07_SYNC_POINTS,
-                    new byte[] { intervalHigh, intervalLow, 0x02 }));
+                    new byte[] { intervalHigh, intervalLow, (byte) syncAckWindow }));
         }
 
         if (resync) {
@@ -163,13 +164,20 @@ public class FpduResponseBuilder {
     }
 
     /**
-     * Build ACK(ORF) - ACK Open response
+     * Build ACK(ORF) - ACK Open response, with the accepted compression (PI 21)
+     * when one was negotiated
      */
     public static Fpdu buildAckOpen(SessionContext ctx) {
-        return new Fpdu(FpduType.ACK_OPEN)
+        Fpdu ack = new Fpdu(FpduType.ACK_OPEN)
                 .withIdDst(ctx.getClientConnectionId())
                 .withIdSrc(0)
                 .withParameter(new ParameterValue(PI_02_DIAG, DIAG_OK));
+        TransferContext transfer = ctx.getCurrentTransfer();
+        if (transfer != null && transfer.getCompression() != 0) {
+            ack.withParameter(new ParameterValue(PI_21_COMPRESSION,
+                    CompressionMode.fromCode(transfer.getCompression()).toPi21()));
+        }
+        return ack;
     }
 
     /**
@@ -44,6 +44,14 @@ public class FpduValidator {
      * - D2-222: Data without sync point must not exceed configured limit
      */
     public ValidationResult validateDtf(Fpdu fpdu, TransferContext transfer, byte[] data) {
+        return validateDtfLength(transfer, data != null ? data.length : 0);
+    }
+
+    /**
+     * Validate DTF data length without materializing the payload (see
+     * validateDtf).
+     */
+    public ValidationResult validateDtfLength(TransferContext transfer, int dataLength) {
         if (transfer == null) {
             return ValidationResult.error(DiagnosticCode.D3_311, "No active transfer context");
         }
@@ -55,10 +63,10 @@ public class FpduValidator {
         int recordLength = transfer.getRecordLength();
         boolean isBinaryFormat = (recordFormat & 0x80) != 0;
 
-        if (!isBinaryFormat && recordLength > 0 && data != null && data.length > recordLength) {
-            log.warn("Article length {} exceeds announced record length {}", data.length, recordLength);
+        if (!isBinaryFormat && recordLength > 0 && dataLength > recordLength) {
+            log.warn("Article length {} exceeds announced record length {}", dataLength, recordLength);
             return ValidationResult.error(DiagnosticCode.D2_220,
-                    String.format("Article length %d exceeds announced record length %d", data.length, recordLength));
+                    String.format("Article length %d exceeds announced record length %d", dataLength, recordLength));
         }
 
         // D2-222: Check for too much data without sync point
@@ -201,15 +209,26 @@ public class FpduValidator {
      * The data chunk must not exceed the negotiated max entity size (PI 25).
      */
     public ValidationResult validateMaxEntitySize(byte[] data, TransferContext transfer) {
-        if (transfer == null || data == null) {
+        if (data == null) {
+            return ValidationResult.ok();
+        }
+        return validateEntityLength(transfer, data.length);
+    }
+
+    /**
+     * Validate max entity size without materializing the payload (see
+     * validateMaxEntitySize).
+     */
+    public ValidationResult validateEntityLength(TransferContext transfer, int dataLength) {
+        if (transfer == null) {
             return ValidationResult.ok();
         }
 
         int maxEntitySize = transfer.getMaxEntitySize();
-        if (maxEntitySize > 0 && data.length > maxEntitySize) {
-            log.warn("Data chunk {} exceeds max entity size {}", data.length, maxEntitySize);
+        if (maxEntitySize > 0 && dataLength > maxEntitySize) {
+            log.warn("Data chunk {} exceeds max entity size {}", dataLength, maxEntitySize);
             return ValidationResult.error(DiagnosticCode.D2_220,
-                    String.format("Data chunk %d exceeds max entity size %d", data.length, maxEntitySize));
+                    String.format("Data chunk %d exceeds max entity size %d", dataLength, maxEntitySize));
         }
 
         return ValidationResult.ok();
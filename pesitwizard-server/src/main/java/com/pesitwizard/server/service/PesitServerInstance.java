@@ -6,6 +6,7 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -14,6 +15,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
 
 import com.pesitwizard.server.config.PesitServerProperties;
+import com.pesitwizard.server.config.PesitServerProperties.ConnectionEngine;
 import com.pesitwizard.server.config.SslProperties;
 import com.pesitwizard.server.entity.PesitServerConfig;
 import com.pesitwizard.server.handler.PesitSessionHandler;
@@ -63,7 +65,7 @@ public class PesitServerInstance {
         }
 
         serverSocket = createServerSocket();
-        executorService = Executors.newFixedThreadPool(properties.getMaxConnections());
+        executorService = createExecutorService();
         running.set(true);
 
         acceptThread = new Thread(this::acceptConnections, "pesit-" + config.getServerId() + "-accept");
@@ -71,8 +73,23 @@ public class PesitServerInstance {
 
         String protocol = sslProperties.isEnabled() ? "TLS" : "TCP/IP";
         String authMode = sslProperties.isEnabled() ? " (mTLS: " + sslProperties.getClientAuth() + ")" : "";
-        log.info("[{}] PeSIT Server started on port {} (Hors-SIT profile, {}){}",
-                config.getServerId(), properties.getPort(), protocol, authMode);
+        log.info("[{}] PeSIT Server started on port {} (Hors-SIT profile, {}){}, engine: {}",
+                config.getServerId(), properties.getPort(), protocol, authMode, properties.getConnectionEngine());
+    }
+
+    /**
+     * Create the executor running connection handlers.
+     * With virtual threads, a session blocked on socket I/O does not hold a
+     * platform thread, so idle sessions only cost their socket and buffers.
+     */
+    private ExecutorService createExecutorService() {
+        if (properties.getConnectionEngine() == ConnectionEngine.VIRTUAL_THREADS) {
+            ThreadFactory factory = Thread.ofVirtual()
+                    .name("pesit-" + config.getServerId() + "-session-", 0)
+                    .factory();
+            return Executors.newThreadPerTaskExecutor(factory);
+        }
+        return Executors.newFixedThreadPool(properties.getMaxConnections());
     }
 
     /**
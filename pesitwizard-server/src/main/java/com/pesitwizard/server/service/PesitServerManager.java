@@ -382,6 +382,7 @@ public class PesitServerManager implements ClusterEventListener {
         props.setPort(config.getPort());
         props.setProtocolVersion(config.getProtocolVersion());
         props.setMaxConnections(config.getMaxConnections());
+        props.setConnectionEngine(globalProperties.getConnectionEngine());
         props.setConnectionTimeout(config.getConnectionTimeout());
         props.setReadTimeout(config.getReadTimeout());
         props.setReceiveDirectory(config.getReceiveDirectory());
@@ -389,6 +390,10 @@ public class PesitServerManager implements ClusterEventListener {
         props.setMaxEntitySize(config.getMaxEntitySize());
         props.setSyncPointsEnabled(config.isSyncPointsEnabled());
         props.setSyncIntervalKb(config.getSyncIntervalKb());
+        props.setSyncAckWindow(globalProperties.getSyncAckWindow());
+        props.setSyncDurability(globalProperties.getSyncDurability());
+        props.setSyncGroupCommitMs(globalProperties.getSyncGroupCommitMs());
+        props.setCompression(globalProperties.getCompression());
         log.debug("Created properties from config: serverId={}, syncPointsEnabled={}, syncIntervalKb={}",
                 config.getServerId(), config.isSyncPointsEnabled(), config.getSyncIntervalKb());
         props.setResyncEnabled(config.isResyncEnabled());
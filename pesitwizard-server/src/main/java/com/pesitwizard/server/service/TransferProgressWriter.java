@@ -0,0 +1,188 @@
+package com.pesitwizard.server.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pesitwizard.server.entity.TransferRecord;
+import com.pesitwizard.server.entity.TransferRecord.TransferStatus;
+import com.pesitwizard.server.entity.TransferSyncPoint;
+import com.pesitwizard.server.repository.TransferRecordRepository;
+import com.pesitwizard.server.repository.TransferSyncPointRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind persistence of transfer progress and sync points.
+ *
+ * Updates are coalesced per transfer in memory and written every
+ * pesit.transfer.progress-flush-interval-ms, all pending transfers in one
+ * transaction sent as a JDBC batch (hibernate.jdbc.batch_size). Flushes are
+ * serialized and TransferTracker flushes a transfer before changing its
+ * status, so a terminal status is never overwritten by older progress. After
+ * a crash at most one interval of sync points is lost: the restart then
+ * resumes from an earlier sync point, which is still valid.
+ *
+ * The byte offsets of sent sync points are not written behind: each one is
+ * inserted when its ACK_SYN is processed, since the client may restart a READ
+ * from it (PI 18) as soon as it has acknowledged it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferProgressWriter {
+
+    private static final List<TransferStatus> ACTIVE = List.of(
+            TransferStatus.INITIATED, TransferStatus.IN_PROGRESS, TransferStatus.PAUSED);
+
+    private final TransferRecordRepository transferRepository;
+    private final TransferSyncPointRepository syncPointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, PendingProgress> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    /**
+     * false = write each update immediately (one transaction per update)
+     */
+    @Value("${pesit.transfer.write-behind:true}")
+    private boolean writeBehind = true;
+
+    /**
+     * Record the bytes transferred so far
+     */
+    public void recordProgress(String transferId, long bytesTransferred) {
+        pending.compute(transferId, (id, progress) -> {
+            progress = progress != null ? progress : new PendingProgress();
+            progress.bytesTransferred = bytesTransferred;
+            return progress;
+        });
+        if (!writeBehind) {
+            flush(transferId);
+        }
+    }
+
+    /**
+     * Record an acknowledged sync point
+     */
+    public void recordSyncPoint(String transferId, long position) {
+        pending.compute(transferId, (id, progress) -> {
+            progress = progress != null ? progress : new PendingProgress();
+            progress.lastSyncPoint = position;
+            progress.syncPoints++;
+            return progress;
+        });
+        if (!writeBehind) {
+            flush(transferId);
+        }
+    }
+
+    /**
+     * Record a sync point sent by the server and the byte offset it is at.
+     * The offset is inserted now, in its own transaction; the progress it
+     * implies is written behind like any other.
+     */
+    public void recordSyncPoint(String transferId, int syncPoint, long position) {
+        TransferSyncPoint offset = TransferSyncPoint.builder()
+                .transferId(transferId)
+                .syncPoint(syncPoint)
+                .byteOffset(position)
+                .build();
+        try {
+            transactionTemplate.executeWithoutResult(status -> syncPointRepository.save(offset));
+        } catch (Exception e) {
+            // Such a sync point cannot be restarted from; the peer falls back to an earlier one or to 0
+            log.warn("Failed to write the offset of sync point {} of {}: {}", syncPoint, transferId, e.getMessage());
+        }
+        recordSyncPoint(transferId, position);
+    }
+
+    /**
+     * Write the pending updates of one transfer now (before a status change)
+     */
+    public void flush(String transferId) {
+        synchronized (flushLock) {
+            PendingProgress progress = pending.remove(transferId);
+            if (progress != null) {
+                write(Map.of(transferId, progress));
+            }
+        }
+    }
+
+    /**
+     * Write the pending updates of all transfers in one batch
+     */
+    @Scheduled(fixedDelayString = "${pesit.transfer.progress-flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, PendingProgress> batch = new HashMap<>();
+            for (String transferId : pending.keySet()) {
+                PendingProgress progress = pending.remove(transferId);
+                if (progress != null) {
+                    batch.put(transferId, progress);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    /**
+     * Number of transfers with updates not yet written
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void write(Map<String, PendingProgress> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TransferRecord> records = transferRepository.findByTransferIdIn(batch.keySet());
+                Instant now = Instant.now();
+                for (TransferRecord record : records) {
+                    // A transfer that already ended keeps its final values
+                    if (ACTIVE.contains(record.getStatus())) {
+                        batch.get(record.getTransferId()).applyTo(record, now);
+                    }
+                }
+                transferRepository.saveAll(records);
+            });
+            log.debug("Progress written for {} transfer(s)", batch.size());
+        } catch (Exception e) {
+            // Progress is informational, the next update or status change supersedes it
+            log.warn("Failed to write progress of {} transfer(s): {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Updates of one transfer since the last flush; only mutated inside
+     * ConcurrentHashMap.compute, and read once removed from the map
+     */
+    private static final class PendingProgress {
+        private long bytesTransferred = -1;
+        private long lastSyncPoint;
+        private int syncPoints;
+
+        private void applyTo(TransferRecord record, Instant now) {
+            if (bytesTransferred >= 0) {
+                record.updateProgress(bytesTransferred);
+            }
+            if (syncPoints > 0) {
+                record.setLastSyncPoint(lastSyncPoint);
+                record.setSyncPointCount(record.getSyncPointCount() + syncPoints);
+            }
+            record.setUpdatedAt(now);
+        }
+    }
+}
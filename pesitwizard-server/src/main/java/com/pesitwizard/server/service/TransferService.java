@@ -18,7 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 import com.pesitwizard.server.entity.TransferRecord;
 import com.pesitwizard.server.entity.TransferRecord.TransferDirection;
 import com.pesitwizard.server.entity.TransferRecord.TransferStatus;
+import com.pesitwizard.server.entity.TransferSyncPoint;
 import com.pesitwizard.server.repository.TransferRecordRepository;
+import com.pesitwizard.server.repository.TransferSyncPointRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 public class TransferService {
 
     private final TransferRecordRepository transferRepository;
+    private final TransferSyncPointRepository syncPointRepository;
 
     // ========== Transfer Lifecycle ==========
 
@@ -170,6 +173,7 @@ public class TransferService {
             transfer.setChecksum(checksum);
         }
         transfer = transferRepository.save(transfer);
+        syncPointRepository.deleteByTransferId(transferId);
 
         log.info("[{}] Transfer completed: {} bytes in {}ms, speed: {} bytes/sec",
                 transferId, transfer.getBytesTransferred(),
@@ -294,6 +298,49 @@ public class TransferService {
         return transferRepository.findByTransferId(transferId);
     }
 
+    /**
+     * Unfinished transfers of a partner's file in one direction that no
+     * restart has taken over yet, latest first: the ones a restart (CREATE
+     * with PI 15) may continue
+     */
+    public List<TransferRecord> findRestartable(String partnerId, String filename, TransferDirection direction) {
+        return transferRepository.findByPartnerIdAndFilenameAndDirectionAndResumableTrueAndStatusInOrderByStartedAtDesc(
+                partnerId, filename, direction,
+                List.of(TransferStatus.INTERRUPTED, TransferStatus.PAUSED, TransferStatus.FAILED));
+    }
+
+    /**
+     * Record that a restart took over the file of an unfinished transfer:
+     * the old record is no longer restartable and the new one points at it
+     */
+    @Transactional
+    public void markResumed(String resumedTransferId, String transferId) {
+        transferRepository.findByTransferId(resumedTransferId).ifPresent(resumed -> {
+            resumed.setResumable(false);
+            resumed.setUpdatedAt(Instant.now());
+            transferRepository.save(resumed);
+        });
+        transferRepository.findByTransferId(transferId).ifPresent(transfer -> {
+            transfer.setParentTransferId(resumedTransferId);
+            transferRepository.save(transfer);
+        });
+        log.info("[{}] Restart of transfer {}", transferId, resumedTransferId);
+    }
+
+    /**
+     * Byte offset of a sync point sent to a partner by its latest unfinished
+     * read of a file that recorded it. Earlier attempts are searched too: a
+     * read that failed before sending any sync point does not hide the one
+     * being restarted.
+     */
+    public Optional<Long> findSentSyncPointOffset(String partnerId, String filename, int syncPoint) {
+        return syncPointRepository.findByTransfer(partnerId, filename, TransferDirection.SEND,
+                List.of(TransferStatus.INTERRUPTED, TransferStatus.PAUSED, TransferStatus.FAILED), syncPoint)
+                .stream()
+                .findFirst()
+                .map(TransferSyncPoint::getByteOffset);
+    }
+
     /**
      * Get transfer or throw exception
      */
@@ -434,7 +481,8 @@ public class TransferService {
     }
 
     /**
-     * Clean up old completed transfers
+     * Clean up old completed transfers and the sync points of sends that were
+     * not restarted
      */
     @Transactional
     @Scheduled(cron = "0 0 2 * * ?") // Run at 2 AM daily
@@ -445,6 +493,10 @@ public class TransferService {
         if (deleted > 0) {
             log.info("Cleaned up {} old completed transfers", deleted);
         }
+        int syncPoints = syncPointRepository.deleteStale(cutoff);
+        if (syncPoints > 0) {
+            log.info("Cleaned up {} stale sync points", syncPoints);
+        }
     }
 
     // ========== Statistics DTOs ==========
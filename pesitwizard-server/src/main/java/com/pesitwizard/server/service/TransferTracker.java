@@ -1,7 +1,9 @@
 package com.pesitwizard.server.service;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 import org.springframework.stereotype.Component;
 
@@ -23,6 +25,8 @@ import lombok.extern.slf4j.Slf4j;
 public class TransferTracker {
 
     private final TransferService transferService;
+    private final FileIntegrityService integrityService;
+    private final TransferProgressWriter progressWriter;
 
     /**
      * Track the start of a new transfer (CREATE/ACREATE)
@@ -46,6 +50,12 @@ public class TransferTracker {
             // Store the transfer ID in the session context
             ctx.setTransferRecordId(record.getTransferId());
 
+            // A restart takes the interrupted reception over, which is not restarted again
+            TransferContext transfer = ctx.getCurrentTransfer();
+            if (transfer != null && transfer.getResumedTransferId() != null) {
+                transferService.markResumed(transfer.getResumedTransferId(), record.getTransferId());
+            }
+
             log.debug("[{}] Transfer tracking started: {}", ctx.getSessionId(), record.getTransferId());
 
         } catch (Exception e) {
@@ -55,7 +65,73 @@ public class TransferTracker {
     }
 
     /**
-     * Track transfer progress (DTF data received/sent)
+     * Local file of the partner's last unfinished reception of a logical
+     * file, which a restarted CREATE continues; null if there is none left.
+     * The reception found is kept in the current transfer context, for
+     * {@link #trackTransferStart} to mark it as taken over.
+     */
+    public Path findRestartPath(SessionContext ctx, String filename) {
+        try {
+            for (TransferRecord record : transferService.findRestartable(ctx.getClientIdentifier(), filename,
+                    TransferDirection.RECEIVE)) {
+                if (record.getLocalPath() != null && Files.exists(Path.of(record.getLocalPath()))) {
+                    if (ctx.getCurrentTransfer() != null) {
+                        ctx.getCurrentTransfer().setResumedTransferId(record.getTransferId());
+                    }
+                    return Path.of(record.getLocalPath());
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            log.warn("[{}] Failed to look up the transfer to restart: {}", ctx.getSessionId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Byte offset of a sync point sent by the partner's unfinished reads of a
+     * logical file, which a restarted READ (PI 18) resumes from; -1 if it is
+     * not known
+     */
+    public long findSentSyncPointOffset(SessionContext ctx, String filename, int syncPoint) {
+        try {
+            return transferService.findSentSyncPointOffset(ctx.getClientIdentifier(), filename, syncPoint)
+                    .orElse(-1L);
+        } catch (Exception e) {
+            log.warn("[{}] Failed to look up sync point {}: {}", ctx.getSessionId(), syncPoint, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Start hashing received data inline (write mode) so the checksum is known
+     * at TRANS.END without reading the file again. From offset 0 a new digest
+     * is used; a restart resumes the digest checkpointed at that offset, or
+     * hashes again the part of the file it keeps.
+     */
+    public void startChecksum(SessionContext ctx, long offset) {
+        TransferContext transfer = ctx.getCurrentTransfer();
+        if (transfer == null || transfer.getLocalPath() == null) {
+            return;
+        }
+
+        try {
+            String localPath = transfer.getLocalPath().toString();
+            transfer.setDigest(integrityService.resumeDigest(localPath, offset));
+            if (transfer.getDigest() == null && offset > 0) {
+                log.debug("[{}] Cannot resume digest at {} bytes, checksum not computed inline",
+                        ctx.getSessionId(), offset);
+            }
+            // Checkpointed when a sync point becomes a restart point, not when it is acknowledged
+            transfer.setDigestCheckpoint((digest, position) -> integrityService.checkpoint(localPath, position, digest));
+        } catch (Exception e) {
+            log.warn("[{}] Failed to start inline checksum: {}", ctx.getSessionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Track transfer progress (DTF data received/sent); written in batches by
+     * TransferProgressWriter
      */
     public void trackProgress(SessionContext ctx, long bytesTransferred) {
         String transferId = ctx.getTransferRecordId();
@@ -64,14 +140,15 @@ public class TransferTracker {
         }
 
         try {
-            transferService.updateProgress(transferId, bytesTransferred);
+            progressWriter.recordProgress(transferId, bytesTransferred);
         } catch (Exception e) {
             log.debug("[{}] Failed to track progress: {}", ctx.getSessionId(), e.getMessage());
         }
     }
 
     /**
-     * Track sync point acknowledgment
+     * Track sync point acknowledgment; written in batches by
+     * TransferProgressWriter
      */
     public void trackSyncPoint(SessionContext ctx, long position) {
         String transferId = ctx.getTransferRecordId();
@@ -80,7 +157,25 @@ public class TransferTracker {
         }
 
         try {
-            transferService.recordSyncPoint(transferId, position);
+            progressWriter.recordSyncPoint(transferId, position);
+        } catch (Exception e) {
+            log.debug("[{}] Failed to track sync point: {}", ctx.getSessionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Track a sync point sent and acknowledged, with the byte offset a READ
+     * restarted there resumes from; the offset is inserted at once, the
+     * progress written in batches by TransferProgressWriter
+     */
+    public void trackSentSyncPoint(SessionContext ctx, int syncPoint, long offset) {
+        String transferId = ctx.getTransferRecordId();
+        if (transferId == null) {
+            return;
+        }
+
+        try {
+            progressWriter.recordSyncPoint(transferId, syncPoint, offset);
         } catch (Exception e) {
             log.debug("[{}] Failed to track sync point: {}", ctx.getSessionId(), e.getMessage());
         }
@@ -104,15 +199,16 @@ public class TransferTracker {
             TransferContext transfer = ctx.getCurrentTransfer();
             if (transfer != null) {
                 bytesTransferred = transfer.getBytesTransferred();
-                // For streaming transfers, checksum is calculated during transfer via
-                // DigestOutputStream. For backward compatibility with non-streaming transfers,
-                // checksum may be null here and calculated post-transfer if needed.
+                // Received files are hashed as they are written (see startChecksum);
+                // otherwise the checksum stays null
+                checksum = storeReceivedChecksum(ctx, transfer, transferId);
             }
 
-            // Update final bytes transferred before completing
+            // Write the final bytes transferred before completing
             if (bytesTransferred > 0) {
-                transferService.updateProgress(transferId, bytesTransferred);
+                progressWriter.recordProgress(transferId, bytesTransferred);
             }
+            progressWriter.flush(transferId);
 
             transferService.completeTransfer(transferId, checksum);
             ctx.setTransferRecordId(null);
@@ -134,7 +230,9 @@ public class TransferTracker {
             return;
         }
 
+        discardChecksum(ctx);
         try {
+            progressWriter.flush(transferId);
             transferService.failTransfer(transferId, errorCode, errorMessage);
             ctx.setTransferRecordId(null);
 
@@ -154,7 +252,9 @@ public class TransferTracker {
             return;
         }
 
+        discardChecksum(ctx);
         try {
+            progressWriter.flush(transferId);
             transferService.cancelTransfer(transferId, reason);
             ctx.setTransferRecordId(null);
 
@@ -175,6 +275,8 @@ public class TransferTracker {
         }
 
         try {
+            // The last sync point must be stored for the restart
+            progressWriter.flush(transferId);
             transferService.interruptTransfer(transferId, reason);
             // Don't clear transferRecordId - it can be used for resume
 
@@ -186,31 +288,43 @@ public class TransferTracker {
     }
 
     /**
-     * Calculate SHA-256 checksum of data
+     * Finish the inline digest of a received file and store it as its
+     * FileChecksum. Returns the hex checksum, or null if none was computed.
      */
-    private String calculateChecksum(byte[] data) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data);
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            log.warn("SHA-256 not available for checksum calculation");
+    private String storeReceivedChecksum(SessionContext ctx, TransferContext transfer, String transferId) {
+        MessageDigest digest = transfer.getDigest();
+        if (digest == null || transfer.getLocalPath() == null) {
             return null;
         }
+        transfer.setDigest(null);
+        String checksum = HexFormat.of().formatHex(digest.digest());
+
+        try {
+            integrityService.storeReceivedChecksum(transfer.getLocalPath().getFileName().toString(),
+                    transfer.getBytesTransferred(), checksum, transferId, ctx.getClientIdentifier(),
+                    ctx.getOurServerId(), transfer.getLocalPath().toString());
+        } catch (Exception e) {
+            log.warn("[{}] Failed to store file checksum: {}", ctx.getSessionId(), e.getMessage());
+        }
+        return checksum;
+    }
+
+    /**
+     * Drop the sync point digest of a received file that will not be resumed
+     */
+    private void discardChecksum(SessionContext ctx) {
+        TransferContext transfer = ctx.getCurrentTransfer();
+        if (transfer != null && transfer.getDigest() != null) {
+            transfer.setDigest(null);
+            integrityService.discardCheckpoint(transfer.getLocalPath().toString());
+        }
     }
 
     /**
      * Mark all in-progress transfers for a node as interrupted (called on shutdown)
      */
     public int markInterruptedTransfers(String nodeId) {
+        progressWriter.flush();
         return transferService.markInterruptedTransfers(nodeId);
     }
 
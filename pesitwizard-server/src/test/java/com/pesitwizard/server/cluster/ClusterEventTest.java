@@ -73,12 +73,13 @@ class ClusterEventTest {
     @Test
     @DisplayName("should have all event types")
     void shouldHaveAllEventTypes() {
-        assertEquals(6, ClusterEvent.Type.values().length);
+        assertEquals(7, ClusterEvent.Type.values().length);
         assertNotNull(ClusterEvent.Type.VIEW_CHANGED);
         assertNotNull(ClusterEvent.Type.BECAME_LEADER);
         assertNotNull(ClusterEvent.Type.LOST_LEADERSHIP);
         assertNotNull(ClusterEvent.Type.SERVER_ACQUIRED);
         assertNotNull(ClusterEvent.Type.SERVER_RELEASED);
         assertNotNull(ClusterEvent.Type.SERVER_STATE_CHANGED);
+        assertNotNull(ClusterEvent.Type.CONFIG_CHANGED);
     }
 }
@@ -34,6 +34,7 @@ class PesitServerPropertiesTest {
         assertFalse(properties.isCrcEnabled());
         assertTrue(properties.isStrictPartnerCheck());
         assertFalse(properties.isStrictFileCheck());
+        assertEquals(PesitServerProperties.ConnectionEngine.PLATFORM_THREADS, properties.getConnectionEngine());
     }
 
     @Test
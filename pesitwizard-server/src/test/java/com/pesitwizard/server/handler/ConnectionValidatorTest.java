@@ -34,14 +34,11 @@ class ConnectionValidatorTest {
     @Mock
     private ConfigService configService;
 
-    @Mock
-    private com.pesitwizard.security.SecretsService secretsService;
-
     private ConnectionValidator validator;
 
     @BeforeEach
     void setUp() {
-        validator = new ConnectionValidator(properties, configService, secretsService);
+        validator = new ConnectionValidator(properties, configService);
     }
 
     @Test
@@ -206,7 +203,6 @@ class ConnectionValidatorTest {
         Partner partner = createPartner("PARTNER1", true);
         partner.setPassword("secret");
         when(configService.findPartner("PARTNER1")).thenReturn(Optional.of(partner));
-        when(secretsService.decryptFromStorage("secret")).thenReturn("secret");
 
         ValidationResult result = validator.validatePartner(ctx, fpdu);
 
@@ -228,7 +224,7 @@ class ConnectionValidatorTest {
         partner.setPassword("secret");
         partner.setAccessType(Partner.AccessType.BOTH);
         when(configService.findPartner("PARTNER1")).thenReturn(Optional.of(partner));
-        when(secretsService.decryptFromStorage("secret")).thenReturn("secret");
+        when(configService.checkPartnerPassword(partner, "secret")).thenReturn(true);
 
         ValidationResult result = validator.validatePartner(ctx, fpdu);
 
@@ -347,7 +343,6 @@ class ConnectionValidatorTest {
         Partner partner = createPartner("PARTNER1", true);
         partner.setPassword("secret");
         when(configService.findPartner("PARTNER1")).thenReturn(Optional.of(partner));
-        when(secretsService.decryptFromStorage("secret")).thenReturn("secret");
 
         ValidationResult result = validator.validatePartner(ctx, fpdu);
 
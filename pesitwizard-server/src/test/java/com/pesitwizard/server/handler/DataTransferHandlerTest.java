@@ -8,9 +8,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.pesitwizard.fpdu.CompressionDecoder;
+import com.pesitwizard.fpdu.CompressionEncoder;
+import com.pesitwizard.fpdu.CompressionMode;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduType;
 import com.pesitwizard.fpdu.ParameterIdentifier;
@@ -45,6 +49,8 @@ class DataTransferHandlerTest {
         // Default stubs for validator - return OK for all validations
         lenient().when(fpduValidator.validateDtf(any(), any(), any())).thenReturn(ValidationResult.ok());
         lenient().when(fpduValidator.validateMaxEntitySize(any(), any())).thenReturn(ValidationResult.ok());
+        lenient().when(fpduValidator.validateDtfLength(any(), anyInt())).thenReturn(ValidationResult.ok());
+        lenient().when(fpduValidator.validateEntityLength(any(), anyInt())).thenReturn(ValidationResult.ok());
     }
 
     @Test
@@ -61,6 +67,39 @@ class DataTransferHandlerTest {
         assertEquals(ServerState.TDE02B_RECEIVING_DATA, ctx.getState());
     }
 
+    @Test
+    @DisplayName("handleWrite should restart at the last recorded sync point")
+    void handleWriteShouldRestartAtLastSyncPoint(@TempDir java.nio.file.Path tempDir) throws Exception {
+        java.nio.file.Path file = tempDir.resolve("restart.dat");
+        TransferContext previous = new TransferContext();
+        previous.setLocalPath(file);
+        previous.openOutputStream();
+        previous.appendData(new byte[1000]);
+        previous.syncPoint(1);
+        previous.appendData(new byte[500]);
+        previous.closeOutputStream();
+
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.OF02_TRANSFER_READY);
+        TransferContext transfer = ctx.startTransfer();
+        transfer.setLocalPath(file);
+        transfer.setRestart(true);
+        transfer.openOutputStream();
+
+        Fpdu response = handler.handleWrite(ctx, new Fpdu(FpduType.WRITE));
+        transfer.closeOutputStream();
+
+        assertEquals(FpduType.ACK_WRITE, response.getFpduType());
+        int restartPoint = 0;
+        for (byte b : response.getParameter(ParameterIdentifier.PI_18_POINT_RELANCE).getValue()) {
+            restartPoint = (restartPoint << 8) | (b & 0xFF);
+        }
+        assertEquals(1, restartPoint);
+        assertEquals(1000, transfer.getBytesTransferred());
+        assertEquals(1000, java.nio.file.Files.size(file));
+        verify(transferTracker).startChecksum(ctx, 1000);
+    }
+
     @Test
     @DisplayName("handleTDE02B should dispatch DTF correctly")
     void handleTDE02BShouldDispatchDtf() throws Exception {
@@ -317,6 +356,219 @@ class DataTransferHandlerTest {
         }
     }
 
+    @Test
+    @DisplayName("handleDtf should write multi-article payload from a flyweight view")
+    void handleDtfShouldWriteArticlesFromView() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+
+        byte[] dtf = com.pesitwizard.fpdu.FpduBuilder.buildMultiArticleDtf(1,
+                java.util.List.of("ABC".getBytes(), "DEFG".getBytes()), 4096);
+        com.pesitwizard.fpdu.FpduView view = new com.pesitwizard.fpdu.FpduView()
+                .wrap(java.nio.ByteBuffer.wrap(dtf));
+
+        try {
+            Fpdu response = handler.handleDtf(ctx, view);
+            transfer.closeOutputStream();
+
+            assertNull(response);
+            assertEquals(7, transfer.getBytesTransferred());
+            assertEquals("ABCDEFG", java.nio.file.Files.readString(tempFile));
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleDtf should validate and count each article of a packed entity")
+    void handleDtfShouldValidateEachArticle() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+
+        byte[] dtf = com.pesitwizard.fpdu.FpduBuilder.buildMultiArticleDtf(1,
+                java.util.List.of("ABC".getBytes(), "DEFG".getBytes(), "HI".getBytes()), 4096);
+        com.pesitwizard.fpdu.FpduView view = new com.pesitwizard.fpdu.FpduView()
+                .wrap(java.nio.ByteBuffer.wrap(dtf));
+
+        try {
+            assertNull(handler.handleDtf(ctx, view));
+
+            verify(fpduValidator).validateDtfLength(transfer, 3);
+            verify(fpduValidator).validateDtfLength(transfer, 4);
+            verify(fpduValidator).validateDtfLength(transfer, 2);
+            verify(fpduValidator, never()).validateDtfLength(transfer, 15);
+            assertEquals(3, transfer.getRecordsTransferred());
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleDtf should write a single-article DTF as-is even if it starts like a length prefix")
+    void handleDtfShouldNotSplitSingleArticle() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+
+        // idSrc = 0: one record, whose first two bytes happen to read as length 3
+        Fpdu fpdu = new Fpdu(FpduType.DTF);
+        fpdu.setData(new byte[] { 0x00, 0x03, 'A', 'B', 'C' });
+
+        try {
+            assertNull(handler.handleTDE02B(ctx, fpdu));
+            transfer.closeOutputStream();
+
+            assertEquals(5, transfer.getBytesTransferred());
+            assertEquals(1, transfer.getRecordsTransferred());
+            assertArrayEquals(new byte[] { 0x00, 0x03, 'A', 'B', 'C' }, java.nio.file.Files.readAllBytes(tempFile));
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleDtf should abort when the articles do not match the idSrc count")
+    void handleDtfShouldAbortOnArticleCountMismatch() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+
+        byte[] dtf = com.pesitwizard.fpdu.FpduBuilder.buildMultiArticleDtf(1,
+                java.util.List.of("ABC".getBytes(), "DEFG".getBytes()), 4096);
+        dtf[5] = 3; // idSrc announces one article more than the entity holds
+
+        try {
+            Fpdu response = handler.handleDtf(ctx,
+                    new com.pesitwizard.fpdu.FpduView().wrap(java.nio.ByteBuffer.wrap(dtf)));
+
+            assertNotNull(response);
+            assertEquals(FpduType.ABORT, response.getFpduType());
+            assertEquals(0, transfer.getBytesTransferred());
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleDtf should expand compressed articles when PI 21 was negotiated")
+    void handleDtfShouldExpandCompressedArticles() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+        transfer.setCompression(CompressionMode.HORIZONTAL_VERTICAL.getCode());
+        transfer.setCompressionDecoder(new CompressionDecoder(40));
+
+        String record1 = String.format("%-40s", "00001 DUPONT PARIS");
+        String record2 = String.format("%-40s", "00002 DUPONT PARIS");
+        CompressionEncoder encoder = new CompressionEncoder(CompressionMode.HORIZONTAL_VERTICAL);
+        byte[] buffer = new byte[CompressionEncoder.maxEncodedLength(40)];
+        int length1 = encoder.encode(record1.getBytes(), 0, 40, buffer, 0);
+        byte[] article1 = java.util.Arrays.copyOf(buffer, length1);
+        int length2 = encoder.encode(record2.getBytes(), 0, 40, buffer, 0);
+        byte[] article2 = java.util.Arrays.copyOf(buffer, length2);
+        byte[] dtf = com.pesitwizard.fpdu.FpduBuilder.buildMultiArticleDtf(1,
+                java.util.List.of(article1, article2), 4096);
+
+        try {
+            Fpdu response = handler.handleDtf(ctx,
+                    new com.pesitwizard.fpdu.FpduView().wrap(java.nio.ByteBuffer.wrap(dtf)));
+            transfer.closeOutputStream();
+
+            assertNull(response);
+            assertTrue(article1.length + article2.length < 80);
+            assertEquals(80, transfer.getBytesTransferred());
+            assertEquals(2, transfer.getRecordsTransferred());
+            assertEquals(record1 + record2, java.nio.file.Files.readString(tempFile));
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleDtf should abort on invalid compressed data")
+    void handleDtfShouldAbortOnInvalidCompressedData() throws Exception {
+        SessionContext ctx = new SessionContext("test-session");
+        TransferContext transfer = ctx.startTransfer();
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        transfer.setLocalPath(tempFile);
+        transfer.openOutputStream();
+        transfer.setCompressionDecoder(new CompressionDecoder());
+
+        Fpdu fpdu = new Fpdu(FpduType.DTF);
+        fpdu.setData(new byte[] { (byte) 0x85 }); // vertical string without previous article
+
+        try {
+            Fpdu response = handler.handleTDE02B(ctx, fpdu);
+
+            assertNotNull(response);
+            assertEquals(FpduType.ABORT, response.getFpduType());
+        } finally {
+            transfer.closeOutputStream();
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleRead should send compressed articles when PI 21 was negotiated")
+    void handleReadShouldCompressArticles() throws Exception {
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        String content = String.format("%-100s", "HEADER") + String.format("%-100s", "00001 DUPONT")
+                + String.format("%-100s", "00002 DUPONT");
+        java.nio.file.Files.writeString(tempFile, content);
+
+        try {
+            SessionContext ctx = new SessionContext("test-session");
+            ctx.transitionTo(ServerState.OF02_TRANSFER_READY);
+            TransferContext transfer = ctx.startTransfer();
+            transfer.setLocalPath(tempFile);
+            transfer.setRecordLength(100);
+            transfer.setCompression(CompressionMode.HORIZONTAL_VERTICAL.getCode());
+
+            when(properties.getMaxEntitySize()).thenReturn(4096);
+
+            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+            handler.handleRead(ctx, new Fpdu(FpduType.READ), null, new java.io.DataOutputStream(baos));
+
+            // frames: ACK(READ), one DTF entity, DTF.END
+            java.nio.ByteBuffer frames = java.nio.ByteBuffer.wrap(baos.toByteArray());
+            frames.position(frames.position() + 2 + (frames.getShort(0) & 0xFFFF));
+            int dtfLength = frames.getShort() & 0xFFFF;
+            byte[] dtf = new byte[dtfLength];
+            frames.get(dtf);
+            com.pesitwizard.fpdu.FpduView view = new com.pesitwizard.fpdu.FpduView()
+                    .wrap(java.nio.ByteBuffer.wrap(dtf));
+            assertTrue(view.isDtf());
+            assertEquals(3, view.getIdSrc());
+            assertTrue(view.getDataLength() < content.length());
+
+            StringBuilder expanded = new StringBuilder();
+            new CompressionDecoder(100).decodeEntity(view.data(), view.getIdSrc(),
+                    article -> expanded.append(java.nio.charset.StandardCharsets.US_ASCII.decode(article)));
+            assertEquals(content, expanded.toString());
+            assertEquals(300, transfer.getBytesTransferred());
+            assertEquals(3, transfer.getRecordsTransferred());
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
     @Test
     @DisplayName("handleRead should return NACK_READ when no transfer context")
     void handleReadShouldReturnAbortWhenNoTransfer() throws Exception {
@@ -395,6 +647,88 @@ class DataTransferHandlerTest {
         }
     }
 
+    /** One frame holding the given FPDUs, as read by FpduIO */
+    private static java.io.DataInputStream frameOf(Fpdu... fpdus) throws java.io.IOException {
+        java.io.ByteArrayOutputStream frame = new java.io.ByteArrayOutputStream();
+        for (Fpdu fpdu : fpdus) {
+            frame.write(com.pesitwizard.fpdu.FpduBuilder.buildFpdu(fpdu));
+        }
+        java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+        new java.io.DataOutputStream(stream).writeShort(frame.size());
+        frame.writeTo(stream);
+        return new java.io.DataInputStream(new java.io.ByteArrayInputStream(stream.toByteArray()));
+    }
+
+    private static Fpdu ackSyn(int syncPoint) {
+        return new Fpdu(FpduType.ACK_SYN)
+                .withParameter(new ParameterValue(ParameterIdentifier.PI_20_NUM_SYNC, syncPoint));
+    }
+
+    @Test
+    @DisplayName("handleRead should acknowledge every ACK_SYN of a concatenated frame")
+    void handleReadShouldReadConcatenatedAckSyns() throws Exception {
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        java.nio.file.Files.write(tempFile, new byte[4 * 1024]);
+
+        try {
+            SessionContext ctx = new SessionContext("test-session");
+            ctx.transitionTo(ServerState.OF02_TRANSFER_READY);
+            ctx.setSyncPointsEnabled(true);
+            ctx.setClientSyncIntervalKb(1);
+            ctx.setSyncAckWindow(4);
+            TransferContext transfer = ctx.startTransfer();
+            transfer.setLocalPath(tempFile);
+
+            when(properties.getMaxEntitySize()).thenReturn(1024);
+
+            // SYNs 1 to 3 go out before entities 2 to 4, all acknowledged in one frame
+            java.io.DataInputStream in = frameOf(ackSyn(1), ackSyn(2), ackSyn(3));
+            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+            Fpdu response = handler.handleRead(ctx, new Fpdu(FpduType.READ), in,
+                    new java.io.DataOutputStream(baos));
+
+            assertNull(response);
+            assertEquals(ServerState.TDL02B_SENDING_DATA, ctx.getState());
+            assertEquals(3, transfer.getCurrentSyncPoint());
+            verify(transferTracker).trackSentSyncPoint(ctx, 3, 3 * 1024);
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleRead should abort the transfer on an ABORT read instead of an ACK_SYN")
+    void handleReadShouldAbortOnPeerAbort() throws Exception {
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        java.nio.file.Files.write(tempFile, new byte[4 * 1024]);
+
+        try {
+            SessionContext ctx = new SessionContext("test-session");
+            ctx.transitionTo(ServerState.OF02_TRANSFER_READY);
+            ctx.setSyncPointsEnabled(true);
+            ctx.setClientSyncIntervalKb(1);
+            ctx.setSyncAckWindow(4);
+            ctx.setTransferRecordId("record-1");
+            TransferContext transfer = ctx.startTransfer();
+            transfer.setLocalPath(tempFile);
+
+            when(properties.getMaxEntitySize()).thenReturn(1024);
+
+            Fpdu abort = new Fpdu(FpduType.ABORT).withParameter(new ParameterValue(ParameterIdentifier.PI_02_DIAG,
+                    com.pesitwizard.fpdu.DiagnosticCode.D3_311.toBytes()));
+            java.io.DataInputStream in = frameOf(ackSyn(1), abort);
+            Fpdu response = handler.handleRead(ctx, new Fpdu(FpduType.READ), in,
+                    new java.io.DataOutputStream(new java.io.ByteArrayOutputStream()));
+
+            assertNull(response);
+            assertTrue(ctx.isAborted());
+            assertEquals(ServerState.CN01_REPOS, ctx.getState());
+            verify(transferTracker).trackTransferFailed(ctx, "030137", "Transfer aborted by peer");
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
     @Test
     @DisplayName("handleRead should handle restart point")
     void handleReadShouldHandleRestartPoint() throws Exception {
@@ -409,6 +743,8 @@ class DataTransferHandlerTest {
             transfer.setLocalPath(tempFile);
 
             when(properties.getMaxEntitySize()).thenReturn(4096);
+            // Sync point 5 was sent before "restart"
+            when(transferTracker.findSentSyncPointOffset(ctx, null, 5)).thenReturn(17L);
 
             // Add restart point parameter
             Fpdu fpdu = new Fpdu(FpduType.READ);
@@ -421,6 +757,37 @@ class DataTransferHandlerTest {
 
             assertNull(response);
             assertEquals(5, transfer.getRestartPoint());
+            assertEquals(17 + "restart".length(), transfer.getBytesTransferred());
+            assertTrue(baos.toString(java.nio.charset.StandardCharsets.US_ASCII).contains("restart"));
+            assertFalse(baos.toString(java.nio.charset.StandardCharsets.US_ASCII).contains("content"));
+            verify(transferTracker).trackSentSyncPoint(ctx, 5, 17);
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    @DisplayName("handleRead should refuse a restart point whose offset is unknown")
+    void handleReadShouldRefuseUnknownRestartPoint() throws Exception {
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("test", ".dat");
+        java.nio.file.Files.writeString(tempFile, "Test content for restart");
+
+        try {
+            SessionContext ctx = new SessionContext("test-session");
+            ctx.transitionTo(ServerState.OF02_TRANSFER_READY);
+            TransferContext transfer = ctx.startTransfer();
+            transfer.setLocalPath(tempFile);
+
+            when(transferTracker.findSentSyncPointOffset(ctx, null, 5)).thenReturn(-1L);
+
+            Fpdu fpdu = new Fpdu(FpduType.READ);
+            fpdu.withParameter(new ParameterValue(ParameterIdentifier.PI_18_POINT_RELANCE, 5));
+
+            Fpdu response = handler.handleRead(ctx, fpdu, null, null);
+
+            assertNotNull(response);
+            assertEquals(FpduType.ACK_READ, response.getFpduType()); // NACK is ACK with error diag
+            assertEquals(ServerState.OF02_TRANSFER_READY, ctx.getState());
         } finally {
             java.nio.file.Files.deleteIfExists(tempFile);
         }
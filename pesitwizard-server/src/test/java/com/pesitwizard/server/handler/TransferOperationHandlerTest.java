@@ -14,11 +14,14 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.pesitwizard.fpdu.CompressionMode;
+import com.pesitwizard.fpdu.EbcdicCodePage;
 import com.pesitwizard.fpdu.Fpdu;
 import com.pesitwizard.fpdu.FpduType;
 import com.pesitwizard.fpdu.ParameterGroupIdentifier;
 import com.pesitwizard.fpdu.ParameterIdentifier;
 import com.pesitwizard.fpdu.ParameterValue;
+import com.pesitwizard.server.config.PartnerConfig;
 import com.pesitwizard.server.config.PesitServerProperties;
 import com.pesitwizard.server.model.SessionContext;
 import com.pesitwizard.server.model.TransferContext;
@@ -83,11 +86,85 @@ class TransferOperationHandlerTest {
 
         Fpdu fpdu = new Fpdu(FpduType.OPEN);
         fpdu.withParameter(new ParameterValue(ParameterIdentifier.PI_21_COMPRESSION, 1));
+        when(properties.getCompression()).thenReturn(CompressionMode.HORIZONTAL_VERTICAL);
 
         Fpdu response = handler.handleOpen(ctx, fpdu);
 
         assertNotNull(response);
         assertEquals(1, transfer.getCompression());
+        assertArrayEquals(new byte[] { 1, 1 },
+                response.getParameter(ParameterIdentifier.PI_21_COMPRESSION).getValue());
+    }
+
+    @Test
+    @DisplayName("handleOpen should accept only the compression the server supports")
+    void handleOpenShouldNegotiateCompression() throws java.io.IOException {
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.SF03_FILE_SELECTED);
+        TransferContext transfer = ctx.startTransfer();
+        transfer.setWriteMode(true);
+        transfer.setRecordLength(80);
+
+        Fpdu fpdu = new Fpdu(FpduType.OPEN);
+        fpdu.withParameter(new ParameterValue(ParameterIdentifier.PI_21_COMPRESSION,
+                CompressionMode.HORIZONTAL_VERTICAL.toPi21()));
+        when(properties.getCompression()).thenReturn(CompressionMode.HORIZONTAL);
+
+        Fpdu response = handler.handleOpen(ctx, fpdu);
+
+        assertEquals(CompressionMode.HORIZONTAL.getCode(), transfer.getCompression());
+        assertNotNull(transfer.getCompressionDecoder());
+        assertArrayEquals(CompressionMode.HORIZONTAL.toPi21(),
+                response.getParameter(ParameterIdentifier.PI_21_COMPRESSION).getValue());
+    }
+
+    @Test
+    @DisplayName("handleOpen should refuse compression when disabled on the server")
+    void handleOpenShouldRefuseCompressionWhenDisabled() throws java.io.IOException {
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.SF03_FILE_SELECTED);
+        TransferContext transfer = ctx.startTransfer();
+
+        Fpdu fpdu = new Fpdu(FpduType.OPEN);
+        fpdu.withParameter(new ParameterValue(ParameterIdentifier.PI_21_COMPRESSION,
+                CompressionMode.VERTICAL.toPi21()));
+        when(properties.getCompression()).thenReturn(CompressionMode.NONE);
+
+        Fpdu response = handler.handleOpen(ctx, fpdu);
+
+        assertEquals(0, transfer.getCompression());
+        assertNull(transfer.getCompressionDecoder());
+        assertNull(response.getParameter(ParameterIdentifier.PI_21_COMPRESSION));
+    }
+
+    @Test
+    @DisplayName("handleOpen should transcode EBCDIC data with the partner code page")
+    void handleOpenShouldSelectPartnerCodePage() throws java.io.IOException {
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.SF03_FILE_SELECTED);
+        PartnerConfig partner = new PartnerConfig();
+        partner.setCodePage(EbcdicCodePage.CP297);
+        ctx.setPartnerConfig(partner);
+        TransferContext transfer = ctx.startTransfer();
+        transfer.setDataCode(1);
+
+        handler.handleOpen(ctx, new Fpdu(FpduType.OPEN));
+
+        assertSame(EbcdicCodePage.CP297.toEbcdic(), transfer.getDataTranscoder());
+    }
+
+    @Test
+    @DisplayName("handleOpen should store data as received without a partner code page")
+    void handleOpenShouldNotTranscodeWithoutCodePage() throws java.io.IOException {
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.SF03_FILE_SELECTED);
+        ctx.setPartnerConfig(new PartnerConfig());
+        TransferContext transfer = ctx.startTransfer();
+        transfer.setDataCode(1);
+
+        handler.handleOpen(ctx, new Fpdu(FpduType.OPEN));
+
+        assertNull(transfer.getDataTranscoder());
     }
 
     @Test
@@ -440,6 +517,32 @@ class TransferOperationHandlerTest {
         verify(transferTracker).trackTransferStart(any(), any(), any(), any(), any(), any(), any());
     }
 
+    @Test
+    @DisplayName("handleCreate restart should continue the interrupted file")
+    void handleCreateRestartShouldContinueInterruptedFile() throws Exception {
+        Path interrupted = tempDir.resolve("TESTFILE_1234");
+        java.nio.file.Files.writeString(interrupted, "partial");
+
+        SessionContext ctx = new SessionContext("test-session");
+        ctx.transitionTo(ServerState.CN03_CONNECTED);
+
+        Fpdu fpdu = new Fpdu(FpduType.CREATE);
+        fpdu.withParameter(new ParameterValue(ParameterGroupIdentifier.PGI_09_ID_FICHIER,
+                new ParameterValue(ParameterIdentifier.PI_12_NOM_FICHIER, "TESTFILE".getBytes())));
+        fpdu.withParameter(new ParameterValue(ParameterIdentifier.PI_15_TRANSFERT_RELANCE, new byte[] { 0x01 }));
+
+        when(fileValidator.validateForCreate(any(), any())).thenReturn(ValidationResult.ok());
+        when(transferTracker.findRestartPath(ctx, "TESTFILE")).thenReturn(interrupted);
+        when(properties.getMaxEntitySize()).thenReturn(4096);
+
+        Fpdu response = handler.handleCreate(ctx, fpdu);
+
+        assertEquals(FpduType.ACK_CREATE, response.getFpduType());
+        assertTrue(ctx.getCurrentTransfer().isRestart());
+        assertEquals(interrupted, ctx.getCurrentTransfer().getLocalPath());
+        verify(fileSystemService, never()).createDirectories(any());
+    }
+
     @Test
     @DisplayName("handleCreate should return ABORT when directory creation fails")
     void handleCreateShouldReturnAbortWhenDirectoryCreationFails() throws Exception {
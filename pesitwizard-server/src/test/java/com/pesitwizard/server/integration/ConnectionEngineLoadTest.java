@@ -0,0 +1,143 @@
+package com.pesitwizard.server.integration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.pesitwizard.server.config.PesitServerProperties;
+import com.pesitwizard.server.config.PesitServerProperties.ConnectionEngine;
+import com.pesitwizard.server.config.SslProperties;
+import com.pesitwizard.server.entity.PesitServerConfig;
+import com.pesitwizard.server.handler.PesitSessionHandler;
+import com.pesitwizard.server.model.SessionContext;
+import com.pesitwizard.server.service.PesitServerInstance;
+import com.pesitwizard.server.ssl.SslContextFactory;
+
+/**
+ * Load test comparing the connection engines with many idle PeSIT sessions.
+ * Each client connects and sends nothing, so every session stays blocked on
+ * its first read - the typical batch-window partner keeping a session open.
+ *
+ * The number of sessions defaults to 500 and can be raised with
+ * -Dpesit.loadtest.sessions=10000 (the OS file descriptor limit must allow it).
+ */
+@DisplayName("Connection Engine Load Tests")
+class ConnectionEngineLoadTest {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ConnectionEngineLoadTest.class);
+    private static final int SESSIONS = Integer.getInteger("pesit.loadtest.sessions", 500);
+    private static final int TEST_PORT_BASE = 17500;
+
+    @Test
+    @Timeout(120)
+    @DisplayName("Virtual threads should hold idle sessions without one platform thread each")
+    void virtualThreadsShouldHoldIdleSessionsWithoutPlatformThreads() throws Exception {
+        EngineResult platform = runIdleSessions(ConnectionEngine.PLATFORM_THREADS, TEST_PORT_BASE);
+        EngineResult virtual = runIdleSessions(ConnectionEngine.VIRTUAL_THREADS, TEST_PORT_BASE + 1);
+
+        log.info("{} idle sessions: PLATFORM_THREADS +{} threads in {} ms, VIRTUAL_THREADS +{} threads in {} ms",
+                SESSIONS, platform.extraThreads(), platform.elapsedMs(),
+                virtual.extraThreads(), virtual.elapsedMs());
+
+        assertThat(platform.acceptedSessions()).isEqualTo(SESSIONS);
+        assertThat(virtual.acceptedSessions()).isEqualTo(SESSIONS);
+        // Platform engine parks one OS thread per session, virtual engine only
+        // needs its carrier pool (about one thread per core)
+        assertThat(platform.extraThreads()).isGreaterThanOrEqualTo(SESSIONS);
+        assertThat(virtual.extraThreads()).isLessThan(SESSIONS / 4);
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Virtual threads should still enforce maxConnections")
+    void virtualThreadsShouldEnforceMaxConnections() throws Exception {
+        PesitServerInstance server = startServer(ConnectionEngine.VIRTUAL_THREADS, TEST_PORT_BASE + 2, 5);
+        List<Socket> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                clients.add(new Socket("localhost", TEST_PORT_BASE + 2));
+            }
+            waitForActiveConnections(server, 5);
+            Thread.sleep(200);
+            assertThat(server.getActiveConnections()).isEqualTo(5);
+        } finally {
+            closeAll(clients);
+            server.stop();
+        }
+    }
+
+    private EngineResult runIdleSessions(ConnectionEngine engine, int port) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        PesitServerInstance server = startServer(engine, port, SESSIONS);
+        List<Socket> clients = new ArrayList<>(SESSIONS);
+        try {
+            int baseline = threads.getThreadCount();
+            long start = System.nanoTime();
+            for (int i = 0; i < SESSIONS; i++) {
+                clients.add(new Socket("localhost", port));
+            }
+            waitForActiveConnections(server, SESSIONS);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            int extraThreads = threads.getThreadCount() - baseline;
+            return new EngineResult(server.getActiveConnections(), extraThreads, elapsedMs);
+        } finally {
+            closeAll(clients);
+            server.stop();
+        }
+    }
+
+    private PesitServerInstance startServer(ConnectionEngine engine, int port, int maxConnections)
+            throws IOException {
+        PesitServerProperties properties = new PesitServerProperties();
+        properties.setPort(port);
+        properties.setServerId("LOADTEST");
+        properties.setMaxConnections(maxConnections);
+        properties.setReadTimeout(60000);
+        properties.setConnectionEngine(engine);
+
+        PesitServerConfig config = new PesitServerConfig();
+        config.setServerId("LOADTEST");
+        config.setPort(port);
+
+        PesitSessionHandler sessionHandler = mock(PesitSessionHandler.class);
+        when(sessionHandler.createSession(anyString(), anyString()))
+                .thenAnswer(inv -> new SessionContext(UUID.randomUUID().toString()));
+
+        PesitServerInstance server = new PesitServerInstance(config, properties, sessionHandler,
+                new SslProperties(), mock(SslContextFactory.class));
+        server.start();
+        return server;
+    }
+
+    private void waitForActiveConnections(PesitServerInstance server, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (server.getActiveConnections() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private void closeAll(List<Socket> sockets) {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private record EngineResult(int acceptedSessions, int extraThreads, long elapsedMs) {
+    }
+}
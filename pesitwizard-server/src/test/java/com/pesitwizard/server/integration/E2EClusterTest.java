@@ -318,8 +318,7 @@ public class E2EClusterTest {
         com.pesitwizard.server.service.FileSystemService fileSystemService = new com.pesitwizard.server.service.FileSystemService();
 
         // Create split handler components
-        com.pesitwizard.security.SecretsService secretsService = mock(com.pesitwizard.security.SecretsService.class);
-        ConnectionValidator connectionValidator = new ConnectionValidator(properties, configService, secretsService);
+        ConnectionValidator connectionValidator = new ConnectionValidator(properties, configService);
         FileValidator fileValidator = new FileValidator(properties, configService);
         TransferOperationHandler transferOperationHandler = new TransferOperationHandler(
                 properties, fileValidator, transferTracker, pathPlaceholderService, fileSystemService);
@@ -0,0 +1,76 @@
+package com.pesitwizard.server.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("SyncPointLog Tests")
+class SyncPointLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should keep the index next to the data file")
+    void shouldKeepIndexNextToDataFile() throws IOException {
+        Path data = tempDir.resolve("file.dat");
+        try (SyncPointLog log = SyncPointLog.open(data)) {
+            log.record(1, 10);
+        }
+        assertTrue(Files.exists(tempDir.resolve("file.dat.syn")));
+    }
+
+    @Test
+    @DisplayName("should return recorded offsets")
+    void shouldReturnRecordedOffsets() throws IOException {
+        try (SyncPointLog log = SyncPointLog.open(tempDir.resolve("file.dat"))) {
+            log.record(1, 1000);
+            log.record(2, 2500);
+            log.record(4, 7000);
+
+            assertEquals(0, log.offsetOf(0));
+            assertEquals(1000, log.offsetOf(1));
+            assertEquals(2500, log.offsetOf(2));
+            assertEquals(-1, log.offsetOf(3));
+            assertEquals(7000, log.offsetOf(4));
+            assertEquals(-1, log.offsetOf(5));
+        }
+    }
+
+    @Test
+    @DisplayName("should find the last sync point within the data")
+    void shouldFindLastSyncPointWithinData() throws IOException {
+        try (SyncPointLog log = SyncPointLog.open(tempDir.resolve("file.dat"))) {
+            log.record(1, 1000);
+            log.record(2, 2000);
+            log.record(3, 3000);
+
+            assertEquals(3, log.lastSyncPoint(3000));
+            assertEquals(2, log.lastSyncPoint(2999));
+            assertEquals(0, log.lastSyncPoint(999));
+        }
+    }
+
+    @Test
+    @DisplayName("should forget sync points after truncate")
+    void shouldForgetSyncPointsAfterTruncate() throws IOException {
+        Path data = tempDir.resolve("file.dat");
+        try (SyncPointLog log = SyncPointLog.open(data)) {
+            log.record(1, 1000);
+            log.record(2, 2000);
+            log.truncate(1);
+            log.force();
+        }
+        try (SyncPointLog log = SyncPointLog.open(data)) {
+            assertEquals(1000, log.offsetOf(1));
+            assertEquals(-1, log.offsetOf(2));
+            assertEquals(1, log.lastSyncPoint(Long.MAX_VALUE));
+        }
+    }
+}
@@ -3,14 +3,24 @@ package com.pesitwizard.server.model;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.pesitwizard.fpdu.EbcdicCodePage;
+import com.pesitwizard.server.config.SyncDurability;
+
 @DisplayName("TransferContext Tests")
 class TransferContextTest {
 
@@ -60,6 +70,40 @@ class TransferContextTest {
         assertEquals("Hello World!", new String(result));
     }
 
+    @Test
+    @DisplayName("should transcode appended data without touching the source buffer")
+    void shouldTranscodeAppendedData() throws IOException {
+        context.setLocalPath(tempDir.resolve("ebcdic.dat"));
+        context.openOutputStream();
+        context.setDataTranscoder(EbcdicCodePage.CP037.toAscii());
+        byte[] hello = { (byte) 0xC8, (byte) 0xC5, (byte) 0xD3, (byte) 0xD3, (byte) 0xD6, 0x40 }; // "HELLO "
+        byte[] world = { (byte) 0xE6, (byte) 0xD6, (byte) 0xD9, (byte) 0xD3, (byte) 0xC4, 0x5A }; // "WORLD!"
+
+        context.appendData(ByteBuffer.wrap(hello));
+        context.appendData(world);
+        context.closeOutputStream();
+
+        assertEquals(12, context.getBytesTransferred());
+        assertEquals((byte) 0xC8, hello[0]);
+        assertEquals("HELLO WORLD!", new String(context.getData()));
+    }
+
+    @Test
+    @DisplayName("should hash appended data as it is written")
+    void shouldDigestAppendedData() throws IOException, NoSuchAlgorithmException {
+        context.setLocalPath(tempDir.resolve("digest.dat"));
+        context.openOutputStream();
+        context.setDigest(MessageDigest.getInstance("SHA-256"));
+
+        context.appendData("Hello ".getBytes());
+        context.appendData(ByteBuffer.wrap("big ".getBytes()));
+        context.appendData(ByteBuffer.allocateDirect(6).put("World!".getBytes()).flip());
+        context.closeOutputStream();
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(context.getLocalPath()));
+        assertArrayEquals(expected, context.getDigest().digest());
+    }
+
     @Test
     @DisplayName("should reset all fields")
     void shouldResetAllFields() throws IOException {
@@ -153,4 +197,102 @@ class TransferContextTest {
 
         assertEquals(endTime, context.getEndTime());
     }
+
+    @Test
+    @DisplayName("should resume a restarted reception at its last sync point")
+    void shouldResumeAtLastSyncPoint() throws IOException {
+        Path file = tempDir.resolve("restart.dat");
+        context.setLocalPath(file);
+        context.openOutputStream();
+        context.appendData("first-".getBytes());
+        context.syncPoint(1);
+        context.appendData("second-".getBytes());
+        context.syncPoint(2);
+        context.appendData("lost".getBytes());
+        context.closeOutputStream();
+
+        TransferContext restarted = new TransferContext();
+        restarted.setLocalPath(file);
+        restarted.setRestart(true);
+        restarted.openOutputStream();
+        assertEquals(2, restarted.resumeFromLastSyncPoint());
+        assertEquals(13, restarted.getBytesTransferred());
+        restarted.appendData("third".getBytes());
+        restarted.closeOutputStream();
+
+        assertEquals("first-second-third", Files.readString(file));
+    }
+
+    @Test
+    @DisplayName("should restart from the beginning without sync point index")
+    void shouldRestartFromBeginningWithoutIndex() throws IOException {
+        Path file = tempDir.resolve("none.dat");
+        context.setLocalPath(file);
+        context.setSyncDurability(SyncDurability.NONE);
+        context.openOutputStream();
+        context.appendData("data".getBytes());
+        context.syncPoint(1);
+        context.closeOutputStream();
+        assertFalse(Files.exists(SyncPointLog.pathOf(file)));
+
+        TransferContext restarted = new TransferContext();
+        restarted.setLocalPath(file);
+        restarted.setSyncDurability(SyncDurability.NONE);
+        restarted.setRestart(true);
+        restarted.openOutputStream();
+        assertEquals(0, restarted.resumeFromLastSyncPoint());
+        restarted.closeOutputStream();
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("should record group-committed sync points no later than close")
+    void shouldCommitGroupedSyncPointsOnClose() throws IOException {
+        Path file = tempDir.resolve("group.dat");
+        context.setLocalPath(file);
+        context.setSyncDurability(SyncDurability.GROUP);
+        context.setSyncGroupCommitMs(60_000);
+        context.openOutputStream();
+        context.appendData(new byte[100]);
+        context.syncPoint(1);
+        context.appendData(new byte[50]);
+        context.syncPoint(2);
+        context.closeOutputStream();
+
+        try (SyncPointLog log = SyncPointLog.open(file)) {
+            assertEquals(150, log.offsetOf(2));
+        }
+        context.discardSyncPoints();
+        assertFalse(Files.exists(SyncPointLog.pathOf(file)));
+    }
+
+    @Test
+    @DisplayName("should checkpoint the digest of the sync point a group commit records")
+    void shouldCheckpointDigestOnGroupCommit() throws IOException, NoSuchAlgorithmException {
+        List<Long> offsets = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        context.setLocalPath(tempDir.resolve("group.dat"));
+        context.setSyncDurability(SyncDurability.GROUP);
+        context.setSyncGroupCommitMs(60_000);
+        context.setDigest(MessageDigest.getInstance("SHA-256"));
+        context.setDigestCheckpoint((digest, offset) -> {
+            offsets.add(offset);
+            try {
+                hashes.add(HexFormat.of().formatHex(((MessageDigest) digest.clone()).digest()));
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        context.openOutputStream();
+        context.appendData("sync point 1|".getBytes());
+        context.syncPoint(1);
+        context.appendData("after".getBytes());
+        assertTrue(offsets.isEmpty());
+
+        context.closeOutputStream();
+
+        assertEquals(List.of(13L), offsets);
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest("sync point 1|".getBytes())),
+                hashes.get(0));
+    }
 }
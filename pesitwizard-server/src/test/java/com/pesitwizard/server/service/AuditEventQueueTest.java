@@ -0,0 +1,193 @@
+package com.pesitwizard.server.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pesitwizard.server.config.ClusterSchemaInterceptor;
+import com.pesitwizard.server.entity.AuditEvent;
+import com.pesitwizard.server.entity.AuditEvent.AuditCategory;
+import com.pesitwizard.server.entity.AuditEvent.AuditEventType;
+import com.pesitwizard.server.entity.AuditEvent.AuditOutcome;
+import com.pesitwizard.server.service.AuditEventQueue.OverflowPolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditEventQueue Tests")
+class AuditEventQueueTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ClusterSchemaInterceptor schemaInterceptor;
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Integer> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(schemaInterceptor.inspect(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        lenient().doAnswer(inv -> {
+            batches.add(inv.<Collection<?>>getArgument(1).size());
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    private AuditEventQueue queue(int capacity, int batchSize, OverflowPolicy policy) {
+        return new AuditEventQueue(jdbcTemplate, new TransactionTemplate(transactionManager), schemaInterceptor,
+                new ObjectMapper().findAndRegisterModules(), registry, capacity, batchSize, 50, policy,
+                tempDir.resolve("spill.jsonl").toString());
+    }
+
+    private static AuditEvent event(AuditEventType type, AuditOutcome outcome) {
+        return AuditEvent.builder().timestamp(Instant.now()).category(AuditCategory.ADMIN)
+                .eventType(type).outcome(outcome).build();
+    }
+
+    private static AuditEvent event() {
+        return event(AuditEventType.TRANSFER_STARTED, AuditOutcome.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("should write queued events in batches")
+    void shouldWriteInBatches() {
+        AuditEventQueue queue = queue(100, 10, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 25; i++) {
+            queue.enqueue(event());
+        }
+        assertEquals(25, queue.getDepth());
+
+        queue.flush();
+
+        assertEquals(List.of(10, 10, 5), batches);
+        assertEquals(0, queue.getDepth());
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(3, registry.get("pesit.audit.batch.size").summary().count());
+    }
+
+    @Test
+    @DisplayName("should spill overflowing events to a file and replay them")
+    void shouldSpillAndReplay() throws Exception {
+        AuditEventQueue queue = queue(2, 10, OverflowPolicy.SPILL);
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(event());
+        }
+        Path spillFile = tempDir.resolve("spill.jsonl");
+        assertEquals(2, queue.getDepth());
+        assertEquals(3, Files.readAllLines(spillFile).size());
+        assertEquals(3, registry.get("pesit.audit.spilled").counter().count());
+
+        queue.flush();
+
+        assertEquals(List.of(2, 3), batches);
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    @DisplayName("should drop only routine events when full")
+    void shouldDropRoutineEvents() {
+        AuditEventQueue queue = queue(1, 10, OverflowPolicy.DROP_ROUTINE);
+        queue.enqueue(event(AuditEventType.ACCESS_GRANTED, AuditOutcome.SUCCESS));
+        queue.enqueue(event(AuditEventType.ACCESS_GRANTED, AuditOutcome.SUCCESS));
+        assertEquals(1, registry.get("pesit.audit.dropped").counter().count());
+
+        // Not routine: waits for room (written by the caller here, no writer thread)
+        queue.enqueue(event(AuditEventType.ACCESS_DENIED, AuditOutcome.DENIED));
+
+        assertEquals(List.of(1), batches);
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    @DisplayName("should write all queued events on shutdown")
+    void shouldFlushOnStop() {
+        AuditEventQueue queue = queue(100, 50, OverflowPolicy.BLOCK);
+        queue.start();
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(event());
+        }
+
+        queue.stop();
+
+        assertEquals(3, batches.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    @DisplayName("should write events queued after shutdown")
+    void shouldWriteAfterStop() {
+        AuditEventQueue queue = queue(100, 50, OverflowPolicy.BLOCK);
+        queue.start();
+        queue.stop();
+
+        queue.enqueue(event());
+
+        assertEquals(List.of(1), batches);
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    @DisplayName("should spill events that cannot be written whatever the policy")
+    void shouldSpillUnwritableEvents() throws Exception {
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        AuditEventQueue queue = queue(100, 10, OverflowPolicy.BLOCK);
+        queue.enqueue(event());
+
+        assertDoesNotThrow(queue::flush);
+
+        Path spillFile = tempDir.resolve("spill.jsonl");
+        assertEquals(1, Files.readAllLines(spillFile).size());
+        assertEquals(1, registry.get("pesit.audit.spilled").counter().count());
+        assertEquals(0, registry.get("pesit.audit.lost").counter().count());
+
+        // Database back: the next flush replays the file
+        doAnswer(inv -> new int[0][]).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        queue.flush();
+
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    @DisplayName("should count events that can be neither written nor spilled")
+    void shouldCountLostEvents() {
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        AuditEventQueue queue = new AuditEventQueue(jdbcTemplate, new TransactionTemplate(transactionManager),
+                schemaInterceptor, new ObjectMapper().findAndRegisterModules(), registry, 100, 10, 50,
+                OverflowPolicy.BLOCK, tempDir.resolve("missing/spill.jsonl").toString());
+        queue.enqueue(event());
+
+        assertDoesNotThrow(queue::flush);
+
+        assertEquals(1, registry.get("pesit.audit.lost").counter().count());
+    }
+}
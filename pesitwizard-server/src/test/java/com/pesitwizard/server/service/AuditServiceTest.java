@@ -35,6 +35,9 @@ class AuditServiceTest {
     @Mock
     private AuditEventRepository auditRepository;
 
+    @Mock
+    private AuditEventQueue auditQueue;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -62,26 +65,22 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log audit event")
         void shouldLogAuditEvent() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             AuditEvent result = auditService.log(AuditEvent.builder()
                     .category(AuditCategory.TRANSFER)
                     .eventType(AuditEventType.TRANSFER_STARTED)
                     .outcome(AuditOutcome.SUCCESS));
 
             assertNotNull(result);
-            verify(auditRepository).save(any(AuditEvent.class));
+            verify(auditQueue).enqueue(any(AuditEvent.class));
         }
 
         @Test
         @DisplayName("Should log authentication success")
         void shouldLogAuthSuccess() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logAuthSuccess("user1", "PASSWORD", "192.168.1.1", "session-123");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             AuditEvent saved = captor.getValue();
             assertEquals(AuditCategory.AUTHENTICATION, saved.getCategory());
@@ -92,12 +91,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log authentication failure")
         void shouldLogAuthFailure() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logAuthFailure("user1", "PASSWORD", "192.168.1.1", "Invalid password");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditOutcome.FAILURE, captor.getValue().getOutcome());
         }
@@ -105,12 +102,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log access denied")
         void shouldLogAccessDenied() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logAccessDenied("user1", "Partner", "DELETE", "192.168.1.1");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditCategory.AUTHORIZATION, captor.getValue().getCategory());
             assertEquals(AuditOutcome.DENIED, captor.getValue().getOutcome());
@@ -119,12 +114,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log transfer started")
         void shouldLogTransferStarted() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logTransferStarted("xfer-1", "partner-1", "file.txt", "RECEIVE", "user1", "192.168.1.1");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditCategory.TRANSFER, captor.getValue().getCategory());
             assertEquals(AuditEventType.TRANSFER_STARTED, captor.getValue().getEventType());
@@ -133,12 +126,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log transfer completed")
         void shouldLogTransferCompleted() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logTransferCompleted("xfer-1", "partner-1", "file.txt", 1024000L, 5000L);
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditEventType.TRANSFER_COMPLETED, captor.getValue().getEventType());
             assertEquals(1024000L, captor.getValue().getBytesTransferred());
@@ -147,12 +138,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log transfer failed")
         void shouldLogTransferFailed() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logTransferFailed("xfer-1", "partner-1", "file.txt", "ERR_01", "Connection refused");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditOutcome.FAILURE, captor.getValue().getOutcome());
             assertEquals("ERR_01", captor.getValue().getErrorCode());
@@ -161,13 +150,11 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log configuration change")
         void shouldLogConfigChange() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logConfigChange(AuditEventType.PARTNER_CREATED, "Partner", "partner-1", "admin",
                     "Created partner");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditCategory.CONFIGURATION, captor.getValue().getCategory());
         }
@@ -175,13 +162,11 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log security event")
         void shouldLogSecurityEvent() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logSecurityEvent(AuditEventType.CERTIFICATE_VALIDATION_FAILED, AuditOutcome.FAILURE,
                     "192.168.1.1", "Certificate expired");
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditCategory.SECURITY, captor.getValue().getCategory());
         }
@@ -189,12 +174,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log API request with success outcome for 2xx")
         void shouldLogApiRequestSuccess() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logApiRequest("admin", "GET", "/api/partners", 200, "192.168.1.1", 50L);
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditOutcome.SUCCESS, captor.getValue().getOutcome());
         }
@@ -202,12 +185,10 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log API request with denied outcome for 401/403")
         void shouldLogApiRequestDenied() {
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(testEvent);
-
             auditService.logApiRequest("user", "DELETE", "/api/partners/1", 403, "192.168.1.1", 10L);
 
             ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
-            verify(auditRepository).save(captor.capture());
+            verify(auditQueue).enqueue(captor.capture());
 
             assertEquals(AuditOutcome.DENIED, captor.getValue().getOutcome());
         }
@@ -383,19 +364,12 @@ class AuditServiceTest {
         @Test
         @DisplayName("Should log async event")
         void shouldLogAsyncEvent() {
-            AuditEvent event = AuditEvent.builder()
-                    .category(AuditCategory.TRANSFER)
-                    .eventType(AuditEventType.TRANSFER_STARTED)
-                    .outcome(AuditOutcome.SUCCESS)
-                    .build();
-            when(auditRepository.save(any(AuditEvent.class))).thenReturn(event);
-
             assertDoesNotThrow(() -> auditService.logAsync(AuditEvent.builder()
                     .category(AuditCategory.TRANSFER)
                     .eventType(AuditEventType.TRANSFER_STARTED)
                     .outcome(AuditOutcome.SUCCESS)));
 
-            verify(auditRepository).save(any(AuditEvent.class));
+            verify(auditQueue).enqueue(any(AuditEvent.class));
         }
     }
 
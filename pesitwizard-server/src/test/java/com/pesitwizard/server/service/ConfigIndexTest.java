@@ -0,0 +1,73 @@
+package com.pesitwizard.server.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.pesitwizard.server.entity.Partner;
+import com.pesitwizard.server.entity.VirtualFile;
+
+@DisplayName("ConfigIndex Tests")
+class ConfigIndexTest {
+
+    private static VirtualFile file(String id, boolean enabled) {
+        return VirtualFile.builder().id(id).enabled(enabled).build();
+    }
+
+    @Test
+    @DisplayName("Should resolve virtual files like an exact lookup followed by a scan of enabled patterns")
+    void shouldMatchLinearScan() {
+        List<VirtualFile> files = new ArrayList<>(List.of(
+                file("PAYROLL", true),
+                file("PAY*", true),
+                file("PAYROLL_*", true),
+                file("DISABLED*", false),
+                file("INV?OICE*", true),
+                file("REPORT_[0-9]+", true),
+                file("A|B", true),
+                file("*.csv", true),
+                file("X{0,1}Y*", true)));
+        for (int i = 0; i < 500; i++) {
+            files.add(file("BULK" + i + "_*", true));
+        }
+        ConfigIndex index = new ConfigIndex(List.of(), files);
+
+        for (String name : List.of("PAYROLL", "PAYROLL_2024", "PAYMENT", "DISABLED_1", "INVOICE_1", "INOICE_1",
+                "REPORT_42", "REPORT_X", "A", "B", "data.csv", "Y1", "XY1", "BULK42_x", "BULK499_", "BULK500_",
+                "UNKNOWN", "")) {
+            VirtualFile expected = files.stream().filter(f -> f.getId().equals(name)).findFirst()
+                    .orElseGet(() -> files.stream().filter(VirtualFile::isEnabled)
+                            .filter(f -> f.matches(name)).findFirst().orElse(null));
+            assertSame(expected, index.findVirtualFile(name), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find disabled files by exact id and skip invalid patterns")
+    void shouldHandleDisabledAndInvalidIds() {
+        VirtualFile disabled = file("OFF", false);
+        VirtualFile invalid = file("BAD[*", true);
+        ConfigIndex index = new ConfigIndex(List.of(), List.of(disabled, invalid));
+
+        assertSame(disabled, index.findVirtualFile("OFF"));
+        assertSame(invalid, index.findVirtualFile("BAD[*"));
+        assertNull(index.findVirtualFile("BAD[1"));
+    }
+
+    @Test
+    @DisplayName("Should find partners by exact then case-insensitive id")
+    void shouldFindPartners() {
+        Partner upper = Partner.builder().id("CLIENT").build();
+        Partner lower = Partner.builder().id("client").build();
+        ConfigIndex index = new ConfigIndex(List.of(upper, lower), List.of());
+
+        assertSame(lower, index.findPartner("client"));
+        assertSame(upper, index.findPartner("CLIENT"));
+        assertSame(upper, index.findPartner("Client"));
+        assertNull(index.findPartner("OTHER"));
+    }
+}
@@ -16,6 +16,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.pesitwizard.server.cluster.ClusterEvent;
+import com.pesitwizard.server.cluster.ClusterMessage;
+import com.pesitwizard.server.cluster.ClusterProvider;
 import com.pesitwizard.server.config.PesitServerProperties;
 import com.pesitwizard.server.entity.Partner;
 import com.pesitwizard.server.entity.VirtualFile;
@@ -39,6 +42,9 @@ class ConfigServiceTest {
     @Mock
     private SecretsService secretsService;
 
+    @Mock
+    private ClusterProvider clusterProvider;
+
     @InjectMocks
     private ConfigService configService;
 
@@ -106,7 +112,6 @@ class ConfigServiceTest {
         @Test
         @DisplayName("Should find partner case-insensitively")
         void shouldFindPartnerCaseInsensitive() {
-            when(partnerRepository.findById("partner1")).thenReturn(Optional.empty());
             when(partnerRepository.findAll()).thenReturn(List.of(testPartner));
 
             Optional<Partner> result = configService.findPartner("partner1");
@@ -151,6 +156,80 @@ class ConfigServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Lookup Index Tests")
+    class LookupIndexTests {
+
+        @Test
+        @DisplayName("Should load the configuration once for repeated lookups")
+        void shouldLoadConfigurationOnce() {
+            when(partnerRepository.findAll()).thenReturn(List.of(testPartner));
+            when(virtualFileRepository.findAll()).thenReturn(List.of(testVirtualFile));
+
+            for (int i = 0; i < 3; i++) {
+                assertTrue(configService.findPartner("partner1").isPresent());
+                assertTrue(configService.findVirtualFile("FILE1").isPresent());
+            }
+
+            verify(partnerRepository, times(1)).findAll();
+            verify(virtualFileRepository, times(1)).findAll();
+        }
+
+        @Test
+        @DisplayName("Should decrypt a partner password once and compare digests")
+        void shouldDecryptPasswordOnce() {
+            when(partnerRepository.findAll()).thenReturn(List.of(testPartner));
+            when(secretsService.decryptFromStorage("secret")).thenReturn("plain");
+
+            assertTrue(configService.checkPartnerPassword(testPartner, "plain"));
+            assertFalse(configService.checkPartnerPassword(testPartner, "secret"));
+            assertFalse(configService.checkPartnerPassword(testPartner, ""));
+
+            verify(secretsService, times(1)).decryptFromStorage("secret");
+        }
+
+        @Test
+        @DisplayName("Should rebuild the index and notify the cluster after a change")
+        void shouldInvalidateOnChange() {
+            when(partnerRepository.findAll()).thenReturn(List.of()).thenReturn(List.of(testPartner));
+            when(clusterProvider.getNodeName()).thenReturn("node-1");
+            assertTrue(configService.findPartner("PARTNER1").isEmpty());
+
+            configService.savePartner(testPartner);
+
+            assertTrue(configService.findPartner("PARTNER1").isPresent());
+            verify(clusterProvider).broadcast(new ClusterMessage(ClusterMessage.Type.CONFIG_CHANGED, null, "node-1"));
+        }
+
+        @Test
+        @DisplayName("Should drop an index rebuilt while a change is written")
+        void shouldDropIndexRebuiltDuringWrite() {
+            when(partnerRepository.findAll()).thenReturn(List.of()).thenReturn(List.of(testPartner));
+            when(partnerRepository.save(testPartner)).thenAnswer(inv -> {
+                // A concurrent lookup still sees the previous configuration
+                assertTrue(configService.findPartner("PARTNER1").isEmpty());
+                return testPartner;
+            });
+
+            configService.savePartner(testPartner);
+
+            assertTrue(configService.findPartner("PARTNER1").isPresent());
+        }
+
+        @Test
+        @DisplayName("Should rebuild the index when another node changes the configuration")
+        void shouldInvalidateOnClusterEvent() {
+            when(virtualFileRepository.findAll()).thenReturn(List.of()).thenReturn(List.of(testVirtualFile));
+            assertTrue(configService.findVirtualFile("FILE1").isEmpty());
+
+            configService.onClusterEvent(ClusterEvent.serverAcquired("server-1", "node-2"));
+            assertTrue(configService.findVirtualFile("FILE1").isEmpty());
+
+            configService.onClusterEvent(ClusterEvent.configChanged("node-2"));
+            assertTrue(configService.findVirtualFile("FILE1").isPresent());
+        }
+    }
+
     @Nested
     @DisplayName("Virtual File Management Tests")
     class VirtualFileManagementTests {
@@ -37,12 +37,15 @@ class EncryptionMigrationServiceTest {
     @Mock
     private CertificateStoreRepository certificateStoreRepository;
 
+    @Mock
+    private ConfigService configService;
+
     private EncryptionMigrationService migrationService;
 
     @BeforeEach
     void setUp() {
         migrationService = new EncryptionMigrationService(
-                secretsService, partnerRepository, certificateStoreRepository);
+                secretsService, partnerRepository, certificateStoreRepository, configService);
     }
 
     @Nested
@@ -67,6 +70,7 @@ class EncryptionMigrationServiceTest {
 
             assertThat(result.success()).isTrue();
             verify(partnerRepository).save(any(Partner.class));
+            verify(configService).configChanged();
         }
 
         @Test
@@ -84,6 +88,7 @@ class EncryptionMigrationServiceTest {
 
             assertThat(result.success()).isTrue();
             verify(partnerRepository, never()).save(any());
+            verify(configService, never()).configChanged();
         }
 
         @Test
@@ -146,6 +151,7 @@ class EncryptionMigrationServiceTest {
 
             assertThat(result.success()).isTrue();
             verify(partnerRepository, never()).save(any());
+            verify(configService, never()).configChanged();
         }
 
         @Test
@@ -7,6 +7,8 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +50,68 @@ class FileIntegrityServiceTest {
         ReflectionTestUtils.setField(service, "defaultAlgorithm", "SHA-256");
         ReflectionTestUtils.setField(service, "verificationIntervalDays", 7);
         ReflectionTestUtils.setField(service, "bufferSize", 8192);
+        ReflectionTestUtils.setField(service, "inlineChecksum", true);
+    }
+
+    @Nested
+    @DisplayName("Streaming Checksum Tests")
+    class StreamingChecksumTests {
+
+        @Test
+        @DisplayName("Should resume hashing from a sync point checkpoint")
+        void shouldResumeFromCheckpoint() throws IOException {
+            Path testFile = tempDir.resolve("received.dat");
+            Files.writeString(testFile, "first part|second part");
+
+            MessageDigest digest = service.resumeDigest(testFile.toString(), 0);
+            digest.update("first part|".getBytes());
+            service.checkpoint(testFile.toString(), 11, digest);
+            digest.update("garbage sent before the interruption".getBytes());
+
+            MessageDigest resumed = service.resumeDigest(testFile.toString(), 11);
+            resumed.update("second part".getBytes());
+
+            assertEquals(service.computeChecksum(testFile), HexFormat.of().formatHex(resumed.digest()));
+        }
+
+        @Test
+        @DisplayName("Should hash the kept part of the file without a checkpoint at the offset")
+        void shouldHashFileWithoutCheckpoint() throws IOException {
+            Path testFile = tempDir.resolve("received.dat");
+            Files.writeString(testFile, "first part|second part");
+            service.checkpoint(testFile.toString(), 5, service.newDigest());
+
+            MessageDigest resumed = service.resumeDigest(testFile.toString(), 11);
+            resumed.update("second part".getBytes());
+
+            assertEquals(service.computeChecksum(testFile), HexFormat.of().formatHex(resumed.digest()));
+            assertNull(service.resumeDigest(testFile.toString(), 100));
+        }
+
+        @Test
+        @DisplayName("Should store a received checksum as verified and drop its checkpoint")
+        void shouldStoreReceivedChecksumAsVerified() throws Exception {
+            when(checksumRepository.findByChecksumHash(anyString())).thenReturn(List.of());
+            when(checksumRepository.save(any(FileChecksum.class))).thenAnswer(inv -> inv.getArgument(0));
+            service.checkpoint("/data/in.dat", 10, MessageDigest.getInstance("SHA-256"));
+
+            FileChecksum result = service.storeReceivedChecksum("in.dat", 20L, "a".repeat(64),
+                    "transfer-1", "partner-1", "server-1", "/data/in.dat");
+
+            assertEquals(VerificationStatus.VERIFIED, result.getStatus());
+            assertEquals(TransferDirection.INBOUND, result.getDirection());
+            assertNotNull(result.getVerifiedAt());
+            assertNull(service.resumeDigest("/data/in.dat", 10));
+            verify(checksumRepository, times(1)).save(any(FileChecksum.class));
+        }
+
+        @Test
+        @DisplayName("Should not hash inline when disabled")
+        void shouldNotHashWhenDisabled() {
+            ReflectionTestUtils.setField(service, "inlineChecksum", false);
+
+            assertNull(service.newDigest());
+        }
     }
 
     @Nested
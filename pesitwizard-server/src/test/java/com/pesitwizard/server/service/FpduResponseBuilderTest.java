@@ -33,19 +33,22 @@ class FpduResponseBuilderTest {
         @Test
         @DisplayName("should build ACONNECT response")
         void shouldBuildAconnect() {
-            Fpdu response = FpduResponseBuilder.buildAconnect(sessionContext, 2, true, true, 4096, 32);
+            Fpdu response = FpduResponseBuilder.buildAconnect(sessionContext, 2, true, true, 4096, 32, 4);
 
             assertEquals(FpduType.ACONNECT, response.getFpduType());
             assertEquals(1, response.getIdDst());
             assertEquals(2, response.getIdSrc());
             // Verify PI 06 (protocol version) - ACONNECT doesn't have PI_25
             assertNotNull(response.getParameter(ParameterIdentifier.PI_06_VERSION));
+            // PI 07: [interval_high, interval_low, window]
+            assertArrayEquals(new byte[] { 0, 32, 4 },
+                    response.getParameter(ParameterIdentifier.PI_07_SYNC_POINTS).getValue());
         }
 
         @Test
         @DisplayName("should build ACONNECT without options")
         void shouldBuildAconnectWithoutOptions() {
-            Fpdu response = FpduResponseBuilder.buildAconnect(sessionContext, 2, false, false, 4096, 32);
+            Fpdu response = FpduResponseBuilder.buildAconnect(sessionContext, 2, false, false, 4096, 32, 1);
 
             assertEquals(FpduType.ACONNECT, response.getFpduType());
         }
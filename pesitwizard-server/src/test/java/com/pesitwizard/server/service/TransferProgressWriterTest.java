@@ -0,0 +1,184 @@
+package com.pesitwizard.server.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pesitwizard.server.entity.TransferRecord;
+import com.pesitwizard.server.entity.TransferRecord.TransferStatus;
+import com.pesitwizard.server.entity.TransferSyncPoint;
+import com.pesitwizard.server.repository.TransferRecordRepository;
+import com.pesitwizard.server.repository.TransferSyncPointRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransferProgressWriter Tests")
+class TransferProgressWriterTest {
+
+    @Mock
+    private TransferRecordRepository transferRepository;
+
+    @Mock
+    private TransferSyncPointRepository syncPointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferProgressWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new TransferProgressWriter(transferRepository, syncPointRepository,
+                new TransactionTemplate(transactionManager));
+    }
+
+    private static TransferRecord record(String transferId, TransferStatus status) {
+        return TransferRecord.builder().transferId(transferId).status(status).fileSize(1000L).build();
+    }
+
+    @Test
+    @DisplayName("should coalesce updates until the next flush")
+    void shouldCoalesceUpdates() {
+        TransferRecord record = record("t1", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+
+        writer.recordProgress("t1", 100);
+        writer.recordSyncPoint("t1", 100);
+        writer.recordProgress("t1", 500);
+        writer.recordSyncPoint("t1", 500);
+        verifyNoInteractions(transferRepository);
+        assertEquals(1, writer.getPendingCount());
+
+        writer.flush();
+
+        assertEquals(500L, record.getBytesTransferred());
+        assertEquals(50, record.getProgressPercent());
+        assertEquals(500L, record.getLastSyncPoint());
+        assertEquals(2, record.getSyncPointCount());
+        verify(transferRepository).saveAll(List.of(record));
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("should write all pending transfers in one transaction")
+    void shouldWriteBatchInOneTransaction() {
+        TransferRecord first = record("t1", TransferStatus.IN_PROGRESS);
+        TransferRecord second = record("t2", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1", "t2"))).thenReturn(List.of(first, second));
+
+        writer.recordSyncPoint("t1", 10);
+        writer.recordSyncPoint("t2", 20);
+        writer.flush();
+
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+        assertEquals(10L, first.getLastSyncPoint());
+        assertEquals(20L, second.getLastSyncPoint());
+    }
+
+    @Test
+    @DisplayName("should flush a single transfer and keep the others pending")
+    void shouldFlushSingleTransfer() {
+        TransferRecord record = record("t1", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+
+        writer.recordProgress("t1", 300);
+        writer.recordProgress("t2", 400);
+        writer.flush("t1");
+
+        assertEquals(300L, record.getBytesTransferred());
+        assertEquals(1, writer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("should not overwrite a transfer that already ended")
+    void shouldSkipFinishedTransfers() {
+        TransferRecord record = record("t1", TransferStatus.COMPLETED);
+        record.setBytesTransferred(1000L);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+
+        writer.recordProgress("t1", 200);
+        writer.recordSyncPoint("t1", 200);
+        writer.flush();
+
+        assertEquals(1000L, record.getBytesTransferred());
+        assertEquals(0L, record.getLastSyncPoint());
+        assertEquals(0, record.getSyncPointCount());
+    }
+
+    @Test
+    @DisplayName("should insert the offset of every sent sync point before the flush")
+    void shouldInsertEverySentSyncPointOffset() {
+        TransferRecord record = record("t1", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+
+        writer.recordSyncPoint("t1", 1, 4096);
+        writer.recordSyncPoint("t1", 2, 8192);
+
+        // A READ restarted now finds both offsets
+        ArgumentCaptor<TransferSyncPoint> saved = ArgumentCaptor.forClass(TransferSyncPoint.class);
+        verify(syncPointRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(1, 2), saved.getAllValues().stream().map(TransferSyncPoint::getSyncPoint).toList());
+        assertEquals(List.of(4096L, 8192L),
+                saved.getAllValues().stream().map(TransferSyncPoint::getByteOffset).toList());
+        assertEquals(1, writer.getPendingCount());
+
+        writer.flush();
+
+        assertEquals(8192L, record.getLastSyncPoint());
+        assertEquals(2, record.getSyncPointCount());
+    }
+
+    @Test
+    @DisplayName("should commit progress when the sync point offsets cannot be inserted")
+    void shouldCommitProgressWhenOffsetsFail() {
+        TransferRecord record = record("t1", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+        when(syncPointRepository.save(any())).thenThrow(new RuntimeException("Duplicate key"));
+
+        writer.recordSyncPoint("t1", 1, 4096);
+        writer.flush();
+
+        verify(transferRepository).saveAll(List.of(record));
+        verify(transactionManager).commit(any());
+        verify(transactionManager).rollback(any());
+        assertEquals(4096L, record.getLastSyncPoint());
+    }
+
+    @Test
+    @DisplayName("should write each update immediately when write-behind is disabled")
+    void shouldWriteThroughWhenDisabled() {
+        ReflectionTestUtils.setField(writer, "writeBehind", false);
+        TransferRecord record = record("t1", TransferStatus.IN_PROGRESS);
+        when(transferRepository.findByTransferIdIn(Set.of("t1"))).thenReturn(List.of(record));
+
+        writer.recordSyncPoint("t1", 700);
+
+        assertEquals(700L, record.getLastSyncPoint());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("should not propagate database errors")
+    void shouldSwallowDatabaseErrors() {
+        when(transferRepository.findByTransferIdIn(anyCollection())).thenThrow(new RuntimeException("Database error"));
+
+        writer.recordProgress("t1", 100);
+
+        assertDoesNotThrow(() -> writer.flush());
+        assertEquals(0, writer.getPendingCount());
+    }
+}
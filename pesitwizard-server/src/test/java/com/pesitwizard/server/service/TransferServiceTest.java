@@ -17,7 +17,9 @@ import org.springframework.transaction.annotation.Transactional;
 import com.pesitwizard.server.entity.TransferRecord;
 import com.pesitwizard.server.entity.TransferRecord.TransferDirection;
 import com.pesitwizard.server.entity.TransferRecord.TransferStatus;
+import com.pesitwizard.server.entity.TransferSyncPoint;
 import com.pesitwizard.server.repository.TransferRecordRepository;
+import com.pesitwizard.server.repository.TransferSyncPointRepository;
 import com.pesitwizard.server.service.TransferService.TransferStatistics;
 
 /**
@@ -34,6 +36,9 @@ public class TransferServiceTest {
     @Autowired
     private TransferRecordRepository transferRepository;
 
+    @Autowired
+    private TransferSyncPointRepository syncPointRepository;
+
     @BeforeEach
     void setUp() {
         transferRepository.deleteAll();
@@ -444,6 +449,72 @@ public class TransferServiceTest {
         assertDoesNotThrow(() -> transferService.cleanupOldTransfers());
     }
 
+    @Test
+    @DisplayName("Cleanup removes sync points of deleted transfers")
+    void testCleanupRemovesOrphanSyncPoints() {
+        TransferRecord transfer = transferService.createTransfer(
+                "session-sync", "server-1", "node-1",
+                "PARTNER_A", "failed.dat", TransferDirection.SEND, "192.168.1.1");
+        transferService.failTransfer(transfer.getTransferId(), "D2_213", "Connection lost");
+        syncPointRepository.save(TransferSyncPoint.builder()
+                .transferId(transfer.getTransferId()).syncPoint(1).byteOffset(4096L).build());
+        syncPointRepository.save(TransferSyncPoint.builder()
+                .transferId("deleted-transfer").syncPoint(1).byteOffset(4096L).build());
+
+        transferService.cleanupOldTransfers();
+
+        assertTrue(syncPointRepository.findByTransferIdAndSyncPoint(transfer.getTransferId(), 1).isPresent());
+        assertTrue(syncPointRepository.findByTransferIdAndSyncPoint("deleted-transfer", 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A reception taken over by a restart is no longer restartable")
+    void testMarkResumedReception() {
+        TransferRecord interrupted = transferService.createTransfer(
+                "session-rcv-1", "server-1", "node-rcv",
+                "PARTNER_W", "write.dat", TransferDirection.RECEIVE, "192.168.1.1");
+        transferService.startTransfer(interrupted.getTransferId(), 10000L, "/data/write.dat_1");
+        transferService.markInterruptedTransfers("node-rcv");
+        assertEquals(List.of(interrupted.getTransferId()),
+                transferService.findRestartable("PARTNER_W", "write.dat", TransferDirection.RECEIVE).stream()
+                        .map(TransferRecord::getTransferId).toList());
+
+        TransferRecord restart = transferService.createTransfer(
+                "session-rcv-2", "server-1", "node-rcv",
+                "PARTNER_W", "write.dat", TransferDirection.RECEIVE, "192.168.1.1");
+        transferService.markResumed(interrupted.getTransferId(), restart.getTransferId());
+        transferService.failTransfer(restart.getTransferId(), "D2_213", "Connection lost");
+
+        // Only the restart itself is left to continue
+        assertEquals(List.of(restart.getTransferId()),
+                transferService.findRestartable("PARTNER_W", "write.dat", TransferDirection.RECEIVE).stream()
+                        .map(TransferRecord::getTransferId).toList());
+        assertEquals(interrupted.getTransferId(),
+                transferService.getTransferOrThrow(restart.getTransferId()).getParentTransferId());
+    }
+
+    @Test
+    @DisplayName("Find a sent sync point past a later read that failed before sending any")
+    void testFindSentSyncPointOffsetAcrossUnfinishedReads() {
+        TransferRecord interrupted = transferService.createTransfer(
+                "session-read-1", "server-1", "node-1",
+                "PARTNER_R", "read.dat", TransferDirection.SEND, "192.168.1.1");
+        transferService.startTransfer(interrupted.getTransferId(), 10000L, "/data/read.dat");
+        syncPointRepository.save(TransferSyncPoint.builder()
+                .transferId(interrupted.getTransferId()).syncPoint(3).byteOffset(6144L).build());
+        transferService.markInterruptedTransfers("node-1");
+
+        // A later attempt fails before its data phase, leaving no sync point
+        TransferRecord failed = transferService.createTransfer(
+                "session-read-2", "server-1", "node-1",
+                "PARTNER_R", "read.dat", TransferDirection.SEND, "192.168.1.1");
+        transferService.failTransfer(failed.getTransferId(), "D2_205", "File busy");
+
+        assertEquals(6144L, transferService.findSentSyncPointOffset("PARTNER_R", "read.dat", 3).orElseThrow());
+        assertTrue(transferService.findSentSyncPointOffset("PARTNER_R", "read.dat", 4).isEmpty());
+        assertTrue(transferService.findSentSyncPointOffset("PARTNER_X", "read.dat", 3).isEmpty());
+    }
+
     @Test
     @DisplayName("Get all transfers with pagination")
     void testGetAllTransfers() {
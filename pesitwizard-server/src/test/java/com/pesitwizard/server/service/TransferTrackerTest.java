@@ -4,11 +4,18 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,6 +32,12 @@ class TransferTrackerTest {
     @Mock
     private TransferService transferService;
 
+    @Mock
+    private FileIntegrityService integrityService;
+
+    @Mock
+    private TransferProgressWriter progressWriter;
+
     @InjectMocks
     private TransferTracker transferTracker;
 
@@ -60,6 +73,30 @@ class TransferTrackerTest {
             verify(transferService).startTransfer("transfer-123", 1024L, "/data/test.dat");
         }
 
+        @Test
+        @DisplayName("should take over the reception a restart continues")
+        void shouldTakeOverRestartedReception(@TempDir Path tempDir) throws Exception {
+            Path partial = java.nio.file.Files.writeString(tempDir.resolve("test.dat_1"), "partial");
+            TransferRecord gone = TransferRecord.builder().transferId("failed-1")
+                    .localPath(tempDir.resolve("missing").toString()).build();
+            TransferRecord interrupted = TransferRecord.builder().transferId("interrupted-1")
+                    .localPath(partial.toString()).build();
+            when(transferService.findRestartable("partner-1", "test.dat", TransferDirection.RECEIVE))
+                    .thenReturn(List.of(gone, interrupted));
+            TransferRecord record = new TransferRecord();
+            record.setTransferId("transfer-123");
+            when(transferService.createTransfer(anyString(), anyString(), anyString(),
+                    anyString(), anyString(), any(TransferDirection.class), anyString()))
+                    .thenReturn(record);
+            sessionContext.startTransfer();
+
+            assertEquals(partial, transferTracker.findRestartPath(sessionContext, "test.dat"));
+            transferTracker.trackTransferStart(sessionContext, "server-1", "node-1",
+                    TransferDirection.RECEIVE, "test.dat", null, partial.toString());
+
+            verify(transferService).markResumed("interrupted-1", "transfer-123");
+        }
+
         @Test
         @DisplayName("should handle exception gracefully when tracking start fails")
         void shouldHandleExceptionWhenTrackingStartFails() {
@@ -84,7 +121,7 @@ class TransferTrackerTest {
 
             transferTracker.trackProgress(sessionContext, 512L);
 
-            verify(transferService).updateProgress("transfer-123", 512L);
+            verify(progressWriter).recordProgress("transfer-123", 512L);
         }
 
         @Test
@@ -99,7 +136,7 @@ class TransferTrackerTest {
         @DisplayName("should handle exception gracefully when tracking progress fails")
         void shouldHandleExceptionWhenTrackingProgressFails() {
             sessionContext.setTransferRecordId("transfer-123");
-            doThrow(new RuntimeException("Update failed")).when(transferService).updateProgress(anyString(), anyLong());
+            doThrow(new RuntimeException("Update failed")).when(progressWriter).recordProgress(anyString(), anyLong());
 
             assertDoesNotThrow(() -> transferTracker.trackProgress(sessionContext, 512L));
         }
@@ -116,7 +153,24 @@ class TransferTrackerTest {
 
             transferTracker.trackSyncPoint(sessionContext, 1000L);
 
-            verify(transferService).recordSyncPoint("transfer-123", 1000L);
+            verify(progressWriter).recordSyncPoint("transfer-123", 1000L);
+        }
+
+        @Test
+        @DisplayName("should checkpoint the digest when the transfer records a sync point")
+        void shouldCheckpointDigest() throws Exception {
+            TransferContext transferContext = new TransferContext();
+            transferContext.setLocalPath(Path.of("/data/in.dat"));
+            sessionContext.setCurrentTransfer(transferContext);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            when(integrityService.resumeDigest("/data/in.dat", 0)).thenReturn(digest);
+
+            transferTracker.startChecksum(sessionContext, 0);
+            transferTracker.trackSyncPoint(sessionContext, 1000L);
+            verify(integrityService, never()).checkpoint(anyString(), anyLong(), any());
+            transferContext.getDigestCheckpoint().accept(digest, 1000L);
+
+            verify(integrityService).checkpoint("/data/in.dat", 1000L, digest);
         }
 
         @Test
@@ -154,8 +208,32 @@ class TransferTrackerTest {
 
             transferTracker.trackTransferComplete(sessionContext);
 
-            verify(transferService).updateProgress("transfer-123", 4L);
-            verify(transferService).completeTransfer(eq("transfer-123"), any());
+            InOrder inOrder = inOrder(progressWriter, transferService);
+            inOrder.verify(progressWriter).recordProgress("transfer-123", 4L);
+            inOrder.verify(progressWriter).flush("transfer-123");
+            inOrder.verify(transferService).completeTransfer(eq("transfer-123"), any());
+        }
+
+        @Test
+        @DisplayName("should persist the checksum computed while receiving")
+        void shouldStoreInlineChecksum() throws Exception {
+            sessionContext.setTransferRecordId("transfer-123");
+            sessionContext.setOurServerId("server-1");
+            TransferContext transferContext = new TransferContext();
+            transferContext.setLocalPath(Path.of("/data/in.dat"));
+            transferContext.setBytesTransferred(4L);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("data".getBytes());
+            transferContext.setDigest(digest);
+            sessionContext.setCurrentTransfer(transferContext);
+            String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest("data".getBytes()));
+
+            transferTracker.trackTransferComplete(sessionContext);
+
+            verify(transferService).completeTransfer("transfer-123", expected);
+            verify(integrityService).storeReceivedChecksum("in.dat", 4L, expected, "transfer-123",
+                    "partner-1", "server-1", "/data/in.dat");
+            assertNull(transferContext.getDigest());
         }
 
         @Test
@@ -226,7 +304,9 @@ class TransferTrackerTest {
 
             transferTracker.trackTransferInterrupted(sessionContext, "Connection lost");
 
-            verify(transferService).interruptTransfer("transfer-123", "Connection lost");
+            InOrder inOrder = inOrder(progressWriter, transferService);
+            inOrder.verify(progressWriter).flush("transfer-123");
+            inOrder.verify(transferService).interruptTransfer("transfer-123", "Connection lost");
             // Transfer ID should NOT be cleared for potential resume
             assertEquals("transfer-123", sessionContext.getTransferRecordId());
         }
@@ -252,7 +332,9 @@ class TransferTrackerTest {
             int count = transferTracker.markInterruptedTransfers("node-1");
 
             assertEquals(5, count);
-            verify(transferService).markInterruptedTransfers("node-1");
+            InOrder inOrder = inOrder(progressWriter, transferService);
+            inOrder.verify(progressWriter).flush();
+            inOrder.verify(transferService).markInterruptedTransfers("node-1");
         }
     }
 
@@ -264,7 +346,7 @@ class TransferTrackerTest {
         @DisplayName("should handle exception when sync point tracking fails")
         void shouldHandleExceptionWhenSyncPointFails() {
             sessionContext.setTransferRecordId("transfer-123");
-            doThrow(new RuntimeException("Database error")).when(transferService).recordSyncPoint(anyString(),
+            doThrow(new RuntimeException("Database error")).when(progressWriter).recordSyncPoint(anyString(),
                     anyLong());
 
             assertDoesNotThrow(() -> transferTracker.trackSyncPoint(sessionContext, 1000L));
@@ -319,7 +401,7 @@ class TransferTrackerTest {
 
             transferTracker.trackTransferComplete(sessionContext);
 
-            verify(transferService).updateProgress("transfer-123", 1024L);
+            verify(progressWriter).recordProgress("transfer-123", 1024L);
             verify(transferService).completeTransfer(eq("transfer-123"), isNull());
         }
 